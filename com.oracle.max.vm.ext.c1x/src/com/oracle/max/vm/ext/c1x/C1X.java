@@ -47,6 +47,7 @@ import com.sun.max.vm.*;
 import com.sun.max.vm.MaxineVM.*;
 import com.sun.max.vm.actor.holder.*;
 import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.code.*;
 import com.sun.max.vm.compiler.*;
 import com.sun.max.vm.compiler.deopt.*;
 import com.sun.max.vm.compiler.deps.*;
@@ -57,7 +58,7 @@ import com.sun.max.vm.thread.*;
 /**
  * Integration of the C1X compiler into Maxine's compilation framework.
  */
-public class C1X extends RuntimeCompiler.DefaultNameAdapter implements RuntimeCompiler {
+public class C1X extends RuntimeCompiler.DefaultNameAdapter implements RuntimeCompiler, RuntimeCompiler.OnStackReplacementSupport {
 
     /**
      * The Maxine specific implementation of the {@linkplain RiRuntime runtime interface} needed by C1X.
@@ -251,23 +252,55 @@ public class C1X extends RuntimeCompiler.DefaultNameAdapter implements RuntimeCo
     }
 
     public TargetMethod compile(final ClassMethodActor method, boolean isDeopt, boolean install, CiStatistics stats) {
+        return compile(method, -1, install, stats);
+    }
+
+    public TargetMethod compileOSR(ClassMethodActor method, int osrBCI) {
+        assert osrBCI >= 0;
+        return compile(method, osrBCI, true, null);
+    }
+
+    private TargetMethod compile(final ClassMethodActor method, int osrBCI, boolean install, CiStatistics stats) {
         CiTargetMethod compiledMethod;
+        boolean persistent = install && osrBCI < 0 && !method.isTemplate() && PersistentCodeCache.isEnabled();
+        CiTargetMethod cachedMethod = persistent ? PersistentCodeCache.lookup(method) : null;
         do {
-            DebugInfoLevel debugInfoLevel = method.isTemplate() ? DebugInfoLevel.REF_MAPS : DebugInfoLevel.FULL;
-            compiledMethod = compiler().compileMethod(method, -1, stats, debugInfoLevel).targetMethod();
+            boolean fromCache = cachedMethod != null;
+            PersistentCodeCache.Embeddings embeddings = null;
+            if (fromCache) {
+                compiledMethod = cachedMethod;
+                cachedMethod = null;
+            } else {
+                DebugInfoLevel debugInfoLevel = method.isTemplate() ? DebugInfoLevel.REF_MAPS : DebugInfoLevel.FULL;
+                PersistentCodeCache.Embeddings outer = persistent ? PersistentCodeCache.beginCompilation() : null;
+                try {
+                    compiledMethod = compiler().compileMethod(method, osrBCI, stats, debugInfoLevel).targetMethod();
+                } finally {
+                    if (persistent) {
+                        embeddings = PersistentCodeCache.endCompilation(outer);
+                    }
+                }
+            }
 
             Dependencies deps = Dependencies.validateDependencies(compiledMethod.assumptions());
+            if (deps == Dependencies.INVALID && fromCache) {
+                PersistentCodeCache.reject(method);
+            }
             if (deps != Dependencies.INVALID) {
                 if (C1XOptions.PrintTimers) {
                     C1XTimers.INSTALL.start();
                 }
-                MaxTargetMethod maxTargetMethod = new MaxTargetMethod(method, compiledMethod, install);
+                int returnStackAdjustment = osrBCI < 0 ? 0 : runtime.getOsrReturnStackAdjustment(method);
+                MaxTargetMethod maxTargetMethod = new MaxTargetMethod(method, compiledMethod, install, returnStackAdjustment);
                 if (C1XOptions.PrintTimers) {
                     C1XTimers.INSTALL.stop();
                 }
                 if (deps != null) {
                     Dependencies.registerValidatedTarget(deps, maxTargetMethod);
                 }
+                if (persistent && !fromCache) {
+                    PersistentCodeCache.record(method, compiledMethod, embeddings);
+                }
                 TTY.Filter filter = new TTY.Filter(C1XOptions.PrintFilter, method);
                 try {
                     printMachineCode(compiledMethod, maxTargetMethod, false);
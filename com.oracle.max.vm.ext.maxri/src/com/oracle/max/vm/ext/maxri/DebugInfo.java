@@ -42,6 +42,7 @@ import com.sun.max.vm.actor.holder.*;
 import com.sun.max.vm.actor.member.*;
 import com.sun.max.vm.compiler.*;
 import com.sun.max.vm.compiler.target.TargetMethod.*;
+import com.sun.max.vm.heap.*;
 import com.sun.max.vm.reference.*;
 import com.sun.max.vm.runtime.*;
 
@@ -384,7 +385,8 @@ public final class DebugInfo {
         int fpt = (tm.totalRefMapSize()) * tm.safepoints().size();
         CiBitMap regRefMap = regRefMapAt(index);
         CiBitMap frameRefMap = frameRefMapAt(index);
-        CiFrame frame = decodeFrame(in, fpt, index, fa, regRefMap, frameRefMap, stackSlotAsAddress);
+        Map<Integer, Object> virtualObjects = fa == null ? null : new HashMap<Integer, Object>();
+        CiFrame frame = decodeFrame(in, fpt, index, fa, virtualObjects, regRefMap, frameRefMap, stackSlotAsAddress);
         return new CiDebugInfo(frame, regRefMap, frameRefMap);
     }
 
@@ -417,10 +419,12 @@ public final class DebugInfo {
      * Decodes a frame denoted by a given frame index.
      * @param fpt the position of the FPT in {@link #data}
      * @param frameIndex the index of an entry in the FPT
+     * @param virtualObjects the objects materialized so far for the {@linkplain CiVirtualObject virtual objects}
+     *            in the debug info being decoded, keyed by {@linkplain CiVirtualObject#id() id} ({@code null} if {@code fa == null})
      * @param stackSlotAsAddress translate stack slots to stack addresses
      * @return the decoded frame
      */
-    CiFrame decodeFrame(DecodingStream in, int fpt, int frameIndex, FrameAccess fa, CiBitMap regRefMap, CiBitMap frameRefMap, boolean stackSlotAsAddress) {
+    CiFrame decodeFrame(DecodingStream in, int fpt, int frameIndex, FrameAccess fa, Map<Integer, Object> virtualObjects, CiBitMap regRefMap, CiBitMap frameRefMap, boolean stackSlotAsAddress) {
         int framePos = framePos(fpt, frameIndex);
         if (framePos == 0) {
             return null;
@@ -454,7 +458,7 @@ public final class DebugInfo {
         for (int i = 0; i < n; i++) {
             CiValue value = readValue(in, regRefMap, frameRefMap);
             if (fa != null) {
-                value = toLiveSlot(fa, value);
+                value = toLiveSlot(fa, value, virtualObjects);
             } else {
                 if (stackSlotAsAddress && value != null && value.isStackSlot()) {
                     CiStackSlot ss = (CiStackSlot) value;
@@ -486,13 +490,18 @@ public final class DebugInfo {
         if (encCallerIndex != NO_FRAME) {
             int callerIndex = encCallerIndex - FIRST_FRAME;
             assert frameIndex != callerIndex;
-            caller = decodeFrame(in, fpt, callerIndex, fa, regRefMap, frameRefMap, stackSlotAsAddress);
+            caller = decodeFrame(in, fpt, callerIndex, fa, virtualObjects, regRefMap, frameRefMap, stackSlotAsAddress);
         }
         return new CiFrame(caller, method, bci, rethrowException, values, numLocals, numStack, numLocks);
     }
 
-    private static CiValue toLiveSlot(FrameAccess fa, CiValue value) {
-        if (value.isRegister()) {
+    private static CiValue toLiveSlot(FrameAccess fa, CiValue value, Map<Integer, Object> virtualObjects) {
+        if (value instanceof CiVirtualObject) {
+            value = CiConstant.forObject(materialize(fa, (CiVirtualObject) value, virtualObjects));
+        } else if (value.isMonitor()) {
+            CiMonitorValue monitor = (CiMonitorValue) value;
+            value = new CiMonitorValue(toLiveSlot(fa, monitor.owner, virtualObjects), null, monitor.eliminated);
+        } else if (value.isRegister()) {
             CiRegister reg = value.asRegister();
             CiCalleeSaveLayout csl = fa.csl;
             assert csl != null : "cannot recover value for " + reg;
@@ -534,6 +543,43 @@ public final class DebugInfo {
         return value;
     }
 
+    /**
+     * Allocates the object whose allocation was removed by escape analysis and initializes its fields.
+     * An object referred to more than once in the debug info being decoded is only materialized once.
+     */
+    private static Object materialize(FrameAccess fa, CiVirtualObject vobj, Map<Integer, Object> virtualObjects) {
+        Object object = virtualObjects.get(vobj.id());
+        if (object != null) {
+            return object;
+        }
+        ClassActor classActor = (ClassActor) vobj.type();
+        object = Heap.createTuple(classActor.dynamicHub());
+        virtualObjects.put(vobj.id(), object);
+
+        RiResolvedField[] fields = CiVirtualObject.instanceFields(classActor);
+        CiValue[] values = vobj.values();
+        assert fields.length == values.length : "field count mismatch for virtual " + classActor;
+        for (int i = 0; i < fields.length; i++) {
+            FieldActor fieldActor = (FieldActor) fields[i];
+            CiConstant c = (CiConstant) toLiveSlot(fa, values[i], virtualObjects);
+            // Checkstyle: stop
+            switch (fieldActor.kind.asEnum) {
+                case BOOLEAN:   fieldActor.setBoolean(object, c.asInt() != 0); break;
+                case BYTE:      fieldActor.setByte(object, (byte) c.asInt()); break;
+                case CHAR:      fieldActor.setChar(object, (char) c.asInt()); break;
+                case SHORT:     fieldActor.setShort(object, (short) c.asInt()); break;
+                case INT:       fieldActor.setInt(object, c.asInt()); break;
+                case FLOAT:     fieldActor.setFloat(object, c.asFloat()); break;
+                case LONG:      fieldActor.setLong(object, c.asLong()); break;
+                case DOUBLE:    fieldActor.setDouble(object, c.asDouble()); break;
+                case REFERENCE: fieldActor.setObject(object, c.asObject()); break;
+                default:        throw FatalError.unexpected("Unexpected field kind: " + fieldActor);
+            }
+            // Checkstyle: resume
+        }
+        return object;
+    }
+
 
     @Override
     public String toString() {
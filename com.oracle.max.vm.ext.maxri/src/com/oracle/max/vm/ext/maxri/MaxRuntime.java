@@ -60,6 +60,7 @@ import com.sun.max.vm.bytecode.*;
 import com.sun.max.vm.compiler.*;
 import com.sun.max.vm.compiler.target.*;
 import com.sun.max.vm.runtime.*;
+import com.sun.max.vm.stack.*;
 import com.sun.max.vm.ti.*;
 import com.sun.max.vm.type.*;
 import com.sun.max.vm.value.*;
@@ -523,4 +524,9 @@ public class MaxRuntime implements RiRuntime {
         return 0;
     }
 
+    public int getOsrReturnStackAdjustment(RiResolvedMethod method) {
+        // OSR always replaces a baseline frame whose callee pops the parameters
+        return ((ClassMethodActor) method).numberOfParameterSlots() * JVMSFrameLayout.JVMS_SLOT_SIZE;
+    }
+
 }
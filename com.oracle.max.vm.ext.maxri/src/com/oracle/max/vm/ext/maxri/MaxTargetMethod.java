@@ -113,9 +113,24 @@ public class MaxTargetMethod extends TargetMethod implements Cloneable {
 
     private CiTargetMethod debugCiTargetMethod;
 
+    /**
+     * The number of bytes popped off the stack by the return instruction(s) of this method.
+     * This is only non-zero for code compiled for on-stack replacement.
+     */
+    private final int returnStackAdjustment;
+
     public MaxTargetMethod(ClassMethodActor classMethodActor, CiTargetMethod ciTargetMethod, boolean install) {
+        this(classMethodActor, ciTargetMethod, install, 0);
+    }
+
+    /**
+     * Creates a target method whose return instruction(s) pop {@code returnStackAdjustment} bytes
+     * off the stack in addition to the return address.
+     */
+    public MaxTargetMethod(ClassMethodActor classMethodActor, CiTargetMethod ciTargetMethod, boolean install, int returnStackAdjustment) {
         super(classMethodActor, CallEntryPoint.OPTIMIZED_ENTRY_POINT);
         assert classMethodActor != null;
+        this.returnStackAdjustment = returnStackAdjustment;
         List<CodeAnnotation> annotations = ciTargetMethod.annotations();
         this.annotations = annotations == null ? null : annotations.toArray(new CodeAnnotation[annotations.size()]);
         init(ciTargetMethod, install);
@@ -778,6 +793,11 @@ public class MaxTargetMethod extends TargetMethod implements Cloneable {
         throw FatalError.unimplemented("acceptStackFrameVisitor");
     }
 
+    @Override
+    public int returnStackAdjustment() {
+        return returnStackAdjustment;
+    }
+
     /**
      * Advances the cursor to the caller's frame.
      * @param current the current frame
@@ -50,6 +50,7 @@ import com.sun.max.vm.actor.holder.*;
 import com.sun.max.vm.actor.member.*;
 import com.sun.max.vm.classfile.constant.*;
 import com.sun.max.vm.classfile.constant.UnresolvedType.*;
+import com.sun.max.vm.code.*;
 import com.sun.max.vm.compiler.*;
 import com.sun.max.vm.compiler.target.*;
 import com.sun.max.vm.heap.*;
@@ -127,6 +128,7 @@ public class MaxXirGenerator implements RiXirGenerator {
 
     private XirPair invokeVirtualTemplates;
     private XirPair invokeInterfaceTemplates;
+    private XirTemplate invokeInterfaceInlineCacheTemplate;
     private InvokeSpecialTemplates invokeSpecialTemplates;
     private XirPair invokeStaticTemplates;
     private XirPair[] newArrayTemplates;
@@ -165,6 +167,8 @@ public class MaxXirGenerator implements RiXirGenerator {
 
     private XirTemplate typeAssertTemplate;
 
+    private XirTemplate bimorphicTypeAssertTemplate;
+
     private XirTemplate exceptionObjectTemplate;
 
     public final List<XirTemplate> stubs = new ArrayList<XirTemplate>();
@@ -283,6 +287,7 @@ public class MaxXirGenerator implements RiXirGenerator {
 
         invokeVirtualTemplates = buildInvokeVirtual();
         invokeInterfaceTemplates = buildInvokeInterface();
+        invokeInterfaceInlineCacheTemplate = buildInvokeInterfaceInlineCache();
         invokeSpecialTemplates = buildInvokeSpecial();
         invokeStaticTemplates = buildInvokeStatic();
 
@@ -322,6 +327,7 @@ public class MaxXirGenerator implements RiXirGenerator {
         materializedInstanceofForNonLeafTemplate = buildMaterializeInstanceOf(false, false);
 
         typeAssertTemplate = buildTypeAssert();
+        bimorphicTypeAssertTemplate = buildBimorphicTypeAssert();
 
         exceptionObjectTemplate = buildExceptionObject();
 
@@ -419,13 +425,25 @@ public class MaxXirGenerator implements RiXirGenerator {
         return new XirSnippet(invokeHandleTemplate, actor);
     }
 
+    /**
+     * Gets an argument for the {@linkplain ClassActor#id id} of a class, which is specific to the current run.
+     */
+    private static XirArgument classID(ClassActor classActor) {
+        PersistentCodeCache.noteClassID(classActor);
+        return XirArgument.forInt(classActor.id);
+    }
+
     @Override
     public XirSnippet genInvokeInterface(XirSite site, XirArgument receiver, RiMethod method) {
         XirPair pair = invokeInterfaceTemplates;
         if (method instanceof RiResolvedMethod) {
             InterfaceMethodActor methodActor = (InterfaceMethodActor) method;
-            XirArgument interfaceID = XirArgument.forInt(methodActor.holder().id);
+            XirArgument interfaceID = classID(methodActor.holder());
             XirArgument methodIndex = XirArgument.forInt(methodActor.iIndexInInterface());
+            if (InlineCache.enabled()) {
+                XirArgument cache = XirArgument.forObject(new InlineCache(methodActor));
+                return new XirSnippet(invokeInterfaceInlineCacheTemplate, receiver, cache, interfaceID, methodIndex);
+            }
             return new XirSnippet(pair.resolved, receiver, interfaceID, methodIndex);
         }
         XirArgument guard = XirArgument.forObject(guardFor(method));
@@ -628,8 +646,7 @@ public class MaxXirGenerator implements RiXirGenerator {
                 // can use the class test
                 template = checkcastForNonLeafTemplate.resolved;
                 ClassActor classActor = (ClassActor) resolvedType;
-                int typeID = classActor.id;
-                return new XirSnippet(template, object, XirArgument.forInt(typeID), hub);
+                return new XirSnippet(template, object, classID(classActor), hub);
             }
             return new XirSnippet(template, object, hub);
         }
@@ -649,8 +666,7 @@ public class MaxXirGenerator implements RiXirGenerator {
             } else {
                 template = instanceofForNonLeafTemplate.resolved;
                 ClassActor classActor = (ClassActor) type;
-                int typeID = classActor.id;
-                return new XirSnippet(template, object, XirArgument.forInt(typeID), hub);
+                return new XirSnippet(template, object, classID(classActor), hub);
             }
         }
         XirArgument guard = guardFor(type);
@@ -674,8 +690,7 @@ public class MaxXirGenerator implements RiXirGenerator {
             } else {
                 template = materializedInstanceofForNonLeafTemplate.resolved;
                 ClassActor classActor = (ClassActor) type;
-                int typeID = classActor.id;
-                return new XirSnippet(template, receiver, hub, trueValue, falseValue, XirArgument.forInt(typeID));
+                return new XirSnippet(template, receiver, hub, trueValue, falseValue, classID(classActor));
             }
         } else {
             XirArgument guard = guardFor(type);
@@ -690,6 +705,13 @@ public class MaxXirGenerator implements RiXirGenerator {
         return new XirSnippet(typeAssertTemplate, object, hub);
     }
 
+    @Override
+    public XirSnippet genTypeCheck(XirSite site, XirArgument object, XirArgument hub, RiType type, XirArgument otherHub, RiType otherType) {
+        assert type instanceof RiResolvedType && otherType instanceof RiResolvedType;
+        assert site.isNonNull(object);
+        return new XirSnippet(bimorphicTypeAssertTemplate, object, hub, otherHub);
+    }
+
     @Override
     public XirSnippet genArrayLoad(XirSite site, XirArgument array, XirArgument index, CiKind elementKind, RiType elementType) {
         XirTemplate template;
@@ -992,6 +1014,65 @@ public class MaxXirGenerator implements RiXirGenerator {
         return new XirPair(resolved, unresolved);
     }
 
+    /**
+     * Builds the template for a resolved interface call that first probes the {@link InlineCache} of the call site.
+     * A megamorphic cache is detected before any entry is probed and its call site looks the itable slot up as in
+     * the regular invokeinterface template. Otherwise, on a hit the itable slot of the receiver's hub is taken from
+     * the cache and on a miss it is resolved and linked into the cache by {@link InlineCache#miss}.
+     */
+    @HOSTED_ONLY
+    private XirTemplate buildInvokeInterfaceInlineCache() {
+        asm.restart();
+        XirParameter receiver = asm.createInputParameter("receiver", CiKind.Object);
+        XirParameter cache = asm.createInputParameter("cache", CiKind.Object);
+        XirParameter interfaceID = asm.createConstantInputParameter("interfaceID", CiKind.Int);
+        XirParameter methodIndex = asm.createConstantInputParameter("methodIndex", CiKind.Int);
+        XirOperand hub = asm.createTemp("hub", CiKind.Object);
+        XirOperand entries = asm.createTemp("entries", CiKind.Object);
+        XirOperand entry = asm.createTemp("entry", CiKind.Object);
+        XirOperand slot = asm.createTemp("slot", CiKind.Int);
+        XirOperand a = asm.createTemp("a", CiKind.Int);
+        XirOperand result = asm.createTemp("result", WordUtil.archKind());
+        XirLabel hit = asm.createInlineLabel("hit");
+        XirLabel done = asm.createInlineLabel("done");
+        XirLabel megamorphic = asm.createOutOfLineLabel("megamorphic");
+        XirLabel miss = asm.createOutOfLineLabel("miss");
+
+        ClassActor inlineCacheActor = ClassActor.fromJava(InlineCache.class);
+        asm.pload(CiKind.Object, hub, receiver, asm.i(hubOffset()), true);
+        asm.pload(CiKind.Int, slot, cache, asm.i(FieldActor.findInstance(inlineCacheActor, "state").offset()), false);
+        asm.jeq(megamorphic, slot, asm.i(InlineCache.MEGAMORPHIC));
+        asm.pload(CiKind.Object, entries, cache, asm.i(FieldActor.findInstance(inlineCacheActor, "hubs").offset()), false);
+        for (int i = 0; i < InlineCache.MAX_ENTRIES; i++) {
+            asm.pload(CiKind.Object, entry, entries, asm.i(offsetOfFirstArrayElement() + i * Word.size()), false);
+            asm.mov(slot, asm.i(offsetOfFirstArrayElement() + i * 4));
+            asm.jeq(hit, hub, entry);
+        }
+        asm.jmp(miss);
+        asm.bindInline(hit);
+        asm.pload(CiKind.Object, entries, cache, asm.i(FieldActor.findInstance(inlineCacheActor, "indices").offset()), false);
+        asm.pload(CiKind.Int, a, entries, slot, false);
+        asm.bindInline(done);
+        asm.pload(WordUtil.archKind(), result, hub, a, offsetOfFirstArrayElement(), Scale.fromInt(Word.size()), false);
+
+        asm.bindOutOfLine(megamorphic);
+        asm.pload(CiKind.Int, slot, hub, asm.i(offsetOfMTableLength()), false);
+        asm.mod(a, interfaceID, slot);
+        asm.pload(CiKind.Int, slot, hub, asm.i(offsetOfMTableStartIndex()), false);
+        asm.add(a, a, slot);
+        asm.pload(CiKind.Int, a, hub, a, offsetOfFirstArrayElement(), Scale.Times4, false);
+        asm.add(a, a, methodIndex);
+        asm.jmp(done);
+
+        asm.bindOutOfLine(miss);
+        // a cache that became megamorphic since its state was read is handled by the miss handler
+        callRuntimeThroughStub(asm, "inlineCacheMiss", a, cache, receiver);
+        // the hub temp is not preserved across the runtime call
+        asm.pload(CiKind.Object, hub, receiver, asm.i(hubOffset()), false);
+        asm.jmp(done);
+        return finishTemplate(asm, result, "invokeinterface-inlinecache");
+    }
+
     @HOSTED_ONLY
     private XirPair buildInvokeVirtual() {
         XirTemplate resolved;
@@ -1784,6 +1865,31 @@ public class MaxXirGenerator implements RiXirGenerator {
         return asm.finishTemplate(object, "typeCheck");
     }
 
+    @HOSTED_ONLY
+    private XirTemplate buildBimorphicTypeAssert() {
+        asm.restart();
+        XirParameter object = asm.createInputParameter("object", CiKind.Object);
+        XirOperand hub = asm.createConstantInputParameter("hub", CiKind.Object);
+        XirOperand otherHub = asm.createConstantInputParameter("otherHub", CiKind.Object);
+
+        XirOperand objHub = asm.createTemp("objHub", CiKind.Object);
+        XirLabel match = asm.createInlineLabel("match");
+        XirLabel slowPath = asm.createOutOfLineLabel("deopt");
+
+        asm.pload(CiKind.Object, objHub, object, asm.i(hubOffset()), false);
+        // if we get an exact match with either hub: continue
+        asm.jeq(match, objHub, hub);
+        asm.jneq(slowPath, objHub, otherHub);
+        asm.bindInline(match);
+
+        // -- out of line -------------------------------------------------------
+        asm.bindOutOfLine(slowPath);
+        asm.callRuntime(CiRuntimeCall.Deoptimize, null);
+        asm.shouldNotReachHere();
+
+        return asm.finishTemplate(object, "typeCheck2");
+    }
+
     @HOSTED_ONLY
     private XirPair buildInstanceofForNonLeaf(boolean nonnull) {
         XirTemplate resolved;
@@ -2067,6 +2173,10 @@ public class MaxXirGenerator implements RiXirGenerator {
             return Snippets.resolveInterfaceMethod(guard).holder().id;
         }
 
+        public static int inlineCacheMiss(InlineCache cache, Object receiver) {
+            return InlineCache.miss(cache, receiver);
+        }
+
         public static Word invokeHandle(ClassMethodActor actor) {
             return Snippets.makeEntrypoint(actor, OPTIMIZED_ENTRY_POINT);
         }
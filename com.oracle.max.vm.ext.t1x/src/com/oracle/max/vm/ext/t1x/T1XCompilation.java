@@ -43,6 +43,7 @@ import com.sun.max.vm.actor.member.*;
 import com.sun.max.vm.classfile.*;
 import com.sun.max.vm.classfile.constant.*;
 import com.sun.max.vm.compiler.*;
+import com.sun.max.vm.compiler.deopt.*;
 import com.sun.max.vm.compiler.target.*;
 import com.sun.max.vm.intrinsics.*;
 import com.sun.max.vm.profile.*;
@@ -2052,15 +2053,43 @@ public abstract class T1XCompilation {
         emitEpilogue();
     }
 
-    protected void do_profileBackwardBranch() {
+    /**
+     * Profiles a backward branch.
+     *
+     * @param bci the bytecode index of the branch instruction
+     * @param targetBCI the bytecode index of the branch target
+     */
+    protected void do_profileBackwardBranch(int bci, int targetBCI) {
         if (methodProfileBuilder != null) {
             // Profiling of backward branches.
             start(PROFILE_BACKWARD_BRANCH);
             assignObject(0, "mpo", methodProfileBuilder.methodProfileObject());
+            assignInt(1, "osrBCI", canReplaceOnStack(bci) ? targetBCI : -1);
             finish();
         }
     }
 
+    /**
+     * Determines if on-stack replacement can be requested from the "taken" code of the backward branch at a given bci.
+     * The reference map at the branch describes the operand stack before the operands of the branch are popped, so
+     * it is not used for branches that pop references. Synchronized methods are excluded as their frames hold a lock.
+     */
+    private boolean canReplaceOnStack(int bci) {
+        if (!OnStackReplacement.isEnabled() || method.isSynchronized()) {
+            return false;
+        }
+        assert stream.currentBCI() == bci;
+        switch (stream.currentBC()) {
+            case Bytecodes.IF_ACMPEQ:
+            case Bytecodes.IF_ACMPNE:
+            case Bytecodes.IFNULL:
+            case Bytecodes.IFNONNULL:
+                return false;
+            default:
+                return true;
+        }
+    }
+
     protected void do_safepointAtBackwardBranch(int bci) {
         // Ideally, we'd like to emit a safepoint at the target of a backward branch.
         // However, that would require at least one extra pass to determine where
@@ -2136,7 +2165,7 @@ public abstract class T1XCompilation {
             finish();
 
             if (bci >= targetBCI) {
-                do_profileBackwardBranch();
+                do_profileBackwardBranch(bci, targetBCI);
             }
         }
     }
@@ -184,6 +184,12 @@ public class T1XTargetMethod extends TargetMethod {
      */
     private int survivedEvictions = 0;
 
+    /**
+     * Value of the entry/backedge counter of the {@link #profile} when last {@linkplain #sampleCold() sampled}
+     * ({@code 0} once sampled if there is no profile), or {@link Integer#MIN_VALUE} if never sampled.
+     */
+    private int sampledEntryBackedgeCount = Integer.MIN_VALUE;
+
     public T1XTargetMethod(T1XCompilation comp, boolean install) {
         super(comp.method, CallEntryPoint.BASELINE_ENTRY_POINT);
         codeAttribute = comp.codeAttribute;
@@ -299,6 +305,24 @@ public class T1XTargetMethod extends TargetMethod {
         ++survivedEvictions;
     }
 
+    /**
+     * This method is cold if its entry/backedge counter did not change since the previous sample.
+     * A method is never cold the first time it is sampled. A method without a {@link #profile} has no
+     * counter and is cold from its second sample on.
+     */
+    @Override
+    public boolean sampleCold() {
+        if (profile == null) {
+            final boolean cold = sampledEntryBackedgeCount != Integer.MIN_VALUE;
+            sampledEntryBackedgeCount = 0;
+            return cold;
+        }
+        final int count = profile.entryBackedgeCount;
+        final boolean cold = count == sampledEntryBackedgeCount;
+        sampledEntryBackedgeCount = count;
+        return cold;
+    }
+
     /**
      * This method was {@linkplain CodeEviction evicted} if its {@link #survivedEvictions} counter
      * is smaller than the current eviction count.
@@ -619,28 +619,30 @@ public class AMD64T1XCompilation extends T1XCompilation {
             // Compute relative offset
             final int target = bciToPos[targetBCI];
             if (cc == null) {
-                do_profileBackwardBranch();
+                do_profileBackwardBranch(bci, targetBCI);
                 do_safepointAtBackwardBranch(bci);
                 asm.jmp(target, false);
             } else {
                 ConditionFlag ccNeg = cc.negation();
                 int jumpNotTakenPos = buf.position();
-                final int placeholderForShortJumpDisp = jumpNotTakenPos + 2;
+                // The "taken" code may include an on-stack replacement request, so it
+                // is too large to be reliably skipped by a short jump
+                final int placeholderForLongJumpDisp = jumpNotTakenPos + 6;
                 int fallThroughPos;
 
                 // If condition is false jump to "not taken" code
-                asm.jcc(ccNeg, placeholderForShortJumpDisp, false);
-                assert buf.position() - jumpNotTakenPos == 2;
+                asm.jcc(ccNeg, placeholderForLongJumpDisp, true);
+                assert buf.position() - jumpNotTakenPos == 6;
 
                 // Start of "taken" code
-                do_profileBackwardBranch();
+                do_profileBackwardBranch(bci, targetBCI);
                 do_safepointAtBackwardBranch(bci);
                 asm.jmp(target, false);
 
                 // Start of "not taken" code
                 fallThroughPos = buf.position();
                 buf.setPosition(jumpNotTakenPos);
-                asm.jcc(ccNeg, fallThroughPos, false);
+                asm.jcc(ccNeg, fallThroughPos, true);
                 buf.setPosition(fallThroughPos);
             }
         }
@@ -665,12 +667,13 @@ public class AMD64T1XCompilation extends T1XCompilation {
 
         if (isConditionalBranch) {
             // Start of "not taken" code
-            final int placeholderForShortJumpDisp;
             do_profileNotTakenBranch(bci);
             jumpNotTakenPos = buf.position();
-            placeholderForShortJumpDisp = jumpNotTakenPos + 2;
-            asm.jmp(placeholderForShortJumpDisp, false);
-            assert buf.position() - jumpNotTakenPos == 2;
+            // A backward "taken" code may include an on-stack replacement request
+            // and is then too large to be reliably skipped by a short jump
+            final int jumpSize = isForwardBranch ? 2 : 5;
+            asm.jmp(jumpNotTakenPos + jumpSize, !isForwardBranch);
+            assert buf.position() - jumpNotTakenPos == jumpSize;
         }
 
         // Start of "taken" code
@@ -695,7 +698,7 @@ public class AMD64T1XCompilation extends T1XCompilation {
         if (isConditionalBranch) {
             fallThroughPos = buf.position();
             buf.setPosition(jumpNotTakenPos);
-            asm.jmp(fallThroughPos, false);
+            asm.jmp(fallThroughPos, !isForwardBranch);
             buf.setPosition(fallThroughPos);
         }
 
@@ -712,10 +715,11 @@ public class AMD64T1XCompilation extends T1XCompilation {
         int jumpNotTakenPos = buf.position();
 
         if (isConditionalBranch) {
-            // If condition is false jump to "not taken" code
-            final int placeholderForShortJumpDisp = jumpNotTakenPos + 2;
-            asm.jcc(ccNeg, placeholderForShortJumpDisp, false);
-            assert buf.position() - jumpNotTakenPos == 2;
+            // If condition is false jump to "not taken" code. A backward "taken" code may include
+            // an on-stack replacement request and is then too large to be reliably skipped by a short jump
+            final int jumpSize = isForwardBranch ? 2 : 6;
+            asm.jcc(ccNeg, jumpNotTakenPos + jumpSize, !isForwardBranch);
+            assert buf.position() - jumpNotTakenPos == jumpSize;
         }
 
         // Start of "taken" code
@@ -734,7 +738,7 @@ public class AMD64T1XCompilation extends T1XCompilation {
             // Patch the jump to "not taken" code now that we know where it is going
             int notTakenCodePos = buf.position();
             buf.setPosition(jumpNotTakenPos);
-            asm.jcc(ccNeg, notTakenCodePos, false);
+            asm.jcc(ccNeg, notTakenCodePos, !isForwardBranch);
             buf.setPosition(notTakenCodePos);
             do_profileNotTakenBranch(bci);
         }
@@ -35,4 +35,13 @@ public abstract class VMAdviceHandler extends RuntimeAdvice {
     public void initialise(MaxineVM.Phase phase) {
     }
 
+    /**
+     * Called before {@link #initialise} in the {@code RUNNING} phase if advice is being sampled.
+     * Of every {@code interval} advisable bytecode events on a thread, on average, only a burst of {@code burst}
+     * is advised, so aggregate counts should be scaled by {@code interval / burst}.
+     * Runtime advice, e.g. for GC and thread start/termination, is never sampled.
+     */
+    public void setSampling(int interval, int burst) {
+    }
+
 }
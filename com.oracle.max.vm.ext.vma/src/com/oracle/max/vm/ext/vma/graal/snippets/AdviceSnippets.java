@@ -45,6 +45,7 @@ import com.oracle.max.vm.ext.graal.nodes.*;
 import com.oracle.max.vm.ext.graal.snippets.*;
 import com.oracle.max.vm.ext.vma.*;
 import com.oracle.max.vm.ext.vma.graal.nodes.*;
+import com.oracle.max.vm.ext.vma.run.java.*;
 import com.oracle.max.vm.ext.vma.runtime.*;
 import com.sun.max.annotate.*;
 import com.sun.max.vm.actor.member.*;
@@ -52,7 +53,7 @@ import com.sun.max.vm.actor.member.*;
 /**
  * Snippets to handle the lowering of {@link AdviceNode}s. Since the former is generic, there is
  * a separate level of indirection in here to delegate to a class that handles the specific node
- * being advised.
+ * being advised. Each snippet only calls out if {@link VMASampling#sampleAdvice} allows it.
  */
 public class AdviceSnippets extends SnippetLowerings {
     private Map<NodeClass, AdviceLowering> adviceLowerings = new HashMap<NodeClass, AdviceLowering>();
@@ -194,12 +195,14 @@ public class AdviceSnippets extends SnippetLowerings {
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseAfterMultiNewArraySnippet(int arg1, Object arg2, @ConstantParameter int rank, @VarargsParameter int[] dimensions) {
-        int[] dims = new int[rank];
-        ExplodeLoopNode.explodeLoop();
-        for (int i = 0; i < rank; i++) {
-            dims[i] = dimensions[i];
+        if (VMASampling.sampleAdvice()) {
+            int[] dims = new int[rank];
+            ExplodeLoopNode.explodeLoop();
+            for (int i = 0; i < rank; i++) {
+                dims[i] = dimensions[i];
+            }
+            VMAStaticBytecodeAdvice.adviseAfterMultiNewArray(arg1, arg2, dims);
         }
-        VMAStaticBytecodeAdvice.adviseAfterMultiNewArray(arg1, arg2, dims);
     }
 
     private class ArrayLengthAdviceLowering extends AdviceLowering {
@@ -524,287 +527,395 @@ public class AdviceSnippets extends SnippetLowerings {
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeIfObjectSnippet(int arg1, int arg2, Object arg3, Object arg4, int arg5) {
-        VMAStaticBytecodeAdvice.adviseBeforeIf(arg1, arg2, arg3, arg4, arg5);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeIf(arg1, arg2, arg3, arg4, arg5);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeIfIntSnippet(int arg1, int arg2, int arg3, int arg4, int arg5) {
-        VMAStaticBytecodeAdvice.adviseBeforeIf(arg1, arg2, arg3, arg4, arg5);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeIf(arg1, arg2, arg3, arg4, arg5);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeGetStaticSnippet(int arg1, Object arg2, FieldActor arg3) {
-        if (arg2 == null) {
-            arg2 = arg3.holder().staticTuple();
+        if (VMASampling.sampleAdvice()) {
+            if (arg2 == null) {
+                arg2 = arg3.holder().staticTuple();
+            }
+            VMAStaticBytecodeAdvice.adviseBeforeGetStatic(arg1, arg2, arg3);
         }
-        VMAStaticBytecodeAdvice.adviseBeforeGetStatic(arg1, arg2, arg3);
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforePutStaticObjectSnippet(int arg1, Object arg2, FieldActor arg3, Object arg4) {
-        if (arg2 == null) {
-            arg2 = arg3.holder().staticTuple();
+        if (VMASampling.sampleAdvice()) {
+            if (arg2 == null) {
+                arg2 = arg3.holder().staticTuple();
+            }
+            VMAStaticBytecodeAdvice.adviseBeforePutStatic(arg1, arg2, arg3, arg4);
         }
-        VMAStaticBytecodeAdvice.adviseBeforePutStatic(arg1, arg2, arg3, arg4);
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforePutStaticFloatSnippet(int arg1, Object arg2, FieldActor arg3, float arg4) {
-        if (arg2 == null) {
-            arg2 = arg3.holder().staticTuple();
+        if (VMASampling.sampleAdvice()) {
+            if (arg2 == null) {
+                arg2 = arg3.holder().staticTuple();
+            }
+            VMAStaticBytecodeAdvice.adviseBeforePutStatic(arg1, arg2, arg3, arg4);
         }
-        VMAStaticBytecodeAdvice.adviseBeforePutStatic(arg1, arg2, arg3, arg4);
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforePutStaticDoubleSnippet(int arg1, Object arg2, FieldActor arg3, double arg4) {
-        if (arg2 == null) {
-            arg2 = arg3.holder().staticTuple();
+        if (VMASampling.sampleAdvice()) {
+            if (arg2 == null) {
+                arg2 = arg3.holder().staticTuple();
+            }
+            VMAStaticBytecodeAdvice.adviseBeforePutStatic(arg1, arg2, arg3, arg4);
         }
-        VMAStaticBytecodeAdvice.adviseBeforePutStatic(arg1, arg2, arg3, arg4);
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforePutStaticLongSnippet(int arg1, Object arg2, FieldActor arg3, long arg4) {
-        if (arg2 == null) {
-            arg2 = arg3.holder().staticTuple();
+        if (VMASampling.sampleAdvice()) {
+            if (arg2 == null) {
+                arg2 = arg3.holder().staticTuple();
+            }
+            VMAStaticBytecodeAdvice.adviseBeforePutStatic(arg1, arg2, arg3, arg4);
         }
-        VMAStaticBytecodeAdvice.adviseBeforePutStatic(arg1, arg2, arg3, arg4);
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforePutFieldLongSnippet(int arg1, Object arg2, FieldActor arg3, long arg4) {
-        VMAStaticBytecodeAdvice.adviseBeforePutField(arg1, arg2, arg3, arg4);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforePutField(arg1, arg2, arg3, arg4);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforePutFieldFloatSnippet(int arg1, Object arg2, FieldActor arg3, float arg4) {
-        VMAStaticBytecodeAdvice.adviseBeforePutField(arg1, arg2, arg3, arg4);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforePutField(arg1, arg2, arg3, arg4);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforePutFieldObjectSnippet(int arg1, Object arg2, FieldActor arg3, Object arg4) {
-        VMAStaticBytecodeAdvice.adviseBeforePutField(arg1, arg2, arg3, arg4);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforePutField(arg1, arg2, arg3, arg4);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforePutFieldDoubleSnippet(int arg1, Object arg2, FieldActor arg3, double arg4) {
-        VMAStaticBytecodeAdvice.adviseBeforePutField(arg1, arg2, arg3, arg4);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforePutField(arg1, arg2, arg3, arg4);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeInvokeVirtualSnippet(int arg1, Object arg2, MethodActor arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeInvokeSpecialSnippet(int arg1, Object arg2, MethodActor arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeInvokeSpecial(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeInvokeSpecial(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeInvokeStaticSnippet(int arg1, Object arg2, MethodActor arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeInvokeStatic(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeInvokeStatic(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeInvokeInterfaceSnippet(int arg1, Object arg2, MethodActor arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeThrowSnippet(int arg1, Object arg2) {
-        VMAStaticBytecodeAdvice.adviseBeforeThrow(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeThrow(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeCheckCastSnippet(int arg1, Object arg2, Object arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeCheckCast(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeCheckCast(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeInstanceOfSnippet(int arg1, Object arg2, Object arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeInstanceOf(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeInstanceOf(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeMonitorEnterSnippet(int arg1, Object arg2) {
-        VMAStaticBytecodeAdvice.adviseBeforeMonitorEnter(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeMonitorEnter(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeMonitorExitSnippet(int arg1, Object arg2) {
-        VMAStaticBytecodeAdvice.adviseBeforeMonitorExit(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeMonitorExit(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseAfterLoadSnippet(int arg1, int arg2, Object arg3) {
-        VMAStaticBytecodeAdvice.adviseAfterLoad(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseAfterLoad(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseAfterArrayLoadSnippet(int arg1, Object arg2, int arg3, Object arg4) {
-        VMAStaticBytecodeAdvice.adviseAfterArrayLoad(arg1, arg2, arg3, arg4);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseAfterArrayLoad(arg1, arg2, arg3, arg4);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeLoadSnippet(int arg1, int arg2) {
-        VMAStaticBytecodeAdvice.adviseBeforeLoad(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeLoad(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeStoreSnippet(int arg1, int arg2, long arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeStore(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeStore(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeStoreSnippet(int arg1, int arg2, Object arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeStore(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeStore(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeStoreSnippet(int arg1, int arg2, double arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeStore(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeStore(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeStoreSnippet(int arg1, int arg2, float arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeStore(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeStore(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeConstLoadSnippet(int arg1, double arg2) {
-        VMAStaticBytecodeAdvice.adviseBeforeConstLoad(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeConstLoad(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeConstLoadSnippet(int arg1, long arg2) {
-        VMAStaticBytecodeAdvice.adviseBeforeConstLoad(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeConstLoad(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeConstLoadSnippet(int arg1, Object arg2) {
-        VMAStaticBytecodeAdvice.adviseBeforeConstLoad(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeConstLoad(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeConstLoadSnippet(int arg1, float arg2) {
-        VMAStaticBytecodeAdvice.adviseBeforeConstLoad(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeConstLoad(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeArrayLoadSnippet(int arg1, Object arg2, int arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeArrayLoad(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeArrayLoad(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeArrayStoreObjectSnippet(int arg1, Object arg2, int arg3, Object arg4) {
-        VMAStaticBytecodeAdvice.adviseBeforeArrayStore(arg1, arg2, arg3, arg4);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeArrayStore(arg1, arg2, arg3, arg4);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeArrayStoreDoubleSnippet(int arg1, Object arg2, int arg3, double arg4) {
-        VMAStaticBytecodeAdvice.adviseBeforeArrayStore(arg1, arg2, arg3, arg4);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeArrayStore(arg1, arg2, arg3, arg4);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeArrayStoreFloatSnippet(int arg1, Object arg2, int arg3, float arg4) {
-        VMAStaticBytecodeAdvice.adviseBeforeArrayStore(arg1, arg2, arg3, arg4);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeArrayStore(arg1, arg2, arg3, arg4);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeArrayStoreLongSnippet(int arg1, Object arg2, int arg3, long arg4) {
-        VMAStaticBytecodeAdvice.adviseBeforeArrayStore(arg1, arg2, arg3, arg4);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeArrayStore(arg1, arg2, arg3, arg4);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeStackAdjustSnippet(int arg1, int arg2) {
-        VMAStaticBytecodeAdvice.adviseBeforeStackAdjust(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeStackAdjust(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeOperationSnippet(int arg1, int arg2, double arg3, double arg4) {
-        VMAStaticBytecodeAdvice.adviseBeforeOperation(arg1, arg2, arg3, arg4);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeOperation(arg1, arg2, arg3, arg4);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeOperationSnippet(int arg1, int arg2, float arg3, float arg4) {
-        VMAStaticBytecodeAdvice.adviseBeforeOperation(arg1, arg2, arg3, arg4);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeOperation(arg1, arg2, arg3, arg4);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeOperationSnippet(int arg1, int arg2, long arg3, long arg4) {
-        VMAStaticBytecodeAdvice.adviseBeforeOperation(arg1, arg2, arg3, arg4);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeOperation(arg1, arg2, arg3, arg4);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeConversionSnippet(int arg1, int arg2, double arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeConversion(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeConversion(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeConversionSnippet(int arg1, int arg2, float arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeConversion(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeConversion(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeConversionSnippet(int arg1, int arg2, long arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeConversion(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeConversion(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeGotoSnippet(int arg1, int arg2) {
-        VMAStaticBytecodeAdvice.adviseBeforeGoto(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeGoto(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeReturnFloatSnippet(int arg1, float arg2) {
-        VMAStaticBytecodeAdvice.adviseBeforeReturn(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeReturn(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeReturnDoubleSnippet(int arg1, double arg2) {
-        VMAStaticBytecodeAdvice.adviseBeforeReturn(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeReturn(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeReturnObjectSnippet(int arg1, Object arg2) {
-        VMAStaticBytecodeAdvice.adviseBeforeReturn(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeReturn(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeReturnSnippet(int arg1) {
-        VMAStaticBytecodeAdvice.adviseBeforeReturn(arg1);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeReturn(arg1);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeReturnLongSnippet(int arg1, long arg2) {
-        VMAStaticBytecodeAdvice.adviseBeforeReturn(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeReturn(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseBeforeGetFieldSnippet(int arg1, Object arg2, FieldActor arg3) {
-        VMAStaticBytecodeAdvice.adviseBeforeGetField(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseBeforeGetField(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseAfterNewSnippet(int arg1, Object arg2) {
-        VMAStaticBytecodeAdvice.adviseAfterNew(arg1, arg2);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseAfterNew(arg1, arg2);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseAfterNewArraySnippet(int arg1, Object arg2, int arg3) {
-        VMAStaticBytecodeAdvice.adviseAfterNewArray(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseAfterNewArray(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseAfterArrayLengthSnippet(int arg1, Object arg2, int arg3) {
-        VMAStaticBytecodeAdvice.adviseAfterArrayLength(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseAfterArrayLength(arg1, arg2, arg3);
+        }
     }
 
     @Snippet(inlining = MaxSnippetInliningPolicy.class)
     private static void adviseAfterMethodEntrySnippet(int arg1, Object arg2, MethodActor arg3) {
-        VMAStaticBytecodeAdvice.adviseAfterMethodEntry(arg1, arg2, arg3);
+        if (VMASampling.sampleAdvice()) {
+            VMAStaticBytecodeAdvice.adviseAfterMethodEntry(arg1, arg2, arg3);
+        }
     }
 
 // END GENERATED CODE
@@ -35,6 +35,7 @@ import com.sun.max.vm.thread.*;
  * Counts the advice calls and outputs a summary in {@link #initialise} at termination. Not completely equivalent to
  * counting bytecodes owing to the bundling of similar bytecodes into one advice call, but similar. Counts are
  * maintained per-thread and then totaled. Can be built into the boot image or dynamically loaded.
+ * If advice is sampled, the reported counts for bytecode advice are estimates scaled by the sampling ratio.
  */
 public class CBCVMAdviceHandler extends VMAdviceHandler {
 
@@ -46,6 +47,11 @@ public class CBCVMAdviceHandler extends VMAdviceHandler {
 
     private static boolean done;
 
+    /**
+     * Number of events each bytecode advice call stands for, see {@link #setSampling}.
+     */
+    private static double sampleRatio = 1.0;
+
     private static class ThreadCounts {
         VmThread vmThread;
         long[][] data = new long[AdviceMethod.values().length][AdviceMode.values().length];
@@ -84,6 +90,11 @@ public class CBCVMAdviceHandler extends VMAdviceHandler {
         }
     }
 
+    @Override
+    public void setSampling(int interval, int burst) {
+        sampleRatio = (double) interval / burst;
+    }
+
     @Override
     public void initialise(MaxineVM.Phase phase) {
         if (phase == MaxineVM.Phase.TERMINATING) {
@@ -94,6 +105,9 @@ public class CBCVMAdviceHandler extends VMAdviceHandler {
                 if (logpathProperty != null) {
                     ps = new PrintStream(new FileOutputStream(logpathProperty + ".vma"));
                 }
+                if (sampleRatio != 1.0) {
+                    ps.printf("Bytecode counts estimated from sampled advice, ratio %.2f%n", sampleRatio);
+                }
                 ThreadCounts allThreadCounts = new ThreadCounts();
                 for (int i = 0; i < threadMap.length; i++) {
                     ThreadCounts threadCounts = threadMap[i];
@@ -145,6 +159,10 @@ public class CBCVMAdviceHandler extends VMAdviceHandler {
         for (AdviceMethod am : AdviceMethod.values()) {
             long beforeCount = counts.data[am.ordinal()][0];
             long afterCount = counts.data[am.ordinal()][1];
+            if (counts != allThreadCounts) {
+                beforeCount = estimate(am, beforeCount);
+                afterCount = estimate(am, afterCount);
+            }
             long beforeAfterCount = beforeCount + afterCount;
             ps.printf("  %-20s B:%,d, A:%,d%n", am.name(), beforeCount, afterCount);
             if (counts != allThreadCounts) {
@@ -158,6 +176,17 @@ public class CBCVMAdviceHandler extends VMAdviceHandler {
 
     }
 
+    /**
+     * Scales a per-thread count of bytecode advice by the sampling ratio.
+     * The runtime advice methods, which precede {@link AdviceMethod#New}, are never sampled.
+     */
+    private static long estimate(AdviceMethod am, long count) {
+        if (am.ordinal() < AdviceMethod.New.ordinal()) {
+            return count;
+        }
+        return Math.round(count * sampleRatio);
+    }
+
     public static void onLoad(String args) {
         VMAJavaRunScheme.registerAdviceHandler(new CBCVMAdviceHandler());
     }
@@ -30,6 +30,10 @@ public class Package extends BootImagePackage {
     public Package() {
         super();
         registerScheme(RunScheme.class, VMAJavaRunScheme.class);
+        if (isPartOfMaxineVM(VMConfiguration.activeConfig())) {
+            registerThreadLocal(VMASampling.class, "VMA_SAMPLE_COUNTDOWN");
+            registerThreadLocal(VMASampling.class, "VMA_SAMPLE_BURST");
+        }
     }
 
     @Override
@@ -113,6 +113,12 @@ public class VMAJavaRunScheme extends JavaRunScheme implements JVMTIException.VM
     public static final VmThreadLocal VM_ADVISING = new VmThreadLocal(
             "VM_ADVISING", false, "For use by VM advising framework");
 
+    /**
+     * The value stored in {@link #VM_ADVISING} to enable advising for a thread.
+     * Bit zero enables advising, {@link VMASampling#SAMPLING_BIT} indicates that it is sampled.
+     */
+    private static long advisingBits = 1;
+
     /**
      * Set to {@code true} when {@link VMAOptions.VMA} is set AND the VM is in a state to start advising.
      */
@@ -222,6 +228,10 @@ public class VMAJavaRunScheme extends JavaRunScheme implements JVMTIException.VM
             if (VMAOptions.VMA) {
                 VMAOptions.initialize(phase);
                 if (adviceHandler != null) {
+                    if (VMASampling.isSampling()) {
+                        advisingBits |= 1 << VMASampling.SAMPLING_BIT;
+                        adviceHandler.setSampling(VMASampling.interval(), VMASampling.burst());
+                    }
                     adviceHandler.initialise(phase);
                 } else {
                     Log.println("no VMA handler defined");
@@ -255,7 +265,7 @@ public class VMAJavaRunScheme extends JavaRunScheme implements JVMTIException.VM
      */
     @INLINE
     public static void enableAdvising() {
-        VM_ADVISING.store3(Address.fromLong(1));
+        VM_ADVISING.store3(Address.fromLong(advisingBits));
     }
 
     /**
@@ -384,7 +394,7 @@ public class VMAJavaRunScheme extends JavaRunScheme implements JVMTIException.VM
 
             @Override
             public void run(Pointer tla) {
-                VM_ADVISING.store3(tla, Address.fromLong(1));
+                VM_ADVISING.store3(tla, Address.fromLong(advisingBits));
             }
         }
 
@@ -292,6 +292,7 @@ public class VMAOptions {
         VMOptions.addFieldOption("-XX:", "VMAConfig", VMAOptions.class, "use pre-defined configuration");
         VMOptions.addFieldOption("-XX:", "VMATime", VMAOptions.class, "specify how time is recorded");
         VMOptions.addFieldOption("-XX:", "VMASample", VMAOptions.class, "run in sample mode; interval,period");
+        VMOptions.addFieldOption("-XX:", "VMASampleCount", VMAOptions.class, "sample advice by event count; interval[,burst]");
     }
 
     /**
@@ -361,6 +362,11 @@ public class VMAOptions {
      */
     static String VMASample;
 
+    /**
+     * Sampling by event count, see {@link VMASampling}.
+     */
+    private static String VMASampleCount;
+
     /**
      * If not {@code null} a handler-specific checker for which methods to instrument.
      */
@@ -454,6 +460,10 @@ public class VMAOptions {
             }
         }
 
+        if (VMASampleCount != null) {
+            VMASampling.initialize(VMASampleCount);
+        }
+
         logBytecodeApply();
     }
 
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vm.ext.vma.run.java;
+
+import static com.oracle.max.vm.ext.vma.run.java.VMAJavaRunScheme.*;
+import static com.sun.max.vm.thread.VmThreadLocal.*;
+
+import com.sun.max.annotate.*;
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.thread.*;
+
+/**
+ * Support for sampled advice, enabled with {@code -XX:VMASampleCount=interval[,burst]}.
+ *
+ * When sampling, bit {@link #SAMPLING_BIT} of {@link VMAJavaRunScheme#VM_ADVISING} is set alongside bit zero
+ * and the advice guard in the instrumented code additionally calls {@link #countDown}. This decrements a per-thread
+ * countdown and only lets the advice through when it expires, so that of every {@code interval} advisable
+ * events on a thread, a burst of {@code burst} consecutive events is advised and the rest cost just the
+ * decrement. The gap between bursts is jiggled a little so that it does not stay in phase with loops
+ * in the advised code, but it averages to {@code interval - burst}.
+ *
+ * The handler is told the sampling parameters via {@link com.oracle.max.vm.ext.vma.VMAdviceHandler#setSampling}, so that
+ * it can scale aggregate counts by {@link #ratio()}.
+ *
+ * The countdown is independent of the time-based {@code -XX:VMASample} option, which just switches
+ * {@link VMAJavaRunScheme#VM_ADVISING} on and off for all threads. The two can be combined.
+ */
+public class VMASampling {
+
+    /**
+     * The bit in {@link VMAJavaRunScheme#VM_ADVISING} that indicates that advice is sampled.
+     */
+    public static final int SAMPLING_BIT = 1;
+
+    /**
+     * Number of advisable events left before the next advised one.
+     */
+    public static final VmThreadLocal VMA_SAMPLE_COUNTDOWN =
+        new VmThreadLocal("VMA_SAMPLE_COUNTDOWN", false, "VMA sampled advice countdown", VmThreadLocal.Nature.Single);
+
+    /**
+     * Number of advised events left in the current burst.
+     */
+    public static final VmThreadLocal VMA_SAMPLE_BURST =
+        new VmThreadLocal("VMA_SAMPLE_BURST", false, "VMA sampled advice burst remaining", VmThreadLocal.Nature.Single);
+
+    private static int interval;
+    private static int burst;
+    private static int jiggle;
+
+    /**
+     * State for the jiggle. It is shared by all threads, which is harmless as racing updates just perturb it further.
+     */
+    private static int seed = 0x2545F491;
+
+    /**
+     * Parses the {@code -XX:VMASampleCount} option value. Called in the {@code RUNNING} phase.
+     */
+    static void initialize(String option) {
+        String[] parts = option.split(",");
+        try {
+            interval = Integer.parseInt(parts[0]);
+            burst = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+        } catch (NumberFormatException ex) {
+            interval = 0;
+        }
+        if (parts.length > 2 || interval <= 0 || burst <= 0 || burst > interval) {
+            fail("usage: -XX:VMASampleCount=interval[,burst] with 0 < burst <= interval");
+        }
+        jiggle = (interval - burst) / 8;
+    }
+
+    /**
+     * Is advice being sampled?
+     */
+    public static boolean isSampling() {
+        return interval != 0;
+    }
+
+    /**
+     * The number of advisable events in one sampling cycle.
+     */
+    public static int interval() {
+        return interval;
+    }
+
+    /**
+     * The number of consecutive events advised in one sampling cycle.
+     */
+    public static int burst() {
+        return burst;
+    }
+
+    /**
+     * The average number of advisable events that each advised event stands for.
+     */
+    public static double ratio() {
+        return isSampling() ? (double) interval / burst : 1.0;
+    }
+
+    /**
+     * The guard used where the advising bits cannot be tested with {@link com.sun.max.vm.Intrinsics#readLatchBit},
+     * i.e., in Graal snippets. Does not test whether advising is enabled, only whether a sampled event is due.
+     */
+    @INLINE
+    public static boolean sampleAdvice() {
+        if (VmThread.currentTLA().getWord(VM_ADVISING.index).asAddress().and(1 << SAMPLING_BIT).isZero()) {
+            return true;
+        }
+        return countDown();
+    }
+
+    /**
+     * Counts down one advisable event on the current thread.
+     * @return {@code true} iff the event should be advised
+     */
+    @INLINE
+    public static boolean countDown() {
+        final Pointer etla = ETLA.load(VmThread.currentTLA());
+        final long count = VMA_SAMPLE_COUNTDOWN.load(etla).toLong() - 1;
+        if (count > 0) {
+            VMA_SAMPLE_COUNTDOWN.store(etla, Address.fromLong(count));
+            return false;
+        }
+        return expired(etla);
+    }
+
+    /**
+     * The countdown expired, so the event is advised. Either starts or continues a burst, leaving
+     * the countdown at one until the burst is complete and then re-arming it for the next gap.
+     */
+    @NEVER_INLINE
+    private static boolean expired(Pointer etla) {
+        long remaining = VMA_SAMPLE_BURST.load(etla).toLong();
+        if (remaining == 0) {
+            remaining = burst;
+        }
+        remaining--;
+        VMA_SAMPLE_BURST.store(etla, Address.fromLong(remaining));
+        VMA_SAMPLE_COUNTDOWN.store(etla, Address.fromLong(remaining == 0 ? nextGap() : 1));
+        return true;
+    }
+
+    /**
+     * The countdown value for the next gap, i.e., one more than the number of events to skip.
+     */
+    private static long nextGap() {
+        int gap = interval - burst;
+        if (jiggle > 0) {
+            int x = seed;
+            x ^= x << 13;
+            x ^= x >>> 17;
+            x ^= x << 5;
+            seed = x;
+            gap += (x % (jiggle + 1));
+        }
+        return gap + 1;
+    }
+}
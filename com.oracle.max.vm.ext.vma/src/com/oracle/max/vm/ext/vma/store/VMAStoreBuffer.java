@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vm.ext.vma.store;
+
+import com.oracle.max.vm.ext.vma.store.txt.*;
+
+/**
+ * The sink used by a store to assemble records before they are written to the persistent store.
+ *
+ * A record is built from a {@link #appendKey key}, followed by a sequence of fields separated by
+ * {@link #appendSpace} and terminated by {@link #endRecord}. How the fields are represented is
+ * up to the subclass; the textual representation simply appends each field to a buffer, whereas
+ * a binary representation encodes each field according to its type.
+ *
+ * Buffers are unsynchronized; in per-thread mode each store has its own buffer.
+ */
+public abstract class VMAStoreBuffer {
+
+    /**
+     * Appends the key that starts a record.
+     * @param textKey {@code true} if the key should use its long textual form, if supported
+     */
+    public abstract void appendKey(VMATextStoreFormat.Key key, boolean textKey);
+
+    public abstract void append(String value);
+
+    /**
+     * Appends a string that may contain spaces, e.g. a thread name.
+     */
+    public abstract void appendQuoted(String value);
+
+    public abstract void append(long value);
+
+    public abstract void append(int value);
+
+    public abstract void append(char value);
+
+    public abstract void append(double value);
+
+    public abstract void append(float value);
+
+    public abstract void append(boolean value);
+
+    /**
+     * Separates two fields of the current record.
+     */
+    public abstract void appendSpace();
+
+    /**
+     * Terminates the current record.
+     */
+    public abstract void endRecord();
+
+    /**
+     * The number of buffered bytes (or characters) not yet written to the persistent store.
+     */
+    public abstract int length();
+
+    /**
+     * Write the buffered records to the persistent store.
+     */
+    public abstract void flush();
+
+    /**
+     * Flush and close the persistent store.
+     */
+    public abstract void close();
+
+    /**
+     * {@code true} iff this buffer honors {@code textKey} in {@link #appendKey}.
+     */
+    public abstract boolean supportsTextKey();
+}
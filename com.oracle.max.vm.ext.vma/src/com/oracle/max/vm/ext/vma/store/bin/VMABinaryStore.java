@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vm.ext.vma.store.bin;
+
+import java.io.*;
+import java.util.zip.*;
+
+import com.oracle.max.vm.ext.vma.store.*;
+import com.oracle.max.vm.ext.vma.store.txt.sbps.*;
+
+/**
+ * A variant of {@link SBPSVMATextStore} that writes the {@link VMABinaryStoreFormat compact binary format}
+ * instead of text. Select it by setting {@link VMAStoreFactory#STORECLASS_PROPERTY} to the name of this class.
+ *
+ * Like the text store, each per-thread store has its own buffer, which is compressed as a block when it is
+ * flushed. The compression level can be set with the {@link #LEVEL_PROPERTY} system property, which takes
+ * the values accepted by {@link Deflater#setLevel}; zero disables compression. The default favors speed.
+ */
+public class VMABinaryStore extends SBPSVMATextStore {
+
+    private static final String LEVEL_PROPERTY = "max.vma.store.bin.level";
+
+    public VMABinaryStore() {
+    }
+
+    protected VMABinaryStore(String threadName) {
+        super(threadName);
+    }
+
+    @Override
+    protected SBPSVMATextStore createThreadStore(String threadName) {
+        return new VMABinaryStore(threadName);
+    }
+
+    @Override
+    protected VMAStoreBuffer createStoreBuffer(OutputStream out, int bufSize) throws IOException {
+        int level = Deflater.BEST_SPEED;
+        final String levelProperty = System.getProperty(LEVEL_PROPERTY);
+        if (levelProperty != null) {
+            level = Integer.parseInt(levelProperty);
+        }
+        return new VMABinaryStoreBuffer(out, bufSize, level);
+    }
+}
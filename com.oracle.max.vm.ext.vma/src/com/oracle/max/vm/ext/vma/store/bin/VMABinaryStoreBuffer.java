@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vm.ext.vma.store.bin;
+
+import static com.oracle.max.vm.ext.vma.store.bin.VMABinaryStoreFormat.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import com.oracle.max.vm.ext.vma.store.*;
+import com.oracle.max.vm.ext.vma.store.txt.*;
+import com.sun.max.vm.runtime.*;
+
+/**
+ * A {@link VMAStoreBuffer} that encodes records in the {@link VMABinaryStoreFormat}.
+ *
+ * Records are encoded into a byte array that is written out as a single, optionally deflated, block
+ * when the store {@link #flush flushes} it. The deflater is created lazily and reused for every block.
+ * It is public so that tools can write stores without a VM.
+ */
+public final class VMABinaryStoreBuffer extends VMAStoreBuffer {
+
+    private final OutputStream out;
+    private final int level;
+    private byte[] buf;
+    private int pos;
+    private Deflater deflater;
+    private byte[] deflated;
+    private final byte[] blockHeader = new byte[BLOCK_HEADER_SIZE];
+    private final HashMap<String, Integer> strings = new HashMap<String, Integer>();
+
+    /**
+     * {@code true} if the last call was {@link #appendSpace}, i.e., the current field is empty.
+     */
+    private boolean emptyField;
+
+    /**
+     * Creates a buffer and writes the file header to {@code out}.
+     * @param level the {@link Deflater} compression level, or zero to store blocks uncompressed
+     */
+    public VMABinaryStoreBuffer(OutputStream out, int bufSize, int level) throws IOException {
+        this.out = out;
+        this.level = level;
+        this.buf = new byte[Math.max(bufSize, 256)];
+        byte[] header = new byte[8];
+        writeInt(header, 0, MAGIC);
+        writeInt(header, 4, VERSION);
+        out.write(header);
+    }
+
+    private void ensureCapacity(int n) {
+        if (pos + n > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+        }
+    }
+
+    private void putTagged(byte tag, long value) {
+        ensureCapacity(1 + MAX_VARINT_SIZE);
+        buf[pos++] = tag;
+        pos = writeVarint(buf, pos, value);
+        emptyField = false;
+    }
+
+    private void putTag(byte tag) {
+        ensureCapacity(1);
+        buf[pos++] = tag;
+        emptyField = false;
+    }
+
+    @Override
+    public void appendKey(VMATextStoreFormat.Key key, boolean textKey) {
+        ensureCapacity(1);
+        buf[pos++] = (byte) key.ordinal();
+        emptyField = false;
+    }
+
+    @Override
+    public void append(String value) {
+        Integer index = strings.get(value);
+        if (index != null) {
+            putTagged(STRING, index);
+        } else {
+            strings.put(value, strings.size());
+            byte[] bytes;
+            try {
+                bytes = value.getBytes("UTF-8");
+            } catch (UnsupportedEncodingException ex) {
+                throw FatalError.unexpected("UTF-8 not supported", ex);
+            }
+            putTagged(NEW_STRING, bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+    }
+
+    @Override
+    public void appendQuoted(String value) {
+        // there are no field separators to protect against
+        append(value);
+    }
+
+    @Override
+    public void append(long value) {
+        putTagged(LONG, zigZag(value));
+    }
+
+    @Override
+    public void append(int value) {
+        putTagged(LONG, zigZag(value));
+    }
+
+    @Override
+    public void append(char value) {
+        putTagged(CHAR, value);
+    }
+
+    @Override
+    public void append(double value) {
+        ensureCapacity(9);
+        buf[pos++] = DOUBLE;
+        long bits = Double.doubleToRawLongBits(value);
+        pos = writeInt(buf, pos, (int) (bits >>> 32));
+        pos = writeInt(buf, pos, (int) bits);
+        emptyField = false;
+    }
+
+    @Override
+    public void append(float value) {
+        ensureCapacity(5);
+        buf[pos++] = FLOAT;
+        pos = writeInt(buf, pos, Float.floatToRawIntBits(value));
+        emptyField = false;
+    }
+
+    @Override
+    public void append(boolean value) {
+        putTag(value ? TRUE : FALSE);
+    }
+
+    @Override
+    public void appendSpace() {
+        emptyField = true;
+    }
+
+    @Override
+    public void endRecord() {
+        if (emptyField) {
+            putTag(EMPTY);
+        }
+        putTag(END);
+    }
+
+    @Override
+    public int length() {
+        return pos;
+    }
+
+    @Override
+    public void flush() {
+        if (pos == 0) {
+            return;
+        }
+        byte kind = BLOCK_STORED;
+        byte[] data = buf;
+        int length = pos;
+        if (level != 0) {
+            if (deflater == null) {
+                deflater = new Deflater(level);
+            }
+            if (deflated == null || deflated.length < pos) {
+                deflated = new byte[buf.length];
+            }
+            deflater.reset();
+            deflater.setInput(buf, 0, pos);
+            deflater.finish();
+            int deflatedLength = 0;
+            // give up as soon as the output is no smaller than the input
+            while (!deflater.finished() && deflatedLength < pos) {
+                deflatedLength += deflater.deflate(deflated, deflatedLength, deflated.length - deflatedLength);
+            }
+            // keep the block uncompressed if deflation did not pay off
+            if (deflater.finished() && deflatedLength < pos) {
+                kind = BLOCK_DEFLATED;
+                data = deflated;
+                length = deflatedLength;
+            }
+        }
+        blockHeader[0] = kind;
+        writeInt(blockHeader, 1, pos);
+        writeInt(blockHeader, 5, length);
+        try {
+            out.write(blockHeader);
+            out.write(data, 0, length);
+            out.flush();
+        } catch (IOException ex) {
+            throw FatalError.unexpected("failed to write VMA store block", ex);
+        }
+        pos = 0;
+    }
+
+    @Override
+    public void close() {
+        flush();
+        if (deflater != null) {
+            deflater.end();
+        }
+        try {
+            out.close();
+        } catch (IOException ex) {
+        }
+    }
+
+    @Override
+    public boolean supportsTextKey() {
+        return false;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vm.ext.vma.store.bin;
+
+import com.oracle.max.vm.ext.vma.store.txt.*;
+
+/**
+ * Defines a compact binary equivalent of {@link VMATextStoreFormat}.
+ *
+ * The store carries exactly the same records, with the same fields in the same order, as the textual store, so
+ * that a reader can reconstruct the split form of each text line without any knowledge of the individual record
+ * layouts. The file starts with {@link #MAGIC} and {@link #VERSION} and is followed by a sequence of blocks, each
+ * of which is either {@link #BLOCK_STORED stored} or {@link #BLOCK_DEFLATED deflated}:
+ *
+ * <pre>
+ *     block: kind:byte rawLength:int storedLength:int data:byte[storedLength]
+ * </pre>
+ *
+ * The uncompressed data of the blocks form a single stream of records; a record never spans a block boundary.
+ * A record starts with the {@link VMATextStoreFormat.Key#ordinal() ordinal} of its key as a byte, is followed by
+ * tagged fields and ends with {@link #END}. Integral values, which include all the object ids, short forms and
+ * bytecode indices, are stored as zig-zag encoded varints. Strings are entered in a table the first time they
+ * occur (the table is per file, and persists across blocks) and are subsequently stored as a varint index.
+ */
+public final class VMABinaryStoreFormat {
+
+    public static final int MAGIC = 0x564D4142; // "VMAB"
+    public static final int VERSION = 1;
+
+    public static final byte BLOCK_STORED = 0;
+    public static final byte BLOCK_DEFLATED = 1;
+    public static final int BLOCK_HEADER_SIZE = 9;
+
+    // Field tags
+    public static final byte END = 0;
+    public static final byte LONG = 1;
+    public static final byte STRING = 2;
+    public static final byte NEW_STRING = 3;
+    public static final byte CHAR = 4;
+    public static final byte DOUBLE = 5;
+    public static final byte FLOAT = 6;
+    public static final byte TRUE = 7;
+    public static final byte FALSE = 8;
+    /**
+     * An empty field, which results from a trailing {@code appendSpace} in the text format.
+     */
+    public static final byte EMPTY = 9;
+
+    /**
+     * Maximum size in bytes of an encoded varint.
+     */
+    public static final int MAX_VARINT_SIZE = 10;
+
+    private VMABinaryStoreFormat() {
+    }
+
+    public static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes {@code value} as an unsigned varint into {@code buf} at {@code pos}.
+     * @return the position following the varint
+     */
+    public static int writeVarint(byte[] buf, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+        return pos;
+    }
+
+    public static int writeInt(byte[] buf, int pos, int value) {
+        buf[pos] = (byte) (value >>> 24);
+        buf[pos + 1] = (byte) (value >>> 16);
+        buf[pos + 2] = (byte) (value >>> 8);
+        buf[pos + 3] = (byte) value;
+        return pos + 4;
+    }
+
+    public static int readInt(byte[] buf, int pos) {
+        return ((buf[pos] & 0xFF) << 24) | ((buf[pos + 1] & 0xFF) << 16) | ((buf[pos + 2] & 0xFF) << 8) | (buf[pos + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vm.ext.vma.store.bin;
+
+import static com.oracle.max.vm.ext.vma.store.bin.VMABinaryStoreFormat.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.*;
+import java.util.zip.*;
+
+import com.oracle.max.vm.ext.vma.store.txt.*;
+import com.oracle.max.vm.ext.vma.store.txt.VMATextStoreFormat.Key;
+
+/**
+ * Reads a store in the {@link VMABinaryStoreFormat}, returning each record in the same form as a line of the
+ * text store that has been split at space boundaries, with the key in its (non-text) code form.
+ *
+ * The file is memory-mapped, in windows of at most {@link #WINDOW_SIZE} bytes so that arbitrarily large stores
+ * can be read, and each block is decoded (and inflated if necessary) in turn. A truncated final block, e.g.,
+ * from a VM that did not finalize its store, is treated as the end of the store.
+ */
+public class VMABinaryStoreReader {
+
+    private static final long WINDOW_SIZE = 256 * 1024 * 1024;
+    private static final Key[] keys = Key.values();
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowEnd;
+
+    /**
+     * File offset of the next block.
+     */
+    private long blockPosition;
+
+    private byte[] stored = new byte[0];
+    private byte[] data = new byte[0];
+    private int dataLength;
+    private int pos;
+    private final Inflater inflater = new Inflater();
+
+    private final ArrayList<String> strings = new ArrayList<String>();
+
+    /**
+     * Cache of the strings for small integral values, which includes most times, bytecode indices and short forms.
+     */
+    private final String[] smallValues = new String[1024];
+    private String[] fields = new String[16];
+
+    public VMABinaryStoreReader(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        channel = this.file.getChannel();
+        fileSize = channel.size();
+        if (fileSize < 8 || this.file.readInt() != MAGIC) {
+            close();
+            throw new IOException(file + " is not a binary VMA store");
+        }
+        final int version = this.file.readInt();
+        if (version != VERSION) {
+            close();
+            throw new IOException(file + ": unsupported binary VMA store version " + version);
+        }
+        blockPosition = 8;
+    }
+
+    /**
+     * Determines whether {@code file} is a binary store by checking its {@link VMABinaryStoreFormat#MAGIC magic number}.
+     */
+    public static boolean isBinaryStore(File file) throws IOException {
+        final DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            return file.length() >= 8 && in.readInt() == MAGIC;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Ensures that the file region {@code [position, position + length)} is mapped.
+     * @return {@code false} if the region extends beyond the end of the file
+     */
+    private boolean map(long position, int length) throws IOException {
+        if (position + length > fileSize) {
+            return false;
+        }
+        if (window == null || position < windowStart || position + length > windowEnd) {
+            windowStart = position;
+            windowEnd = Math.min(fileSize, position + Math.max(WINDOW_SIZE, length));
+            window = channel.map(MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+        }
+        window.position((int) (position - windowStart));
+        return true;
+    }
+
+    /**
+     * Decodes the next block into {@link #data}.
+     * @return {@code false} if there are no more (complete) blocks
+     */
+    private boolean nextBlock() throws IOException {
+        if (!map(blockPosition, BLOCK_HEADER_SIZE)) {
+            return false;
+        }
+        final byte kind = window.get();
+        final int rawLength = window.getInt();
+        final int storedLength = window.getInt();
+        if (!map(blockPosition + BLOCK_HEADER_SIZE, storedLength)) {
+            return false;
+        }
+        if (data.length < rawLength) {
+            data = new byte[rawLength];
+        }
+        if (kind == BLOCK_STORED) {
+            window.get(data, 0, rawLength);
+        } else {
+            if (stored.length < storedLength) {
+                stored = new byte[storedLength];
+            }
+            window.get(stored, 0, storedLength);
+            inflater.reset();
+            inflater.setInput(stored, 0, storedLength);
+            try {
+                int length = 0;
+                while (length < rawLength) {
+                    final int n = inflater.inflate(data, length, rawLength - length);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new IOException("truncated block at offset " + blockPosition);
+                    }
+                    length += n;
+                }
+            } catch (DataFormatException ex) {
+                throw new IOException("corrupt block at offset " + blockPosition + ": " + ex.getMessage());
+            }
+        }
+        blockPosition += BLOCK_HEADER_SIZE + storedLength;
+        dataLength = rawLength;
+        pos = 0;
+        return true;
+    }
+
+    private long readVarint() {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos++];
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return result;
+    }
+
+    private void addField(int index, String field) {
+        if (index == fields.length) {
+            fields = Arrays.copyOf(fields, index * 2);
+        }
+        fields[index] = field;
+    }
+
+    /**
+     * Reads the next record.
+     * @param insertThread iff {@code true} leave an empty slot for the thread field, as per
+     *            {@code ConvertLog.split}, for records that have one
+     * @return the components of the record or {@code null} at the end of the store
+     */
+    public String[] readRecord(boolean insertThread) throws IOException {
+        while (pos == dataLength) {
+            if (!nextBlock()) {
+                return null;
+            }
+        }
+        final Key key = keys[data[pos++]];
+        int count = 0;
+        addField(count++, key.code);
+        while (true) {
+            final byte tag = data[pos++];
+            String field;
+            switch (tag) {
+                case END:
+                    field = null;
+                    break;
+                case LONG: {
+                    final long value = unZigZag(readVarint());
+                    if (value >= 0 && value < smallValues.length) {
+                        field = smallValues[(int) value];
+                        if (field == null) {
+                            field = Long.toString(value);
+                            smallValues[(int) value] = field;
+                        }
+                    } else {
+                        field = Long.toString(value);
+                    }
+                    break;
+                }
+                case STRING:
+                    field = strings.get((int) readVarint());
+                    break;
+                case NEW_STRING: {
+                    final int length = (int) readVarint();
+                    field = new String(data, pos, length, "UTF-8");
+                    pos += length;
+                    strings.add(field);
+                    break;
+                }
+                case CHAR:
+                    field = String.valueOf((char) readVarint());
+                    break;
+                case DOUBLE: {
+                    final long bits = ((long) readInt(data, pos) << 32) | (readInt(data, pos + 4) & 0xFFFFFFFFL);
+                    pos += 8;
+                    field = Double.toString(Double.longBitsToDouble(bits));
+                    break;
+                }
+                case FLOAT:
+                    field = Float.toString(Float.intBitsToFloat(readInt(data, pos)));
+                    pos += 4;
+                    break;
+                case TRUE:
+                    field = "true";
+                    break;
+                case FALSE:
+                    field = "false";
+                    break;
+                case EMPTY:
+                    field = "";
+                    break;
+                default:
+                    throw new IOException("unknown field tag " + tag + " in block ending at offset " + blockPosition);
+            }
+            if (field == null) {
+                break;
+            }
+            addField(count++, field);
+        }
+        final boolean insert = insertThread && VMATextStoreFormat.hasTimeAndThread(key);
+        final String[] result = new String[insert ? count + 1 : count];
+        if (insert) {
+            result[0] = fields[0];
+            result[1] = fields[1];
+            System.arraycopy(fields, 2, result, 3, count - 2);
+        } else {
+            System.arraycopy(fields, 0, result, 0, count);
+        }
+        return result;
+    }
+
+    public void close() throws IOException {
+        inflater.end();
+        window = null;
+        file.close();
+    }
+}
@@ -39,5 +39,7 @@
  * textual representation and buffers output using a {@link java.lang.StringBuilder}, flushing periodically to a file
  * that is chosen with {@link com.oracle.max.vm.ext.vma.store.VMAStoreFile} and defaults to
  * {@value com.oracle.max.vm.ext.vma.store.VMAStoreFile#DEFAULT_STOREFILE}.
+ * {@link com.oracle.max.vm.ext.vma.store.bin.VMABinaryStore} stores the same records in a much smaller, block
+ * compressed, binary form, which the analysis tools read directly.
  */
 package com.oracle.max.vm.ext.vma.store;
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vm.ext.vma.store.txt.sbps;
+
+import java.io.*;
+
+import com.oracle.max.vm.ext.vma.store.*;
+import com.oracle.max.vm.ext.vma.store.txt.*;
+
+/**
+ * The textual {@link VMAStoreBuffer}, using a {@link StringBuilder} flushed to a {@link PrintStream}.
+ * Each record is one line of space separated fields, as described in {@link VMATextStoreFormat}.
+ * It is public so that tools can write stores without a VM.
+ */
+public class SBPSStoreBuffer extends VMAStoreBuffer {
+
+    private final PrintStream ps;
+    private final StringBuilder sb;
+
+    public SBPSStoreBuffer(OutputStream out, int bufSize) {
+        ps = new PrintStream(out);
+        sb = new StringBuilder(bufSize);
+    }
+
+    @Override
+    public void appendKey(VMATextStoreFormat.Key key, boolean textKey) {
+        sb.append(textKey ? key.text : key.code);
+    }
+
+    @Override
+    public void append(String value) {
+        sb.append(value);
+    }
+
+    @Override
+    public void appendQuoted(String value) {
+        sb.append('"');
+        sb.append(value);
+        sb.append('"');
+    }
+
+    @Override
+    public void append(long value) {
+        sb.append(value);
+    }
+
+    @Override
+    public void append(int value) {
+        sb.append(value);
+    }
+
+    @Override
+    public void append(char value) {
+        sb.append(value);
+    }
+
+    @Override
+    public void append(double value) {
+        sb.append(value);
+    }
+
+    @Override
+    public void append(float value) {
+        sb.append(value);
+    }
+
+    @Override
+    public void append(boolean value) {
+        sb.append(value);
+    }
+
+    @Override
+    public void appendSpace() {
+        sb.append(' ');
+    }
+
+    @Override
+    public void endRecord() {
+        sb.append('\n');
+    }
+
+    @Override
+    public int length() {
+        return sb.length();
+    }
+
+    @Override
+    public void flush() {
+        ps.print(sb);
+        ps.flush();
+        sb.setLength(0);
+    }
+
+    @Override
+    public void close() {
+        flush();
+        ps.close();
+    }
+
+    @Override
+    public boolean supportsTextKey() {
+        return true;
+    }
+}
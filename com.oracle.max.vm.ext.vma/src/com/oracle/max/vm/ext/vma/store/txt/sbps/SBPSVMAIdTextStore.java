@@ -37,6 +37,8 @@ import com.sun.max.vm.runtime.*;
 
 /**
  * An implementation of {@link VMATextStore} and {@link VMAIdTextStoreIntf} using a {@link PrintStream} and {@link StringBuilder}.
+ * The records are actually assembled in a {@link VMAStoreBuffer}, which by default is textual, but a subclass
+ * can choose a different representation by overriding {@link #createStoreBuffer}.
  *
  * The default {@link StringBuilder buffer size} is {@link DEFAULT_BUFSIZE} but this can be changed
  * with the {@link BUFSIZE_PROPERTY} system property. The buffer is normally flushed when it is full,
@@ -94,9 +96,7 @@ public abstract class SBPSVMAIdTextStore implements VMAIdTextStoreIntf {
      */
     private int bufSize = DEFAULT_BUFSIZE;
 
-    private PrintStream ps;
-
-    protected StringBuilder sb;
+    protected VMAStoreBuffer sb;
     /**
      * Holds time of last record written for relative time generation.
      */
@@ -153,10 +153,6 @@ public abstract class SBPSVMAIdTextStore implements VMAIdTextStoreIntf {
         }
     }
 
-    StringBuilder sb() {
-        return sb;
-    }
-
     @Override
     public boolean initializeStore(boolean threadBatched, boolean perThread, PerThreadStoreOwner storeOwner) {
         this.perThread = perThread;
@@ -180,15 +176,14 @@ public abstract class SBPSVMAIdTextStore implements VMAIdTextStoreIntf {
     }
 
     /**
-     * Creates a {@link PrintStream} and a {@link StringBuilder}.
+     * Creates the {@link VMAStoreBuffer} for the store.
      * @param fileName to use for store
      * @return {@code true} iff the persistent store was created ok
      */
     private static boolean createPersistentStore(SBPSVMAIdTextStore store, String fileName) {
         File file = new File(storeFileDir, fileName);
         try {
-            store.ps = new PrintStream(new FileOutputStream(file));
-            store.sb = new StringBuilder(store.bufSize);
+            store.sb = store.createStoreBuffer(new FileOutputStream(file), store.bufSize);
             // Format log buffer with header information
             store.appendStoreHeader();
             return true;
@@ -198,6 +193,13 @@ public abstract class SBPSVMAIdTextStore implements VMAIdTextStoreIntf {
         }
     }
 
+    /**
+     * Creates the buffer that records are assembled in before being written to {@code out}.
+     */
+    protected VMAStoreBuffer createStoreBuffer(OutputStream out, int bufSize) throws IOException {
+        return new SBPSStoreBuffer(out, bufSize);
+    }
+
     @Override
     public VMATextStore newThread(String threadName) {
         if (perThread) {
@@ -219,12 +221,16 @@ public abstract class SBPSVMAIdTextStore implements VMAIdTextStoreIntf {
         appendSpace();
         sb.append(timeMode.isAbsolute());
         appendSpace();
-        sb.append((threadBatched ? BATCHED : 0) | (perThread ? PER_THREAD : 0) | (textKey ? TEXT_KEY : 0));
+        sb.append((threadBatched ? BATCHED : 0) | (perThread ? PER_THREAD : 0) | (textKey() ? TEXT_KEY : 0));
         end();
     }
 
     protected abstract SBPSVMAIdTextStore createThreadStore(String threadName);
 
+    private boolean textKey() {
+        return textKey && sb.supportsTextKey();
+    }
+
     @Override
     public void finalizeStore() {
         // Daemon threads pose problems in correctly finalizing the buffer without interleaving
@@ -263,16 +269,11 @@ public abstract class SBPSVMAIdTextStore implements VMAIdTextStoreIntf {
 
     protected void finalizeLogBuffer() {
         // Must not call appendCode else will block!
-        if (textKey) {
-            sb.append(FINALIZE_STORE.text);
-        } else {
-            sb.append(FINALIZE_STORE.code);
-        }
+        sb.appendKey(FINALIZE_STORE, textKey());
         appendSpace();
         appendTime(timeMode.getTime());
-        flushLogAt = 0; // force ps.flush
         end();
-        ps.close();
+        sb.close();
     }
 
     /*
@@ -280,7 +281,7 @@ public abstract class SBPSVMAIdTextStore implements VMAIdTextStoreIntf {
      */
     @Override
     public void addClassShortFormDef(String name, long clId, String shortName) {
-        sb.append(VMATextStoreFormat.Key.CLASS_DEFINITION.code);
+        sb.appendKey(VMATextStoreFormat.Key.CLASS_DEFINITION, false);
         appendSpace();
         sb.append(name);
         appendSpace();
@@ -292,12 +293,10 @@ public abstract class SBPSVMAIdTextStore implements VMAIdTextStoreIntf {
 
     @Override
     public void addThreadShortFormDef(String name, String shortName) {
-        sb.append(VMATextStoreFormat.Key.THREAD_DEFINITION.code);
+        sb.appendKey(VMATextStoreFormat.Key.THREAD_DEFINITION, false);
         appendSpace();
         // quote because name may contain a space
-        sb.append('"');
-        sb.append(name);
-        sb.append('"');
+        sb.appendQuoted(name);
         appendSpace();
         sb.append(shortName);
         end();
@@ -305,7 +304,7 @@ public abstract class SBPSVMAIdTextStore implements VMAIdTextStoreIntf {
 
     @Override
     public void addMemberShortFormDef(VMATextStoreFormat.Key key, String classShortForm, String name, String shortName) {
-        sb.append(key.code);
+        sb.appendKey(key, false);
         appendSpace();
         sb.append(classShortForm);
         appendSpace();
@@ -326,19 +325,13 @@ public abstract class SBPSVMAIdTextStore implements VMAIdTextStoreIntf {
             daemonLock.lock();
         }
         done = false;
-        if (textKey) {
-            sb.append(key.text);
-        } else {
-            sb.append(key.code);
-        }
+        sb.appendKey(key, textKey);
     }
 
     protected void end() {
-        sb.append('\n');
+        sb.endRecord();
         if (sb.length()  >= flushLogAt) {
-            ps.print(sb);
-            ps.flush();
-            sb.setLength(0);
+            sb.flush();
         }
         done = true;
     }
@@ -361,7 +354,7 @@ public abstract class SBPSVMAIdTextStore implements VMAIdTextStoreIntf {
     }
 
     private void appendSpace() {
-        sb.append(' ');
+        sb.appendSpace();
     }
 
 
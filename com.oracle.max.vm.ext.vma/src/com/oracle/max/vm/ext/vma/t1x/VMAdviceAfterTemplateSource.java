@@ -47,7 +47,7 @@ public class VMAdviceAfterTemplateSource {
     public static Reference aaload(@Slot(1) Object array, @Slot(0) int index, int bci) {
         ArrayAccess.checkIndex(array, index);
         Object result = ArrayAccess.getObject(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterArrayLoad(bci, array, index, result);
         }
         return Reference.fromJava(result);
@@ -56,7 +56,7 @@ public class VMAdviceAfterTemplateSource {
     @T1X_TEMPLATE(NEW)
     public static Object new_(ResolutionGuard guard, int bci) {
         Object object = resolveClassForNewAndCreate(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterNew(bci, object);
         }
         return object;
@@ -65,7 +65,7 @@ public class VMAdviceAfterTemplateSource {
     @T1X_TEMPLATE(NEW$init)
     public static Object new_(DynamicHub hub, int bci) {
         Object object = Heap.createTuple(hub);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterNew(bci, object);
         }
         return object;
@@ -74,7 +74,7 @@ public class VMAdviceAfterTemplateSource {
     @T1X_TEMPLATE(NEW_HYBRID)
     public static Object new_hybrid(DynamicHub hub, int bci) {
         Object object = Heap.createHybrid(hub);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterNew(bci, object);
         }
         return object;
@@ -83,7 +83,7 @@ public class VMAdviceAfterTemplateSource {
     @T1X_TEMPLATE(NEWARRAY)
     public static Object newarray(ClassActor arrayClass, @Slot(0) int length, int bci) {
         Object array = Snippets.createArray(arrayClass, length);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterNewArray(bci, array, length);
         }
         return array;
@@ -93,7 +93,7 @@ public class VMAdviceAfterTemplateSource {
     public static Object anewarray(ResolutionGuard arrayType, @Slot(0) int length, int bci) {
         ArrayClassActor<?> arrayClassActor = UnsafeCast.asArrayClassActor(Snippets.resolveArrayClass(arrayType));
         Object array = Snippets.createArray(arrayClassActor, length);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterNewArray(bci, array, length);
         }
         return array;
@@ -103,7 +103,7 @@ public class VMAdviceAfterTemplateSource {
     public static Object anewarray(ArrayClassActor<?> arrayType, @Slot(0) int length, int bci) {
         ArrayClassActor<?> arrayClassActor = arrayType;
         Object array = Snippets.createArray(arrayClassActor, length);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterNewArray(bci, array, length);
         }
         return array;
@@ -113,7 +113,7 @@ public class VMAdviceAfterTemplateSource {
     public static Reference multianewarray(ResolutionGuard guard, int[] lengths, int bci) {
         ClassActor arrayClassActor = Snippets.resolveClass(guard);
         Object array = Snippets.createMultiReferenceArray(arrayClassActor, lengths);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterMultiNewArray(bci, array, lengths);
         }
         return Reference.fromJava(array);
@@ -122,7 +122,7 @@ public class VMAdviceAfterTemplateSource {
     @T1X_TEMPLATE(MULTIANEWARRAY$resolved)
     public static Reference multianewarray(ArrayClassActor<?> arrayClassActor, int[] lengths, int bci) {
         Object array = Snippets.createMultiReferenceArray(arrayClassActor, lengths);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterMultiNewArray(bci, array, lengths);
         }
         return Reference.fromJava(array);
@@ -131,7 +131,7 @@ public class VMAdviceAfterTemplateSource {
     @T1X_TEMPLATE(ARRAYLENGTH)
     public static int arraylength(@Slot(0) Object array, int bci) {
         int length = ArrayAccess.readArrayLength(array);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterArrayLength(bci, array, length);
         }
         return length;
@@ -139,7 +139,7 @@ public class VMAdviceAfterTemplateSource {
 
     @T1X_TEMPLATE(TRACE_METHOD_ENTRY)
     public static void traceMethodEntry(MethodActor methodActor, Object receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterMethodEntry(bci, receiver, methodActor);
         }
     }
@@ -147,7 +147,7 @@ public class VMAdviceAfterTemplateSource {
     @T1X_TEMPLATE(ALOAD)
     public static Reference aload(int index, int localOffset, int bci) {
         Reference value = VMRegister.getAbiFramePointer().readReference(localOffset);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterLoad(bci, index, value);
         }
         return value;
@@ -53,7 +53,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 // START GENERATED CODE
     @T1X_TEMPLATE(GETFIELD$boolean$resolved)
     public static int getfieldBoolean(@Slot(0) Object object, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         boolean result = TupleAccess.readBoolean(object, f.offset());
@@ -68,7 +68,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static int resolveAndGetFieldBoolean(ResolutionGuard.InPool guard, Object object, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForReading(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         if (f.isVolatile()) {
@@ -84,7 +84,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETSTATIC$boolean$init)
     public static int getstaticBoolean(Object staticTuple, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, staticTuple, f);
         }
         boolean result = TupleAccess.readBoolean(staticTuple, f.offset());
@@ -100,7 +100,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static int resolveAndGetStaticBoolean(ResolutionGuard.InPool guard, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForReading(guard);
         Snippets.makeHolderInitialized(f);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, f.holder().staticTuple(), f);
         }
         if (f.isVolatile()) {
@@ -116,7 +116,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTFIELD$boolean$resolved)
     public static void putfieldBoolean(@Slot(1) Object object, FieldActor f, @Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         TupleAccess.writeBoolean(object, f.offset(), UnsafeCast.asBoolean((byte) value));
@@ -130,7 +130,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutFieldBoolean(ResolutionGuard.InPool guard, Object object, int value, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         if (f.isVolatile()) {
@@ -144,7 +144,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTSTATIC$boolean$init)
     public static void putstaticBoolean(Object staticTuple, FieldActor f, @Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, staticTuple, f, value);
         }
         TupleAccess.writeBoolean(staticTuple, f.offset(), UnsafeCast.asBoolean((byte) value));
@@ -158,7 +158,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutStaticBoolean(ResolutionGuard.InPool guard, int value, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, f.holder().staticTuple(), f, value);
         }
         Snippets.makeHolderInitialized(f);
@@ -173,7 +173,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETFIELD$byte$resolved)
     public static int getfieldByte(@Slot(0) Object object, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         byte result = TupleAccess.readByte(object, f.offset());
@@ -188,7 +188,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static int resolveAndGetFieldByte(ResolutionGuard.InPool guard, Object object, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForReading(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         if (f.isVolatile()) {
@@ -204,7 +204,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETSTATIC$byte$init)
     public static int getstaticByte(Object staticTuple, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, staticTuple, f);
         }
         byte result = TupleAccess.readByte(staticTuple, f.offset());
@@ -220,7 +220,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static int resolveAndGetStaticByte(ResolutionGuard.InPool guard, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForReading(guard);
         Snippets.makeHolderInitialized(f);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, f.holder().staticTuple(), f);
         }
         if (f.isVolatile()) {
@@ -236,7 +236,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTFIELD$byte$resolved)
     public static void putfieldByte(@Slot(1) Object object, FieldActor f, @Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         TupleAccess.writeByte(object, f.offset(), (byte) value);
@@ -250,7 +250,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutFieldByte(ResolutionGuard.InPool guard, Object object, int value, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         if (f.isVolatile()) {
@@ -264,7 +264,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTSTATIC$byte$init)
     public static void putstaticByte(Object staticTuple, FieldActor f, @Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, staticTuple, f, value);
         }
         TupleAccess.writeByte(staticTuple, f.offset(), (byte) value);
@@ -278,7 +278,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutStaticByte(ResolutionGuard.InPool guard, int value, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, f.holder().staticTuple(), f, value);
         }
         Snippets.makeHolderInitialized(f);
@@ -293,7 +293,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(I2B)
     public static int i2b(@Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 145, value);
         }
         return (byte) value;
@@ -302,7 +302,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(BALOAD)
     public static int baload(@Slot(1) Object array, @Slot(0) int index, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayLoad(bci, array, index);
         }
         byte result = ArrayAccess.getByte(array, index);
@@ -312,7 +312,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(BASTORE)
     public static void bastore(@Slot(2) Object array, @Slot(1) int index, @Slot(0) int value, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayStore(bci, array, index, value);
         }
         ArrayAccess.setByte(array, index, (byte) value);
@@ -320,7 +320,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETFIELD$char$resolved)
     public static int getfieldChar(@Slot(0) Object object, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         char result = TupleAccess.readChar(object, f.offset());
@@ -335,7 +335,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static int resolveAndGetFieldChar(ResolutionGuard.InPool guard, Object object, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForReading(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         if (f.isVolatile()) {
@@ -351,7 +351,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETSTATIC$char$init)
     public static int getstaticChar(Object staticTuple, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, staticTuple, f);
         }
         char result = TupleAccess.readChar(staticTuple, f.offset());
@@ -367,7 +367,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static int resolveAndGetStaticChar(ResolutionGuard.InPool guard, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForReading(guard);
         Snippets.makeHolderInitialized(f);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, f.holder().staticTuple(), f);
         }
         if (f.isVolatile()) {
@@ -383,7 +383,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTFIELD$char$resolved)
     public static void putfieldChar(@Slot(1) Object object, FieldActor f, @Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         TupleAccess.writeChar(object, f.offset(), (char) value);
@@ -397,7 +397,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutFieldChar(ResolutionGuard.InPool guard, Object object, int value, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         if (f.isVolatile()) {
@@ -411,7 +411,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTSTATIC$char$init)
     public static void putstaticChar(Object staticTuple, FieldActor f, @Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, staticTuple, f, value);
         }
         TupleAccess.writeChar(staticTuple, f.offset(), (char) value);
@@ -425,7 +425,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutStaticChar(ResolutionGuard.InPool guard, int value, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, f.holder().staticTuple(), f, value);
         }
         Snippets.makeHolderInitialized(f);
@@ -440,7 +440,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(I2C)
     public static int i2c(@Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 146, value);
         }
         return (char) value;
@@ -449,7 +449,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(CALOAD)
     public static int caload(@Slot(1) Object array, @Slot(0) int index, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayLoad(bci, array, index);
         }
         char result = ArrayAccess.getChar(array, index);
@@ -459,7 +459,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(CASTORE)
     public static void castore(@Slot(2) Object array, @Slot(1) int index, @Slot(0) int value, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayStore(bci, array, index, value);
         }
         ArrayAccess.setChar(array, index, (char) value);
@@ -467,7 +467,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETFIELD$short$resolved)
     public static int getfieldShort(@Slot(0) Object object, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         short result = TupleAccess.readShort(object, f.offset());
@@ -482,7 +482,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static int resolveAndGetFieldShort(ResolutionGuard.InPool guard, Object object, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForReading(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         if (f.isVolatile()) {
@@ -498,7 +498,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETSTATIC$short$init)
     public static int getstaticShort(Object staticTuple, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, staticTuple, f);
         }
         short result = TupleAccess.readShort(staticTuple, f.offset());
@@ -514,7 +514,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static int resolveAndGetStaticShort(ResolutionGuard.InPool guard, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForReading(guard);
         Snippets.makeHolderInitialized(f);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, f.holder().staticTuple(), f);
         }
         if (f.isVolatile()) {
@@ -530,7 +530,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTFIELD$short$resolved)
     public static void putfieldShort(@Slot(1) Object object, FieldActor f, @Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         TupleAccess.writeShort(object, f.offset(), (short) value);
@@ -544,7 +544,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutFieldShort(ResolutionGuard.InPool guard, Object object, int value, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         if (f.isVolatile()) {
@@ -558,7 +558,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTSTATIC$short$init)
     public static void putstaticShort(Object staticTuple, FieldActor f, @Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, staticTuple, f, value);
         }
         TupleAccess.writeShort(staticTuple, f.offset(), (short) value);
@@ -572,7 +572,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutStaticShort(ResolutionGuard.InPool guard, int value, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, f.holder().staticTuple(), f, value);
         }
         Snippets.makeHolderInitialized(f);
@@ -587,7 +587,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(I2S)
     public static int i2s(@Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 147, value);
         }
         return (short) value;
@@ -596,7 +596,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(SALOAD)
     public static int saload(@Slot(1) Object array, @Slot(0) int index, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayLoad(bci, array, index);
         }
         short result = ArrayAccess.getShort(array, index);
@@ -606,7 +606,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(SASTORE)
     public static void sastore(@Slot(2) Object array, @Slot(1) int index, @Slot(0) int value, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayStore(bci, array, index, value);
         }
         ArrayAccess.setShort(array, index, (short) value);
@@ -614,7 +614,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETFIELD$int$resolved)
     public static int getfieldInt(@Slot(0) Object object, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         int result = TupleAccess.readInt(object, f.offset());
@@ -629,7 +629,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static int resolveAndGetFieldInt(ResolutionGuard.InPool guard, Object object, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForReading(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         if (f.isVolatile()) {
@@ -645,7 +645,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETSTATIC$int$init)
     public static int getstaticInt(Object staticTuple, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, staticTuple, f);
         }
         int result = TupleAccess.readInt(staticTuple, f.offset());
@@ -661,7 +661,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static int resolveAndGetStaticInt(ResolutionGuard.InPool guard, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForReading(guard);
         Snippets.makeHolderInitialized(f);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, f.holder().staticTuple(), f);
         }
         if (f.isVolatile()) {
@@ -677,7 +677,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTFIELD$int$resolved)
     public static void putfieldInt(@Slot(1) Object object, FieldActor f, @Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         TupleAccess.writeInt(object, f.offset(), value);
@@ -691,7 +691,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutFieldInt(ResolutionGuard.InPool guard, Object object, int value, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         if (f.isVolatile()) {
@@ -705,7 +705,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTSTATIC$int$init)
     public static void putstaticInt(Object staticTuple, FieldActor f, @Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, staticTuple, f, value);
         }
         TupleAccess.writeInt(staticTuple, f.offset(), value);
@@ -719,7 +719,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutStaticInt(ResolutionGuard.InPool guard, int value, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, f.holder().staticTuple(), f, value);
         }
         Snippets.makeHolderInitialized(f);
@@ -734,7 +734,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(L2I)
     public static int l2i(@Slot(0) long value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 136, value);
         }
         return (int) value;
@@ -742,7 +742,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(F2I)
     public static int f2i(@Slot(0) float value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 139, value);
         }
         return T1XRuntime.f2i(value);
@@ -750,7 +750,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(D2I)
     public static int d2i(@Slot(0) double value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 142, value);
         }
         return T1XRuntime.d2i(value);
@@ -758,7 +758,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(IADD)
     public static int iadd(@Slot(1) int value1, @Slot(0) int value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 96, value1, value2);
         }
         return value1 + value2;
@@ -766,7 +766,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(ISUB)
     public static int isub(@Slot(1) int value1, @Slot(0) int value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 100, value1, value2);
         }
         return value1 - value2;
@@ -774,7 +774,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(IMUL)
     public static int imul(@Slot(1) int value1, @Slot(0) int value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 104, value1, value2);
         }
         return value1 * value2;
@@ -782,7 +782,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(IDIV)
     public static int idiv(@Slot(1) int value1, @Slot(0) int value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 108, value1, value2);
         }
         return value1 / value2;
@@ -790,7 +790,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(IREM)
     public static int irem(@Slot(1) int value1, @Slot(0) int value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 112, value1, value2);
         }
         return value1 % value2;
@@ -798,7 +798,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(INEG)
     public static int ineg(@Slot(0) int value, int zero, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 116, value, zero);
         }
         return zero - value;
@@ -806,7 +806,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(IOR)
     public static int ior(@Slot(1) int value1, @Slot(0) int value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 128, value1, value2);
         }
         return value1 | value2;
@@ -814,7 +814,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(IAND)
     public static int iand(@Slot(1) int value1, @Slot(0) int value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 126, value1, value2);
         }
         return value1 & value2;
@@ -822,7 +822,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(IXOR)
     public static int ixor(@Slot(1) int value1, @Slot(0) int value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 130, value1, value2);
         }
         return value1 ^ value2;
@@ -830,7 +830,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(ISHL)
     public static int ishl(@Slot(1) int value1, @Slot(0) int value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 120, value1, value2);
         }
         return value1 << value2;
@@ -838,7 +838,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(ISHR)
     public static int ishr(@Slot(1) int value1, @Slot(0) int value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 122, value1, value2);
         }
         return value1 >> value2;
@@ -846,7 +846,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(IUSHR)
     public static int iushr(@Slot(1) int value1, @Slot(0) int value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 124, value1, value2);
         }
         return value1 >>> value2;
@@ -855,7 +855,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(IRETURN)
     @Slot(-1)
     public static int ireturn(@Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeReturn(bci, value);
         }
         return value;
@@ -864,11 +864,11 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(IRETURN$unlock)
     @Slot(-1)
     public static int ireturnUnlock(Reference object, @Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeMonitorExit(bci, object);
         }
         Monitor.noninlineExit(object);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeReturn(bci, value);
         }
         return value;
@@ -877,7 +877,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(IALOAD)
     public static int iaload(@Slot(1) Object array, @Slot(0) int index, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayLoad(bci, array, index);
         }
         int result = ArrayAccess.getInt(array, index);
@@ -887,7 +887,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(IASTORE)
     public static void iastore(@Slot(2) Object array, @Slot(1) int index, @Slot(0) int value, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayStore(bci, array, index, value);
         }
         ArrayAccess.setInt(array, index, value);
@@ -895,7 +895,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETFIELD$float$resolved)
     public static float getfieldFloat(@Slot(0) Object object, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         float result = TupleAccess.readFloat(object, f.offset());
@@ -910,7 +910,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static float resolveAndGetFieldFloat(ResolutionGuard.InPool guard, Object object, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForReading(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         if (f.isVolatile()) {
@@ -926,7 +926,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETSTATIC$float$init)
     public static float getstaticFloat(Object staticTuple, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, staticTuple, f);
         }
         float result = TupleAccess.readFloat(staticTuple, f.offset());
@@ -942,7 +942,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static float resolveAndGetStaticFloat(ResolutionGuard.InPool guard, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForReading(guard);
         Snippets.makeHolderInitialized(f);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, f.holder().staticTuple(), f);
         }
         if (f.isVolatile()) {
@@ -958,7 +958,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTFIELD$float$resolved)
     public static void putfieldFloat(@Slot(1) Object object, FieldActor f, @Slot(0) float value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         TupleAccess.writeFloat(object, f.offset(), value);
@@ -972,7 +972,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutFieldFloat(ResolutionGuard.InPool guard, Object object, float value, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         if (f.isVolatile()) {
@@ -986,7 +986,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTSTATIC$float$init)
     public static void putstaticFloat(Object staticTuple, FieldActor f, @Slot(0) float value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, staticTuple, f, value);
         }
         TupleAccess.writeFloat(staticTuple, f.offset(), value);
@@ -1000,7 +1000,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutStaticFloat(ResolutionGuard.InPool guard, float value, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, f.holder().staticTuple(), f, value);
         }
         Snippets.makeHolderInitialized(f);
@@ -1015,7 +1015,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(I2F)
     public static float i2f(@Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 134, value);
         }
         return value;
@@ -1023,7 +1023,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(L2F)
     public static float l2f(@Slot(0) long value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 137, value);
         }
         return value;
@@ -1031,7 +1031,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(D2F)
     public static float d2f(@Slot(0) double value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 144, value);
         }
         return (float) value;
@@ -1039,7 +1039,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(FADD)
     public static float fadd(@Slot(1) float value1, @Slot(0) float value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 98, value1, value2);
         }
         return value1 + value2;
@@ -1047,7 +1047,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(FSUB)
     public static float fsub(@Slot(1) float value1, @Slot(0) float value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 102, value1, value2);
         }
         return value1 - value2;
@@ -1055,7 +1055,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(FMUL)
     public static float fmul(@Slot(1) float value1, @Slot(0) float value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 106, value1, value2);
         }
         return value1 * value2;
@@ -1063,7 +1063,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(FDIV)
     public static float fdiv(@Slot(1) float value1, @Slot(0) float value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 110, value1, value2);
         }
         return value1 / value2;
@@ -1071,7 +1071,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(FREM)
     public static float frem(@Slot(1) float value1, @Slot(0) float value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 114, value1, value2);
         }
         return value1 % value2;
@@ -1079,7 +1079,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(FNEG)
     public static float fneg(@Slot(0) float value, float zero, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 118, value, zero);
         }
         float res;
@@ -1094,7 +1094,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(FRETURN)
     @Slot(-1)
     public static float freturn(@Slot(0) float value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeReturn(bci, value);
         }
         return value;
@@ -1103,11 +1103,11 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(FRETURN$unlock)
     @Slot(-1)
     public static float freturnUnlock(Reference object, @Slot(0) float value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeMonitorExit(bci, object);
         }
         Monitor.noninlineExit(object);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeReturn(bci, value);
         }
         return value;
@@ -1116,7 +1116,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(FALOAD)
     public static float faload(@Slot(1) Object array, @Slot(0) int index, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayLoad(bci, array, index);
         }
         float result = ArrayAccess.getFloat(array, index);
@@ -1126,7 +1126,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(FASTORE)
     public static void fastore(@Slot(2) Object array, @Slot(1) int index, @Slot(0) float value, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayStore(bci, array, index, value);
         }
         ArrayAccess.setFloat(array, index, value);
@@ -1136,7 +1136,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokevirtualFloat(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         VirtualMethodActor methodActor = Snippets.resolveVirtualMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectNonPrivateVirtualMethod(receiver, methodActor).
@@ -1146,7 +1146,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEVIRTUAL$float$resolved)
     @Slot(-1)
     public static Address invokevirtualFloat(VirtualMethodActor methodActor, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return selectVirtualMethod(receiver, methodActor.vTableIndex()).
@@ -1156,7 +1156,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEVIRTUAL$float$instrumented)
     @Slot(-1)
     public static Address invokevirtualFloat(VirtualMethodActor methodActor, MethodProfile mpo, int mpoIndex, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return selectVirtualMethodInstrumented(receiver, methodActor.vTableIndex(), mpo, mpoIndex).
@@ -1167,7 +1167,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokeinterfaceFloat(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         final InterfaceMethodActor methodActor = Snippets.resolveInterfaceMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectInterfaceMethod(receiver, methodActor).
@@ -1177,7 +1177,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEINTERFACE$float$resolved)
     @Slot(-1)
     public static Address invokeinterfaceFloat(InterfaceMethodActor methodActor, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectInterfaceMethod(receiver, methodActor).
@@ -1187,7 +1187,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEINTERFACE$float$instrumented)
     @Slot(-1)
     public static Address invokeinterfaceFloat(InterfaceMethodActor methodActor, MethodProfile mpo, int mpoIndex, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return Snippets.selectInterfaceMethod(receiver, methodActor, mpo, mpoIndex).
@@ -1199,7 +1199,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static Address invokespecialFloat(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         nullCheck(receiver.toOrigin());
         VirtualMethodActor methodActor = VMAT1XRuntime.resolveSpecialMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeSpecial(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.initializeSpecialMethod(methodActor);
@@ -1208,7 +1208,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKESPECIAL$float$resolved)
     public static void invokespecialFloat(VirtualMethodActor methodActor, Reference receiver, int bci) {
         nullCheck(receiver.toOrigin());
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeSpecial(bci, receiver, methodActor);
         }
     }
@@ -1217,7 +1217,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokestaticFloat(ResolutionGuard.InPool guard, int bci) {
         StaticMethodActor methodActor = VMAT1XRuntime.resolveStaticMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeStatic(bci, null, methodActor);
         }
         return VMAT1XRuntime.initializeStaticMethod(methodActor);
@@ -1225,14 +1225,14 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(INVOKESTATIC$float$init)
     public static void invokestaticFloat(StaticMethodActor methodActor, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeStatic(bci, null, methodActor);
         }
     }
 
     @T1X_TEMPLATE(GETFIELD$long$resolved)
     public static long getfieldLong(@Slot(0) Object object, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         long result = TupleAccess.readLong(object, f.offset());
@@ -1247,7 +1247,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static long resolveAndGetFieldLong(ResolutionGuard.InPool guard, Object object, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForReading(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         if (f.isVolatile()) {
@@ -1263,7 +1263,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETSTATIC$long$init)
     public static long getstaticLong(Object staticTuple, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, staticTuple, f);
         }
         long result = TupleAccess.readLong(staticTuple, f.offset());
@@ -1279,7 +1279,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static long resolveAndGetStaticLong(ResolutionGuard.InPool guard, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForReading(guard);
         Snippets.makeHolderInitialized(f);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, f.holder().staticTuple(), f);
         }
         if (f.isVolatile()) {
@@ -1295,7 +1295,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTFIELD$long$resolved)
     public static void putfieldLong(@Slot(2) Object object, FieldActor f, @Slot(0) long value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         TupleAccess.writeLong(object, f.offset(), value);
@@ -1309,7 +1309,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutFieldLong(ResolutionGuard.InPool guard, Object object, long value, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         if (f.isVolatile()) {
@@ -1323,7 +1323,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTSTATIC$long$init)
     public static void putstaticLong(Object staticTuple, FieldActor f, @Slot(0) long value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, staticTuple, f, value);
         }
         TupleAccess.writeLong(staticTuple, f.offset(), value);
@@ -1337,7 +1337,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutStaticLong(ResolutionGuard.InPool guard, long value, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, f.holder().staticTuple(), f, value);
         }
         Snippets.makeHolderInitialized(f);
@@ -1352,7 +1352,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(I2L)
     public static long i2l(@Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 133, value);
         }
         return value;
@@ -1360,7 +1360,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(F2L)
     public static long f2l(@Slot(0) float value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 140, value);
         }
         return T1XRuntime.f2l(value);
@@ -1368,7 +1368,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(D2L)
     public static long d2l(@Slot(0) double value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 143, value);
         }
         return T1XRuntime.d2l(value);
@@ -1376,7 +1376,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(LADD)
     public static long ladd(@Slot(2) long value1, @Slot(0) long value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 97, value1, value2);
         }
         return value1 + value2;
@@ -1384,7 +1384,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(LSUB)
     public static long lsub(@Slot(2) long value1, @Slot(0) long value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 101, value1, value2);
         }
         return value1 - value2;
@@ -1392,7 +1392,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(LMUL)
     public static long lmul(@Slot(2) long value1, @Slot(0) long value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 105, value1, value2);
         }
         return value1 * value2;
@@ -1400,7 +1400,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(LDIV)
     public static long ldiv(@Slot(2) long value1, @Slot(0) long value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 109, value1, value2);
         }
         return value1 / value2;
@@ -1408,7 +1408,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(LREM)
     public static long lrem(@Slot(2) long value1, @Slot(0) long value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 113, value1, value2);
         }
         return value1 % value2;
@@ -1416,7 +1416,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(LNEG)
     public static long lneg(@Slot(0) long value, long zero, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 117, value, zero);
         }
         return zero - value;
@@ -1424,7 +1424,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(LOR)
     public static long lor(@Slot(2) long value1, @Slot(0) long value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 129, value1, value2);
         }
         return value1 | value2;
@@ -1432,7 +1432,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(LAND)
     public static long land(@Slot(2) long value1, @Slot(0) long value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 127, value1, value2);
         }
         return value1 & value2;
@@ -1440,7 +1440,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(LXOR)
     public static long lxor(@Slot(2) long value1, @Slot(0) long value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 131, value1, value2);
         }
         return value1 ^ value2;
@@ -1448,7 +1448,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(LSHL)
     public static long lshl(@Slot(1) long value1, @Slot(0) int value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 121, value1, value2);
         }
         return value1 << value2;
@@ -1456,7 +1456,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(LSHR)
     public static long lshr(@Slot(1) long value1, @Slot(0) int value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 123, value1, value2);
         }
         return value1 >> value2;
@@ -1464,7 +1464,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(LUSHR)
     public static long lushr(@Slot(1) long value1, @Slot(0) int value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 125, value1, value2);
         }
         return value1 >>> value2;
@@ -1473,7 +1473,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(LRETURN)
     @Slot(-1)
     public static long lreturn(@Slot(0) long value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeReturn(bci, value);
         }
         return value;
@@ -1482,11 +1482,11 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(LRETURN$unlock)
     @Slot(-1)
     public static long lreturnUnlock(Reference object, @Slot(0) long value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeMonitorExit(bci, object);
         }
         Monitor.noninlineExit(object);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeReturn(bci, value);
         }
         return value;
@@ -1495,7 +1495,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(LALOAD)
     public static long laload(@Slot(1) Object array, @Slot(0) int index, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayLoad(bci, array, index);
         }
         long result = ArrayAccess.getLong(array, index);
@@ -1505,7 +1505,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(LASTORE)
     public static void lastore(@Slot(3) Object array, @Slot(2) int index, @Slot(0) long value, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayStore(bci, array, index, value);
         }
         ArrayAccess.setLong(array, index, value);
@@ -1515,7 +1515,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokevirtualLong(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         VirtualMethodActor methodActor = Snippets.resolveVirtualMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectNonPrivateVirtualMethod(receiver, methodActor).
@@ -1525,7 +1525,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEVIRTUAL$long$resolved)
     @Slot(-1)
     public static Address invokevirtualLong(VirtualMethodActor methodActor, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return selectVirtualMethod(receiver, methodActor.vTableIndex()).
@@ -1535,7 +1535,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEVIRTUAL$long$instrumented)
     @Slot(-1)
     public static Address invokevirtualLong(VirtualMethodActor methodActor, MethodProfile mpo, int mpoIndex, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return selectVirtualMethodInstrumented(receiver, methodActor.vTableIndex(), mpo, mpoIndex).
@@ -1546,7 +1546,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokeinterfaceLong(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         final InterfaceMethodActor methodActor = Snippets.resolveInterfaceMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectInterfaceMethod(receiver, methodActor).
@@ -1556,7 +1556,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEINTERFACE$long$resolved)
     @Slot(-1)
     public static Address invokeinterfaceLong(InterfaceMethodActor methodActor, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectInterfaceMethod(receiver, methodActor).
@@ -1566,7 +1566,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEINTERFACE$long$instrumented)
     @Slot(-1)
     public static Address invokeinterfaceLong(InterfaceMethodActor methodActor, MethodProfile mpo, int mpoIndex, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return Snippets.selectInterfaceMethod(receiver, methodActor, mpo, mpoIndex).
@@ -1578,7 +1578,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static Address invokespecialLong(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         nullCheck(receiver.toOrigin());
         VirtualMethodActor methodActor = VMAT1XRuntime.resolveSpecialMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeSpecial(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.initializeSpecialMethod(methodActor);
@@ -1587,7 +1587,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKESPECIAL$long$resolved)
     public static void invokespecialLong(VirtualMethodActor methodActor, Reference receiver, int bci) {
         nullCheck(receiver.toOrigin());
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeSpecial(bci, receiver, methodActor);
         }
     }
@@ -1596,7 +1596,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokestaticLong(ResolutionGuard.InPool guard, int bci) {
         StaticMethodActor methodActor = VMAT1XRuntime.resolveStaticMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeStatic(bci, null, methodActor);
         }
         return VMAT1XRuntime.initializeStaticMethod(methodActor);
@@ -1604,14 +1604,14 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(INVOKESTATIC$long$init)
     public static void invokestaticLong(StaticMethodActor methodActor, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeStatic(bci, null, methodActor);
         }
     }
 
     @T1X_TEMPLATE(GETFIELD$double$resolved)
     public static double getfieldDouble(@Slot(0) Object object, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         double result = TupleAccess.readDouble(object, f.offset());
@@ -1626,7 +1626,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static double resolveAndGetFieldDouble(ResolutionGuard.InPool guard, Object object, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForReading(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         if (f.isVolatile()) {
@@ -1642,7 +1642,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETSTATIC$double$init)
     public static double getstaticDouble(Object staticTuple, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, staticTuple, f);
         }
         double result = TupleAccess.readDouble(staticTuple, f.offset());
@@ -1658,7 +1658,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static double resolveAndGetStaticDouble(ResolutionGuard.InPool guard, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForReading(guard);
         Snippets.makeHolderInitialized(f);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, f.holder().staticTuple(), f);
         }
         if (f.isVolatile()) {
@@ -1674,7 +1674,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTFIELD$double$resolved)
     public static void putfieldDouble(@Slot(2) Object object, FieldActor f, @Slot(0) double value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         TupleAccess.writeDouble(object, f.offset(), value);
@@ -1688,7 +1688,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutFieldDouble(ResolutionGuard.InPool guard, Object object, double value, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         if (f.isVolatile()) {
@@ -1702,7 +1702,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTSTATIC$double$init)
     public static void putstaticDouble(Object staticTuple, FieldActor f, @Slot(0) double value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, staticTuple, f, value);
         }
         TupleAccess.writeDouble(staticTuple, f.offset(), value);
@@ -1716,7 +1716,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutStaticDouble(ResolutionGuard.InPool guard, double value, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, f.holder().staticTuple(), f, value);
         }
         Snippets.makeHolderInitialized(f);
@@ -1731,7 +1731,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(I2D)
     public static double i2d(@Slot(0) int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 135, value);
         }
         return value;
@@ -1739,7 +1739,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(L2D)
     public static double l2d(@Slot(0) long value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 138, value);
         }
         return value;
@@ -1747,7 +1747,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(F2D)
     public static double f2d(@Slot(0) float value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConversion(bci, 141, value);
         }
         return value;
@@ -1755,7 +1755,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(DADD)
     public static double dadd(@Slot(2) double value1, @Slot(0) double value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 99, value1, value2);
         }
         return value1 + value2;
@@ -1763,7 +1763,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(DSUB)
     public static double dsub(@Slot(2) double value1, @Slot(0) double value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 103, value1, value2);
         }
         return value1 - value2;
@@ -1771,7 +1771,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(DMUL)
     public static double dmul(@Slot(2) double value1, @Slot(0) double value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 107, value1, value2);
         }
         return value1 * value2;
@@ -1779,7 +1779,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(DDIV)
     public static double ddiv(@Slot(2) double value1, @Slot(0) double value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 111, value1, value2);
         }
         return value1 / value2;
@@ -1787,7 +1787,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(DREM)
     public static double drem(@Slot(2) double value1, @Slot(0) double value2, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 115, value1, value2);
         }
         return value1 % value2;
@@ -1795,7 +1795,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(DNEG)
     public static double dneg(@Slot(0) double value, double zero, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 119, value, zero);
         }
         double res;
@@ -1810,7 +1810,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(DRETURN)
     @Slot(-1)
     public static double dreturn(@Slot(0) double value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeReturn(bci, value);
         }
         return value;
@@ -1819,11 +1819,11 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(DRETURN$unlock)
     @Slot(-1)
     public static double dreturnUnlock(Reference object, @Slot(0) double value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeMonitorExit(bci, object);
         }
         Monitor.noninlineExit(object);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeReturn(bci, value);
         }
         return value;
@@ -1832,7 +1832,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(DALOAD)
     public static double daload(@Slot(1) Object array, @Slot(0) int index, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayLoad(bci, array, index);
         }
         double result = ArrayAccess.getDouble(array, index);
@@ -1842,7 +1842,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(DASTORE)
     public static void dastore(@Slot(3) Object array, @Slot(2) int index, @Slot(0) double value, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayStore(bci, array, index, value);
         }
         ArrayAccess.setDouble(array, index, value);
@@ -1852,7 +1852,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokevirtualDouble(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         VirtualMethodActor methodActor = Snippets.resolveVirtualMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectNonPrivateVirtualMethod(receiver, methodActor).
@@ -1862,7 +1862,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEVIRTUAL$double$resolved)
     @Slot(-1)
     public static Address invokevirtualDouble(VirtualMethodActor methodActor, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return selectVirtualMethod(receiver, methodActor.vTableIndex()).
@@ -1872,7 +1872,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEVIRTUAL$double$instrumented)
     @Slot(-1)
     public static Address invokevirtualDouble(VirtualMethodActor methodActor, MethodProfile mpo, int mpoIndex, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return selectVirtualMethodInstrumented(receiver, methodActor.vTableIndex(), mpo, mpoIndex).
@@ -1883,7 +1883,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokeinterfaceDouble(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         final InterfaceMethodActor methodActor = Snippets.resolveInterfaceMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectInterfaceMethod(receiver, methodActor).
@@ -1893,7 +1893,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEINTERFACE$double$resolved)
     @Slot(-1)
     public static Address invokeinterfaceDouble(InterfaceMethodActor methodActor, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectInterfaceMethod(receiver, methodActor).
@@ -1903,7 +1903,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEINTERFACE$double$instrumented)
     @Slot(-1)
     public static Address invokeinterfaceDouble(InterfaceMethodActor methodActor, MethodProfile mpo, int mpoIndex, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return Snippets.selectInterfaceMethod(receiver, methodActor, mpo, mpoIndex).
@@ -1915,7 +1915,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static Address invokespecialDouble(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         nullCheck(receiver.toOrigin());
         VirtualMethodActor methodActor = VMAT1XRuntime.resolveSpecialMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeSpecial(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.initializeSpecialMethod(methodActor);
@@ -1924,7 +1924,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKESPECIAL$double$resolved)
     public static void invokespecialDouble(VirtualMethodActor methodActor, Reference receiver, int bci) {
         nullCheck(receiver.toOrigin());
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeSpecial(bci, receiver, methodActor);
         }
     }
@@ -1933,7 +1933,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokestaticDouble(ResolutionGuard.InPool guard, int bci) {
         StaticMethodActor methodActor = VMAT1XRuntime.resolveStaticMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeStatic(bci, null, methodActor);
         }
         return VMAT1XRuntime.initializeStaticMethod(methodActor);
@@ -1941,14 +1941,14 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(INVOKESTATIC$double$init)
     public static void invokestaticDouble(StaticMethodActor methodActor, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeStatic(bci, null, methodActor);
         }
     }
 
     @T1X_TEMPLATE(GETFIELD$reference$resolved)
     public static Reference getfieldObject(@Slot(0) Object object, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         Object result = TupleAccess.readObject(object, f.offset());
@@ -1963,7 +1963,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static Reference resolveAndGetFieldReference(ResolutionGuard.InPool guard, Object object, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForReading(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         if (f.isVolatile()) {
@@ -1979,7 +1979,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETSTATIC$reference$init)
     public static Reference getstaticObject(Object staticTuple, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, staticTuple, f);
         }
         Object result = TupleAccess.readObject(staticTuple, f.offset());
@@ -1995,7 +1995,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static Reference resolveAndGetStaticReference(ResolutionGuard.InPool guard, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForReading(guard);
         Snippets.makeHolderInitialized(f);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, f.holder().staticTuple(), f);
         }
         if (f.isVolatile()) {
@@ -2011,7 +2011,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTFIELD$reference$resolved)
     public static void putfieldReference(@Slot(1) Object object, FieldActor f, @Slot(0) Reference value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         TupleAccess.noninlineWriteObject(object, f.offset(), value);
@@ -2025,7 +2025,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutFieldReference(ResolutionGuard.InPool guard, Object object, Reference value, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value);
         }
         if (f.isVolatile()) {
@@ -2039,7 +2039,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTSTATIC$reference$init)
     public static void putstaticReference(Object staticTuple, FieldActor f, @Slot(0) Reference value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, staticTuple, f, value);
         }
         TupleAccess.noninlineWriteObject(staticTuple, f.offset(), value);
@@ -2053,7 +2053,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutStaticReference(ResolutionGuard.InPool guard, Reference value, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, f.holder().staticTuple(), f, value);
         }
         Snippets.makeHolderInitialized(f);
@@ -2069,7 +2069,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(ARETURN)
     @Slot(-1)
     public static Reference areturn(@Slot(0) Reference value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeReturn(bci, value);
         }
         return value;
@@ -2078,11 +2078,11 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(ARETURN$unlock)
     @Slot(-1)
     public static Reference areturnUnlock(Reference object, @Slot(0) Reference value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeMonitorExit(bci, object);
         }
         Monitor.noninlineExit(object);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeReturn(bci, value);
         }
         return value;
@@ -2091,11 +2091,11 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(AALOAD)
     public static Reference aaload(@Slot(1) Object array, @Slot(0) int index, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayLoad(bci, array, index);
         }
         Object result = ArrayAccess.getObject(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterArrayLoad(bci, array, index, result);
         }
         return Reference.fromJava(result);
@@ -2104,7 +2104,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(AASTORE)
     public static void aastore(@Slot(2) Object array, @Slot(1) int index, @Slot(0) Reference value, int bci) {
         ArrayAccess.checkIndex(array, index);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeArrayStore(bci, array, index, value);
         }
         ArrayAccess.checkSetObject(array, value);
@@ -2115,7 +2115,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokevirtualObject(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         VirtualMethodActor methodActor = Snippets.resolveVirtualMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectNonPrivateVirtualMethod(receiver, methodActor).
@@ -2125,7 +2125,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEVIRTUAL$reference$resolved)
     @Slot(-1)
     public static Address invokevirtualObject(VirtualMethodActor methodActor, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return selectVirtualMethod(receiver, methodActor.vTableIndex()).
@@ -2135,7 +2135,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEVIRTUAL$reference$instrumented)
     @Slot(-1)
     public static Address invokevirtualObject(VirtualMethodActor methodActor, MethodProfile mpo, int mpoIndex, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return selectVirtualMethodInstrumented(receiver, methodActor.vTableIndex(), mpo, mpoIndex).
@@ -2146,7 +2146,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokeinterfaceObject(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         final InterfaceMethodActor methodActor = Snippets.resolveInterfaceMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectInterfaceMethod(receiver, methodActor).
@@ -2156,7 +2156,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEINTERFACE$reference$resolved)
     @Slot(-1)
     public static Address invokeinterfaceObject(InterfaceMethodActor methodActor, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectInterfaceMethod(receiver, methodActor).
@@ -2166,7 +2166,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEINTERFACE$reference$instrumented)
     @Slot(-1)
     public static Address invokeinterfaceObject(InterfaceMethodActor methodActor, MethodProfile mpo, int mpoIndex, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return Snippets.selectInterfaceMethod(receiver, methodActor, mpo, mpoIndex).
@@ -2178,7 +2178,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static Address invokespecialObject(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         nullCheck(receiver.toOrigin());
         VirtualMethodActor methodActor = VMAT1XRuntime.resolveSpecialMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeSpecial(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.initializeSpecialMethod(methodActor);
@@ -2187,7 +2187,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKESPECIAL$reference$resolved)
     public static void invokespecialObject(VirtualMethodActor methodActor, Reference receiver, int bci) {
         nullCheck(receiver.toOrigin());
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeSpecial(bci, receiver, methodActor);
         }
     }
@@ -2196,7 +2196,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokestaticObject(ResolutionGuard.InPool guard, int bci) {
         StaticMethodActor methodActor = VMAT1XRuntime.resolveStaticMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeStatic(bci, null, methodActor);
         }
         return VMAT1XRuntime.initializeStaticMethod(methodActor);
@@ -2204,14 +2204,14 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(INVOKESTATIC$reference$init)
     public static void invokestaticObject(StaticMethodActor methodActor, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeStatic(bci, null, methodActor);
         }
     }
 
     @T1X_TEMPLATE(GETFIELD$word$resolved)
     public static Word getfieldWord(@Slot(0) Object object, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         Word result = TupleAccess.readWord(object, f.offset());
@@ -2226,7 +2226,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static Word resolveAndGetFieldWord(ResolutionGuard.InPool guard, Object object, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForReading(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetField(bci, object, f);
         }
         if (f.isVolatile()) {
@@ -2242,7 +2242,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(GETSTATIC$word$init)
     public static Word getstaticWord(Object staticTuple, FieldActor f, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, staticTuple, f);
         }
         Word result = TupleAccess.readWord(staticTuple, f.offset());
@@ -2258,7 +2258,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static Word resolveAndGetStaticWord(ResolutionGuard.InPool guard, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForReading(guard);
         Snippets.makeHolderInitialized(f);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGetStatic(bci, f.holder().staticTuple(), f);
         }
         if (f.isVolatile()) {
@@ -2274,7 +2274,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTFIELD$word$resolved)
     public static void putfieldWord(@Slot(1) Object object, FieldActor f, @Slot(0) Word value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value.asAddress().toLong());
         }
         TupleAccess.writeWord(object, f.offset(), value);
@@ -2288,7 +2288,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutFieldWord(ResolutionGuard.InPool guard, Object object, Word value, int bci) {
         FieldActor f = Snippets.resolveInstanceFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutField(bci, object, f, value.asAddress().toLong());
         }
         if (f.isVolatile()) {
@@ -2302,7 +2302,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(PUTSTATIC$word$init)
     public static void putstaticWord(Object staticTuple, FieldActor f, @Slot(0) Word value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, staticTuple, f, value.asAddress().toLong());
         }
         TupleAccess.writeWord(staticTuple, f.offset(), value);
@@ -2316,7 +2316,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     public static void resolveAndPutStaticWord(ResolutionGuard.InPool guard, Word value, int bci) {
         FieldActor f = Snippets.resolveStaticFieldForWriting(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforePutStatic(bci, f.holder().staticTuple(), f, value.asAddress().toLong());
         }
         Snippets.makeHolderInitialized(f);
@@ -2333,7 +2333,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokevirtualWord(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         VirtualMethodActor methodActor = Snippets.resolveVirtualMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectNonPrivateVirtualMethod(receiver, methodActor).
@@ -2343,7 +2343,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEVIRTUAL$word$resolved)
     @Slot(-1)
     public static Address invokevirtualWord(VirtualMethodActor methodActor, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return selectVirtualMethod(receiver, methodActor.vTableIndex()).
@@ -2353,7 +2353,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEVIRTUAL$word$instrumented)
     @Slot(-1)
     public static Address invokevirtualWord(VirtualMethodActor methodActor, MethodProfile mpo, int mpoIndex, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return selectVirtualMethodInstrumented(receiver, methodActor.vTableIndex(), mpo, mpoIndex).
@@ -2364,7 +2364,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokeinterfaceWord(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         final InterfaceMethodActor methodActor = Snippets.resolveInterfaceMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectInterfaceMethod(receiver, methodActor).
@@ -2374,7 +2374,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEINTERFACE$word$resolved)
     @Slot(-1)
     public static Address invokeinterfaceWord(InterfaceMethodActor methodActor, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectInterfaceMethod(receiver, methodActor).
@@ -2384,7 +2384,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEINTERFACE$word$instrumented)
     @Slot(-1)
     public static Address invokeinterfaceWord(InterfaceMethodActor methodActor, MethodProfile mpo, int mpoIndex, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return Snippets.selectInterfaceMethod(receiver, methodActor, mpo, mpoIndex).
@@ -2396,7 +2396,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static Address invokespecialWord(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         nullCheck(receiver.toOrigin());
         VirtualMethodActor methodActor = VMAT1XRuntime.resolveSpecialMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeSpecial(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.initializeSpecialMethod(methodActor);
@@ -2405,7 +2405,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKESPECIAL$word$resolved)
     public static void invokespecialWord(VirtualMethodActor methodActor, Reference receiver, int bci) {
         nullCheck(receiver.toOrigin());
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeSpecial(bci, receiver, methodActor);
         }
     }
@@ -2414,7 +2414,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokestaticWord(ResolutionGuard.InPool guard, int bci) {
         StaticMethodActor methodActor = VMAT1XRuntime.resolveStaticMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeStatic(bci, null, methodActor);
         }
         return VMAT1XRuntime.initializeStaticMethod(methodActor);
@@ -2422,7 +2422,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(INVOKESTATIC$word$init)
     public static void invokestaticWord(StaticMethodActor methodActor, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeStatic(bci, null, methodActor);
         }
     }
@@ -2430,7 +2430,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(RETURN)
     @Slot(-1)
     public static void vreturn(int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeReturn(bci);
         }
     }
@@ -2438,11 +2438,11 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(RETURN$unlock)
     @Slot(-1)
     public static void vreturnUnlock(Reference object, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeMonitorExit(bci, object);
         }
         Monitor.noninlineExit(object);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeReturn(bci);
         }
     }
@@ -2451,7 +2451,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokevirtualVoid(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         VirtualMethodActor methodActor = Snippets.resolveVirtualMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectNonPrivateVirtualMethod(receiver, methodActor).
@@ -2461,7 +2461,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEVIRTUAL$void$resolved)
     @Slot(-1)
     public static Address invokevirtualVoid(VirtualMethodActor methodActor, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return selectVirtualMethod(receiver, methodActor.vTableIndex()).
@@ -2471,7 +2471,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEVIRTUAL$void$instrumented)
     @Slot(-1)
     public static Address invokevirtualVoid(VirtualMethodActor methodActor, MethodProfile mpo, int mpoIndex, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeVirtual(bci, receiver, methodActor);
         }
         return selectVirtualMethodInstrumented(receiver, methodActor.vTableIndex(), mpo, mpoIndex).
@@ -2482,7 +2482,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokeinterfaceVoid(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         final InterfaceMethodActor methodActor = Snippets.resolveInterfaceMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectInterfaceMethod(receiver, methodActor).
@@ -2492,7 +2492,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEINTERFACE$void$resolved)
     @Slot(-1)
     public static Address invokeinterfaceVoid(InterfaceMethodActor methodActor, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.selectInterfaceMethod(receiver, methodActor).
@@ -2502,7 +2502,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKEINTERFACE$void$instrumented)
     @Slot(-1)
     public static Address invokeinterfaceVoid(InterfaceMethodActor methodActor, MethodProfile mpo, int mpoIndex, Reference receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeInterface(bci, receiver, methodActor);
         }
         return Snippets.selectInterfaceMethod(receiver, methodActor, mpo, mpoIndex).
@@ -2514,7 +2514,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static Address invokespecialVoid(ResolutionGuard.InPool guard, Reference receiver, int bci) {
         nullCheck(receiver.toOrigin());
         VirtualMethodActor methodActor = VMAT1XRuntime.resolveSpecialMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeSpecial(bci, receiver, methodActor);
         }
         return VMAT1XRuntime.initializeSpecialMethod(methodActor);
@@ -2523,7 +2523,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INVOKESPECIAL$void$resolved)
     public static void invokespecialVoid(VirtualMethodActor methodActor, Reference receiver, int bci) {
         nullCheck(receiver.toOrigin());
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeSpecial(bci, receiver, methodActor);
         }
     }
@@ -2532,7 +2532,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @Slot(-1)
     public static Address invokestaticVoid(ResolutionGuard.InPool guard, int bci) {
         StaticMethodActor methodActor = VMAT1XRuntime.resolveStaticMethod(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeStatic(bci, null, methodActor);
         }
         return VMAT1XRuntime.initializeStaticMethod(methodActor);
@@ -2540,7 +2540,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(INVOKESTATIC$void$init)
     public static void invokestaticVoid(StaticMethodActor methodActor, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInvokeStatic(bci, null, methodActor);
         }
     }
@@ -2548,7 +2548,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(LCMP)
     public static int lcmp(@Slot(2) long value1, @Slot(0) long value2, int bci) {
         int result = rawCompare(Bytecodes.LCMP, value1, value2);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 148, value1, value2);
         }
         return result;
@@ -2557,7 +2557,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(FCMPL)
     public static int fcmpl(@Slot(1) float value1, @Slot(0) float value2, int bci) {
         int result = rawCompare(Bytecodes.FCMPL, value1, value2);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 149, value1, value2);
         }
         return result;
@@ -2566,7 +2566,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(FCMPG)
     public static int fcmpg(@Slot(1) float value1, @Slot(0) float value2, int bci) {
         int result = rawCompare(Bytecodes.FCMPG, value1, value2);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 150, value1, value2);
         }
         return result;
@@ -2575,7 +2575,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(DCMPL)
     public static int dcmpl(@Slot(2) double value1, @Slot(0) double value2, int bci) {
         int result = rawCompare(Bytecodes.DCMPL, value1, value2);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 151, value1, value2);
         }
         return result;
@@ -2584,7 +2584,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(DCMPG)
     public static int dcmpg(@Slot(2) double value1, @Slot(0) double value2, int bci) {
         int result = rawCompare(Bytecodes.DCMPG, value1, value2);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 152, value1, value2);
         }
         return result;
@@ -2593,7 +2593,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(NEW)
     public static Object new_(ResolutionGuard guard, int bci) {
         Object object = resolveClassForNewAndCreate(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterNew(bci, object);
         }
         return object;
@@ -2602,7 +2602,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(NEW$init)
     public static Object new_(DynamicHub hub, int bci) {
         Object object = Heap.createTuple(hub);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterNew(bci, object);
         }
         return object;
@@ -2611,7 +2611,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(NEW_HYBRID)
     public static Object new_hybrid(DynamicHub hub, int bci) {
         Object object = Heap.createHybrid(hub);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterNew(bci, object);
         }
         return object;
@@ -2620,7 +2620,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(NEWARRAY)
     public static Object newarray(ClassActor arrayClass, @Slot(0) int length, int bci) {
         Object array = Snippets.createArray(arrayClass, length);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterNewArray(bci, array, length);
         }
         return array;
@@ -2630,7 +2630,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static Object anewarray(ResolutionGuard arrayType, @Slot(0) int length, int bci) {
         ArrayClassActor<?> arrayClassActor = UnsafeCast.asArrayClassActor(Snippets.resolveArrayClass(arrayType));
         Object array = Snippets.createArray(arrayClassActor, length);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterNewArray(bci, array, length);
         }
         return array;
@@ -2640,7 +2640,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static Object anewarray(ArrayClassActor<?> arrayType, @Slot(0) int length, int bci) {
         ArrayClassActor<?> arrayClassActor = arrayType;
         Object array = Snippets.createArray(arrayClassActor, length);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterNewArray(bci, array, length);
         }
         return array;
@@ -2650,7 +2650,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static Reference multianewarray(ResolutionGuard guard, int[] lengths, int bci) {
         ClassActor arrayClassActor = Snippets.resolveClass(guard);
         Object array = Snippets.createMultiReferenceArray(arrayClassActor, lengths);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterMultiNewArray(bci, array, lengths);
         }
         return Reference.fromJava(array);
@@ -2659,7 +2659,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(MULTIANEWARRAY$resolved)
     public static Reference multianewarray(ArrayClassActor<?> arrayClassActor, int[] lengths, int bci) {
         Object array = Snippets.createMultiReferenceArray(arrayClassActor, lengths);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterMultiNewArray(bci, array, lengths);
         }
         return Reference.fromJava(array);
@@ -2673,7 +2673,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(CHECKCAST$resolved)
     public static Object checkcast(ClassActor classActor, @Slot(0) Object object, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeCheckCast(bci, object, classActor);
         }
         Snippets.checkCast(classActor, object);
@@ -2682,7 +2682,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(CHECKCAST$instrumented)
     public static Object checkcast(ClassActor classActor, @Slot(0) Object object, int bci, MethodProfile mpo, int mpoIndex) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeCheckCast(bci, object, classActor);
         }
         MethodInstrumentation.recordType(mpo, object, mpoIndex, MethodInstrumentation.DEFAULT_RECEIVER_METHOD_PROFILE_ENTRIES);
@@ -2693,7 +2693,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @NEVER_INLINE
     private static void resolveAndCheckcast(ResolutionGuard guard, final Object object, int bci) {
         ClassActor classActor = Snippets.resolveClass(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeCheckCast(bci, object, classActor);
         }
         Snippets.checkCast(classActor, object);
@@ -2702,7 +2702,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(ARRAYLENGTH)
     public static int arraylength(@Slot(0) Object array, int bci) {
         int length = ArrayAccess.readArrayLength(array);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterArrayLength(bci, array, length);
         }
         return length;
@@ -2710,7 +2710,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(ATHROW)
     public static void athrow(@Slot(0) Object object, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeThrow(bci, object);
         }
         Throw.raise(object);
@@ -2719,7 +2719,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(RETHROW_EXCEPTION)
     public static void rethrowException(int bci) {
         Throwable throwable = VmThread.current().loadExceptionForHandler();
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeThrow(bci, throwable);
         }
         Throw.raise(throwable);
@@ -2727,7 +2727,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(MONITORENTER)
     public static void monitorenter(@Slot(0) Object object, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeMonitorEnter(bci, object);
         }
         Monitor.enter(object);
@@ -2735,7 +2735,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(MONITOREXIT)
     public static void monitorexit(@Slot(0) Object object, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeMonitorExit(bci, object);
         }
         Monitor.exit(object);
@@ -2744,7 +2744,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INSTANCEOF)
     public static int instanceof_(ResolutionGuard guard, @Slot(0) Object object, int bci) {
         ClassActor classActor = Snippets.resolveClass(guard);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInstanceOf(bci, object, classActor);
         }
         return UnsafeCast.asByte(Snippets.instanceOf(classActor, object));
@@ -2752,7 +2752,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(INSTANCEOF$resolved)
     public static int instanceof_(ClassActor classActor, @Slot(0) Object object, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInstanceOf(bci, object, classActor);
         }
         return UnsafeCast.asByte(Snippets.instanceOf(classActor, object));
@@ -2761,7 +2761,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     @T1X_TEMPLATE(INSTANCEOF$instrumented)
     public static int instanceof_(ClassActor classActor, @Slot(0) Object object, int bci, MethodProfile mpo, int mpoIndex) {
         MethodInstrumentation.recordType(mpo, object, mpoIndex, MethodInstrumentation.DEFAULT_RECEIVER_METHOD_PROFILE_ENTRIES);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeInstanceOf(bci, object, classActor);
         }
         return UnsafeCast.asByte(Snippets.instanceOf(classActor, object));
@@ -2773,14 +2773,14 @@ public class VMAdviceBeforeAfterTemplateSource {
         if (ObjectAccess.readClassActor(object).hasFinalizer()) {
             SpecialReferenceManager.registerFinalizee(object);
         }
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeReturn(bci);
         }
     }
 
     @T1X_TEMPLATE(LOCK)
     public static void lock(Object object, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeMonitorEnter(bci, object);
         }
         Monitor.enter(object);
@@ -2788,7 +2788,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(UNLOCK)
     public static void unlock(Object object, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeMonitorExit(bci, object);
         }
         Monitor.exit(object);
@@ -2796,7 +2796,7 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(TRACE_METHOD_ENTRY)
     public static void traceMethodEntry(MethodActor methodActor, Object receiver, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterMethodEntry(bci, receiver, methodActor);
         }
     }
@@ -2809,126 +2809,126 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(POP)
     public static void pop(int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeStackAdjust(bci, 87);
         }
     }
 
     @T1X_TEMPLATE(POP2)
     public static void pop2(int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeStackAdjust(bci, 88);
         }
     }
 
     @T1X_TEMPLATE(DUP)
     public static void dup(int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeStackAdjust(bci, 89);
         }
     }
 
     @T1X_TEMPLATE(DUP_X1)
     public static void dup_x1(int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeStackAdjust(bci, 90);
         }
     }
 
     @T1X_TEMPLATE(DUP_X2)
     public static void dup_x2(int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeStackAdjust(bci, 91);
         }
     }
 
     @T1X_TEMPLATE(DUP2)
     public static void dup2(int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeStackAdjust(bci, 92);
         }
     }
 
     @T1X_TEMPLATE(DUP2_X1)
     public static void dup2_x1(int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeStackAdjust(bci, 93);
         }
     }
 
     @T1X_TEMPLATE(DUP2_X2)
     public static void dup2_x2(int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeStackAdjust(bci, 94);
         }
     }
 
     @T1X_TEMPLATE(SWAP)
     public static void swap(int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeStackAdjust(bci, 95);
         }
     }
 
     @T1X_TEMPLATE(ACONST_NULL)
     public static void aconst_null(int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConstLoad(bci, null);
         }
     }
 
     @T1X_TEMPLATE(ICONST)
     public static void iconst(int constant, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConstLoad(bci, constant);
         }
     }
 
     @T1X_TEMPLATE(LCONST)
     public static void lconst(long constant, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConstLoad(bci, constant);
         }
     }
 
     @T1X_TEMPLATE(FCONST)
     public static void fconst(float constant, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConstLoad(bci, constant);
         }
     }
 
     @T1X_TEMPLATE(DCONST)
     public static void dconst(double constant, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConstLoad(bci, constant);
         }
     }
 
     @T1X_TEMPLATE(LDC$int)
     public static void ildc(int constant, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConstLoad(bci, constant);
         }
     }
 
     @T1X_TEMPLATE(LDC$long)
     public static void lldc(long constant, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConstLoad(bci, constant);
         }
     }
 
     @T1X_TEMPLATE(LDC$float)
     public static void fldc(float constant, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConstLoad(bci, constant);
         }
     }
 
     @T1X_TEMPLATE(LDC$double)
     public static void dldc(double constant, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConstLoad(bci, constant);
         }
     }
@@ -2937,7 +2937,7 @@ public class VMAdviceBeforeAfterTemplateSource {
     public static Object uoldc(ResolutionGuard guard, int bci) {
         ClassActor classActor = Snippets.resolveClass(guard);
         Object constant = classActor.javaClass();
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConstLoad(bci, constant);
         }
         return constant;
@@ -2945,46 +2945,46 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(LDC$reference$resolved)
     public static void oldc(Object constant, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeConstLoad(bci, constant);
         }
     }
 
     @T1X_TEMPLATE(ILOAD)
     public static void iload(int index, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeLoad(bci, index);
         }
     }
 
     @T1X_TEMPLATE(LLOAD)
     public static void lload(int index, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeLoad(bci, index);
         }
     }
 
     @T1X_TEMPLATE(FLOAD)
     public static void fload(int index, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeLoad(bci, index);
         }
     }
 
     @T1X_TEMPLATE(DLOAD)
     public static void dload(int index, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeLoad(bci, index);
         }
     }
 
     @T1X_TEMPLATE(ALOAD)
     public static Reference aload(int index, int localOffset, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeLoad(bci, index);
         }
         Reference value = VMRegister.getAbiFramePointer().readReference(localOffset);
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseAfterLoad(bci, index, value);
         }
         return value;
@@ -2992,168 +2992,168 @@ public class VMAdviceBeforeAfterTemplateSource {
 
     @T1X_TEMPLATE(ISTORE)
     public static void istore(int index, int value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeStore(bci, index, value);
         }
     }
 
     @T1X_TEMPLATE(LSTORE)
     public static void lstore(int index, long value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeStore(bci, index, value);
         }
     }
 
     @T1X_TEMPLATE(FSTORE)
     public static void fstore(int index, float value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeStore(bci, index, value);
         }
     }
 
     @T1X_TEMPLATE(DSTORE)
     public static void dstore(int index, double value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeStore(bci, index, value);
         }
     }
 
     @T1X_TEMPLATE(ASTORE)
     public static void ostore(int index, Object value, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeStore(bci, index, value);
         }
     }
 
     @T1X_TEMPLATE(IINC)
     public static void iinc(int index, int increment, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeOperation(bci, 132, index, increment);
         }
     }
 
     @T1X_TEMPLATE(IFEQ)
     public static void ifeq(int value1, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 153, value1, 0, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IFNE)
     public static void ifne(int value1, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 154, value1, 0, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IFLT)
     public static void iflt(int value1, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 155, value1, 0, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IFGE)
     public static void ifge(int value1, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 156, value1, 0, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IFGT)
     public static void ifgt(int value1, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 157, value1, 0, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IFLE)
     public static void ifle(int value1, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 158, value1, 0, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IFNULL)
     public static void ifnull(Object value1, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 198, value1, null, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IFNONNULL)
     public static void ifnonnull(Object value1, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 199, value1, null, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IF_ICMPEQ)
     public static void if_icmpeq(int value1, int value2, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 159, value1, value2, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IF_ICMPNE)
     public static void if_icmpne(int value1, int value2, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 160, value1, value2, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IF_ICMPLT)
     public static void if_icmplt(int value1, int value2, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 161, value1, value2, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IF_ICMPGE)
     public static void if_icmpge(int value1, int value2, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 162, value1, value2, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IF_ICMPGT)
     public static void if_icmpgt(int value1, int value2, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 163, value1, value2, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IF_ICMPLE)
     public static void if_icmple(int value1, int value2, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 164, value1, value2, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IF_ACMPEQ)
     public static void if_acmpeq(Object value1, Object value2, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 165, value1, value2, targetBci);
         }
     }
 
     @T1X_TEMPLATE(IF_ACMPNE)
     public static void if_acmpne(Object value1, Object value2, int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeIf(bci, 166, value1, value2, targetBci);
         }
     }
 
     @T1X_TEMPLATE(GOTO)
     public static void goto_s(int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGoto(bci, targetBci);
         }
     }
 
     @T1X_TEMPLATE(GOTO_W)
     public static void goto_w(int targetBci, int bci) {
-        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)) {
+        if (Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && (!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())) {
             VMAStaticBytecodeAdvice.adviseBeforeGoto(bci, targetBci);
         }
     }
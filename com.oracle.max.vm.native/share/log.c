@@ -98,6 +98,43 @@ void allocationProfiler_unlock(void) {
     }
 }
 
+#if !os_MAXVE
+static FILE *allocationProfiler_dumpStream = NULL;
+#endif
+
+/*
+ * Opens the file to which the allocation profiler streams its binary records.
+ */
+jboolean allocationProfiler_openDump(const char *path) {
+#if !os_MAXVE
+    allocationProfiler_dumpStream = fopen(path, "wb");
+    return allocationProfiler_dumpStream != NULL;
+#else
+    return JNI_FALSE;
+#endif
+}
+
+void allocationProfiler_writeDump(const void *buffer, jint length) {
+#if !os_MAXVE
+    if (allocationProfiler_dumpStream != NULL) {
+        if (fwrite(buffer, 1, length, allocationProfiler_dumpStream) != (size_t) length) {
+            log_println("Error writing allocation profiler dump");
+        }
+        /* make the records of each dump visible to readers of the file while the VM is running */
+        fflush(allocationProfiler_dumpStream);
+    }
+#endif
+}
+
+void allocationProfiler_closeDump(void) {
+#if !os_MAXVE
+    if (allocationProfiler_dumpStream != NULL) {
+        fclose(allocationProfiler_dumpStream);
+        allocationProfiler_dumpStream = NULL;
+    }
+#endif
+}
+
 void log_print_format(const char *format, ...) {
     va_list ap;
     va_start(ap, format);
@@ -40,6 +40,9 @@ extern void log_unlock(void);
 
 extern void allocationProfiler_lock(void);
 extern void allocationProfiler_unlock(void);
+extern jboolean allocationProfiler_openDump(const char *path);
+extern void allocationProfiler_writeDump(const void *buffer, jint length);
+extern void allocationProfiler_closeDump(void);
 
 extern void log_print_int(int val);
 extern void log_print_boolean(char val);
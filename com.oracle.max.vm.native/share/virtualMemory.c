@@ -156,6 +156,19 @@ Address virtualMemory_allocatePrivateAnon(Address address, Size size, jboolean r
 }
 
 
+/**
+ * Allocates private anonymous memory, preferably at a given address. Unlike virtualMemory_allocatePrivateAnon(),
+ * a non-zero address is only a hint: existing mappings are never replaced and the memory may be allocated elsewhere.
+ */
+Address virtualMemory_allocatePrivateAnonNear(Address address, Size size, jboolean reserveSwap, jboolean protNone, int type) {
+    int flags = MAP_PRIVATE | MAP_ANON;
+    int prot = protNone == JNI_TRUE ? PROT_NONE : PROT;
+    if (reserveSwap == JNI_FALSE) {
+        flags |= MAP_NORESERVE;
+    }
+    return check_mmap_result(mmap((void *) address, (size_t) size, prot, flags, -1, 0));
+}
+
 Address virtualMemory_mapFile(Size size, jint fd, Size offset) {
 #ifdef arm
     Address address = 0x0;
@@ -26,6 +26,7 @@
 #include <unistd.h>
 #include <stdio.h>
 #include <stdlib.h>
+#include <string.h>
 
 #include "relocation.h"
 #include "word.h"
@@ -68,6 +69,26 @@ static Address          theHeap = 0;
 static Address          theCode = 0;
 static Address          theCodeEnd = 0;
 
+#if !MEMORY_IMAGE
+/*
+ * A pre-relocated copy of the boot heap and code (see image_load). The copy starts with one page
+ * holding a relocatedImage_Header, followed by the heap and code exactly as they are after relocation.
+ */
+#define RELOCATED_IMAGE_IDENTIFICATION   0xcafe4dae
+
+typedef struct relocatedImage_Header {
+    jint identification;
+    jint randomID;
+    jint heapAndCodeSize;
+    Address heap;
+    Address reservedVirtualSpace;
+} *relocatedImage_Header;
+
+static struct relocatedImage_Header theRelocatedImageHeader;
+static int theRelocatedImageFd = -1;
+static jboolean isPreRelocated = JNI_FALSE;
+#endif
+
 /*************************************************************************
  Functions for accessing image sections (once they are loaded).
  ************************************************************************/
@@ -314,7 +335,7 @@ static void mapHeapAndCode(int fd) {
         // The address returned might subsequently be used to memory map various regions, including the
         // boot heap region, automatically splitting this mapping.
         // In any case,  the VM (mostly the heap scheme) is responsible for releasing unused reserved space.
-        reservedVirtualSpace = virtualMemory_allocatePrivateAnon((Address) 0, virtualSpaceSize, JNI_FALSE, JNI_FALSE, HEAP_VM);
+        reservedVirtualSpace = virtualMemory_allocatePrivateAnonNear(theRelocatedImageHeader.reservedVirtualSpace, virtualSpaceSize, JNI_FALSE, JNI_FALSE, HEAP_VM);
         if (reservedVirtualSpace == ALLOC_FAILED) {
             log_exit(4, "could not reserve requested virtual space");
         }
@@ -327,17 +348,25 @@ static void mapHeapAndCode(int fd) {
         theHeap = reservedVirtualSpace + virtualSpaceSize - heapAndCodeSize;
     } else {
         // Map the boot heap region anywhere outside of the reserved space.
-        theHeap = virtualMemory_allocatePrivateAnon((Address) 0, heapAndCodeSize, JNI_FALSE, JNI_FALSE, HEAP_VM);
+        theHeap = virtualMemory_allocatePrivateAnonNear(theRelocatedImageHeader.heap, heapAndCodeSize, JNI_FALSE, JNI_FALSE, HEAP_VM);
         if (theHeap == ALLOC_FAILED) {
             log_exit(4, "could not reserve virtual space for boot image");
         }
     }
-    if (virtualMemory_mapFileAtFixedAddress(theHeap, heapAndCodeSize, fd, heapOffsetInImage) == ALLOC_FAILED) {
+    if (theRelocatedImageFd >= 0 && theHeap == theRelocatedImageHeader.heap && reservedVirtualSpace == theRelocatedImageHeader.reservedVirtualSpace) {
+        if (virtualMemory_mapFileAtFixedAddress(theHeap, heapAndCodeSize, theRelocatedImageFd, virtualMemory_getPageSize()) == ALLOC_FAILED) {
+            log_exit(4, "could not map pre-relocated boot image");
+        }
+        isPreRelocated = JNI_TRUE;
+    } else if (virtualMemory_mapFileAtFixedAddress(theHeap, heapAndCodeSize, fd, heapOffsetInImage) == ALLOC_FAILED) {
         log_exit(4, "could not map boot image");
     }
     if (reservedVirtualSpace) {
         Address *addr = image_offset_as_address(Address *, reservedVirtualSpaceFieldOffset);
-        *addr = reservedVirtualSpace;
+        if (*addr != reservedVirtualSpace) {
+            // Only write if needed so that the page stays shared when the image is pre-relocated
+            *addr = reservedVirtualSpace;
+        }
     }
 #else
     c_UNIMPLEMENTED();
@@ -403,7 +432,100 @@ static void relocate(int fd) {
 #endif
 }
 
-void image_load(char *imageFileName) {
+#if !MEMORY_IMAGE
+/**
+ * Opens the pre-relocated copy of the boot image and checks that it was produced from the boot image being loaded.
+ * If so, theRelocatedImageFd and theRelocatedImageHeader are initialized so that mapHeapAndCode()
+ * will try to reserve the same addresses as the run that produced the copy.
+ *
+ * @return true if the copy is missing or does not match the boot image and should be (re)written
+ */
+static jboolean openRelocatedImage(char *relocatedImageFileName) {
+    int heapAndCodeSize = theHeader->heapSize + theHeader->codeSize;
+    int fd = open(relocatedImageFileName, O_RDONLY);
+    if (fd < 0) {
+        return JNI_TRUE;
+    }
+    int n = read(fd, &theRelocatedImageHeader, sizeof(theRelocatedImageHeader));
+    off_t fileSize = lseek(fd, 0, SEEK_END);
+    if (n != sizeof(theRelocatedImageHeader) ||
+        theRelocatedImageHeader.identification != (jint) RELOCATED_IMAGE_IDENTIFICATION ||
+        theRelocatedImageHeader.randomID != theHeader->randomID ||
+        theRelocatedImageHeader.heapAndCodeSize != heapAndCodeSize ||
+        fileSize != (off_t) (virtualMemory_getPageSize() + heapAndCodeSize)) {
+#if log_LOADER
+        log_println("ignoring stale pre-relocated boot image %s", relocatedImageFileName);
+#endif
+        memset(&theRelocatedImageHeader, 0, sizeof(theRelocatedImageHeader));
+        close(fd);
+        return JNI_TRUE;
+    }
+    theRelocatedImageFd = fd;
+    return JNI_FALSE;
+}
+
+static jboolean writeFully(int fd, void *buffer, size_t size) {
+    char *p = (char *) buffer;
+    while (size > 0) {
+        ssize_t n = write(fd, p, size);
+        if (n <= 0) {
+            return JNI_FALSE;
+        }
+        p += n;
+        size -= n;
+    }
+    return JNI_TRUE;
+}
+
+/**
+ * Saves the freshly relocated boot heap and code so that subsequent runs can map them without relocating.
+ * The copy is written to a temporary file that is then renamed, so that concurrently starting VMs
+ * never see a partially written copy.
+ */
+static void saveRelocatedImage(char *relocatedImageFileName, Address reservedVirtualSpace) {
+    char tmpFileName[MAX_PATH_LENGTH];
+    int heapAndCodeSize = theHeader->heapSize + theHeader->codeSize;
+    Size pageSize = virtualMemory_getPageSize();
+    Byte *headerPage;
+    jboolean ok;
+    int fd;
+
+    if (snprintf(tmpFileName, sizeof(tmpFileName), "%s.%d", relocatedImageFileName, getpid()) >= (int) sizeof(tmpFileName)) {
+        log_println("WARNING: pre-relocated boot image file name too long: %s", relocatedImageFileName);
+        return;
+    }
+    fd = open(tmpFileName, O_WRONLY | O_CREAT | O_TRUNC, 0644);
+    if (fd < 0) {
+        log_println("WARNING: could not create pre-relocated boot image %s", tmpFileName);
+        return;
+    }
+    headerPage = (Byte *) calloc(1, pageSize);
+    if (headerPage == NULL) {
+        log_exit(1, "could not allocate pre-relocated boot image header");
+    }
+    relocatedImage_Header header = (relocatedImage_Header) headerPage;
+    header->identification = (jint) RELOCATED_IMAGE_IDENTIFICATION;
+    header->randomID = theHeader->randomID;
+    header->heapAndCodeSize = heapAndCodeSize;
+    header->heap = theHeap;
+    header->reservedVirtualSpace = reservedVirtualSpace;
+    ok = writeFully(fd, headerPage, pageSize) && writeFully(fd, (void *) theHeap, heapAndCodeSize);
+    free(headerPage);
+    if (close(fd) != 0) {
+        ok = JNI_FALSE;
+    }
+    if (!ok || rename(tmpFileName, relocatedImageFileName) != 0) {
+        log_println("WARNING: could not write pre-relocated boot image %s", relocatedImageFileName);
+        unlink(tmpFileName);
+        return;
+    }
+#if log_LOADER
+    log_println("saved pre-relocated boot image to %s", relocatedImageFileName);
+#endif
+}
+#endif
+
+void image_load(char *imageFileName, char *relocatedImageFileName) {
     if (theHeap != 0) {
         // loaded already (via inspector)
         return;
@@ -423,11 +545,35 @@ void image_load(char *imageFileName) {
     checkImage();
     readStringInfo(fd);
     checkTrailer(fd);
+#if !MEMORY_IMAGE
+    jboolean saveRelocated = relocatedImageFileName != NULL && openRelocatedImage(relocatedImageFileName);
+#endif
     mapHeapAndCode(fd);
 #if log_LOADER
     log_println("code @%p codeEnd @%p heap @%p", theCode, theCodeEnd, theHeap);
 #endif
+#if !MEMORY_IMAGE
+    if (isPreRelocated) {
+#if log_LOADER
+        log_println("mapped pre-relocated boot image from %s", relocatedImageFileName);
+#endif
+    } else {
+        relocate(fd);
+        if (saveRelocated) {
+            Address reservedVirtualSpace = 0;
+            if (theHeader->reservedVirtualSpaceSize != 0) {
+                reservedVirtualSpace = *image_offset_as_address(Address *, reservedVirtualSpaceFieldOffset);
+            }
+            saveRelocatedImage(relocatedImageFileName, reservedVirtualSpace);
+        }
+    }
+    if (theRelocatedImageFd >= 0) {
+        close(theRelocatedImageFd);
+        theRelocatedImageFd = -1;
+    }
+#else
     relocate(fd);
+#endif
 #if log_LOADER
     log_println("code @%p codeEnd @%p heap @%p", theCode, theCodeEnd, theHeap);
 #endif
@@ -129,9 +129,17 @@ typedef struct image_Trailer {
  *   - boot heap data
  *   - boot code data
  *
+ * If 'relocatedImageFileName' is not NULL, it names a file holding a copy of the boot heap and code
+ * already relocated for a fixed address. When that file matches the boot image and the address is
+ * available, the copy is mapped privately in place of the boot image's own heap and code, and
+ * relocation is skipped. Pages that are never written stay clean and are shared, via the page cache,
+ * by all VM processes mapping the same copy. Otherwise the boot image is loaded and relocated as usual,
+ * and the result is saved to the file for subsequent runs if the file is missing or stale.
+ *
  * @param imageFileName full path of the boot image file
+ * @param relocatedImageFileName full path of the pre-relocated copy of the boot image, or NULL
  */
-extern void image_load(char *imageFileName);
+extern void image_load(char *imageFileName, char *relocatedImageFileName);
 
 /**
  * Must only be called after calling 'load_image()'.
@@ -132,10 +132,10 @@ static void getImageFilePath(char *result) {
 #endif
 }
 
-static void loadImage(void) {
+static void loadImage(char *relocatedImageFilePath) {
     char imageFilePath[MAX_PATH_LENGTH];
     getImageFilePath(imageFilePath);
-    image_load(imageFilePath);
+    image_load(imageFilePath, relocatedImageFilePath);
 }
 
 static void *openLibrary(char *path) {
@@ -310,6 +310,17 @@ int maxine(int argc, char *argv[], char *executablePath) {
     }
     log_initialize(logFilePath);
 
+    /* Extract the '-XX:RelocatedBootImage' argument, which is also only used by native code. */
+    char *relocatedImageFilePath = getenv("MAXINE_RELOCATED_BOOT_IMAGE");
+    for (i = 1; i < argc; i++) {
+        char *arg = argv[i];
+        if (arg != NULL && strncmp(arg, "-XX:RelocatedBootImage=", 23) == 0) {
+            relocatedImageFilePath = arg + 23;
+            argv[i] = NULL;
+            break;
+        }
+    }
+
 #if os_DARWIN
     _executablePath = executablePath;
 #endif
@@ -334,7 +345,7 @@ int maxine(int argc, char *argv[], char *executablePath) {
     }
 #endif
     max_fd_limit();
-    loadImage();
+    loadImage(relocatedImageFilePath);
     tla_initialize(image_header()->tlaSize);
     debugger_initialize();
     method = image_offset_as_address(VMRunMethod, vmRunMethodOffset);
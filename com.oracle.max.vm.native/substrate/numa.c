@@ -20,6 +20,7 @@
 /**
  * libNUMA wrappers for Maxine VM
  */
+#include <sched.h>
 #include <numa.h>
 
 #include "vm.h"
@@ -34,3 +35,19 @@ int numaNodeOfAddress(jlong address) {
     numa_move_pages(0, 1, &ptr, NULL, &status, 0);
     return status;
 }
+
+int numaConfiguredNodes() {
+    return numa_num_configured_nodes();
+}
+
+int numaNodeOfCPU() {
+    int cpu = sched_getcpu();
+    if (cpu < 0) {
+        return -1;
+    }
+    return numa_node_of_cpu(cpu);
+}
+
+void numaBindMemory(jlong address, jlong size, int node) {
+    numa_tonode_memory((void *) address, (size_t) size, node);
+}
@@ -32,6 +32,7 @@
 #include <dirent.h>
 #include <sys/wait.h>
 #include <sys/time.h>
+#include <sys/uio.h>
 #include <sys/prctl.h>
 
 #include "log.h"
@@ -808,8 +809,31 @@ int task_memory_read_fd(int tgid, const void *address) {
     return fd;
 }
 
+/**
+ * Copies 'size' bytes from 'src' in the address space of 'tgid' to 'dst' in the caller's address space
+ * by reading /proc/<pid>/mem until 'size' bytes have been read or an error occurs.
+ */
+static ssize_t task_read_memory_file(pid_t tgid, const void *src, void *dst, size_t size) {
+    int fd = task_memory_read_fd(tgid, src);
+    if (fd < 0) {
+        return -1;
+    }
+    size_t bytesRead = 0;
+    while (bytesRead < size) {
+        ssize_t n = read(fd, (char *) dst + bytesRead, size - bytesRead);
+        if (n <= 0) {
+            break;
+        }
+        bytesRead += n;
+    }
+    close(fd);
+    return bytesRead;
+}
+
 /**
  * Copies 'size' bytes from 'src' in the address space of 'tgid' to 'dst' in the caller's address space.
+ * Reads larger than a word are done with a single process_vm_readv call, falling back to
+ * reading /proc/<pid>/mem if that system call is not available.
  */
 size_t task_read(pid_t tgid, pid_t tid, const void *src, void *dst, size_t size) {
     char state;
@@ -830,15 +854,15 @@ size_t task_read(pid_t tgid, pid_t tid, const void *src, void *dst, size_t size)
         }
         return size;
     } else {
-        int fd = task_memory_read_fd(tgid, src);
-        if (fd < 0) {
-            return -1;
+        struct iovec local = { dst, size };
+        struct iovec remote = { (void *) src, size };
+        ssize_t bytesRead = process_vm_readv(tgid, &local, 1, &remote, 1, 0);
+        if (bytesRead < 0 && (errno == ENOSYS || errno == EPERM)) {
+            bytesRead = task_read_memory_file(tgid, src, dst, size);
         }
-        size_t bytesRead = read(fd, dst, size);
-        if (bytesRead != size) {
+        if (bytesRead >= 0 && (size_t) bytesRead != size) {
             log_println("Only read %d of %d bytes from %p: %s", bytesRead, size, src, strerror(errno));
         }
-        close(fd);
         return bytesRead;
     }
 }
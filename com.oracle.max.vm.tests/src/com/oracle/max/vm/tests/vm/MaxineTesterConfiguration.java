@@ -334,6 +334,12 @@ public class MaxineTesterConfiguration {
                         joinCompileCommands(testCallerT1X, testCalleeT1X), "--XX:+FailOverCompilation");
 
         imageConfig("jtt-c1xc1x", opt_c1x, tmpVMArgs, gcScheme, "-threads=4", "-run=com.oracle.max.vm.tests.vm.jtrun.all", build, "-native-tests");
+        imageConfig("jtt-c1xloops", opt_c1x, tmpVMArgs, gcScheme, "-threads=4", "-run=com.oracle.max.vm.tests.vm.jtrun.all", "-native-tests",
+                        "--C1X:+OptLoopInvariantCodeMotion", "--C1X:+OptRangeCheckElimination");
+        imageConfig("jtt-c1xea", opt_c1x, tmpVMArgs, gcScheme, "-threads=4", "-run=com.oracle.max.vm.tests.vm.jtrun.all", "-native-tests", "--C1X:+OptEscapeAnalysis");
+        imageConfig("jtt-osr", opt_c1x, tmpVMArgs, gcScheme, "-threads=4", "-run=com.oracle.max.vm.tests.vm.jtrun.all", "-native-tests", testCalleeT1X, "--XX:+UseOnStackReplacement");
+        imageConfig("jtt-profile", opt_c1x, tmpVMArgs, gcScheme, "-threads=4", "-run=com.oracle.max.vm.tests.vm.jtrun.all", "-native-tests", testCalleeT1X,
+                        "--C1X:+OptProfileGuidedInlining", "--C1X:+OptProfileBlockLayout");
         imageConfig("jtt-c1xgraal", opt_c1xgraal, "-run=com.oracle.max.vm.tests.vm.jtrun.all", "-native-tests", joinCompileCommands(testCallerT1X, testCalleeGraal));
 
         imageConfig("jtt-msc1xt1x", opt_c1x, "-run=com.oracle.max.vm.tests.vm.jtrun.all", "-heap=gcx.ms", "-native-tests", testCalleeT1X);
@@ -352,6 +358,8 @@ public class MaxineTesterConfiguration {
         maxvmConfig("eviction1000", "-Xms2g", "-Xmx2g", "-XX:CodeCacheContentionFrequency=1000");
         maxvmConfig("eviction100", "-Xms2g", "-Xmx2g", "-XX:CodeCacheContentionFrequency=100");
         maxvmConfig("eviction10", "-Xms2g", "-Xmx2g", "-XX:CodeCacheContentionFrequency=10");
+        maxvmConfig("cevict250k", "-Xms2g", "-Xmx2g", "-XX:+UseConcurrentCodeEviction", "-XX:CodeEvictionTriggerPercentage=50", "-XX:ReservedBaselineCodeCacheSize=250k");
+        maxvmConfig("cevict100", "-Xms2g", "-Xmx2g", "-XX:+UseConcurrentCodeEviction", "-XX:CodeEvictionTriggerPercentage=50", "-XX:CodeCacheContentionFrequency=100");
         maxvmConfig("cc1m", "-Xms2g", "-Xmx2g", "-XX:ReservedBaselineCodeCacheSize=1m");
         maxvmConfig("cc500k", "-Xms2g", "-Xmx2g", "-XX:ReservedBaselineCodeCacheSize=500k");
         maxvmConfig("cc250k", "-Xms2g", "-Xmx2g", "-XX:ReservedBaselineCodeCacheSize=250k");
@@ -359,6 +367,25 @@ public class MaxineTesterConfiguration {
         maxvmConfig("opt", "-Xms2g", "-Xmx2g", "-Xopt");
         maxvmConfig("mx256m", "-Xmx256m");
         maxvmConfig("mx512m", "-Xmx512m");
+        // Collect a small heap often with GC worker threads, e.g. with the "gss" image configuration
+        maxvmConfig("pargc", "-Xmx256m", "-XX:ParallelGCThreads=4");
+        // Collect a small heap often and leave most of the sweeping to allocators; requires the "mse" image configuration
+        maxvmConfig("lazysweep", "-Xmx256m", "-XX:+LazySweep");
+        // Collect a small heap often so that each thread's TLAB is resized from its allocation rate at every GC
+        maxvmConfig("resize-tlab", "-Xmx256m", "-XX:+ResizeTLAB");
+        maxvmConfig("inline-caches", "-Xms1g", "-Xmx1g", "-Xopt");
+        maxvmConfig("escape-analysis", "-Xms1g", "-Xmx1g", "-Xopt", "-C1X:+OptEscapeAnalysis");
+        maxvmConfig("deflate", "-Xms1g", "-Xmx1g", "-XX:+ConcurrentMonitorDeflation", "-XX:MonitorDeflationInterval=1");
+
+        // Run a test with pcc-save and then pcc-reuse: the second VM reuses the optimized code saved by the first
+        final String persistentCodeCache = "-XX:PersistentCodeCache=" + new File(System.getProperty("java.io.tmpdir"), "maxine-persistent-code-cache").getPath();
+        maxvmConfig("pcc-save", "-Xms2g", "-Xmx2g", "-Xopt", persistentCodeCache);
+        maxvmConfig("pcc-reuse", "-Xms2g", "-Xmx2g", "-Xopt", persistentCodeCache);
+
+        // Stream the allocation profiler's records to a file that test.output.AllocationProfilerDumpFormat parses
+        final String allocationProfilerDump = new File(System.getProperty("java.io.tmpdir"), "maxine-allocation-profiler.dump").getPath();
+        maxvmConfig("allocprofiler-dump", "-XX:+AllocationProfilerAll", "-XX:AllocationProfilerDumpFile=" + allocationProfilerDump,
+                        "-Dtest.output.AllocationProfilerDumpFile=" + allocationProfilerDump);
 
         // VEE 2010 benchmarking configurations
         maxvmConfig("noGC", "-XX:+DisableGC", "-Xmx3g");
@@ -387,15 +414,24 @@ public class MaxineTesterConfiguration {
         imageConfig("gss", opt_c1x, "-run=java", "-heap=sequential.gen.semiSpace");
         // Alternate GC configurations
         imageConfig("gssd", opt_c1x, "-run=java", "-heap=sequential.gen.semiSpace", "-build=DEBUG");
+        // Evacuate the young generation with GC worker threads, see GenSSHeapScheme.ParallelEvacuation
+        imageConfig("gssp", opt_c1x, "-run=java", "-heap=sequential.gen.semiSpace", "--XX:ParallelGCThreads=4");
+        imageConfig("gsspd", opt_c1x, "-run=java", "-heap=sequential.gen.semiSpace", "--XX:ParallelGCThreads=4", "-build=DEBUG");
         imageConfig("ss", opt_c1x, "-run=java", "-heap=sequential.semiSpace");
         imageConfig("ssd", opt_c1x, "-run=java", "-heap=sequential.semiSpace", "-build=DEBUG");
         imageConfig("ms", opt_c1x, "-run=java", "-heap=gcx.ms");
         imageConfig("msd", opt_c1x, "-run=java", "-heap=gcx.ms", "-build=DEBUG");
         imageConfig("msed", opt_c1x, "-run=java", "-heap=gcx.mse", "-build=DEBUG");
         imageConfig("mse", opt_c1x, "-run=java", "-heap=gcx.mse");
+        imageConfig("msp", opt_c1x, "-run=java", "-heap=gcx.ms", "--XX:ParallelGCThreads=4", "--XX:+ParallelMarking");
+        imageConfig("msep", opt_c1x, "-run=java", "-heap=gcx.mse", "--XX:ParallelGCThreads=4", "--XX:+ParallelMarking");
         imageConfig("gmse", opt_c1x, "-run=java", "-heap=gcx.gen.mse");
         imageConfig("gmsed", opt_c1x, "-run=java", "-heap=gcx.gen.mse", "-build=DEBUG");
 
+        // Alternate monitor configurations, e.g. run with the "deflate" maxvm configuration
+        imageConfig("biased", opt_c1x, "-run=java", "-monitor=modal.schemes.biased_inflated");
+        imageConfig("jtt-biased", opt_c1x, "-run=com.oracle.max.vm.tests.vm.jtrun.all", "-monitor=modal.schemes.biased_inflated", "-native-tests");
+
         // VMA configurations
         final String vmaT1X = "com.oracle.max.vm.ext.vma.t1x.VMAT1X";
         final String vmaBaseline = "-baseline=" + vmaT1X;
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vm.tests.vm.compiler;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+import com.oracle.max.vm.tests.vm.*;
+import com.sun.max.program.option.*;
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.code.CodeManager.*;
+import com.sun.max.vm.compiler.*;
+import com.sun.max.vm.compiler.RuntimeCompiler.*;
+import com.sun.max.vm.compiler.target.*;
+import com.sun.max.vm.hosted.*;
+import com.sun.max.vm.profile.*;
+import com.sun.max.vm.stack.*;
+
+/**
+ * Tests the ordering and dropping of pending compilations by {@link CompilationThreadPool}, driving its queue
+ * directly from the test thread without starting the compilation threads.
+ */
+public class CompilationQueueTest extends VmTestCase {
+
+    private static final OptionSet options = new OptionSet(false);
+    private static boolean initialised;
+
+    public CompilationQueueTest(String name) {
+        super(name);
+        if (!initialised) {
+            new VMConfigurator(options).create();
+            initialised = true;
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(CompilationQueueTest.class);
+    }
+
+    public static void method0() {
+    }
+
+    public static void method1() {
+    }
+
+    public static void method2() {
+    }
+
+    /**
+     * Gives the test access to the queue.
+     */
+    private static final class Queue extends CompilationThreadPool {
+        Compilation next() throws InterruptedException {
+            return take();
+        }
+    }
+
+    /**
+     * Baseline code of a method, with just the profile that a dropped request resets.
+     */
+    private static final class BaselineMethod extends TargetMethod {
+        private final MethodProfile profile;
+
+        BaselineMethod(ClassMethodActor classMethodActor, int entryBackedgeCount) {
+            super(classMethodActor, CallEntryPoint.BASELINE_ENTRY_POINT);
+            final MethodProfile.Builder builder = new MethodProfile.Builder();
+            builder.addEntryBackedgeCounter(entryBackedgeCount);
+            profile = builder.finish(this);
+        }
+
+        @Override
+        public MethodProfile profile() {
+            return profile;
+        }
+
+        @Override
+        public Lifespan lifespan() {
+            return Lifespan.SHORT;
+        }
+
+        @Override
+        public void gatherCalls(Set<MethodActor> directCalls, Set<MethodActor> virtualCalls, Set<MethodActor> interfaceCalls, Set<MethodActor> inlinedMethods) {
+        }
+
+        @Override
+        public CodePointer patchCallSite(int callOffset, CodePointer callEntryPoint) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CodePointer fixupCallSite(int callOffset, CodePointer callEntryPoint) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isPatchableCallSite(CodePointer callSite) {
+            return false;
+        }
+
+        @Override
+        public void prepareReferenceMap(StackFrameCursor current, StackFrameCursor callee, FrameReferenceMapVisitor preparer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void catchException(StackFrameCursor current, StackFrameCursor callee, StackUnwindingContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CodePointer throwAddressToCatchAddress(CodePointer throwAddress, Throwable throwable) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean acceptStackFrameVisitor(StackFrameCursor current, StackFrameVisitor visitor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void advance(StackFrameCursor current) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Pointer returnAddressPointer(StackFrameCursor frame) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public VMFrameLayout frameLayout() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static ClassMethodActor method(String name) {
+        try {
+            return ClassMethodActor.fromJava(CompilationQueueTest.class.getMethod(name));
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Creates a pending recompilation of a method, the way {@link CompilationBroker} does before queueing it.
+     */
+    private static Compilation recompilation(ClassMethodActor classMethodActor, Compilations prevCompilations) {
+        final Compilation compilation = new Compilation(null, classMethodActor, prevCompilations, null, Nature.OPT, false);
+        compilation.relinquishOwnership();
+        classMethodActor.compiledState = compilation;
+        return compilation;
+    }
+
+    private static Compilation recompilation(ClassMethodActor classMethodActor) {
+        return recompilation(classMethodActor, Compilations.EMPTY);
+    }
+
+    /**
+     * Sets the {@code CompilationQueueLimit} option, returning its previous value.
+     */
+    private static int setQueueLimit(int limit) {
+        try {
+            final Field field = CompilationThreadPool.class.getDeclaredField("CompilationQueueLimit");
+            field.setAccessible(true);
+            final int previous = field.getInt(null);
+            field.setInt(null, limit);
+            return previous;
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    public void test_fifo() throws InterruptedException {
+        final Queue queue = new Queue();
+        final Compilation c0 = recompilation(method("method0"));
+        final Compilation c1 = recompilation(method("method1"));
+        final Compilation c2 = recompilation(method("method2"));
+        queue.addCompilationToQueue(c0);
+        queue.addCompilationToQueue(c1);
+        queue.addCompilationToQueue(c2);
+        assertEquals(3, queue.queueDepth());
+        assertSame(c0, queue.next());
+        assertSame(c1, queue.next());
+        assertSame(c2, queue.next());
+        assertEquals(0, queue.queueDepth());
+    }
+
+    public void test_boostedFirst() throws InterruptedException {
+        final Queue queue = new Queue();
+        final Compilation c0 = recompilation(method("method0"));
+        final Compilation c1 = recompilation(method("method1"));
+        final Compilation c2 = recompilation(method("method2"));
+        queue.addCompilationToQueue(c0);
+        queue.addCompilationToQueue(c1);
+        queue.addCompilationToQueue(c2);
+        queue.boost(c2);
+        // requesting a pending compilation again also boosts it
+        queue.addCompilationToQueue(c1);
+        queue.addCompilationToQueue(c1);
+        assertEquals(3, queue.queueDepth());
+        assertSame(c1, queue.next());
+        assertSame(c2, queue.next());
+        assertSame(c0, queue.next());
+    }
+
+    public void test_supersededRequestResetsCounter() throws InterruptedException {
+        final Queue queue = new Queue();
+        final ClassMethodActor classMethodActor = method("method0");
+        final BaselineMethod baseline = new BaselineMethod(classMethodActor, 0);
+        final Compilations prevCompilations = new Compilations(baseline, null);
+        final Compilation superseded = recompilation(classMethodActor, prevCompilations);
+        queue.addCompilationToQueue(superseded);
+        final Compilation current = recompilation(classMethodActor, prevCompilations);
+        queue.addCompilationToQueue(current);
+        assertEquals(1, queue.queueDepth());
+        assertTrue(superseded.isDone());
+        assertSame(baseline, superseded.result);
+        assertEquals(MethodInstrumentation.initialEntryBackedgeCount, baseline.profile().entryBackedgeCount);
+        assertSame(current, queue.next());
+    }
+
+    public void test_staleRequestResetsCounter() throws InterruptedException {
+        final Queue queue = new Queue();
+        final ClassMethodActor classMethodActor = method("method0");
+        final BaselineMethod baseline = new BaselineMethod(classMethodActor, 0);
+        final Compilation stale = recompilation(classMethodActor, new Compilations(baseline, null));
+        final Compilation c1 = recompilation(method("method1"));
+        queue.addCompilationToQueue(stale);
+        queue.addCompilationToQueue(c1);
+        // the method got other code while its request was pending
+        classMethodActor.compiledState = Compilations.EMPTY;
+        assertSame(c1, queue.next());
+        assertTrue(stale.isDone());
+        assertEquals(MethodInstrumentation.initialEntryBackedgeCount, baseline.profile().entryBackedgeCount);
+        assertEquals(0, queue.queueDepth());
+    }
+
+    public void test_fullQueueRejectsNewRequest() throws InterruptedException {
+        final int limit = setQueueLimit(2);
+        try {
+            final Queue queue = new Queue();
+            final Compilation c0 = recompilation(method("method0"));
+            final Compilation c1 = recompilation(method("method1"));
+            queue.addCompilationToQueue(c0);
+            queue.addCompilationToQueue(c1);
+            final ClassMethodActor classMethodActor = method("method2");
+            final BaselineMethod baseline = new BaselineMethod(classMethodActor, 0);
+            final Compilation rejected = recompilation(classMethodActor, new Compilations(baseline, null));
+            // the pending requests have waited longer than the new one, which is rejected
+            queue.addCompilationToQueue(rejected);
+            assertEquals(2, queue.queueDepth());
+            assertTrue(rejected.isDone());
+            assertSame(baseline, rejected.result);
+            assertEquals(MethodInstrumentation.initialEntryBackedgeCount, baseline.profile().entryBackedgeCount);
+            assertSame(c0, queue.next());
+            assertSame(c1, queue.next());
+        } finally {
+            setQueueLimit(limit);
+        }
+    }
+
+    public void test_fullQueueEvictsColderRequest() throws InterruptedException {
+        final int limit = setQueueLimit(2);
+        try {
+            final Queue queue = new Queue();
+            final ClassMethodActor classMethodActor = method("method0");
+            final BaselineMethod baseline = new BaselineMethod(classMethodActor, 0);
+            final Compilation stale = recompilation(classMethodActor, new Compilations(baseline, null));
+            final Compilation c1 = recompilation(method("method1"));
+            queue.addCompilationToQueue(stale);
+            queue.addCompilationToQueue(c1);
+            // a stale request is colder than any new one and makes room for it
+            classMethodActor.compiledState = Compilations.EMPTY;
+            final Compilation c2 = recompilation(method("method2"));
+            queue.addCompilationToQueue(c2);
+            assertEquals(2, queue.queueDepth());
+            assertTrue(stale.isDone());
+            assertEquals(MethodInstrumentation.initialEntryBackedgeCount, baseline.profile().entryBackedgeCount);
+            assertFalse(c2.isDone());
+            assertSame(c1, queue.next());
+            assertSame(c2, queue.next());
+        } finally {
+            setQueueLimit(limit);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vm.tests.vm.heap.gcx;
+
+import com.oracle.max.vm.tests.vm.*;
+import com.sun.max.program.option.*;
+import com.sun.max.vm.heap.gcx.*;
+import com.sun.max.vm.hosted.*;
+
+/**
+ * Tests for the placement of heap regions on NUMA nodes by {@link NUMARegionPlacement}.
+ */
+public class NUMARegionPlacementTest extends VmTestCase {
+
+    private static final OptionSet options = new OptionSet(false);
+    private static boolean initialised;
+
+    public NUMARegionPlacementTest(String name) {
+        super(name);
+        if (!initialised) {
+            new VMConfigurator(options).create();
+            initialised = true;
+        }
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(NUMARegionPlacementTest.class);
+    }
+
+    /**
+     * Regions are committed and allocated lowest first. A heap that commits fewer regions than it reserves must
+     * still spread them evenly over all nodes.
+     */
+    public void test_fewCommittedRegions() {
+        final int totalRegions = 1024;
+        for (int numNodes = 2; numNodes <= 8; numNodes++) {
+            for (int committedRegions : new int[] {1, numNodes - 1, numNodes, 10, 64, 100, totalRegions}) {
+                final int[] regionsOnNode = new int[numNodes];
+                for (int regionID = 0; regionID < committedRegions; regionID++) {
+                    final int node = NUMARegionPlacement.nodeOf(regionID, numNodes);
+                    assertTrue(node >= 0 && node < numNodes);
+                    regionsOnNode[node]++;
+                }
+                for (int node = 0; node < numNodes; node++) {
+                    final int expected = committedRegions / numNodes + (node < committedRegions % numNodes ? 1 : 0);
+                    assertEquals("regions on node " + node + " of " + numNodes + " with " + committedRegions + " committed", expected, regionsOnNode[node]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Enumerating the regions of each node visits every region exactly once, in address order within a node.
+     */
+    public void test_regionsOfNode() {
+        final int totalRegions = 1000;
+        for (int numNodes = 2; numNodes <= 8; numNodes++) {
+            final boolean[] visited = new boolean[totalRegions];
+            for (int node = 0; node < numNodes; node++) {
+                int previous = -1;
+                for (int index = 0; ; index++) {
+                    final int regionID = NUMARegionPlacement.regionOfNode(node, index, numNodes);
+                    if (regionID >= totalRegions) {
+                        break;
+                    }
+                    assertTrue(regionID > previous);
+                    assertEquals(node, NUMARegionPlacement.nodeOf(regionID, numNodes));
+                    assertFalse(visited[regionID]);
+                    visited[regionID] = true;
+                    previous = regionID;
+                }
+            }
+            for (int regionID = 0; regionID < totalRegions; regionID++) {
+                assertTrue(visited[regionID]);
+            }
+        }
+    }
+
+    /**
+     * Without NUMA placement, every region is on node 0.
+     */
+    public void test_disabled() {
+        assertFalse(NUMARegionPlacement.isEnabled());
+        assertEquals(1, NUMARegionPlacement.numNodes());
+        for (int regionID = 0; regionID < 100; regionID++) {
+            assertEquals(0, NUMARegionPlacement.nodeOf(regionID));
+        }
+    }
+}
@@ -541,8 +541,13 @@ public class JTConfig {
         jtt.loop.Loop13.class,
         jtt.loop.Loop14.class,
         jtt.loop.LoopInline.class,
+        jtt.loop.LoopInvariant01.class,
+        jtt.loop.LoopNested01.class,
         jtt.loop.LoopNewInstance.class,
+        jtt.loop.LoopOSR01.class,
         jtt.loop.LoopPhi.class,
+        jtt.loop.LoopRangeCheck01.class,
+        jtt.loop.LoopRangeCheck02.class,
         jtt.loop.LoopSwitch01.class,
         jtt.max.CodePointer01.class,
         jtt.max.CodePointer02.class,
@@ -581,6 +586,7 @@ public class JTConfig {
         jtt.micro.BigVirtualParams01.class,
         jtt.micro.Bubblesort.class,
         jtt.micro.Fibonacci.class,
+        jtt.micro.InvokeInterface_01.class,
         jtt.micro.InvokeVirtual_01.class,
         jtt.micro.InvokeVirtual_02.class,
         jtt.micro.Matrix01.class,
@@ -619,6 +625,9 @@ public class JTConfig {
         jtt.optimize.Conditional01.class,
         jtt.optimize.DeadCode01.class,
         jtt.optimize.DeadCode02.class,
+        jtt.optimize.EA_Exception01.class,
+        jtt.optimize.EA_LockElision01.class,
+        jtt.optimize.EA_ScalarReplace01.class,
         jtt.optimize.Fold_Cast01.class,
         jtt.optimize.Fold_Convert01.class,
         jtt.optimize.Fold_Convert02.class,
@@ -678,6 +687,8 @@ public class JTConfig {
         jtt.optimize.Switch01.class,
         jtt.optimize.Switch02.class,
         jtt.optimize.TypeCastElem.class,
+        jtt.optimize.TypeGuard_Bimorphic01.class,
+        jtt.optimize.TypeGuard_Monomorphic01.class,
         jtt.optimize.VN_Cast01.class,
         jtt.optimize.VN_Cast02.class,
         jtt.optimize.VN_Convert01.class,
@@ -71,6 +71,9 @@ import com.sun.max.vm.type.*;
  * The second, and default, mechanism uses an {@code INTRINSIC} method that tests the bit explicitly
  * and branches directly on its value. This is preferable because it avoids the use of a register to
  * load the value for a standard comparison .
+ *
+ * In both cases, if the {@link VMASampling#SAMPLING_BIT} is also set, the advice is only invoked
+ * when the per-thread sampling countdown expires.
  */
 @HOSTED_ONLY
 public class VMAdviceTemplateGenerator extends T1XTemplateGenerator {
@@ -212,11 +215,12 @@ public class VMAdviceTemplateGenerator extends T1XTemplateGenerator {
     /**
      * We explicitly inline the above as the automatic inlining currently generates sub-optimal code.
      */
-    private static final String INLINE_ISADVISING = "VmThread.currentTLA().getWord(VMAJavaRunScheme.VM_ADVISING.index) != Word.zero()";
+    private static final String INLINE_ISADVISING = "VmThread.currentTLA().getWord(VMAJavaRunScheme.VM_ADVISING.index) != Word.zero() && VMASampling.sampleAdvice()";
     /**
      * This is the version that gets optimal code via the BT instruction.
      */
-    private static final String ALT_ISADVISING = "Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0)";
+    private static final String ALT_ISADVISING = "Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, 0) && " +
+        "(!Intrinsics.readLatchBit(VMAJavaRunScheme.VM_ADVISING.offset, VMASampling.SAMPLING_BIT) || VMASampling.countDown())";
     /**
      * If {@code true}, generate bt instruction variant of the advice guard.
      */
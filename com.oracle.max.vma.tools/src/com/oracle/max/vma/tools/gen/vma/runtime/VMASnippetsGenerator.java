@@ -78,13 +78,15 @@ public class VMASnippetsGenerator {
         out.printf("    @Snippet(inlining = MaxSnippetInliningPolicy.class)%n");
         int argCount = generateSignature(INDENT4, "private", new SnippetsMethodNameOverride(method), "static", null);
         out.printf(" {%n");
+        out.printf("        if (VMASampling.sampleAdvice()) {%n");
         if (name.contains("PutStatic") || name.contains("GetStatic")) {
-            out.println("        if (arg2 == null) {");
-            out.println("            arg2 = arg3.holder().staticTuple();");
-            out.println("        }");
+            out.println("            if (arg2 == null) {");
+            out.println("                arg2 = arg3.holder().staticTuple();");
+            out.println("            }");
         }
-        out.printf("        VMAStaticBytecodeAdvice.%s(", method.getName());
+        out.printf("            VMAStaticBytecodeAdvice.%s(", method.getName());
         generateInvokeArgs(argCount);
+        out.printf("        }%n");
         out.printf("    }%n%n");
     }
 
@@ -29,6 +29,7 @@ import java.io.*;
 import java.util.*;
 
 import com.oracle.max.vm.ext.vma.*;
+import com.oracle.max.vm.ext.vma.store.bin.*;
 import com.oracle.max.vm.ext.vma.store.txt.*;
 import com.oracle.max.vm.ext.vma.store.*;
 import com.oracle.max.vma.tools.qa.*;
@@ -43,6 +44,8 @@ import com.sun.max.program.*;
  * <li>-unbatch convert unordered (i.e. per thread batches) to time-ordered
  * </ul>
  *
+ * The input may also be in the {@link VMABinaryStoreFormat binary format}, in which case the output is the
+ * equivalent text, so the default command converts a binary store to text.
  */
 public class ConvertLog {
 
@@ -132,6 +135,10 @@ public class ConvertLog {
             command.startTiming();
 
             for (File inFile : inFiles) {
+                if (VMABinaryStoreReader.isBinaryStore(inFile)) {
+                    processBinaryLogFile(inFile, command);
+                    continue;
+                }
                 BufferedReader r = null;
                 try {
                     r = new BufferedReader(new FileReader(inFile));
@@ -167,6 +174,36 @@ public class ConvertLog {
         }
     }
 
+    private static void processBinaryLogFile(File inFile, Command command) throws IOException {
+        VMABinaryStoreReader r = new VMABinaryStoreReader(inFile);
+        try {
+            boolean checked = false;
+            while (true) {
+                final String[] recordParts = r.readRecord(false);
+                if (recordParts == null) {
+                    break;
+                }
+                if (!checked) {
+                    command.checkStoreHeader(recordParts);
+                    checked = true;
+                }
+                command.visitLine(toLine(recordParts));
+            }
+        } finally {
+            r.close();
+        }
+    }
+
+    /**
+     * Reassembles a record read from a binary store into a text line, quoting thread names.
+     */
+    private static String toLine(String[] recordParts) {
+        if (VMATextStoreFormat.getCommand(false, recordParts[0]) == Key.THREAD_DEFINITION) {
+            return recordParts[0] + " \"" + recordParts[1] + "\" " + recordParts[2];
+        }
+        return concat(recordParts);
+    }
+
     public static String[] split(boolean textKeyMode, String line) {
         return split(textKeyMode, line, false);
     }
@@ -242,7 +279,10 @@ public class ConvertLog {
         int convertRecordCount;
 
         void checkStoreHeader(String line) {
-            String[] recordParts = split(false, line);
+            checkStoreHeader(split(false, line));
+        }
+
+        void checkStoreHeader(String[] recordParts) {
             assert recordParts.length == 4;
             textKeyMode = (Integer.parseInt(recordParts[3]) & TEXT_KEY) != 0;
             assert VMATextStoreFormat.getCommand(textKeyMode, recordParts[0]) == Key.INITIALIZE_STORE;
@@ -528,12 +568,23 @@ public class ConvertLog {
             int lineNumber;
             String threadShortForm;
             String line;
+            /**
+             * Non-null iff the file is a binary store, in which case {@link #parts} has the role of {@link #line}.
+             */
+            VMABinaryStoreReader binaryReader;
+            String[] parts;
 
             FileInfo(File file) throws IOException {
                 this.file = file;
-                this.reader = new BufferedReader(new FileReader(file));
-                line = reader.readLine();
-                checkStoreHeader(line);
+                if (VMABinaryStoreReader.isBinaryStore(file)) {
+                    binaryReader = new VMABinaryStoreReader(file);
+                    parts = binaryReader.readRecord(true);
+                    checkStoreHeader(parts);
+                } else {
+                    this.reader = new BufferedReader(new FileReader(file));
+                    line = reader.readLine();
+                    checkStoreHeader(line);
+                }
             }
 
             @Override
@@ -542,6 +593,15 @@ public class ConvertLog {
             }
 
             void readRecord() throws IOException {
+                if (binaryReader != null) {
+                    if (parts == null) {
+                        parts = binaryReader.readRecord(true);
+                    }
+                    record = new Record(parts);
+                    lineNumber++;
+                    parts = null;
+                    return;
+                }
                 if (line == null) {
                     line = reader.readLine();
                 }
@@ -573,7 +633,10 @@ public class ConvertLog {
                 final Key command;
 
                 Record(String line) {
-                    String[] parts = split(textKeyMode, line, true);
+                    this(split(textKeyMode, line, true));
+                }
+
+                Record(String[] parts) {
                     command = VMATextStoreFormat.getCommand(textKeyMode, parts[0]);
                     if (VMATextStoreFormat.hasTime(command)) {
                         long thisTime = Long.parseLong(parts[1]);
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vma.tools.log;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import com.oracle.max.vm.ext.vma.store.*;
+import com.oracle.max.vm.ext.vma.store.bin.*;
+import com.oracle.max.vm.ext.vma.store.txt.VMATextStoreFormat.Key;
+import com.oracle.max.vm.ext.vma.store.txt.sbps.*;
+
+/**
+ * Compares the size and the write and read throughput of the text store, the uncompressed binary store and the
+ * deflated binary store on a synthetic trace. No VM is needed, the records are written straight into the
+ * {@link VMAStoreBuffer store buffers}. The text store is read back with {@link ConvertLog#split} and the binary
+ * stores with {@link VMABinaryStoreReader}, as the analysis tools do.
+ * <ul>
+ * <li>-n records the number of records to write (default 3000000)
+ * <li>-i iterations the number of times to repeat the measurements (default 3)
+ * <li>-level n the compression level of the deflated store (default {@link Deflater#BEST_SPEED})
+ * <li>-d dir the directory for the temporary stores (default the system temporary directory)
+ * </ul>
+ */
+public class StoreThroughput {
+
+    static final int BUFSIZE = 1024 * 1024;
+
+    private static final long SEED = 1;
+
+    private static final Key[] KEYS = {Key.ADVISE_BEFORE_GET_FIELD, Key.ADVISE_BEFORE_PUT_FIELD, Key.ADVISE_AFTER_NEW, Key.ADVISE_BEFORE_THROW, Key.ADVISE_BEFORE_ARRAY_STORE};
+
+    public static void main(String[] args) throws IOException {
+        int records = 3000000;
+        int iterations = 3;
+        int level = Deflater.BEST_SPEED;
+        File dir = null;
+        // Checkstyle: stop modified control variable check
+        for (int i = 0; i < args.length; i++) {
+            final String arg = args[i];
+            if (arg.equals("-n")) {
+                records = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-i")) {
+                iterations = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-level")) {
+                level = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-d")) {
+                dir = new File(args[++i]);
+            } else {
+                usage();
+            }
+        }
+        // Checkstyle: resume modified control variable check
+
+        final File text = File.createTempFile("vma", ".txt", dir);
+        final File stored = File.createTempFile("vma", ".bin", dir);
+        final File deflated = File.createTempFile("vma", ".bin", dir);
+        try {
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                System.out.println("iteration " + iteration + ", " + records + " records");
+                long start = System.nanoTime();
+                writeRecords(new SBPSStoreBuffer(new FileOutputStream(text), BUFSIZE), records, BUFSIZE, SEED);
+                final long writeText = System.nanoTime() - start;
+                start = System.nanoTime();
+                final int textRecords = readText(text);
+                report("text", text, writeText, System.nanoTime() - start, textRecords);
+
+                start = System.nanoTime();
+                writeRecords(new VMABinaryStoreBuffer(new FileOutputStream(stored), BUFSIZE, 0), records, BUFSIZE, SEED);
+                final long writeStored = System.nanoTime() - start;
+                start = System.nanoTime();
+                final int storedRecords = readBinary(stored);
+                report("stored", stored, writeStored, System.nanoTime() - start, storedRecords);
+
+                start = System.nanoTime();
+                writeRecords(new VMABinaryStoreBuffer(new FileOutputStream(deflated), BUFSIZE, level), records, BUFSIZE, SEED);
+                final long writeDeflated = System.nanoTime() - start;
+                start = System.nanoTime();
+                final int deflatedRecords = readBinary(deflated);
+                report("deflated", deflated, writeDeflated, System.nanoTime() - start, deflatedRecords);
+            }
+        } finally {
+            text.delete();
+            stored.delete();
+            deflated.delete();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("usage: [-n records] [-i iterations] [-level n] [-d dir]");
+        System.exit(1);
+    }
+
+    private static void report(String name, File file, long writeTime, long readTime, int records) {
+        System.out.printf("  %-8s %,14d bytes  write %,8d ms  read %,8d ms  (%d records read)%n", name, file.length(), writeTime / 1000000, readTime / 1000000, records);
+    }
+
+    /**
+     * Reads and splits every line of a text store.
+     * @return the number of records read
+     */
+    private static int readText(File file) throws IOException {
+        final BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            int count = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ConvertLog.split(false, line);
+                count++;
+            }
+            return count;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads every record of a binary store.
+     * @return the number of records read
+     */
+    private static int readBinary(File file) throws IOException {
+        final VMABinaryStoreReader reader = new VMABinaryStoreReader(file);
+        try {
+            int count = 0;
+            while (reader.readRecord(false) != null) {
+                count++;
+            }
+            return count;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Writes a store of {@code records} advice records, in the shapes written by the global store, between the usual
+     * store header, definitions and finalization records. The buffer is flushed whenever it nearly holds
+     * {@code bufSize} bytes, as the store does, and closed at the end.
+     */
+    static void writeRecords(VMAStoreBuffer buffer, int records, int bufSize, long seed) {
+        final Random random = new Random(seed);
+        long time = 1000000000L;
+        buffer.appendKey(Key.INITIALIZE_STORE, false);
+        buffer.appendSpace();
+        buffer.append(time);
+        buffer.appendSpace();
+        buffer.append(false);
+        buffer.appendSpace();
+        buffer.append(0);
+        buffer.endRecord();
+        final String[] threads = {"main", "Reference Handler", "Signal Dispatcher"};
+        for (int t = 0; t < threads.length; t++) {
+            buffer.appendKey(Key.THREAD_DEFINITION, false);
+            buffer.appendSpace();
+            buffer.appendQuoted(threads[t]);
+            buffer.appendSpace();
+            buffer.append(Integer.toString(t));
+            buffer.endRecord();
+        }
+        for (int c = 0; c < 100; c++) {
+            buffer.appendKey(Key.CLASS_DEFINITION, false);
+            buffer.appendSpace();
+            buffer.append("com.example.Class" + c);
+            buffer.appendSpace();
+            buffer.append((long) c % 4);
+            buffer.appendSpace();
+            buffer.append(Integer.toString(c));
+            buffer.endRecord();
+        }
+        for (int i = 0; i < records; i++) {
+            final int kind = random.nextInt(5);
+            buffer.appendKey(KEYS[kind], false);
+            buffer.appendSpace();
+            final int delta = random.nextInt(300);
+            time += delta;
+            buffer.append((long) delta);
+            buffer.appendSpace();
+            buffer.append(Integer.toString(random.nextInt(threads.length)));
+            buffer.appendSpace();
+            buffer.append(random.nextInt(100));
+            buffer.appendSpace();
+            if (kind == 0 && random.nextInt(50) == 0) {
+                buffer.append('*');
+            } else {
+                buffer.append(100000L + random.nextInt(20000));
+            }
+            buffer.appendSpace();
+            switch (kind) {
+                case 0:
+                    buffer.append(Integer.toString(random.nextInt(5000)));
+                    break;
+                case 1:
+                    buffer.append(Integer.toString(random.nextInt(5000)));
+                    buffer.appendSpace();
+                    buffer.append('D');
+                    buffer.appendSpace();
+                    buffer.append(random.nextDouble());
+                    break;
+                case 2:
+                    buffer.append(Integer.toString(random.nextInt(100)));
+                    break;
+                case 3:
+                    // the object id is followed by an empty field
+                    break;
+                default:
+                    buffer.append(random.nextInt(1000));
+                    buffer.appendSpace();
+                    buffer.append('F');
+                    buffer.appendSpace();
+                    buffer.append(random.nextFloat());
+                    break;
+            }
+            buffer.endRecord();
+            if (buffer.length() >= bufSize - 80) {
+                buffer.flush();
+            }
+        }
+        buffer.appendKey(Key.FINALIZE_STORE, false);
+        buffer.appendSpace();
+        buffer.append(time);
+        buffer.endRecord();
+        buffer.close();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vma.tools.qa;
+
+import static com.oracle.max.vm.ext.vma.store.txt.VMATextStoreFormat.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.oracle.max.vm.ext.vma.store.txt.VMATextStoreFormat.Key;
+
+/**
+ * A query that only needs aggregates over the records of a trace, and so can be run without loading the trace
+ * with {@link ProcessLog}, i.e., without materializing {@link ObjectRecord object records} etc.
+ *
+ * The trace is split into {@link TraceSegment segments} that are scanned in parallel with fork-join, each
+ * into its own {@link TracePartition}. The partitions are merged pairwise as the tasks complete and the final
+ * partition is passed to {@link #report}. Memory use is therefore bounded by the size of the aggregates
+ * rather than that of the trace.
+ *
+ * Since segments are scanned independently, a query must not depend on the order of the records, or on
+ * absolute times or object ids (which may be {@link VMATextStoreFormat#REPEAT_ID repeated ids}).
+ * A query may still implement {@link QueryBase#execute} for use with a loaded trace.
+ *
+ * @param <P> the partition type of the query
+ */
+public abstract class AggregateQuery<P extends TracePartition> extends QueryBase {
+
+    /**
+     * The default segment size for text stores.
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static long segmentSize = DEFAULT_SEGMENT_SIZE;
+
+    private static ForkJoinPool pool;
+
+    public static void setSegmentSize(long size) {
+        segmentSize = size;
+    }
+
+    /**
+     * Creates an empty partition.
+     */
+    protected abstract P createPartition();
+
+    /**
+     * Accumulates a record into {@code partition}. The record includes a thread field if it has a time.
+     */
+    protected abstract void visit(P partition, Key key, String[] recordParts);
+
+    /**
+     * Outputs the result of the query, given the partition for the entire trace.
+     */
+    protected abstract void report(P result, PrintStream ps, String[] args);
+
+    /**
+     * Runs the query over the trace in {@code dataDirName}.
+     */
+    public Object executeStreaming(String dataDirName, PrintStream ps, String[] args) throws IOException {
+        ArrayList<TraceSegment> segments = TraceSegment.split(dataDirName, segmentSize);
+        if (segments.isEmpty()) {
+            throw new FileNotFoundException("no trace in " + dataDirName);
+        }
+        if (pool == null) {
+            pool = new ForkJoinPool();
+        }
+        long startTime = System.currentTimeMillis();
+        P result = pool.invoke(new ScanTask(segments.toArray(new TraceSegment[segments.size()]), 0, segments.size()));
+        if (verbose) {
+            ps.printf("scanned %d segments in %d ms%n", segments.size(), System.currentTimeMillis() - startTime);
+        }
+        report(result, ps, args);
+        return null;
+    }
+
+    private P scan(TraceSegment segment) throws IOException {
+        P partition = createPartition();
+        TraceSegment.SegmentReader reader = segment.open();
+        try {
+            String[] recordParts;
+            while ((recordParts = reader.readRecord()) != null) {
+                if (recordParts.length == 0 || recordParts[0].charAt(0) == '#') {
+                    continue;
+                }
+                Key key = getCommand(segment.textKeyMode, recordParts[0]);
+                partition.visitRecord(key, recordParts);
+                visit(partition, key, recordParts);
+            }
+        } finally {
+            reader.close();
+        }
+        return partition;
+    }
+
+    private class ScanTask extends RecursiveTask<P> {
+        static final long serialVersionUID = 0;
+
+        private final TraceSegment[] segments;
+        private final int low;
+        private final int high;
+
+        ScanTask(TraceSegment[] segments, int low, int high) {
+            this.segments = segments;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected P compute() {
+            if (high - low == 1) {
+                try {
+                    return scan(segments[low]);
+                } catch (IOException ex) {
+                    throw new RuntimeException("failed to scan " + segments[low], ex);
+                }
+            }
+            int mid = (low + high) >>> 1;
+            ScanTask right = new ScanTask(segments, mid, high);
+            right.fork();
+            P result = new ScanTask(segments, low, mid).compute();
+            result.merge(right.join());
+            return result;
+        }
+    }
+}
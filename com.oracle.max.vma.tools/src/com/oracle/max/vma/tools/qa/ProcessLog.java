@@ -32,6 +32,7 @@ import java.util.*;
 
 import com.oracle.max.vm.ext.vma.*;
 import com.oracle.max.vm.ext.vma.store.*;
+import com.oracle.max.vm.ext.vma.store.bin.*;
 import com.oracle.max.vm.ext.vma.store.txt.*;
 import com.oracle.max.vma.tools.log.*;
 import com.oracle.max.vma.tools.log.ConvertLog.MergeCommand.PushRecord;
@@ -50,6 +51,9 @@ import com.sun.max.program.*;
  * The log must be time ordered for the main body of the code to work properly.
  * An unordered log is detected automatically and converted using {@link ConvertLog}.
  *
+ * A log in the {@link VMABinaryStoreFormat binary format} is also detected automatically and read directly
+ * from a memory mapping of the file, avoiding the line splitting and number parsing of the text format.
+ *
  *
  */
 public class ProcessLog {
@@ -90,6 +94,24 @@ public class ProcessLog {
         }
     }
 
+    private static class BinaryRecordReader extends RecordReader {
+        private VMABinaryStoreReader reader;
+
+        BinaryRecordReader(VMABinaryStoreReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public String[] readLine() throws IOException {
+            return reader.readRecord(false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
     private static class PushReader extends RecordReader implements PushRecord {
         private static final int LENGTH = 1024;
         private String[][]lineParts = new String[LENGTH][];
@@ -523,7 +545,9 @@ public class ProcessLog {
     }
 
     private RecordReader checkTimeOrdered(File file) throws IOException {
-        BufferedRecordReader reader = new BufferedRecordReader(new BufferedReader(new FileReader(file)));
+        final boolean binary = VMABinaryStoreReader.isBinaryStore(file);
+        RecordReader reader = binary ? new BinaryRecordReader(new VMABinaryStoreReader(file)) :
+            new BufferedRecordReader(new BufferedReader(new FileReader(file)));
         recordParts = reader.readLine();
         checkStoreHeader();
         reader.close();
@@ -541,7 +565,10 @@ public class ProcessLog {
             } catch (Exception ex) {
                 ProgramError.unexpected("failed to convert: " + file.getAbsolutePath(), ex);
             }
-            file = tempFile;
+            return new BufferedRecordReader(new BufferedReader(new FileReader(tempFile)));
+        }
+        if (binary) {
+            return new BinaryRecordReader(new VMABinaryStoreReader(file));
         }
         return new BufferedRecordReader(new BufferedReader(new FileReader(file)));
     }
@@ -31,11 +31,19 @@ import com.oracle.max.vm.ext.vma.store.*;
 /**
  * Main class of the object analysis query application.
  *
+ * With {@code -stream} the traces are not loaded up front; instead each query, which must then be an
+ * {@link AggregateQuery}, scans the trace in parallel segments. The segment size for text traces
+ * can be set in megabytes with {@code -segment}.
+ *
  */
 public class QueryAnalysis {
 
     private static boolean verbose = false;
     private static int maxLines = Integer.MAX_VALUE;
+    /**
+     * The traces, when queries are run in streaming mode, {@code null} otherwise.
+     */
+    private static ArrayList<String> streamDataDirs;
 
     public static void main(String[] args) {
         ArrayList<String> dataDirs = new ArrayList<String>();
@@ -83,6 +91,10 @@ public class QueryAnalysis {
                 verbose = true;
             } else if (arg.equals("-l")) {
                 maxLines = Integer.parseInt(args[++i]);
+            } else if (arg.equals("-stream")) {
+                streamDataDirs = dataDirs;
+            } else if (arg.equals("-segment")) {
+                AggregateQuery.setSegmentSize(Long.parseLong(args[++i]) * 1024 * 1024);
             } else {
                 System.err.println("Unknown command " + arg);
                 usage();
@@ -100,8 +112,10 @@ public class QueryAnalysis {
                 String queryClassUrl = "file://" + queryClassDirCanon + File.separator;
                 QueryBase.addQueryClassDir(queryClassUrl);
                 ArrayList<TraceRun> traceRuns = new ArrayList<TraceRun>(dataDirs.size());
-                for (int t = 0; t < dataDirs.size(); t++) {
-                    traceRuns.add(ProcessLog.processTrace(dataDirs.get(t), verbose, maxLines));
+                if (streamDataDirs == null) {
+                    for (int t = 0; t < dataDirs.size(); t++) {
+                        traceRuns.add(ProcessLog.processTrace(dataDirs.get(t), verbose, maxLines));
+                    }
                 }
 
                 if (commandFile != null) {
@@ -118,7 +132,7 @@ public class QueryAnalysis {
     }
 
     private static void usage() {
-        System.err.println("usage: -f datafile1 datafile2 ... [-i commandfile] [-v]");
+        System.err.println("usage: -f datafile1 datafile2 ... [-i commandfile] [-v] [-stream [-segment mb]]");
         System.exit(1);
     }
 
@@ -143,7 +157,13 @@ public class QueryAnalysis {
                         String[] args = new String[lineParts.length - 2];
                         System.arraycopy(lineParts, 2, args, 0, args.length);
                         QueryBase query = QueryBase.ensureLoaded(queryName);
-                        query.execute(traceRuns, traceFocus, ps, query.parseStandardArgs(args));
+                        if (streamDataDirs == null) {
+                            query.execute(traceRuns, traceFocus, ps, query.parseStandardArgs(args));
+                        } else if (query instanceof AggregateQuery) {
+                            ((AggregateQuery<?>) query).executeStreaming(streamDataDirs.get(traceFocus), ps, query.parseStandardArgs(args));
+                        } else {
+                            System.err.println("query " + queryName + " needs the whole trace, run without -stream");
+                        }
                         break;
 
                     case 'i': {
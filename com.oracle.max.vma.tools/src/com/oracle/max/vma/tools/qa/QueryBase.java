@@ -110,13 +110,21 @@ public abstract class QueryBase {
      * @param cr
      */
     public boolean classMatches(ClassRecord cr) {
+        return classMatches(cr.getName());
+    }
+
+    /**
+     * Return true if {@code name} matches {@link #className}.
+     * @param name
+     */
+    public boolean classMatches(String name) {
         if (className == null) {
             return true;
         }
         if (classPattern == null) {
             classPattern = Pattern.compile(className);
         }
-        return classPattern.matcher(cr.getName()).matches();
+        return classPattern.matcher(name).matches();
     }
 
     /**
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vma.tools.qa;
+
+import static com.oracle.max.vm.ext.vma.store.txt.VMATextStoreFormat.*;
+
+import java.util.*;
+
+import com.oracle.max.vm.ext.vma.store.txt.VMATextStoreFormat.Key;
+
+/**
+ * The aggregates computed by an {@link AggregateQuery} over one or more {@link TraceSegment segments}.
+ *
+ * This class records the short form definitions seen in the segments, since the definition of a short form
+ * and its uses may be in different segments. Aggregates should therefore be keyed by short form and only
+ * resolved to full names, using {@link #getClassName} etc., once all the partitions have been merged.
+ */
+public abstract class TracePartition {
+
+    /**
+     * Map from class short form to full name and class loader id, as {@code {name, clId}}.
+     */
+    private final HashMap<String, String[]> classDefinitions = new HashMap<String, String[]>();
+
+    private final HashMap<String, String> threadDefinitions = new HashMap<String, String>();
+
+    /**
+     * The number of records that {@link ProcessLog} turns into an {@link TransientVMAdviceHandlerTypes.AdviceRecord}.
+     */
+    public long adviceRecordCount;
+
+    /**
+     * Called for every record in the partition.
+     */
+    final void visitRecord(Key key, String[] recordParts) {
+        switch (key) {
+            case CLASS_DEFINITION:
+                classDefinitions.put(recordParts[DEFINE_ARG_INDEX + 2],
+                                new String[] {ClassRecord.getCanonicalName(recordParts[DEFINE_ARG_INDEX]), recordParts[DEFINE_ARG_INDEX + 1]});
+                break;
+            case THREAD_DEFINITION:
+                threadDefinitions.put(recordParts[DEFINE_ARG_INDEX + 1], recordParts[DEFINE_ARG_INDEX]);
+                break;
+            default:
+                if (hasTime(key) || key == Key.REMOVAL) {
+                    adviceRecordCount++;
+                }
+        }
+    }
+
+    /**
+     * Merges {@code other}, which is a partition for a different set of segments, into this partition.
+     */
+    final void merge(TracePartition other) {
+        classDefinitions.putAll(other.classDefinitions);
+        threadDefinitions.putAll(other.threadDefinitions);
+        adviceRecordCount += other.adviceRecordCount;
+        mergeAggregates(other);
+    }
+
+    /**
+     * Merges the query specific aggregates of {@code other}, which is of the same class as this partition.
+     */
+    protected abstract void mergeAggregates(TracePartition other);
+
+    public int getClassCount() {
+        return classDefinitions.size();
+    }
+
+    /**
+     * Returns the full name of the class with the given short form, or the short form if it was not defined.
+     */
+    public String getClassName(String shortForm) {
+        String[] definition = classDefinitions.get(shortForm);
+        return definition == null ? shortForm : definition[0];
+    }
+
+    /**
+     * Returns the id of the class loader of the class with the given short form, or {@code null} if it was not defined.
+     */
+    public String getClassLoaderId(String shortForm) {
+        String[] definition = classDefinitions.get(shortForm);
+        return definition == null ? null : definition[1];
+    }
+
+    public Set<String> getClassLoaderIds() {
+        HashSet<String> result = new HashSet<String>();
+        for (String[] definition : classDefinitions.values()) {
+            result.add(definition[1]);
+        }
+        return result;
+    }
+
+    public String getThreadName(String shortForm) {
+        String name = threadDefinitions.get(shortForm);
+        return name == null ? shortForm : name;
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vma.tools.qa;
+
+import static com.oracle.max.vm.ext.vma.store.txt.VMATextStoreFormat.*;
+
+import java.io.*;
+import java.util.*;
+
+import com.oracle.max.vm.ext.vma.store.*;
+import com.oracle.max.vm.ext.vma.store.bin.*;
+import com.oracle.max.vma.tools.log.*;
+
+/**
+ * A part of a trace that can be read independently of the rest of the trace, for {@link AggregateQuery}.
+ *
+ * Every store file is at least one segment. A text store is further split at line boundaries into segments of
+ * roughly equal size. A {@link VMABinaryStoreFormat binary} store is always a single segment because its string
+ * table is built up sequentially.
+ *
+ * Records read from a segment are in the form produced by {@link ConvertLog#split} and always have a thread field,
+ * which is supplied from the file name for a per-thread store. Since a segment may start anywhere in a store,
+ * relative times and {@link VMATextStoreFormat#REPEAT_ID repeated ids} cannot be resolved.
+ */
+public class TraceSegment {
+
+    public final File file;
+    public final long start;
+    public final long end;
+    public final boolean binary;
+    public final boolean textKeyMode;
+    /**
+     * The thread short form for a per-thread store, {@code null} otherwise.
+     */
+    public final String threadShortForm;
+
+    private TraceSegment(File file, long start, long end, boolean binary, boolean textKeyMode, String threadShortForm) {
+        this.file = file;
+        this.start = start;
+        this.end = end;
+        this.binary = binary;
+        this.textKeyMode = textKeyMode;
+        this.threadShortForm = threadShortForm;
+    }
+
+    @Override
+    public String toString() {
+        return file + "[" + start + ", " + end + ")";
+    }
+
+    /**
+     * Splits the trace in {@code dataDirName}, which is either a single store file or a directory of
+     * per-thread stores, into segments.
+     * @param segmentSize the size in bytes above which a text store is split
+     */
+    public static ArrayList<TraceSegment> split(String dataDirName, long segmentSize) throws IOException {
+        File dataDir = new File(dataDirName);
+        File[] files;
+        if (dataDir.isDirectory()) {
+            File globalStore = new File(dataDir, VMAStoreFile.GLOBAL_STORE);
+            files = globalStore.exists() ? new File[] {globalStore} : dataDir.listFiles();
+        } else if (dataDir.exists()) {
+            files = new File[] {dataDir};
+        } else {
+            throw new FileNotFoundException(dataDirName);
+        }
+        ArrayList<TraceSegment> result = new ArrayList<TraceSegment>();
+        for (File file : files) {
+            if (file.length() == 0) {
+                continue;
+            }
+            final boolean binary = VMABinaryStoreReader.isBinaryStore(file);
+            final String[] header;
+            if (binary) {
+                VMABinaryStoreReader reader = new VMABinaryStoreReader(file);
+                header = reader.readRecord(false);
+                reader.close();
+            } else {
+                BufferedReader reader = new BufferedReader(new FileReader(file));
+                header = ConvertLog.split(false, reader.readLine());
+                reader.close();
+            }
+            final int mode = Integer.parseInt(header[3]);
+            final boolean textKeyMode = (mode & TEXT_KEY) != 0;
+            final String threadShortForm = (mode & PER_THREAD) != 0 ? file.getName() : null;
+            final long length = file.length();
+            if (binary || length <= segmentSize) {
+                result.add(new TraceSegment(file, 0, length, binary, textKeyMode, threadShortForm));
+            } else {
+                for (long start = 0; start < length; start += segmentSize) {
+                    result.add(new TraceSegment(file, start, Math.min(start + segmentSize, length), false, textKeyMode, threadShortForm));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Opens a reader for the records in this segment.
+     */
+    public SegmentReader open() throws IOException {
+        return binary ? new BinaryReader() : new TextReader();
+    }
+
+    public abstract class SegmentReader {
+        /**
+         * Returns the next record or {@code null} at the end of the segment.
+         */
+        public abstract String[] readRecord() throws IOException;
+
+        public abstract void close() throws IOException;
+
+        protected String[] insertThread(String[] recordParts) {
+            if (threadShortForm != null && hasTimeAndThread(getCommand(textKeyMode, recordParts[0]))) {
+                String[] result = new String[recordParts.length + 1];
+                result[0] = recordParts[0];
+                result[1] = recordParts[1];
+                result[2] = threadShortForm;
+                System.arraycopy(recordParts, 2, result, 3, recordParts.length - 2);
+                return result;
+            }
+            return recordParts;
+        }
+    }
+
+    private class BinaryReader extends SegmentReader {
+        private final VMABinaryStoreReader reader = new VMABinaryStoreReader(file);
+
+        BinaryReader() throws IOException {
+        }
+
+        @Override
+        public String[] readRecord() throws IOException {
+            String[] recordParts = reader.readRecord(false);
+            return recordParts == null ? null : insertThread(recordParts);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads the lines that start in {@code [start, end)}.
+     */
+    private class TextReader extends SegmentReader {
+        private final InputStream in;
+        private long position;
+        private byte[] line = new byte[256];
+
+        TextReader() throws IOException {
+            FileInputStream fileIn = new FileInputStream(file);
+            position = start;
+            if (start > 0) {
+                // start at the first line that begins in this segment
+                fileIn.getChannel().position(start - 1);
+                position = start - 1;
+            }
+            in = new BufferedInputStream(fileIn, 1024 * 1024);
+            if (start > 0) {
+                skipLine();
+            }
+        }
+
+        private void skipLine() throws IOException {
+            int b;
+            do {
+                b = in.read();
+                position++;
+            } while (b != '\n' && b != -1);
+        }
+
+        @Override
+        public String[] readRecord() throws IOException {
+            while (position < end) {
+                int length = 0;
+                int b;
+                while ((b = in.read()) != '\n' && b != -1) {
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, length * 2);
+                    }
+                    line[length++] = (byte) b;
+                }
+                position += length + 1;
+                if (length == 0) {
+                    if (b == -1) {
+                        return null;
+                    }
+                    continue;
+                }
+                return insertThread(ConvertLog.split(textKeyMode, new String(line, 0, length, "UTF-8")));
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
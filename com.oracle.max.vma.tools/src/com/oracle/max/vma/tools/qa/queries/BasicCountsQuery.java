@@ -25,13 +25,14 @@ package com.oracle.max.vma.tools.qa.queries;
 import java.io.*;
 import java.util.*;
 
+import com.oracle.max.vm.ext.vma.store.txt.VMATextStoreFormat.Key;
 import com.oracle.max.vma.tools.qa.*;
 
 /**
  * Outputs basic information on the trace. Displays the number of classes, classloaders, objects, arrays, the number of
  * missing constructors.
  */
-public class BasicCountsQuery extends QueryBase {
+public class BasicCountsQuery extends AggregateQuery<ClassesQuery.InstanceCounts> {
 
     @Override
     public Object execute(ArrayList<TraceRun> traceRuns, int traceFocus, PrintStream ps, String[] args) {
@@ -46,6 +47,34 @@ public class BasicCountsQuery extends QueryBase {
         return null;
     }
 
+    @Override
+    protected ClassesQuery.InstanceCounts createPartition() {
+        return new ClassesQuery.InstanceCounts();
+    }
+
+    @Override
+    protected void visit(ClassesQuery.InstanceCounts partition, Key key, String[] recordParts) {
+        partition.visit(key, recordParts);
+    }
+
+    @Override
+    protected void report(ClassesQuery.InstanceCounts result, PrintStream ps, String[] args) {
+        ps.println("Advice Records: " + result.adviceRecordCount);
+        ps.println("Classes: " + result.getClassCount());
+        ps.println("ClassLoaders: " + result.getClassLoaderIds().size());
+        long objs = 0;
+        long arrays = 0;
+        for (Map.Entry<String, long[]> entry : result.counts.entrySet()) {
+            if (result.getClassName(entry.getKey()).contains("[")) {
+                arrays += entry.getValue()[0];
+            } else {
+                objs += entry.getValue()[0];
+            }
+        }
+        ps.format("Instances: %d (Arrays: %d, Non-Arrays: %d)\n", objs + arrays, arrays, objs);
+        ps.println("Missing Constructors: " + result.unseenCount);
+    }
+
     private int getNumClasses(TraceRun traceRun) {
         int result = 0;
         Iterator<ClassRecord> iter = traceRun.getClassesIterator();
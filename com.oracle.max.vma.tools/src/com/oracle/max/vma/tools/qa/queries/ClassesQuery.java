@@ -25,6 +25,9 @@ package com.oracle.max.vma.tools.qa.queries;
 import java.io.*;
 import java.util.*;
 
+import static com.oracle.max.vm.ext.vma.store.txt.VMATextStoreFormat.*;
+
+import com.oracle.max.vm.ext.vma.store.txt.VMATextStoreFormat.Key;
 import com.oracle.max.vma.tools.qa.*;
 
 /**
@@ -32,18 +35,56 @@ import com.oracle.max.vma.tools.qa.*;
  * allocated by each class/classloader combination. The option <code>-sortbycount</code>
  * generates the data sorted by the number of instances (default alphabetic by class).
  *
+ * When run as an {@link AggregateQuery}, the class loader is shown by its id.
  */
-public class ClassesQuery extends QueryBase {
+public class ClassesQuery extends AggregateQuery<ClassesQuery.InstanceCounts> {
 
-    @Override
-    public Object execute(ArrayList<TraceRun> traceRuns, int traceFocus, PrintStream ps, String[] args) {
-        boolean sortByCount = false;
-        for (int i = 0; i < args.length; i++) {
-            final String arg = args[i];
-            if (arg.equals("-sortbycount")) {
-                sortByCount = true;
+    /**
+     * Counts of instances by class short form.
+     */
+    public static class InstanceCounts extends TracePartition {
+        /**
+         * The value is a one element array to avoid boxing on every increment.
+         */
+        public final HashMap<String, long[]> counts = new HashMap<String, long[]>();
+        public long unseenCount;
+
+        @SuppressWarnings("fallthrough")
+        void visit(Key key, String[] recordParts) {
+            switch (key) {
+                case UNSEEN:
+                    unseenCount++;
+                    // fall through
+                case ADVISE_AFTER_NEW:
+                case ADVISE_AFTER_NEW_ARRAY:
+                    add(recordParts[NEW_CLASSNAME_INDEX], 1);
+                    break;
+                default:
+            }
+        }
+
+        private void add(String classShortForm, long n) {
+            long[] count = counts.get(classShortForm);
+            if (count == null) {
+                counts.put(classShortForm, new long[] {n});
+            } else {
+                count[0] += n;
+            }
+        }
+
+        @Override
+        protected void mergeAggregates(TracePartition other) {
+            InstanceCounts otherCounts = (InstanceCounts) other;
+            for (Map.Entry<String, long[]> entry : otherCounts.counts.entrySet()) {
+                add(entry.getKey(), entry.getValue()[0]);
             }
+            unseenCount += otherCounts.unseenCount;
         }
+    }
+
+    @Override
+    public Object execute(ArrayList<TraceRun> traceRuns, int traceFocus, PrintStream ps, String[] args) {
+        boolean sortByCount = sortByCount(args);
         for (int i = 0; i < traceRuns.size(); i++) {
             if (traceFocus < 0 || i == traceFocus) {
                 TraceRun traceRun = traceRuns.get(i);
@@ -78,6 +119,61 @@ public class ClassesQuery extends QueryBase {
         return null;
     }
 
+    private static boolean sortByCount(String[] args) {
+        boolean sortByCount = false;
+        for (int i = 0; i < args.length; i++) {
+            final String arg = args[i];
+            if (arg.equals("-sortbycount")) {
+                sortByCount = true;
+            }
+        }
+        return sortByCount;
+    }
+
+    @Override
+    protected InstanceCounts createPartition() {
+        return new InstanceCounts();
+    }
+
+    @Override
+    protected void visit(InstanceCounts partition, Key key, String[] recordParts) {
+        partition.visit(key, recordParts);
+    }
+
+    @Override
+    protected void report(InstanceCounts result, PrintStream ps, String[] args) {
+        int longestClassName = 0;
+        final ArrayList<String> classList = new ArrayList<String>();
+        for (String shortForm : result.counts.keySet()) {
+            final String name = result.getClassName(shortForm);
+            if (classMatches(name)) {
+                longestClassName = Math.max(longestClassName, name.length());
+                classList.add(shortForm);
+            }
+        }
+        final InstanceCounts counts = result;
+        final boolean sortByCount = sortByCount(args);
+        Collections.sort(classList, new Comparator<String>() {
+            public int compare(String s1, String s2) {
+                if (sortByCount) {
+                    long c1 = counts.counts.get(s1)[0];
+                    long c2 = counts.counts.get(s2)[0];
+                    return c1 > c2 ? -1 : c1 == c2 ? 0 : 1;
+                }
+                return counts.getClassName(s1).compareTo(counts.getClassName(s2));
+            }
+        });
+        ps.print("Instances    Class");
+        space(ps, longestClassName - 5 + 2);
+        ps.println(" Classloader ");
+        for (String shortForm : classList) {
+            final String name = result.getClassName(shortForm);
+            ps.format("%10d   %s", result.counts.get(shortForm)[0], name);
+            space(ps, longestClassName + 3 - name.length());
+            ps.println(result.getClassLoaderId(shortForm));
+        }
+    }
+
     static class ClassAndCount implements Comparator<ClassAndCount> {
         ClassRecord classRecord;
         int count;
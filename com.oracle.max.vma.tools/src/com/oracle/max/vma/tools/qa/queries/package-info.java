@@ -33,6 +33,9 @@
  * <li>{@link com.oracle.max.vma.tools.qa.queries.ImmutableClassBucketsQuery analyse immutable instances into 1% buckets}.
  * <li>{@link com.oracle.max.vma.tools.qa.queries.LiveObjectsQuery show info on objects still live at end of run}.
  * </ul>
+ *
+ * {@link com.oracle.max.vma.tools.qa.queries.BasicCountsQuery} and {@link com.oracle.max.vma.tools.qa.queries.ClassesQuery}
+ * are also {@link com.oracle.max.vma.tools.qa.AggregateQuery aggregate queries}, so can be run in streaming mode.
  */
 
 package com.oracle.max.vma.tools.qa.queries;
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.oracle.max.vma.tools.log;
+
+import static com.oracle.max.vm.ext.vma.store.bin.VMABinaryStoreFormat.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import com.oracle.max.vm.ext.vma.store.*;
+import com.oracle.max.vm.ext.vma.store.bin.*;
+import com.oracle.max.vm.ext.vma.store.txt.VMATextStoreFormat.Key;
+import com.oracle.max.vm.ext.vma.store.txt.sbps.*;
+import com.sun.max.ide.*;
+
+/**
+ * Tests that the records of a {@link VMABinaryStoreBuffer binary store} are read back by {@link VMABinaryStoreReader}
+ * in the same split form that {@link ConvertLog#split} gives for the lines of the equivalent text store.
+ */
+public class VMABinaryStoreTest extends MaxTestCase {
+
+    public VMABinaryStoreTest(String name) {
+        super(name);
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(VMABinaryStoreTest.class);
+    }
+
+    /**
+     * A buffer size that splits the stores written by {@link StoreThroughput#writeRecords} into many blocks.
+     */
+    private static final int SMALL_BUFSIZE = 4096;
+
+    /**
+     * Writes the same records to a store buffer.
+     */
+    private abstract static class Records {
+        abstract void write(VMAStoreBuffer buffer);
+    }
+
+    private final List<File> files = new ArrayList<File>();
+
+    @Override
+    protected void tearDown() throws Exception {
+        for (File file : files) {
+            file.delete();
+        }
+        super.tearDown();
+    }
+
+    private File createStore(String suffix) throws IOException {
+        final File file = File.createTempFile("vma", suffix);
+        files.add(file);
+        return file;
+    }
+
+    /**
+     * Writes {@code records} to a text store and to a binary store with the given buffer size and compression level
+     * and checks that both read back as the same split records.
+     *
+     * @return the binary store
+     */
+    private File roundTrip(Records records, int bufSize, int level) throws IOException {
+        final File text = createStore(".txt");
+        final File binary = createStore(".bin");
+        final VMAStoreBuffer textBuffer = new SBPSStoreBuffer(new FileOutputStream(text), bufSize);
+        records.write(textBuffer);
+        textBuffer.close();
+        final VMAStoreBuffer binaryBuffer = new VMABinaryStoreBuffer(new FileOutputStream(binary), bufSize, level);
+        records.write(binaryBuffer);
+        binaryBuffer.close();
+
+        assertTrue(VMABinaryStoreReader.isBinaryStore(binary));
+        assertFalse(VMABinaryStoreReader.isBinaryStore(text));
+        final BufferedReader textReader = new BufferedReader(new FileReader(text));
+        final VMABinaryStoreReader binaryReader = new VMABinaryStoreReader(binary);
+        try {
+            int n = 0;
+            String line;
+            while ((line = textReader.readLine()) != null) {
+                final String[] record = binaryReader.readRecord(false);
+                assertNotNull("missing record " + n + ": " + line, record);
+                assertEquals("record " + n, Arrays.asList(withoutTrailingNulls(ConvertLog.split(false, line))), Arrays.asList(record));
+                n++;
+            }
+            assertNull(binaryReader.readRecord(false));
+        } finally {
+            textReader.close();
+            binaryReader.close();
+        }
+        return binary;
+    }
+
+    /**
+     * {@link ConvertLog#split} sizes its result by the number of spaces in the line, so a quoted thread name
+     * with spaces leaves unused elements at the end.
+     */
+    private static String[] withoutTrailingNulls(String[] parts) {
+        int length = parts.length;
+        while (length > 0 && parts[length - 1] == null) {
+            length--;
+        }
+        return Arrays.copyOf(parts, length);
+    }
+
+    private static String[] readFirstRecord(File binary) throws IOException {
+        final VMABinaryStoreReader reader = new VMABinaryStoreReader(binary);
+        try {
+            return reader.readRecord(false);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Gets the kind of the first block of a binary store.
+     */
+    private static byte firstBlockKind(File binary) throws IOException {
+        final DataInputStream in = new DataInputStream(new FileInputStream(binary));
+        try {
+            in.skipBytes(8);
+            return in.readByte();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Counts the occurrences of the UTF-8 encoding of {@code value} in a file.
+     */
+    private static int occurrences(File file, String value) throws IOException {
+        final byte[] bytes = new byte[(int) file.length()];
+        final DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(bytes);
+        } finally {
+            in.close();
+        }
+        final byte[] pattern = value.getBytes("UTF-8");
+        int count = 0;
+        for (int i = 0; i + pattern.length <= bytes.length; i++) {
+            int j = 0;
+            while (j < pattern.length && bytes[i + j] == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public void test_emptyTrailingField() throws IOException {
+        final File binary = roundTrip(new Records() {
+            @Override
+            void write(VMAStoreBuffer buffer) {
+                // an object id followed by a separator, as in appendTTId
+                buffer.appendKey(Key.ADVISE_BEFORE_THROW, false);
+                buffer.appendSpace();
+                buffer.append(12L);
+                buffer.appendSpace();
+                buffer.append("0");
+                buffer.appendSpace();
+                buffer.append(7);
+                buffer.appendSpace();
+                buffer.append(100001L);
+                buffer.appendSpace();
+                buffer.endRecord();
+            }
+        }, StoreThroughput.BUFSIZE, Deflater.BEST_SPEED);
+        final String[] record = readFirstRecord(binary);
+        assertEquals(6, record.length);
+        assertEquals("", record[5]);
+    }
+
+    public void test_quotedThreadName() throws IOException {
+        final File binary = roundTrip(new Records() {
+            @Override
+            void write(VMAStoreBuffer buffer) {
+                final String[] names = {"Reference Handler", "main", "a thread with  two spaces"};
+                for (int i = 0; i < names.length; i++) {
+                    buffer.appendKey(Key.THREAD_DEFINITION, false);
+                    buffer.appendSpace();
+                    buffer.appendQuoted(names[i]);
+                    buffer.appendSpace();
+                    buffer.append(Integer.toString(i));
+                    buffer.endRecord();
+                }
+            }
+        }, StoreThroughput.BUFSIZE, Deflater.BEST_SPEED);
+        final String[] record = readFirstRecord(binary);
+        assertEquals(3, record.length);
+        assertEquals("Reference Handler", record[1]);
+        assertEquals("0", record[2]);
+    }
+
+    public void test_stringTableAcrossBlocks() throws IOException {
+        final String className = "com.example.AClassWithAVeryLongNameThatShouldOnlyBeStoredOnce";
+        final File binary = roundTrip(new Records() {
+            @Override
+            void write(VMAStoreBuffer buffer) {
+                for (int i = 0; i < 10; i++) {
+                    buffer.appendKey(Key.ADVISE_AFTER_NEW, false);
+                    buffer.appendSpace();
+                    buffer.append((long) i);
+                    buffer.appendSpace();
+                    buffer.append("0");
+                    buffer.appendSpace();
+                    buffer.append(3);
+                    buffer.appendSpace();
+                    buffer.append(100000L + i);
+                    buffer.appendSpace();
+                    buffer.append(className);
+                    buffer.endRecord();
+                    // one block per record
+                    buffer.flush();
+                }
+            }
+        }, StoreThroughput.BUFSIZE, 0);
+        // the later blocks refer to the name by its index in the string table
+        assertEquals(1, occurrences(binary, className));
+    }
+
+    public void test_uncompressedBlocks() throws IOException {
+        final File binary = roundTrip(new Records() {
+            @Override
+            void write(VMAStoreBuffer buffer) {
+                StoreThroughput.writeRecords(buffer, 50000, SMALL_BUFSIZE, 1);
+            }
+        }, SMALL_BUFSIZE, 0);
+        assertEquals(BLOCK_STORED, firstBlockKind(binary));
+    }
+
+    public void test_deflatedBlocks() throws IOException {
+        final File binary = roundTrip(new Records() {
+            @Override
+            void write(VMAStoreBuffer buffer) {
+                StoreThroughput.writeRecords(buffer, 50000, SMALL_BUFSIZE, 1);
+            }
+        }, SMALL_BUFSIZE, Deflater.BEST_SPEED);
+        assertEquals(BLOCK_DEFLATED, firstBlockKind(binary));
+    }
+}
@@ -53,6 +53,13 @@ public class C1XMetrics {
     public static int BlocksSkipped;
     public static int BlocksDeleted;
     public static int DeadCodeEliminated;
+    public static int AllocationsScalarReplaced;
+    public static int LocksElided;
+    public static int LoopInvariantsHoisted;
+    public static int RangeChecksEliminated;
+    public static int RangeCheckGuardsInserted;
+    public static int TypeGuardsInserted;
+    public static int ProfileGuidedDevirtualizations;
     public static int ResolveCPEAttempts;
     public static int BytecodesCompiled;
     public static int CodeBytesEmitted;
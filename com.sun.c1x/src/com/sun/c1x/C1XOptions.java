@@ -120,6 +120,23 @@ public final class C1XOptions {
     public static boolean OptControlFlow;
     public static boolean OptMoveElimination;
 
+    // escape analysis settings
+    public static boolean OptEscapeAnalysis                  = ____;
+    public static int     EscapeAnalysisMaximumFields        = 32;
+    public static boolean TraceEscapeAnalysis                = ____;
+
+    // loop optimization settings
+    public static boolean OptLoopInvariantCodeMotion         = ____;
+    public static boolean OptRangeCheckElimination           = ____;
+    public static boolean TraceLoopOptimizations             = ____;
+
+    // profile-guided optimization settings
+    public static boolean OptProfileGuidedInlining           = ____;
+    public static boolean OptProfileBlockLayout              = ____;
+    public static int     TypeProfileMinimumCount            = 50;
+    public static float   RareBranchProbability              = 0.01f;
+    public static boolean PrintProfileGuidedInlining         = ____;
+
     // optimistic optimization settings
     public static boolean UseAssumptions                = true;
 
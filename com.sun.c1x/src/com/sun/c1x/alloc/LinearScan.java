@@ -656,7 +656,7 @@ public final class LinearScan {
                 // Add uses of live locals from interpreter's point of view for proper debug information generation
                 LIRDebugInfo info = op.info;
                 if (info != null) {
-                    info.state.forEachLiveStateValue(new ValueProcedure() {
+                    info.forEachLiveStateValue(new ValueProcedure() {
 
                         public void doValue(Value value) {
                             CiValue operand = value.operand();
@@ -1303,7 +1303,7 @@ public final class LinearScan {
                 // to a call site, the value would be in a register at the call otherwise)
                 LIRDebugInfo info = op.info;
                 if (info != null) {
-                    info.state.forEachLiveStateValue(new ValueProcedure() {
+                    info.forEachLiveStateValue(new ValueProcedure() {
 
                         public void doValue(Value value) {
                             CiValue operand = value.operand();
@@ -2136,20 +2136,47 @@ public final class LinearScan {
         }
     }
 
-    CiFrame computeFrameForState(int opId, FrameState state, CiBitMap frameRefMap) {
+    /**
+     * Gets the debug value for a {@linkplain Value.Flag#ScalarReplaced scalar replaced} allocation.
+     *
+     * @param virtualObjects the virtual objects already created for the debug info being computed
+     */
+    CiVirtualObject toVirtualObject(int opId, Value value, LIRDebugInfo info, IdentityHashMap<Value, CiVirtualObject> virtualObjects) {
+        CiVirtualObject vobj = virtualObjects.get(value);
+        if (vobj == null) {
+            Value[] fields = info.virtualObjectFields == null ? null : info.virtualObjectFields.get(value);
+            assert fields != null : "no field values for scalar replaced allocation " + value;
+            CiValue[] values = new CiValue[fields.length];
+            vobj = CiVirtualObject.get(((NewInstance) value).instanceClass(), values, virtualObjects.size());
+            virtualObjects.put(value, vobj);
+            for (int i = 0; i < fields.length; i++) {
+                values[i] = fields[i].isConstant() ? fields[i].asConstant() : toCiValue(opId, fields[i]);
+            }
+        }
+        return vobj;
+    }
+
+    CiValue toDebugValue(int opId, Value value, LIRDebugInfo info, IdentityHashMap<Value, CiVirtualObject> virtualObjects) {
+        if (value != null && value.checkFlag(Value.Flag.ScalarReplaced)) {
+            return toVirtualObject(opId, value, info, virtualObjects);
+        }
+        return toCiValue(opId, value);
+    }
+
+    CiFrame computeFrameForState(int opId, FrameState state, CiBitMap frameRefMap, LIRDebugInfo info, IdentityHashMap<Value, CiVirtualObject> virtualObjects) {
         CiFrame callerFrame = null;
 
         FrameState callerState = state.callerState();
         if (callerState != null) {
             // process recursively to compute outermost scope first
-            callerFrame = computeFrameForState(opId, callerState, frameRefMap);
+            callerFrame = computeFrameForState(opId, callerState, frameRefMap, info, virtualObjects);
         }
 
         CiValue[] values = new CiValue[state.valuesSize() + state.locksSize()];
         int valueIndex = 0;
 
         for (int i = 0; i < state.valuesSize(); i++) {
-            values[valueIndex++] = toCiValue(opId, state.valueAt(i));
+            values[valueIndex++] = toDebugValue(opId, state.valueAt(i), info, virtualObjects);
         }
 
         for (int i = 0; i < state.locksSize(); i++) {
@@ -2164,6 +2191,9 @@ public final class LinearScan {
                 if (lock.isConstant()) {
                     // lock on class for synchronized static method
                     values[valueIndex++] = lock.asConstant();
+                } else if (lock.checkFlag(Value.Flag.ScalarReplaced)) {
+                    // elided lock on a scalar replaced allocation
+                    values[valueIndex++] = new CiMonitorValue(toVirtualObject(opId, lock, info, virtualObjects), null, true);
                 } else {
                     values[valueIndex++] = toCiValue(opId, lock);
                 }
@@ -2190,20 +2220,20 @@ public final class LinearScan {
             if (info.debugInfo == null) {
                 CiBitMap frameRefMap = compilation.frameMap().initFrameRefMap();
                 CiBitMap regRefMap = !op.hasCall ? new CiBitMap(compilation.target.arch.registerReferenceMapBitCount) : null;
-                CiFrame frame = compilation.placeholderState != null ? null : computeFrame(info.state, op.id, frameRefMap);
+                CiFrame frame = compilation.placeholderState != null ? null : computeFrame(info, op.id, frameRefMap);
                 computeOopMap(iw, op, info, frameRefMap, regRefMap);
                 info.debugInfo = new CiDebugInfo(frame, regRefMap, frameRefMap);
             } else if (C1XOptions.DetailedAsserts) {
-                assert info.debugInfo.frame().equals(computeFrame(info.state, op.id, new CiBitMap(info.debugInfo.frameRefMap.size())));
+                assert info.debugInfo.frame().equals(computeFrame(info, op.id, new CiBitMap(info.debugInfo.frameRefMap.size())));
             }
         }
     }
 
-    CiFrame computeFrame(FrameState state, int opId, CiBitMap frameRefMap) {
+    CiFrame computeFrame(LIRDebugInfo info, int opId, CiBitMap frameRefMap) {
         if (C1XOptions.TraceLinearScanLevel >= 3) {
             TTY.println("creating debug information at opId %d", opId);
         }
-        return computeFrameForState(opId, state, frameRefMap);
+        return computeFrameForState(opId, info.state, frameRefMap, info, new IdentityHashMap<Value, CiVirtualObject>());
     }
 
     private void assignLocations(List<LIRInstruction> instructions, IntervalWalker iw) {
@@ -188,6 +188,7 @@ public abstract class LIRGenerator extends ValueVisitor {
     protected LIRList lir;
     final VolatileMemoryAccess vma;
     private ArrayList<DeoptimizationStub> deoptimizationStubs;
+    private CiVariable osrBuffer;
 
     public LIRGenerator(C1XCompilation compilation) {
         this.compilation = compilation;
@@ -216,7 +217,11 @@ public abstract class LIRGenerator extends ValueVisitor {
         public final LIRDebugInfo info;
 
         public DeoptimizationStub(FrameState state) {
-            info = new LIRDebugInfo(state, null);
+            this(state, null);
+        }
+
+        public DeoptimizationStub(FrameState state, Map<Value, Value[]> virtualObjectFields) {
+            info = new LIRDebugInfo(state, null, virtualObjectFields);
         }
     }
 
@@ -231,7 +236,7 @@ public abstract class LIRGenerator extends ValueVisitor {
         // (tw) TODO: Try to reuse an existing stub if possible.
         // It is only allowed if there are no LIR instructions in between that can modify registers.
 
-        DeoptimizationStub stub = new DeoptimizationStub(state);
+        DeoptimizationStub stub = new DeoptimizationStub(state, ir.virtualObjectFields(x, state));
         deoptimizationStubs.add(stub);
         lir.branch(x.condition.negate(), stub.label, stub.info);
     }
@@ -270,8 +275,9 @@ public abstract class LIRGenerator extends ValueVisitor {
         moveToPhi(x.stateAfter());
 
         // all blocks with a successor must end with an unconditional jump
-        // to the successor even if they are consecutive
-        lir.jump(x.defaultSuccessor());
+        // to the successor even if they are consecutive. An OSR compilation
+        // is only ever entered through its OSR entry block.
+        lir.jump(compilation.isOsrCompilation() ? x.osrEntry() : x.defaultSuccessor());
     }
 
     private void setOperandsForLocals(FrameState state) {
@@ -1001,11 +1007,10 @@ public abstract class LIRGenerator extends ValueVisitor {
 
     @Override
     public void visitOsrEntry(OsrEntry x) {
-        // construct our frame and model the production of incoming pointer
-        // to the OSR buffer.
-        lir.osrEntry(osrBufferPointer());
-        CiValue result = createResultVariable(x);
-        lir.move(osrBufferPointer(), result);
+        // the frame was constructed and the incoming pointer to the
+        // OSR buffer was captured by the prologue of the start block
+        assert osrBuffer != null : "OSR buffer must have been captured in the start block";
+        setResult(x, osrBuffer);
     }
 
     @Override
@@ -1475,6 +1480,13 @@ public abstract class LIRGenerator extends ValueVisitor {
             if (prologue != null) {
                 emitXir(prologue, null, null, null, false);
             }
+            if (compilation.isOsrCompilation()) {
+                // model the production of the incoming pointer to the OSR buffer
+                // before the register holding it is clobbered by anything else
+                lir.osrEntry(osrBufferPointer());
+                osrBuffer = newVariable(compilation.target.wordKind);
+                lir.move(osrBufferPointer(), osrBuffer);
+            }
             setOperandsForLocals(block.end().stateAfter());
         }
     }
@@ -2012,10 +2024,21 @@ public abstract class LIRGenerator extends ValueVisitor {
             bci = scope.callerBCI();
             s = s.callerState();
         }
+
+        Map<Value, Value[]> virtualObjectFields = ir.virtualObjectFields(x, state);
+        if (virtualObjectFields != null) {
+            for (Value[] values : virtualObjectFields.values()) {
+                for (Value value : values) {
+                    if (!value.isConstant()) {
+                        walkStateValue(value);
+                    }
+                }
+            }
+        }
     }
 
     private void walkStateValue(Value value) {
-        if (value != null) {
+        if (value != null && !value.checkFlag(Value.Flag.ScalarReplaced)) {
             assert !value.hasSubst() : "missed substitution";
             assert value.isLive() : "value must be marked live in frame state";
             if (value instanceof Phi && !value.isIllegal()) {
@@ -2047,7 +2070,7 @@ public abstract class LIRGenerator extends ValueVisitor {
             state = compilation.placeholderState;
         }
 
-        return new LIRDebugInfo(state, x.exceptionHandlers());
+        return new LIRDebugInfo(state, x.exceptionHandlers(), ir.virtualObjectFields(x, state));
     }
 
     List<CiValue> visitInvokeArguments(CiCallingConvention cc, Value[] args, List<CiValue> pointerSlots) {
@@ -2269,4 +2292,16 @@ public abstract class LIRGenerator extends ValueVisitor {
         lir.cmp(typeEqualityCheck.condition.negate(), leftValue, rightValue);
         emitGuard(typeEqualityCheck);
     }
+
+    @Override
+    public void visitTypeGuard(TypeGuard x) {
+        XirArgument obj = toXirArgument(x.object());
+        XirSnippet snippet;
+        if (x.typeCount() == 1) {
+            snippet = xir.genTypeCheck(site(x), obj, toXirArgument(x.hubAt(0)), x.typeAt(0));
+        } else {
+            snippet = xir.genTypeCheck(site(x), obj, toXirArgument(x.hubAt(0)), x.typeAt(0), toXirArgument(x.hubAt(1)), x.typeAt(1));
+        }
+        emitXir(snippet, x, stateFor(x), null, false);
+    }
 }
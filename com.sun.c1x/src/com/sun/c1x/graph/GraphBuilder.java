@@ -123,7 +123,6 @@ public final class GraphBuilder {
         // 2. compute the block map and get the entrypoint(s)
         BlockMap blockMap = compilation.getBlockMap(scope.method, compilation.osrBCI);
         BlockBegin stdEntry = blockMap.get(0);
-        BlockBegin osrEntry = compilation.osrBCI < 0 ? null : blockMap.get(compilation.osrBCI);
         pushRootScope(scope, blockMap, startBlock);
         MutableFrameState initialState = stateAtEntry(rootMethod);
         startBlock.mergeOrClone(initialState);
@@ -140,7 +139,7 @@ public final class GraphBuilder {
             rootMethodSynchronizedObject = synchronizedObject(initialState, compilation.method);
             genMonitorEnter(rootMethodSynchronizedObject, Instruction.SYNCHRONIZATION_ENTRY_BCI);
             // 4A.2 finish the start block
-            finishStartBlock(startBlock, stdEntry, osrEntry);
+            finishStartBlock(startBlock, stdEntry);
 
             // 4A.3 setup an exception handler to unlock the root method synchronized object
             syncHandler = new BlockBegin(Instruction.SYNCHRONIZATION_ENTRY_BCI, ir.nextBlockNumber());
@@ -153,7 +152,7 @@ public final class GraphBuilder {
             scopeData.addExceptionHandler(h);
         } else {
             // 4B.1 simply finish the start block
-            finishStartBlock(startBlock, stdEntry, osrEntry);
+            finishStartBlock(startBlock, stdEntry);
         }
 
         // 5.
@@ -161,7 +160,7 @@ public final class GraphBuilder {
         if (intrinsic != null) {
             lastInstr = stdEntry;
             // 6A.1 the root method is an intrinsic; load the parameters onto the stack and try to inline it
-            if (C1XOptions.OptIntrinsify && osrEntry == null) {
+            if (C1XOptions.OptIntrinsify && !compilation.isOsrCompilation()) {
                 // try to inline an Intrinsic node
                 boolean isStatic = Modifier.isStatic(rootMethod.accessFlags());
                 int argsSize = rootMethod.signature().argumentSlots(!isStatic);
@@ -207,13 +206,72 @@ public final class GraphBuilder {
 
         if (compilation.osrBCI >= 0) {
             BlockBegin osrBlock = blockMap.get(compilation.osrBCI);
-            assert osrBlock.wasVisited();
-            if (!osrBlock.stateBefore().stackEmpty()) {
-                throw new CiBailout("cannot OSR with non-empty stack");
+            if (!osrBlock.wasVisited() || ir.osrEntryBlock == null) {
+                throw new CiBailout("OSR entry must have been visited for OSR compile");
             }
+            // the OSR entry is the second successor of the start block
+            ((Base) startBlock.end()).setOsrEntry(ir.osrEntryBlock);
+            ir.osrEntryBlock.addPredecessor(startBlock);
         }
     }
 
+    /**
+     * Creates the entry block for an OSR compilation. The block loads the values of all the
+     * local variables from the OSR buffer and then jumps to the loop header at the OSR bytecode
+     * index. It must be set up before the loop header is parsed so that the phis at the loop
+     * header also merge the values coming from the OSR buffer.
+     * <p>
+     * The OSR buffer contains one word per local variable slot, with local {@code i} at offset
+     * {@code i * wordSize}. The buffer is released by the {@link CiRuntimeCall#OSRMigrationEnd}
+     * runtime call emitted by the LIR generator at the end of the OSR entry block.
+     *
+     * @param target the block at the OSR bytecode index
+     */
+    private void setupOsrEntryBlock(BlockBegin target) {
+        FrameState targetState = target.stateBefore();
+        if (!targetState.stackEmpty()) {
+            throw new CiBailout("cannot OSR with non-empty stack");
+        }
+        if (targetState.locksSize() != 0) {
+            throw new CiBailout("cannot OSR with locked monitors");
+        }
+
+        int bci = target.bci();
+        BlockBegin osrEntry = new BlockBegin(bci, ir.nextBlockNumber());
+        osrEntry.setOsrEntry(true);
+        osrEntry.setWasVisited(true);
+        osrEntry.mergeOrClone(targetState);
+
+        killMemoryMap();
+        curBlock = osrEntry;
+        curState = osrEntry.stateBefore().copy();
+        lastInstr = osrEntry;
+        osrEntry.setNext(null, -1);
+
+        CiKind wordKind = compilation.target.wordKind;
+        int wordSize = compilation.target.wordSize;
+        Value buffer = appendWithoutOptimization(new OsrEntry(wordKind), bci);
+        for (int i = 0; i < curState.localsSize(); i++) {
+            Value local = curState.localAt(i);
+            if (local != null) {
+                Value offset = appendWithoutOptimization(Constant.forInt(i * wordSize), bci);
+                LoadPointer load = new LoadPointer(compilation.runtime.asRiType(local.kind), buffer, null, offset, null, false);
+                load.eliminateNullCheck();
+                curState.storeLocal(i, appendWithoutOptimization(load, bci));
+                if (MutableFrameState.isTwoSlot(local.kind)) {
+                    i++;
+                }
+            }
+        }
+
+        Goto g = new Goto(target, null, false);
+        appendWithoutOptimization(g, bci);
+        g.setStateAfter(curState.immutableCopy(bci));
+        osrEntry.setEnd(g);
+        target.mergeOrClone(g.stateAfter());
+        ir.osrEntryBlock = osrEntry;
+    }
+
     private void closeAccessorScope(RiType accessor) {
         if (accessor != null) {
             boundAccessor.set(null);
@@ -232,9 +290,9 @@ public final class GraphBuilder {
         return accessor;
     }
 
-    private void finishStartBlock(BlockBegin startBlock, BlockBegin stdEntry, BlockBegin osrEntry) {
+    private void finishStartBlock(BlockBegin startBlock, BlockBegin stdEntry) {
         assert curBlock == startBlock;
-        Base base = new Base(stdEntry, osrEntry);
+        Base base = new Base(stdEntry, null);
         appendWithoutOptimization(base, 0);
         FrameState stateAfter = curState.immutableCopy(bci());
         base.setStateAfter(stateAfter);
@@ -699,6 +757,16 @@ public final class GraphBuilder {
         BlockBegin fsucc = blockAt(stream().nextBCI());
         int bci = stream().currentBCI();
         boolean isSafepointPoll = !scopeData.noSafepointPolls() && tsucc.bci() <= bci || fsucc.bci() <= bci;
+        if (C1XOptions.OptProfileBlockLayout) {
+            double taken = scope().method.branchProbability(bci);
+            if (taken >= 0) {
+                if (taken <= C1XOptions.RareBranchProbability) {
+                    tsucc.setBlockFlag(BlockBegin.BlockFlag.RarelyExecuted);
+                } else if (taken >= 1 - C1XOptions.RareBranchProbability) {
+                    fsucc.setBlockFlag(BlockBegin.BlockFlag.RarelyExecuted);
+                }
+            }
+        }
         append(new If(x, cond, false, y, tsucc, fsucc, isSafepointPoll ? stateBefore : null, isSafepointPoll));
     }
 
@@ -1092,6 +1160,10 @@ public final class GraphBuilder {
             } else if (C1XOptions.PrintAssumptions) {
                 TTY.println("Could not make leaf type assumption for type " + klass);
             }
+            // 4. speculate on the receiver types recorded in the profile
+            if (C1XOptions.OptProfileGuidedInlining && tryProfiledInvoke(resolvedTarget, args, cpi, constantPool)) {
+                return;
+            }
 
             if (compilation.runtime.mustInline(resolvedTarget)) {
                 boolean result = tryInline(resolvedTarget, args);
@@ -1108,6 +1180,61 @@ public final class GraphBuilder {
         return target.signature().returnKind(false);
     }
 
+    /**
+     * Attempts to devirtualize a call site based on the receiver types recorded in the profile of the
+     * current method. The site must be monomorphic, or bimorphic with both receiver types sharing the
+     * same implementation of {@code target}. A {@link TypeGuard} deoptimizes if a different type shows up, after
+     * which the runtime recompiles the method and eventually stops offering the profile.
+     *
+     * @return {@code true} if a guarded direct call was generated
+     */
+    private boolean tryProfiledInvoke(RiResolvedMethod target, Value[] args, int cpi, RiConstantPool constantPool) {
+        RiTypeProfile profile = scope().method.typeProfile(bci());
+        if (profile == null || profile.types == null || profile.count < C1XOptions.TypeProfileMinimumCount) {
+            return false;
+        }
+        RiResolvedType[] types = profile.types;
+        if (types.length == 0 || types.length > 2 || profile.morphism != types.length) {
+            // megamorphic, or some receivers were not recorded
+            return false;
+        }
+        RiResolvedMethod impl = null;
+        for (RiResolvedType type : types) {
+            RiResolvedMethod m = type.resolveMethodImpl(target);
+            if (m == null || isAbstract(m.accessFlags()) || (impl != null && impl != m)) {
+                return false;
+            }
+            impl = m;
+        }
+
+        Value receiver = args[0];
+        if (!receiver.isNonNull()) {
+            args[0] = append(new NullCheck(receiver, null));
+        }
+
+        // the guard deoptimizes to the state before the invoke
+        for (int i = 0; i < args.length; ++i) {
+            if (args[i] != null) {
+                curState.push(args[i].kind.stackKind(), args[i]);
+            }
+        }
+        FrameState stateBefore = curState.immutableCopy(bci());
+        curState.popArguments(args.length);
+
+        Value[] hubs = new Value[types.length];
+        for (int i = 0; i < types.length; i++) {
+            hubs[i] = appendConstant(types[i].getEncoding(RiType.Representation.ObjectHub));
+        }
+        append(new TypeGuard(args[0], types, hubs, stateBefore));
+        C1XMetrics.TypeGuardsInserted++;
+        C1XMetrics.ProfileGuidedDevirtualizations++;
+        if (C1XOptions.PrintProfileGuidedInlining) {
+            TTY.println("Profile-guided invoke direct to " + impl + " for " + types.length + " receiver type(s) at " + scope().method + "@" + bci());
+        }
+        invokeDirect(impl, args, types.length == 1 ? types[0] : null, cpi, constantPool);
+        return true;
+    }
+
     private void invokeDirect(RiMethod target, Value[] args, RiType knownHolder, int cpi, RiConstantPool constantPool) {
         if (!(target instanceof RiResolvedMethod) || !tryInline((RiResolvedMethod) target, args)) {
             // could not optimize or inline the method call
@@ -2102,8 +2229,11 @@ public final class GraphBuilder {
         while ((b = scopeData.removeFromWorkList()) != null) {
             if (!b.wasVisited()) {
                 if (b.isOsrEntry()) {
-                    // OSR not yet supported
-                    Util.shouldNotReachHere();
+                    // we're about to parse the loop header at the OSR bci, so set up the
+                    // OSR entry edge leading into it first so that its phis are set up correctly
+                    setupOsrEntryBlock(b);
+                    // the loop header is no longer the OSR entry block
+                    b.setOsrEntry(false);
                 }
                 b.setWasVisited(true);
                 // now parse the block
@@ -63,6 +63,22 @@ public class IR {
      */
     private List<BlockBegin> orderedBlocks;
 
+    /**
+     * The natural loops, innermost loops first.
+     */
+    private List<Loop> loops;
+
+    /**
+     * The field values of the {@linkplain Value.Flag#ScalarReplaced scalar replaced} allocations referred to by
+     * the frame state before an instruction, keyed by instruction. Computed by {@link EscapeAnalyzer}.
+     */
+    private IdentityHashMap<Instruction, Map<Value, Value[]>> virtualObjectFieldsBefore;
+
+    /**
+     * As for {@link #virtualObjectFieldsBefore} but for the frame state after an instruction.
+     */
+    private IdentityHashMap<Instruction, Map<Value, Value[]>> virtualObjectFieldsAfter;
+
     /**
      * Creates a new IR instance for the specified compilation.
      * @param compilation the compilation
@@ -152,6 +168,7 @@ public class IR {
             ComputeLinearScanOrder computeLinearScanOrder = new ComputeLinearScanOrder(compilation.stats.blockCount, startBlock);
             orderedBlocks = computeLinearScanOrder.linearScanOrder();
             compilation.stats.loopCount = computeLinearScanOrder.numLoops();
+            loops = computeLinearScanOrder.loops();
             computeLinearScanOrder.printBlocks();
         }
     }
@@ -163,6 +180,16 @@ public class IR {
             new GlobalValueNumberer(this);
             observeCompilationEvent("After global value numbering");
         }
+        if (C1XOptions.OptLoopInvariantCodeMotion || C1XOptions.OptRangeCheckElimination) {
+            makeLinearScanOrder();
+            new LoopOptimizer(this);
+            observeCompilationEvent("After loop optimization");
+        }
+        if (C1XOptions.OptEscapeAnalysis && compilation.isTypesafe() && !compilation.isOsrCompilation()) {
+            makeLinearScanOrder();
+            new EscapeAnalyzer(this);
+            observeCompilationEvent("After escape analysis");
+        }
         if (C1XOptions.OptDeadCodeElimination2) {
             new LivenessMarker(this).removeDeadCode();
             observeCompilationEvent("After dead code elimination 2");
@@ -178,6 +205,48 @@ public class IR {
         return orderedBlocks;
     }
 
+    /**
+     * Gets the natural loops of the method, ordered such that an inner loop precedes the loops enclosing it.
+     * This is only valid once the {@linkplain #linearScanOrder() linear scan order} has been computed.
+     */
+    public List<Loop> loops() {
+        return loops;
+    }
+
+    /**
+     * Records the field values of the scalar replaced allocations referred to by a frame state of an instruction.
+     *
+     * @param x an instruction
+     * @param state the {@linkplain Instruction#stateBefore() state before} or {@linkplain Instruction#stateAfter() state after} {@code x}
+     * @param fields map from each scalar replaced allocation referred to by {@code state} to the values of its
+     *            fields, ordered as specified by {@link com.sun.cri.ci.CiVirtualObject#instanceFields}
+     */
+    public void setVirtualObjectFields(Instruction x, FrameState state, Map<Value, Value[]> fields) {
+        if (state == x.stateAfter()) {
+            if (virtualObjectFieldsAfter == null) {
+                virtualObjectFieldsAfter = new IdentityHashMap<Instruction, Map<Value, Value[]>>();
+            }
+            virtualObjectFieldsAfter.put(x, fields);
+        } else {
+            assert state == x.stateBefore();
+            if (virtualObjectFieldsBefore == null) {
+                virtualObjectFieldsBefore = new IdentityHashMap<Instruction, Map<Value, Value[]>>();
+            }
+            virtualObjectFieldsBefore.put(x, fields);
+        }
+    }
+
+    /**
+     * Gets the field values of the scalar replaced allocations referred to by a frame state of an instruction.
+     *
+     * @return {@code null} if {@code state} does not refer to a scalar replaced allocation
+     * @see #setVirtualObjectFields(Instruction, FrameState, Map)
+     */
+    public Map<Value, Value[]> virtualObjectFields(Instruction x, FrameState state) {
+        IdentityHashMap<Instruction, Map<Value, Value[]>> map = state == x.stateAfter() ? virtualObjectFieldsAfter : virtualObjectFieldsBefore;
+        return map == null ? null : map.get(x);
+    }
+
     private void print(boolean cfgOnly) {
         if (!TTY.isSuppressed()) {
             TTY.println("IR for " + compilation.method);
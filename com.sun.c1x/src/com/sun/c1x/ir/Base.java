@@ -62,6 +62,16 @@ public final class Base extends BlockEnd {
         return successors.size() < 2 ? null : successors.get(0);
     }
 
+    /**
+     * Sets the OSR entrypoint block. The OSR entry block is only known once the loop header
+     * at the OSR bytecode index has been reached by the graph builder.
+     * @param osrEntry the OSR entrypoint block
+     */
+    public void setOsrEntry(BlockBegin osrEntry) {
+        assert osrEntry() == null && osrEntry.isOsrEntry();
+        successors.add(0, osrEntry);
+    }
+
     @Override
     public void accept(ValueVisitor v) {
         v.visitBase(this);
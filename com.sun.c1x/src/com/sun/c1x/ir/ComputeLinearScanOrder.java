@@ -45,7 +45,9 @@ public final class ComputeLinearScanOrder {
     final int[] forwardBranches; // number of incoming forward branches for each block
     final List<BlockBegin> loopEndBlocks; // list of all loop end blocks collected during countEdges
     BitMap2D loopMap; // two-dimensional bit set: a bit is set if a block is contained in a loop
+    BlockBegin[] loopHeaders; // the header block of each loop, indexed by loop index
     final List<BlockBegin> workList; // temporary list (used in markLoops and computeOrder)
+    final List<Loop> loops; // the natural loops, innermost loops first
 
     // accessors for visitedBlocks and activeBlocks
     void initVisited() {
@@ -107,6 +109,14 @@ public final class ComputeLinearScanOrder {
         return numLoops;
     }
 
+    /**
+     * Gets the natural loops of the method, ordered such that an inner loop precedes all the loops enclosing it.
+     * Loops with multiple entries are not included.
+     */
+    public List<Loop> loops() {
+        return loops;
+    }
+
     public ComputeLinearScanOrder(int maxBlockId, BlockBegin startBlock) {
 
         this.maxBlockId = maxBlockId;
@@ -116,6 +126,7 @@ public final class ComputeLinearScanOrder {
         forwardBranches = new int[maxBlockId];
         loopEndBlocks = new ArrayList<BlockBegin>(8);
         workList = new ArrayList<BlockBegin>(8);
+        loops = new ArrayList<Loop>(4);
 
         splitCriticalEdges();
 
@@ -130,6 +141,10 @@ public final class ComputeLinearScanOrder {
         computeOrder(startBlock);
         computeDominators();
 
+        if (numLoops > 0) {
+            computeLoops();
+        }
+
         printBlocks();
         assert verify();
     }
@@ -229,11 +244,13 @@ public final class ComputeLinearScanOrder {
         }
 
         loopMap = new BitMap2D(numLoops, maxBlockId);
+        loopHeaders = new BlockBegin[numLoops];
 
         for (int i = loopEndBlocks.size() - 1; i >= 0; i--) {
             BlockBegin loopEnd = loopEndBlocks.get(i);
             BlockBegin loopStart = loopEnd.suxAt(0);
             int loopIdx = loopStart.loopIndex();
+            loopHeaders[loopIdx] = loopStart;
 
             if (C1XOptions.TraceLinearScanLevel >= 3) {
                 TTY.println("Processing loop from B%d to B%d (loop %d):", loopStart.blockID, loopEnd.blockID, loopIdx);
@@ -415,6 +432,13 @@ public final class ComputeLinearScanOrder {
             weight |= 1 << curBit;
         }
         curBit--;
+
+        // blocks only reached by a branch that the profile says is (almost) never taken
+        // are moved out of the hot path
+        if (!(cur.checkBlockFlag(BlockBegin.BlockFlag.RarelyExecuted) && cur.numberOfPreds() == 1)) {
+            weight |= 1 << curBit;
+        }
+        curBit--;
         if (!(cur.end() instanceof Return) && (singleSux == null || !(singleSux.end() instanceof Return))) {
             weight |= 1 << curBit;
         }
@@ -600,6 +624,74 @@ public final class ComputeLinearScanOrder {
         return changed;
     }
 
+    /**
+     * Creates a {@link Loop} for each natural loop found by {@link #markLoops()}.
+     */
+    void computeLoops() {
+        Loop[] loopsByIndex = new Loop[numLoops];
+        for (int i = 0; i < numLoops; i++) {
+            BlockBegin header = loopHeaders[i];
+            if (header != null && isBlockInLoop(i, header)) {
+                // non-natural loops were cleared from the loop map and are ignored
+                loopsByIndex[i] = new Loop(i, header, maxBlockId);
+            }
+        }
+        for (BlockBegin loopEnd : loopEndBlocks) {
+            BlockBegin header = loopEnd.suxAt(0);
+            for (Loop loop : loopsByIndex) {
+                if (loop != null && loop.header == header) {
+                    loop.ends.add(loopEnd);
+                }
+            }
+        }
+        for (BlockBegin block : linearScanOrder) {
+            for (int i = 0; i < numLoops; i++) {
+                if (loopsByIndex[i] != null && isBlockInLoop(i, block)) {
+                    loopsByIndex[i].addBlock(block);
+                }
+            }
+        }
+        for (Loop loop : loopsByIndex) {
+            if (loop != null) {
+                loops.add(loop);
+            }
+        }
+        // Loop indices do not reflect nesting. The parent of a loop is the smallest loop enclosing it.
+        for (Loop loop : loops) {
+            for (Loop outer : loops) {
+                if (outer != loop && encloses(outer, loop) && (loop.parent == null || outer.blocks.size() < loop.parent.blocks.size())) {
+                    loop.parent = outer;
+                }
+            }
+        }
+        // An enclosing loop has strictly more blocks than any loop it encloses
+        Collections.sort(loops, new Comparator<Loop>() {
+            public int compare(Loop a, Loop b) {
+                return a.blocks.size() - b.blocks.size();
+            }
+        });
+    }
+
+    /**
+     * Determines if loop {@code outer} encloses loop {@code inner}, i.e. if the header of {@code outer} dominates
+     * the header of {@code inner} and the body of {@code outer} contains every block of {@code inner}.
+     */
+    static boolean encloses(Loop outer, Loop inner) {
+        BlockBegin dominator = inner.header;
+        while (dominator != null && dominator != outer.header) {
+            dominator = dominator.dominator();
+        }
+        if (dominator == null) {
+            return false;
+        }
+        for (BlockBegin block : inner.blocks) {
+            if (!outer.blockIds.get(block.blockID)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     void computeDominators() {
         if (C1XOptions.TraceLinearScanLevel >= 3) {
             TTY.println("----- computing dominators (iterative computation reqired: %b)", iterativeDominators);
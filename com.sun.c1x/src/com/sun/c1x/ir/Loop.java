@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.c1x.ir;
+
+import java.util.*;
+
+import com.sun.cri.ci.*;
+
+/**
+ * A natural loop as identified by {@link ComputeLinearScanOrder}. The {@linkplain #index index} of a loop does
+ * not reflect its nesting; the {@linkplain #parent() enclosing loop} is computed from header dominance and
+ * body containment.
+ */
+public final class Loop {
+
+    /**
+     * The loop index, as returned by {@link BlockBegin#loopIndex()} for the header of this loop.
+     */
+    public final int index;
+
+    /**
+     * The single entry block of this loop.
+     */
+    public final BlockBegin header;
+
+    /**
+     * The blocks in this loop (including the header and the blocks of nested loops) in linear scan order.
+     */
+    final List<BlockBegin> blocks;
+
+    /**
+     * The blocks in this loop with a back edge to the header.
+     */
+    final List<BlockBegin> ends;
+
+    /**
+     * The ids of the blocks in this loop.
+     */
+    final CiBitMap blockIds;
+
+    /**
+     * The innermost loop enclosing this loop or {@code null} if this is an outermost loop.
+     */
+    Loop parent;
+
+    Loop(int index, BlockBegin header, int maxBlockId) {
+        this.index = index;
+        this.header = header;
+        this.blocks = new ArrayList<BlockBegin>();
+        this.ends = new ArrayList<BlockBegin>(2);
+        this.blockIds = new CiBitMap(maxBlockId);
+    }
+
+    void addBlock(BlockBegin block) {
+        blocks.add(block);
+        blockIds.set(block.blockID);
+    }
+
+    /**
+     * Gets the blocks in this loop in linear scan order.
+     */
+    public List<BlockBegin> blocks() {
+        return blocks;
+    }
+
+    /**
+     * Gets the blocks in this loop that end with a back edge to the header.
+     */
+    public List<BlockBegin> ends() {
+        return ends;
+    }
+
+    /**
+     * Gets the innermost loop enclosing this loop.
+     *
+     * @return the parent loop or {@code null} if this is an outermost loop
+     */
+    public Loop parent() {
+        return parent;
+    }
+
+    /**
+     * Gets the nesting depth of this loop, {@code 1} being the depth of an outermost loop.
+     */
+    public int depth() {
+        int depth = 1;
+        for (Loop l = parent; l != null; l = l.parent) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Determines if a given block is part of this loop. Blocks created after the loops were
+     * computed are never considered part of a loop.
+     */
+    public boolean contains(BlockBegin block) {
+        return block.blockID < blockIds.size() && blockIds.get(block.blockID);
+    }
+
+    /**
+     * Gets the block through which this loop is entered. A block is a preheader if it is the only predecessor of
+     * the header outside of the loop and it ends with a {@link Goto} to the header. Code placed at the end of a
+     * preheader is therefore executed exactly once each time the loop is entered.
+     *
+     * @return the preheader of this loop or {@code null} if it does not have one
+     */
+    public BlockBegin preheader() {
+        if (header.isExceptionEntry()) {
+            return null;
+        }
+        BlockBegin preheader = null;
+        for (BlockBegin pred : header.predecessors()) {
+            if (!contains(pred)) {
+                if (preheader != null) {
+                    return null;
+                }
+                preheader = pred;
+            }
+        }
+        if (preheader == null || !(preheader.end() instanceof Goto) || preheader.numberOfSux() != 1) {
+            return null;
+        }
+        return preheader;
+    }
+
+    @Override
+    public String toString() {
+        return "Loop " + index + " [header B" + header.blockID + ", " + blocks.size() + " blocks, depth " + depth() + "]";
+    }
+}
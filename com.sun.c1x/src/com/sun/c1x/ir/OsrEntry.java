@@ -32,10 +32,12 @@ public final class OsrEntry extends Instruction {
 
     /**
      * Constructs a new OsrEntry instruction.
+     * @param wordKind the kind of a machine word on the target, i.e. the kind of the buffer pointer
      */
-    public OsrEntry() {
-        // TODO: this should be a CiKind.Word
-        super(CiKind.Jsr);
+    public OsrEntry(CiKind wordKind) {
+        super(wordKind);
+        // the OSR buffer must always be released, even if no local is loaded from it
+        setFlag(Flag.LiveSideEffect);
     }
 
     @Override
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.c1x.ir;
+
+import static com.sun.c1x.util.Util.*;
+
+import com.oracle.max.criutils.*;
+import com.sun.c1x.value.*;
+import com.sun.cri.ci.*;
+import com.sun.cri.ri.*;
+
+/**
+ * Checks that the exact type of a non-null object is one of a small set of types and deoptimizes otherwise.
+ * This is used to speculate on the receiver types recorded in a type profile.
+ */
+public final class TypeGuard extends Guard {
+
+    Value object;
+    final RiResolvedType[] types;
+    final Value[] hubs;
+
+    /**
+     * Creates a new TypeGuard.
+     *
+     * @param object the object whose type is checked; must be non-null
+     * @param types the expected types (at most two)
+     * @param hubs the instructions producing the {@linkplain RiType.Representation#ObjectHub hubs} of {@code types}
+     * @param stateBefore the state in which execution continues if the check fails
+     */
+    public TypeGuard(Value object, RiResolvedType[] types, Value[] hubs, FrameState stateBefore) {
+        super(Condition.EQ, stateBefore);
+        assert object.kind == CiKind.Object;
+        assert types.length == hubs.length && types.length > 0 && types.length <= 2;
+        this.object = object;
+        this.types = types;
+        this.hubs = hubs;
+    }
+
+    /**
+     * Gets the object whose type is checked.
+     */
+    public Value object() {
+        return object;
+    }
+
+    /**
+     * Gets the number of types accepted by this guard.
+     */
+    public int typeCount() {
+        return types.length;
+    }
+
+    /**
+     * Gets the i'th type accepted by this guard.
+     */
+    public RiResolvedType typeAt(int i) {
+        return types[i];
+    }
+
+    /**
+     * Gets the instruction producing the hub of the i'th type accepted by this guard.
+     */
+    public Value hubAt(int i) {
+        return hubs[i];
+    }
+
+    @Override
+    public void inputValuesDo(ValueClosure closure) {
+        object = closure.apply(object);
+        for (int i = 0; i < hubs.length; i++) {
+            hubs[i] = closure.apply(hubs[i]);
+        }
+    }
+
+    @Override
+    public void accept(ValueVisitor v) {
+        v.visitTypeGuard(this);
+    }
+
+    @Override
+    public void print(LogStream out) {
+        out.print("typeGuard ").print(valueString(object));
+        for (RiResolvedType type : types) {
+            out.print(" ").print(CiUtil.toJavaName(type));
+        }
+    }
+}
@@ -65,6 +65,7 @@ public abstract class Value {
         PhiDead,            // phi is illegal because local is dead
         PhiCannotSimplify,  // phi cannot be simplified
         PhiVisited,         // phi has been visited during simplification
+        ScalarReplaced,     // allocation has been removed by escape analysis
 
         ResultIsUnique;     // the result of this instruction is guaranteed to be unique (e.g. a new object)
 
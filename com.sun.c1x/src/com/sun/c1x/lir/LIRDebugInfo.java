@@ -27,6 +27,7 @@ import java.util.*;
 import com.sun.c1x.*;
 import com.sun.c1x.ir.*;
 import com.sun.c1x.value.*;
+import com.sun.c1x.value.FrameState.ValueProcedure;
 import com.sun.cri.ci.*;
 
 /**
@@ -40,16 +41,28 @@ public class LIRDebugInfo {
 
     public final FrameState state;
     public final List<ExceptionHandler> exceptionHandlers;
+
+    /**
+     * The field values of the {@linkplain Value.Flag#ScalarReplaced scalar replaced} allocations referred
+     * to by {@link #state}. This is {@code null} if there are no such allocations.
+     */
+    public final Map<Value, Value[]> virtualObjectFields;
     public CiDebugInfo debugInfo;
 
     public LIRDebugInfo(FrameState state, List<ExceptionHandler> exceptionHandlers) {
+        this(state, exceptionHandlers, null);
+    }
+
+    public LIRDebugInfo(FrameState state, List<ExceptionHandler> exceptionHandlers, Map<Value, Value[]> virtualObjectFields) {
         assert state != null;
         this.state = state;
         this.exceptionHandlers = exceptionHandlers;
+        this.virtualObjectFields = virtualObjectFields;
     }
 
     private LIRDebugInfo(LIRDebugInfo info) {
         this.state = info.state;
+        this.virtualObjectFields = info.virtualObjectFields;
 
         // deep copy of exception handlers
         if (info.exceptionHandlers != null) {
@@ -92,6 +105,20 @@ public class LIRDebugInfo {
         }
     }
 
+    /**
+     * Traverses all live values of {@link #state} and the field values of the scalar replaced allocations it refers to.
+     */
+    public void forEachLiveStateValue(ValueProcedure proc) {
+        state.forEachLiveStateValue(proc);
+        if (virtualObjectFields != null) {
+            for (Value[] values : virtualObjectFields.values()) {
+                for (Value value : values) {
+                    proc.doValue(value);
+                }
+            }
+        }
+    }
+
     public CiDebugInfo debugInfo() {
         assert debugInfo != null : "debug info not allocated yet";
         return debugInfo;
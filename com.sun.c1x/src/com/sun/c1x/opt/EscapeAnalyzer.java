@@ -0,0 +1,500 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.c1x.opt;
+
+import static com.sun.c1x.ir.Value.Flag.*;
+
+import java.util.*;
+
+import com.sun.c1x.*;
+import com.oracle.max.criutils.*;
+import com.sun.c1x.graph.*;
+import com.sun.c1x.ir.*;
+import com.sun.c1x.value.*;
+import com.sun.c1x.value.FrameState.PhiProcedure;
+import com.sun.cri.ci.*;
+import com.sun.cri.ri.*;
+
+/**
+ * Performs a flow-insensitive escape analysis over the HIR and scalar replaces the {@link NewInstance}
+ * allocations that do not escape the compiled method.
+ * <p>
+ * An allocation is a candidate if its only uses are accesses to its own non-volatile instance fields,
+ * monitor operations and frame states. For each candidate, the values of its fields are tracked
+ * through the control flow graph (including the edges to exception handlers) until a fixed point is
+ * reached. A candidate is abandoned if a field load or a deoptimization point observes a field whose
+ * value differs along the incoming paths, as no phis are created for fields.
+ * <p>
+ * For the remaining candidates, field loads are replaced by the tracked values, field stores and monitor
+ * operations are removed, and the allocation is marked {@linkplain Value.Flag#ScalarReplaced scalar replaced}.
+ * The field values at each deoptimization point referring to a candidate are recorded with
+ * {@link IR#setVirtualObjectFields} so that the object (and any lock elided on it) can be rematerialized
+ * when execution falls back to the baseline compiler.
+ */
+public final class EscapeAnalyzer {
+
+    /**
+     * Sentinel value denoting a field whose value differs between the paths reaching a program point.
+     */
+    private static final Value CONFLICT = new Constant(CiConstant.INT_0);
+
+    private static final int FLOW = 0;
+    private static final int CHECK = 1;
+    private static final int TRANSFORM = 2;
+
+    /**
+     * A non-escaping allocation.
+     */
+    private static final class Candidate {
+        final NewInstance allocation;
+        final int index;
+        final RiResolvedField[] fields;
+        final Value[] defaults;
+        boolean escapes;
+
+        Candidate(NewInstance allocation, int index, RiResolvedField[] fields) {
+            this.allocation = allocation;
+            this.index = index;
+            this.fields = fields;
+            this.defaults = new Value[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                defaults[i] = new Constant(CiConstant.defaultValue(fields[i].kind(false)));
+            }
+        }
+
+        /**
+         * Gets the index of the field accessed by a given instruction in {@link #fields}.
+         *
+         * @return -1 if the access cannot be scalar replaced
+         */
+        int fieldIndex(AccessField access) {
+            if (access.isLoaded() && !access.isVolatile()) {
+                for (int i = 0; i < fields.length; i++) {
+                    if (fields[i].equals(access.field())) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        boolean isDefault(Value value) {
+            for (Value d : defaults) {
+                if (d == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    final IR ir;
+    final List<BlockBegin> blocks;
+    final IdentityHashMap<Value, Candidate> candidates = new IdentityHashMap<Value, Candidate>();
+    final HashMap<BlockBegin, Value[][]> entryStates = new HashMap<BlockBegin, Value[][]>();
+    final InstructionSubstituter subst;
+    final IdentityHashMap<Instruction, Instruction> replacements = new IdentityHashMap<Instruction, Instruction>();
+    final List<Map<Value, Value[]>> recordedFields = new ArrayList<Map<Value, Value[]>>();
+    int numCandidates;
+    boolean failed;
+
+    /**
+     * Creates a new escape analysis pass and performs it on the IR.
+     *
+     * @param ir the IR on which to perform escape analysis; its linear scan order must have been computed
+     */
+    public EscapeAnalyzer(IR ir) {
+        this.ir = ir;
+        this.blocks = ir.linearScanOrder();
+        this.subst = new InstructionSubstituter(ir);
+
+        findCandidates();
+        if (candidates.isEmpty()) {
+            return;
+        }
+        markEscapes();
+        if (!hasCandidates()) {
+            return;
+        }
+
+        // propagate the field values to a fixed point
+        entryStates.put(ir.startBlock, new Value[numCandidates][]);
+        boolean changed;
+        do {
+            changed = false;
+            for (BlockBegin block : blocks) {
+                Value[][] entry = entryStates.get(block);
+                if (entry != null) {
+                    changed |= walk(block, copy(entry), FLOW);
+                }
+            }
+        } while (changed);
+
+        // abandon the candidates with a conflicting field value at a use
+        do {
+            failed = false;
+            for (BlockBegin block : blocks) {
+                Value[][] entry = entryStates.get(block);
+                if (entry != null) {
+                    walk(block, copy(entry), CHECK);
+                }
+            }
+        } while (failed && hasCandidates());
+
+        if (hasCandidates()) {
+            transform();
+        }
+    }
+
+    private void findCandidates() {
+        for (BlockBegin block : blocks) {
+            for (Instruction i = block.next(); i != null; i = i.next()) {
+                if (i instanceof NewInstance) {
+                    RiResolvedType type = ((NewInstance) i).exactType();
+                    if (type != null && type.isInstanceClass() && type.isInitialized() && !type.hasFinalizer()) {
+                        RiResolvedField[] fields = CiVirtualObject.instanceFields(type);
+                        if (fields.length <= C1XOptions.EscapeAnalysisMaximumFields && !hasWordFields(fields)) {
+                            candidates.put(i, new Candidate((NewInstance) i, numCandidates++, fields));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean hasWordFields(RiResolvedField[] fields) {
+        for (RiResolvedField field : fields) {
+            if (field.kind(false) != field.kind(true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasCandidates() {
+        for (Candidate c : candidates.values()) {
+            if (!c.escapes) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Candidate candidate(Value value) {
+        Candidate c = candidates.get(value);
+        if (c != null && !c.escapes) {
+            return c;
+        }
+        return null;
+    }
+
+    private final ValueClosure escaper = new ValueClosure() {
+        public Value apply(Value i) {
+            Candidate c = candidates.get(i);
+            if (c != null) {
+                c.escapes = true;
+            }
+            return i;
+        }
+    };
+
+    private final PhiProcedure phiEscaper = new PhiProcedure() {
+        public boolean doPhi(Phi phi) {
+            for (int j = 0; j < phi.inputCount(); j++) {
+                escaper.apply(phi.inputAt(j));
+            }
+            return true;
+        }
+    };
+
+    private void markEscapes() {
+        boolean elideLocks = ir.compilation.runtime.sizeOfBasicObjectLock() == 0;
+        for (BlockBegin block : blocks) {
+            block.stateBefore().forEachPhi(block, phiEscaper);
+            for (Instruction i = block.next(); i != null; i = i.next()) {
+                if (i instanceof AccessField && !((AccessField) i).isStatic()) {
+                    AccessField access = (AccessField) i;
+                    Candidate c = candidates.get(access.object());
+                    if (c != null && c.fieldIndex(access) < 0) {
+                        c.escapes = true;
+                    }
+                    if (i instanceof StoreField) {
+                        escaper.apply(((StoreField) i).value());
+                    }
+                } else if (i instanceof AccessMonitor && elideLocks && ((AccessMonitor) i).lockAddress() == null) {
+                    // a monitor operation on a candidate is elided
+                } else {
+                    i.inputValuesDo(escaper);
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines if the instruction {@code i} is removed if all the current candidates are scalar replaced.
+     */
+    private boolean isRemoved(Instruction i) {
+        if (i instanceof NewInstance) {
+            return candidate(i) != null;
+        } else if (i instanceof AccessField && !((AccessField) i).isStatic()) {
+            return candidate(((AccessField) i).object()) != null;
+        } else if (i instanceof AccessMonitor) {
+            return candidate(((AccessMonitor) i).object()) != null;
+        }
+        return false;
+    }
+
+    /**
+     * Walks the instructions of a block, updating the field values of the candidates.
+     *
+     * @param block the block to walk
+     * @param state the field values at the entry of {@code block}, indexed by candidate
+     * @param mode {@link #FLOW} to propagate the values to the successors and handlers of {@code block},
+     *            {@link #CHECK} to abandon the candidates with conflicting values at a use, or {@link #TRANSFORM}
+     *            to perform the scalar replacement
+     * @return {@code true} if the entry state of a successor or handler of {@code block} changed
+     */
+    private boolean walk(BlockBegin block, Value[][] state, int mode) {
+        boolean changed = false;
+        if (mode == FLOW) {
+            changed |= mergeIntoHandlers(block, state);
+        }
+        for (Instruction i = block.next(); i != null; i = i.next()) {
+            boolean removed = mode != FLOW && isRemoved(i);
+            if (mode != FLOW && !removed) {
+                visitState(i, i.stateBefore(), state, mode);
+            }
+            if (i instanceof NewInstance) {
+                Candidate c = candidate(i);
+                if (c != null) {
+                    state[c.index] = c.defaults.clone();
+                    if (mode == FLOW) {
+                        changed |= mergeIntoHandlers(block, state);
+                    }
+                }
+            } else if (i instanceof StoreField && !((StoreField) i).isStatic()) {
+                StoreField store = (StoreField) i;
+                Candidate c = candidate(store.object());
+                if (c != null) {
+                    assert state[c.index] != null : "allocation must dominate store";
+                    state[c.index][c.fieldIndex(store)] = store.value();
+                    if (mode == FLOW) {
+                        changed |= mergeIntoHandlers(block, state);
+                    }
+                }
+            } else if (i instanceof LoadField && !((LoadField) i).isStatic() && mode != FLOW) {
+                LoadField load = (LoadField) i;
+                Candidate c = candidate(load.object());
+                if (c != null) {
+                    assert state[c.index] != null : "allocation must dominate load";
+                    Value value = state[c.index][c.fieldIndex(load)];
+                    if (mode == CHECK) {
+                        if (!isForwardable((RiResolvedField) load.field(), value)) {
+                            fail(c);
+                        }
+                    } else {
+                        if (c.isDefault(value)) {
+                            Constant replacement = new Constant(value.asConstant());
+                            replacements.put(load, replacement);
+                            value = replacement;
+                        }
+                        subst.setSubst(load, value);
+                    }
+                }
+            }
+            if (mode != FLOW && !removed) {
+                visitState(i, i.stateAfter(), state, mode);
+            }
+        }
+        if (mode == FLOW) {
+            for (int s = 0; s < block.numberOfSux(); s++) {
+                changed |= merge(block.suxAt(s), state);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Determines if a tracked value can replace a load of a given field. A value stored to a sub-word
+     * field may not have been narrowed (see {@link C1XOptions#CanonicalizeNarrowingInStores}) so only
+     * constants in range of the field kind are forwarded.
+     */
+    private static boolean isForwardable(RiResolvedField field, Value value) {
+        if (value == CONFLICT) {
+            return false;
+        }
+        CiKind kind = field.kind(false);
+        if (kind.stackKind() == kind) {
+            return true;
+        }
+        if (!value.isConstant()) {
+            return false;
+        }
+        int v = value.asConstant().asInt();
+        // Checkstyle: stop
+        switch (kind) {
+            case Boolean: return v == 0 || v == 1;
+            case Byte:    return v == (byte) v;
+            case Short:   return v == (short) v;
+            case Char:    return v == (char) v;
+            default:      return false;
+        }
+        // Checkstyle: resume
+    }
+
+    private void fail(Candidate c) {
+        if (C1XOptions.TraceEscapeAnalysis) {
+            TTY.println("EA: abandoned " + c.allocation + " (" + CiUtil.toJavaName(c.allocation.instanceClass()) + ")");
+        }
+        c.escapes = true;
+        failed = true;
+    }
+
+    /**
+     * Processes a frame state of a (non-removed) instruction that may be a deoptimization point.
+     */
+    private void visitState(Instruction i, FrameState fs, final Value[][] state, int mode) {
+        if (fs == null) {
+            return;
+        }
+        final IdentityHashMap<Value, Value[]> fields = new IdentityHashMap<Value, Value[]>();
+        fs.valuesDo(new ValueClosure() {
+            public Value apply(Value v) {
+                Candidate c = candidate(v);
+                if (c != null && !fields.containsKey(v)) {
+                    fields.put(v, state[c.index]);
+                }
+                return v;
+            }
+        });
+        if (fields.isEmpty()) {
+            return;
+        }
+        if (mode == CHECK) {
+            for (Map.Entry<Value, Value[]> e : fields.entrySet()) {
+                Value[] values = e.getValue();
+                if (values == null || Arrays.asList(values).contains(CONFLICT)) {
+                    fail(candidates.get(e.getKey()));
+                }
+            }
+        } else {
+            for (Map.Entry<Value, Value[]> e : fields.entrySet()) {
+                e.setValue(e.getValue().clone());
+            }
+            recordedFields.add(fields);
+            ir.setVirtualObjectFields(i, fs, fields);
+        }
+    }
+
+    private boolean mergeIntoHandlers(BlockBegin block, Value[][] state) {
+        boolean changed = false;
+        for (BlockBegin handler : block.exceptionHandlerBlocks()) {
+            changed |= merge(handler, state);
+        }
+        return changed;
+    }
+
+    private boolean merge(BlockBegin block, Value[][] state) {
+        Value[][] entry = entryStates.get(block);
+        if (entry == null) {
+            entryStates.put(block, copy(state));
+            return true;
+        }
+        boolean changed = false;
+        for (int c = 0; c < numCandidates; c++) {
+            Value[] values = state[c];
+            if (values != null) {
+                Value[] entryValues = entry[c];
+                if (entryValues == null) {
+                    entry[c] = values.clone();
+                    changed = true;
+                } else {
+                    for (int f = 0; f < values.length; f++) {
+                        if (entryValues[f] != values[f] && entryValues[f] != CONFLICT) {
+                            entryValues[f] = CONFLICT;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static Value[][] copy(Value[][] state) {
+        Value[][] result = new Value[state.length][];
+        for (int c = 0; c < state.length; c++) {
+            if (state[c] != null) {
+                result[c] = state[c].clone();
+            }
+        }
+        return result;
+    }
+
+    private void transform() {
+        for (BlockBegin block : blocks) {
+            Value[][] entry = entryStates.get(block);
+            if (entry != null) {
+                walk(block, copy(entry), TRANSFORM);
+            }
+        }
+
+        // unlink the removed instructions and link in the constants replacing loads of default field values
+        for (BlockBegin block : blocks) {
+            Instruction prev = block;
+            for (Instruction i = block.next(); i != null; i = i.next()) {
+                Instruction replacement = replacements.get(i);
+                if (replacement != null) {
+                    replacement.setBCI(i.bci());
+                    prev.resetNext(replacement);
+                    replacement.resetNext(i.next());
+                    prev = replacement;
+                } else if (isRemoved(i)) {
+                    if (i instanceof AccessMonitor) {
+                        C1XMetrics.LocksElided++;
+                    }
+                } else {
+                    prev.resetNext(i);
+                    prev = i;
+                }
+            }
+        }
+        subst.finish();
+
+        // the recorded field values may refer to loads that have been replaced
+        for (Map<Value, Value[]> fields : recordedFields) {
+            for (Value[] values : fields.values()) {
+                for (int f = 0; f < values.length; f++) {
+                    values[f] = subst.getSubst(values[f]);
+                }
+            }
+        }
+
+        for (Candidate c : candidates.values()) {
+            if (!c.escapes) {
+                c.allocation.setFlag(ScalarReplaced);
+                C1XMetrics.AllocationsScalarReplaced++;
+                if (C1XOptions.TraceEscapeAnalysis) {
+                    TTY.println("EA: scalar replaced " + c.allocation + " (" + CiUtil.toJavaName(c.allocation.instanceClass()) + ") in " + ir.compilation.method);
+                }
+            }
+        }
+    }
+}
@@ -24,6 +24,8 @@ package com.sun.c1x.opt;
 
 import static com.sun.c1x.ir.Value.Flag.*;
 
+import java.util.*;
+
 import com.sun.c1x.*;
 import com.sun.c1x.graph.*;
 import com.sun.c1x.ir.*;
@@ -167,6 +169,7 @@ public final class LivenessMarker {
         if (stateBefore != null) {
             // stateBefore != null implies that this instruction may have side effects
             stateBefore.valuesDo(deoptMarker);
+            markVirtualObjectFields(i, stateBefore);
             i.inputValuesDo(valueMarker);
             setFlag(i, LiveSideEffect);
         } else if (i.checkFlag(LiveStore)) {
@@ -185,6 +188,22 @@ public final class LivenessMarker {
         FrameState stateAfter = i.stateAfter();
         if (stateAfter != null) {
             stateAfter.valuesDo(deoptMarker);
+            markVirtualObjectFields(i, stateAfter);
+        }
+    }
+
+    /**
+     * Marks the field values of the scalar replaced allocations referred to by a frame state as
+     * needed for deoptimization.
+     */
+    private void markVirtualObjectFields(Instruction i, FrameState state) {
+        Map<Value, Value[]> fields = ir.virtualObjectFields(i, state);
+        if (fields != null) {
+            for (Value[] values : fields.values()) {
+                for (Value value : values) {
+                    deoptMarker.apply(value);
+                }
+            }
         }
     }
 
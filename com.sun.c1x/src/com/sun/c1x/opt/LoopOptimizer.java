@@ -0,0 +1,442 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.c1x.opt;
+
+import static com.sun.cri.bytecode.Bytecodes.*;
+
+import java.util.*;
+
+import com.oracle.max.criutils.*;
+import com.sun.c1x.*;
+import com.sun.c1x.graph.*;
+import com.sun.c1x.ir.*;
+import com.sun.c1x.value.*;
+import com.sun.cri.ci.*;
+import com.sun.cri.ri.*;
+
+/**
+ * Performs loop-invariant code motion and range check elimination on the {@linkplain IR#loops() natural loops}
+ * of a method. Both transformations move code into the loop's {@linkplain Loop#preheader() preheader}, so loops
+ * without a preheader are left untouched. Loops are processed innermost first, so that code hoisted out of an inner
+ * loop may subsequently be hoisted out of the enclosing loops as well.
+ * <p>
+ * Code motion only moves instructions that cannot trap and have no state: pure instructions and loads of
+ * non-volatile fields that are not written within the loop. As the moved instructions may have been conditionally
+ * executed in the loop, an instruction dereferencing an object is only moved if the object is known to be non-null
+ * in the preheader.
+ * <p>
+ * Range checks are eliminated for array accesses indexed by the induction variable of a counted loop, i.e. a loop
+ * whose header tests {@code i < limit} or {@code i <= limit} and whose induction variable {@code i} is incremented
+ * by one on every back edge. If the range of {@code i} cannot be proven to be within the bounds of the array, the
+ * bounds are checked once in the preheader by {@link BoundsCheck} guards that deoptimize to the loop header.
+ */
+public final class LoopOptimizer {
+
+    final IR ir;
+
+    /**
+     * The block containing each instruction, updated as instructions are moved.
+     */
+    final IdentityHashMap<Value, BlockBegin> blockOf;
+
+    /**
+     * Creates a new loop optimizer and performs it on the IR.
+     *
+     * @param ir the IR to optimize
+     */
+    public LoopOptimizer(IR ir) {
+        this.ir = ir;
+        this.blockOf = new IdentityHashMap<Value, BlockBegin>();
+        List<Loop> loops = ir.loops();
+        if (loops == null || loops.isEmpty()) {
+            return;
+        }
+        for (BlockBegin block : ir.linearScanOrder()) {
+            for (Instruction x = block.next(); x != null; x = x.next()) {
+                blockOf.put(x, block);
+            }
+        }
+        for (Loop loop : loops) {
+            BlockBegin preheader = loop.preheader();
+            if (preheader == null) {
+                continue;
+            }
+            if (C1XOptions.OptLoopInvariantCodeMotion) {
+                hoistInvariants(loop, preheader);
+            }
+            if (C1XOptions.OptRangeCheckElimination) {
+                eliminateRangeChecks(loop, preheader);
+            }
+        }
+    }
+
+    /**
+     * Determines if a value is computed outside of a given loop.
+     */
+    boolean isInvariant(Value value, Loop loop) {
+        if (value instanceof Local) {
+            return true;
+        }
+        if (value instanceof Phi) {
+            return !loop.contains(((Phi) value).block());
+        }
+        BlockBegin block = blockOf.get(value);
+        return block != null && !loop.contains(block);
+    }
+
+    /**
+     * Inserts an instruction into a block immediately before the block's end.
+     */
+    void insertBeforeEnd(BlockBegin block, Instruction x) {
+        BlockEnd end = block.end();
+        Instruction last = end.prev(block);
+        x.resetNext(end);
+        last.resetNext(x);
+        blockOf.put(x, block);
+    }
+
+    // ----------------------------------------------------------------------------------------------
+    // Loop-invariant code motion
+
+    /**
+     * The memory effects of the instructions in a loop that are relevant to hoisting field loads.
+     */
+    static final class LoopEffects {
+        /**
+         * Set if the loop contains an instruction with unknown memory effects or a memory barrier.
+         */
+        boolean opaque;
+
+        /**
+         * The resolved fields written in the loop.
+         */
+        final HashSet<RiField> storedFields = new HashSet<RiField>();
+    }
+
+    private LoopEffects computeEffects(Loop loop) {
+        LoopEffects effects = new LoopEffects();
+        for (BlockBegin block : loop.blocks()) {
+            for (Instruction x = block.next(); x != null; x = x.next()) {
+                if (x instanceof StoreField) {
+                    StoreField store = (StoreField) x;
+                    if (store.isLoaded()) {
+                        effects.storedFields.add(store.field());
+                    } else {
+                        effects.opaque = true;
+                    }
+                } else if (x instanceof Invoke || x instanceof Intrinsic || x instanceof AccessMonitor ||
+                           x instanceof UnsafePutRaw || x instanceof UnsafePutObject || x instanceof CompareAndSwap ||
+                           x instanceof StorePointer || x instanceof StoreRegister || x instanceof NativeCall ||
+                           x instanceof MemoryBarrier || x instanceof LinkTo || x instanceof InvokeHandle ||
+                           x instanceof BreakpointTrap) {
+                    effects.opaque = true;
+                }
+            }
+        }
+        return effects;
+    }
+
+    private void hoistInvariants(final Loop loop, BlockBegin preheader) {
+        LoopEffects effects = null;
+        for (BlockBegin block : loop.blocks()) {
+            Instruction prev = block;
+            Instruction x = block.next();
+            while (!(x instanceof BlockEnd)) {
+                Instruction next = x.next();
+                boolean hoist;
+                if (x instanceof LoadField) {
+                    if (effects == null) {
+                        effects = computeEffects(loop);
+                    }
+                    LoadField load = (LoadField) x;
+                    hoist = canHoistLoad(load, effects) && inputsInvariant(x, loop) && (load.isStatic() || isNonNullAt(load.object(), preheader));
+                } else if (x instanceof ArrayLength) {
+                    hoist = canHoist(x) && inputsInvariant(x, loop) && isNonNullAt(((ArrayLength) x).array(), preheader);
+                } else {
+                    hoist = canHoist(x) && inputsInvariant(x, loop);
+                }
+                if (hoist) {
+                    prev.resetNext(next);
+                    insertBeforeEnd(preheader, x);
+                    C1XMetrics.LoopInvariantsHoisted++;
+                    if (C1XOptions.TraceLoopOptimizations) {
+                        TTY.println("Loop: hoisted " + x + " from B" + block.blockID + " to B" + preheader.blockID + " in " + ir.compilation.method);
+                    }
+                } else {
+                    prev = x;
+                }
+                x = next;
+            }
+        }
+    }
+
+    /**
+     * Determines if an instruction other than a field load can be hoisted out of a loop, assuming its inputs are
+     * invariant. This is the case for all instructions that can be value numbered and that can neither trap
+     * nor deoptimize. Null checks are not moved as an eliminated null check is only a marker that its
+     * object is non-null at its original position.
+     */
+    private static boolean canHoist(Instruction x) {
+        return x.valueNumber() != 0 && x.stateBefore() == null && !x.canTrap() && !(x instanceof NullCheck);
+    }
+
+    private static boolean canHoistLoad(LoadField x, LoopEffects effects) {
+        if (x.stateBefore() != null || x.canTrap() || !x.isLoaded() || x.isVolatile() || effects.opaque) {
+            return false;
+        }
+        return !effects.storedFields.contains(x.field());
+    }
+
+    private boolean inputsInvariant(Instruction x, final Loop loop) {
+        final boolean[] result = {true};
+        x.inputValuesDo(new ValueClosure() {
+            public Value apply(Value i) {
+                if (i != null && !isInvariant(i, loop)) {
+                    result[0] = false;
+                }
+                return i;
+            }
+        });
+        return result[0];
+    }
+
+    // ----------------------------------------------------------------------------------------------
+    // Range check elimination
+
+    /**
+     * The guards inserted into the preheader of a loop.
+     */
+    final class Guards {
+        final BlockBegin preheader;
+        final FrameState state;
+        Constant zero;
+        boolean lowerBoundChecked;
+        final IdentityHashMap<Value, Value> lengths = new IdentityHashMap<Value, Value>();
+        final IdentityHashMap<Value, Boolean> upperBoundsChecked = new IdentityHashMap<Value, Boolean>();
+
+        Guards(BlockBegin preheader, FrameState state) {
+            this.preheader = preheader;
+            this.state = state;
+        }
+
+        <T extends Instruction> T append(T x) {
+            x.setBCI(state.bci);
+            insertBeforeEnd(preheader, x);
+            return x;
+        }
+
+        Constant zero() {
+            if (zero == null) {
+                zero = append(Constant.forInt(0));
+            }
+            return zero;
+        }
+
+        /**
+         * Gets the length of an array for use in the preheader.
+         */
+        Value lengthOf(Value array) {
+            Value length = lengths.get(array);
+            if (length == null) {
+                ArrayLength arrayLength = new ArrayLength(array, state);
+                arrayLength.eliminateNullCheck();
+                length = append(arrayLength);
+                lengths.put(array, length);
+            }
+            return length;
+        }
+    }
+
+    private void eliminateRangeChecks(Loop loop, BlockBegin preheader) {
+        BlockBegin header = loop.header;
+        if (!(header.end() instanceof If)) {
+            return;
+        }
+        If test = (If) header.end();
+        boolean trueInLoop = loop.contains(test.trueSuccessor());
+        if (trueInLoop == loop.contains(test.falseSuccessor()) || test.x().kind != CiKind.Int) {
+            return;
+        }
+        BlockBegin body = trueInLoop ? test.trueSuccessor() : test.falseSuccessor();
+        Condition cond = trueInLoop ? test.condition() : test.condition().negate();
+
+        Phi phi;
+        Value limit;
+        if (isInductionVariable(test.x(), loop, preheader)) {
+            phi = (Phi) test.x();
+            limit = test.y();
+        } else if (isInductionVariable(test.y(), loop, preheader)) {
+            phi = (Phi) test.y();
+            limit = test.x();
+            cond = cond.mirror();
+        } else {
+            return;
+        }
+        if (cond != Condition.LT && cond != Condition.LE) {
+            return;
+        }
+        Value init = phi.inputAt(header.predecessors().indexOf(preheader));
+        boolean initNonNegative = init.isConstant() && init.asConstant().asInt() >= 0;
+
+        Guards guards = null;
+        for (BlockBegin block : loop.blocks()) {
+            if (!isDominatedBy(block, body, header)) {
+                // the loop condition does not hold in this block
+                continue;
+            }
+            for (Instruction x = block.next(); x != null; x = x.next()) {
+                if (!(x instanceof AccessIndexed)) {
+                    continue;
+                }
+                AccessIndexed access = (AccessIndexed) x;
+                if (!access.needsBoundsCheck() || access.index() != phi) {
+                    continue;
+                }
+                Value array = access.array();
+                boolean upperBoundProven = cond == Condition.LT && limit instanceof ArrayLength && ((ArrayLength) limit).array() == array;
+                if (initNonNegative && upperBoundProven) {
+                    // 0 <= init <= i < array.length
+                    access.eliminateBoundsCheck();
+                    C1XMetrics.RangeChecksEliminated++;
+                    traceElimination(access, "proven");
+                    continue;
+                }
+
+                // fall back to checking the range of the induction variable in the preheader
+                if (!upperBoundProven && (!isInvariant(array, loop) || !isInvariant(limit, loop) || !isNonNullAt(array, preheader))) {
+                    continue;
+                }
+                if (guards == null) {
+                    FrameState state = guardState(header, preheader);
+                    if (state == null) {
+                        return;
+                    }
+                    guards = new Guards(preheader, state);
+                }
+                if (!initNonNegative && !guards.lowerBoundChecked) {
+                    guards.append(new BoundsCheck(init, guards.zero(), guards.state, Condition.GE));
+                    guards.lowerBoundChecked = true;
+                    C1XMetrics.RangeCheckGuardsInserted++;
+                }
+                if (!upperBoundProven && guards.upperBoundsChecked.get(array) == null) {
+                    // i < limit <= length or i <= limit < length
+                    Value length = guards.lengthOf(array);
+                    guards.append(new BoundsCheck(limit, length, guards.state, cond == Condition.LT ? Condition.LE : Condition.LT));
+                    guards.upperBoundsChecked.put(array, Boolean.TRUE);
+                    C1XMetrics.RangeCheckGuardsInserted++;
+                }
+                access.eliminateBoundsCheck();
+                C1XMetrics.RangeChecksEliminated++;
+                traceElimination(access, "guarded");
+            }
+        }
+    }
+
+    private void traceElimination(AccessIndexed access, String how) {
+        if (C1XOptions.TraceLoopOptimizations) {
+            TTY.println("Loop: eliminated range check of " + access + " (" + how + ") in " + ir.compilation.method);
+        }
+    }
+
+    /**
+     * Determines if a given value is an induction variable of a loop that is incremented by exactly one on each
+     * back edge. Restricting the stride to one guarantees that the variable cannot overflow while the loop
+     * condition {@code i < limit} or {@code i <= limit} (with {@code limit < Integer.MAX_VALUE}) holds.
+     */
+    private static boolean isInductionVariable(Value value, Loop loop, BlockBegin preheader) {
+        if (!(value instanceof Phi) || value.kind != CiKind.Int || value.isIllegal()) {
+            return false;
+        }
+        Phi phi = (Phi) value;
+        if (phi.block() != loop.header || !phi.isLocal()) {
+            return false;
+        }
+        BlockBegin header = loop.header;
+        for (int i = 0; i < header.numberOfPreds(); i++) {
+            if (header.predAt(i) == preheader) {
+                continue;
+            }
+            Value input = phi.inputAt(i);
+            if (!(input instanceof ArithmeticOp) || ((ArithmeticOp) input).opcode != IADD) {
+                return false;
+            }
+            ArithmeticOp add = (ArithmeticOp) input;
+            if (!(add.x() == phi && isOne(add.y())) && !(add.y() == phi && isOne(add.x()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isOne(Value value) {
+        return value.isConstant() && value.kind == CiKind.Int && value.asConstant().asInt() == 1;
+    }
+
+    /**
+     * Determines if {@code dominator} dominates {@code block}, walking up the dominator tree no further than {@code stop}.
+     */
+    private static boolean isDominatedBy(BlockBegin block, BlockBegin dominator, BlockBegin stop) {
+        for (BlockBegin b = block; b != null && b != stop; b = b.dominator()) {
+            if (b == dominator) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines if an object is known to be non-null at the end of a given block, either because the value
+     * itself is non-null or because it was dereferenced in a dominating block.
+     */
+    private static boolean isNonNullAt(Value object, BlockBegin block) {
+        if (object.isNonNull()) {
+            return true;
+        }
+        for (BlockBegin b = block; b != null; b = b.dominator()) {
+            for (Instruction x = b.next(); x != null; x = x.next()) {
+                if (x instanceof NullCheck && ((NullCheck) x).object() == object) {
+                    return true;
+                }
+                if (x instanceof AccessArray && ((AccessArray) x).array() == object) {
+                    return true;
+                }
+                if (x instanceof AccessField && !((AccessField) x).isStatic() && ((AccessField) x).object() == object) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the state for the guards in the preheader of a loop. A failing guard deoptimizes to the start of the
+     * loop header with the values flowing into the loop from the preheader, so that the loop is executed
+     * in the interpreter from its first iteration.
+     *
+     * @return the guard state or {@code null} if there is no suitable state
+     */
+    private static FrameState guardState(BlockBegin header, BlockBegin preheader) {
+        FrameState entryState = preheader.end().stateAfter();
+        if (entryState == null || !entryState.stackEmpty() || header.stateBefore() == null || entryState.scope() != header.stateBefore().scope()) {
+            return null;
+        }
+        return entryState.copy().immutableCopy(header.bci());
+    }
+}
@@ -76,7 +76,8 @@ public final class AMD64LIRAssembler extends LIRAssembler {
 
     @Override
     protected void emitOsrEntry() {
-        throw Util.unimplemented();
+        // nothing to do: the frame of an OSR compilation is built by the
+        // prologue of the start block and the OSR buffer is passed in a register
     }
 
     @Override
@@ -87,7 +88,8 @@ public final class AMD64LIRAssembler extends LIRAssembler {
     @Override
     protected void emitReturn(CiValue result) {
         // TODO: Consider adding safepoint polling at return!
-        masm.ret(0);
+        // OSR code replaced a frame whose caller expects its parameters to be popped on return
+        masm.ret(compilation.isOsrCompilation() ? compilation.runtime.getOsrReturnStackAdjustment(compilation.method) : 0);
     }
 
     @Override
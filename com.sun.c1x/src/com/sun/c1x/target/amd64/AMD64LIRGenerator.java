@@ -692,7 +692,8 @@ public class AMD64LIRGenerator extends LIRGenerator {
 
     @Override
     protected CiValue osrBufferPointer() {
-        return Util.nonFatalUnimplemented(null);
+        // the runtime passes the OSR buffer in the integer return register
+        return compilation.registerConfig.getReturnRegister(CiKind.Long).asValue(compilation.target.wordKind);
     }
 
     @Override
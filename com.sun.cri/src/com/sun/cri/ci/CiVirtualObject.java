@@ -20,6 +20,8 @@
  */
 package com.sun.cri.ci;
 
+import java.util.*;
+
 import com.sun.cri.ri.*;
 
 /**
@@ -34,8 +36,8 @@ public final class CiVirtualObject extends CiValue {
     private final int id;
 
     /**
-     * Creates a new CiVirtualObject for the given type, with the given fields. If the type is an instance class then the values array needs to have one entry for each field, ordered in
-     * like the fields returned by {@link RiResolvedType#declaredFields()}. If the type is an array then the length of the values array determines the reallocated array length.
+     * Creates a new CiVirtualObject for the given type, with the given fields. If the type is an instance class then the values array needs to have one entry for each field, ordered
+     * like the fields returned by {@link #instanceFields(RiResolvedType)}. If the type is an array then the length of the values array determines the reallocated array length.
      * @param type the type of the object whose allocation was removed during compilation. This can be either an instance of an array type.
      * @param values an array containing all the values to be stored into the object when it is recreated.
      * @param id a unique id that identifies the object within the debug information for one position in the compiled code.
@@ -45,6 +47,30 @@ public final class CiVirtualObject extends CiValue {
         return new CiVirtualObject(type, values, id);
     }
 
+    /**
+     * Gets the instance fields of a given type in the order in which their values appear in a {@link CiVirtualObject}.
+     * The fields of a super type precede those of its sub types and the fields of each type are ordered as returned
+     * by {@link RiResolvedType#declaredFields()}.
+     *
+     * @param type an instance class
+     * @return the instance fields of {@code type}, including inherited fields
+     */
+    public static RiResolvedField[] instanceFields(RiResolvedType type) {
+        ArrayList<RiResolvedField> fields = new ArrayList<RiResolvedField>();
+        addInstanceFields(type, fields);
+        return fields.toArray(new RiResolvedField[fields.size()]);
+    }
+
+    private static void addInstanceFields(RiResolvedType type, ArrayList<RiResolvedField> fields) {
+        RiResolvedType superType = type.superType();
+        if (superType != null) {
+            addInstanceFields(superType, fields);
+        }
+        for (RiResolvedField field : type.declaredFields()) {
+            fields.add(field);
+        }
+    }
+
     private CiVirtualObject(RiType type, CiValue[] values, int id) {
         super(CiKind.Object);
         this.type = type;
@@ -98,11 +124,11 @@ public final class CiVirtualObject extends CiValue {
         }
         if (o instanceof CiVirtualObject) {
             CiVirtualObject l = (CiVirtualObject) o;
-            if (l.type != type || l.values.length != values.length) {
+            if (l.type != type || l.id != id || l.values.length != values.length) {
                 return false;
             }
             for (int i = 0; i < values.length; i++) {
-                if (values[i] != l.values[i]) {
+                if (!values[i].equals(l.values[i])) {
                     return false;
                 }
             }
@@ -113,7 +139,22 @@ public final class CiVirtualObject extends CiValue {
 
     @Override
     public boolean equalsIgnoringKind(CiValue o) {
-        return equals(o);
+        if (o == this) {
+            return true;
+        }
+        if (o instanceof CiVirtualObject) {
+            CiVirtualObject l = (CiVirtualObject) o;
+            if (l.type != type || l.id != id || l.values.length != values.length) {
+                return false;
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (!values[i].equalsIgnoringKind(l.values[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
     }
 
     /**
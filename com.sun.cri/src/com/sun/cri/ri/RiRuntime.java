@@ -248,4 +248,14 @@ public interface RiRuntime {
      * @return
      */
     int numberOfAdapterCalls(RiResolvedMethod method);
+
+    /**
+     * Gets the number of bytes that code compiled for on-stack replacement must pop off the stack
+     * when it returns. OSR code replaces a frame created by a different compiler whose caller may
+     * expect the callee to remove the outgoing parameters from the stack.
+     *
+     * @param method the method being compiled for on-stack replacement
+     * @return the number of bytes to pop on return from OSR code
+     */
+    int getOsrReturnStackAdjustment(RiResolvedMethod method);
 }
@@ -209,8 +209,15 @@ public class VmFieldAccess extends AbstractVmHolder {
     public final TeleInstanceIntFieldAccess Hub_mTableStartIndex = new TeleInstanceIntFieldAccess(Hub.class, "mTableStartIndex");
     public final TeleInstanceIntFieldAccess Hub_referenceMapLength = new TeleInstanceIntFieldAccess(Hub.class, "referenceMapLength");
     public final TeleInstanceIntFieldAccess Hub_referenceMapStartIndex = new TeleInstanceIntFieldAccess(Hub.class, "referenceMapStartIndex");
+    public final TeleInstanceWordFieldAccess Hub_tupleSize = new TeleInstanceWordFieldAccess(Hub.class, "tupleSize");
     public final TeleInstanceReferenceFieldAccess HybridClassActor_constantPool = new TeleInstanceReferenceFieldAccess(HybridClassActor.class, "constantPool", ConstantPool.class);
     public final TeleStaticReferenceFieldAccess ImmortalHeap_immortalHeap = new TeleStaticReferenceFieldAccess(ImmortalHeap.class, "immortalHeap", ImmortalMemoryRegion.class);
+    public final TeleInstanceReferenceFieldAccess InlineCache_hubs = new TeleInstanceReferenceFieldAccess(InlineCache.class, "hubs", Hub[].class);
+    public final TeleInstanceReferenceFieldAccess InlineCache_indices = new TeleInstanceReferenceFieldAccess(InlineCache.class, "indices", int[].class);
+    public final TeleInstanceReferenceFieldAccess InlineCache_method = new TeleInstanceReferenceFieldAccess(InlineCache.class, "method", InterfaceMethodActor.class);
+    public final TeleInstanceIntFieldAccess InlineCache_misses = new TeleInstanceIntFieldAccess(InlineCache.class, "misses");
+    public final TeleInstanceIntFieldAccess InlineCache_size = new TeleInstanceIntFieldAccess(InlineCache.class, "size");
+    public final TeleInstanceIntFieldAccess InlineCache_state = new TeleInstanceIntFieldAccess(InlineCache.class, "state");
     public final TeleStaticIntFieldAccess Inspectable_flags = new TeleStaticIntFieldAccess(Inspectable.class, "flags");
     public final TeleStaticIntFieldAccess InspectableClassInfo_classActorCount = new TeleStaticIntFieldAccess(InspectableClassInfo.class, "classActorCount");
     public final TeleStaticReferenceFieldAccess InspectableClassInfo_classActors = new TeleStaticReferenceFieldAccess(InspectableClassInfo.class, "classActors", ClassActor[].class);
@@ -0,0 +1,428 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.tele.heap.snapshot;
+
+import static com.sun.max.tele.heap.snapshot.HeapSnapshotFormat.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+
+/**
+ * A heap snapshot loaded from a file written by {@link HeapSnapshotWriter}, with queries that do not need the VM.
+ * <p>
+ * Objects are identified by their index in address order, from {@code 0} to {@link #objectCount()}. The snapshot
+ * indexes objects by address and by class, and keeps both the references of each object and the reverse references
+ * to it. Dominators are computed on first use, on the graph of objects plus a virtual root that references all
+ * roots. Objects that are not reachable from the roots, e.g. because they are only referenced from thread stacks,
+ * are treated as additional roots.
+ * <p>
+ * The indexes are not copied into the Java heap: they are read in place through views of the memory-mapped file,
+ * so loading a snapshot only decodes the class names. The dominators and retained sizes are kept in arrays.
+ */
+public final class HeapSnapshot {
+
+    private final int wordSize;
+    private final String[] classNames;
+    private final LongBuffer origins;
+    private final IntBuffer classOf;
+    private final IntBuffer sizes;
+    private final IntBuffer roots;
+    private final IntBuffer outStart;
+    private final IntBuffer outTargets;
+    private final IntBuffer inStart;
+    private final IntBuffer inSources;
+    private final IntBuffer classStart;
+    private final IntBuffer classMembers;
+
+    /**
+     * The immediate dominator of each object, or {@link #VIRTUAL_ROOT}; computed lazily.
+     */
+    private int[] dominators;
+
+    /**
+     * The retained size of each object; computed with the {@link #dominators}.
+     */
+    private long[] retainedSizes;
+
+    /**
+     * Denotes the virtual root in the dominator tree.
+     */
+    public static final int VIRTUAL_ROOT = -1;
+
+    private HeapSnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a heap snapshot");
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported heap snapshot version " + version);
+        }
+        wordSize = buffer.getInt();
+        final int objectCount = buffer.getInt();
+        final int classCount = buffer.getInt();
+        final int referenceCount = buffer.getInt();
+        final int rootCount = buffer.getInt();
+
+        classNames = new String[classCount];
+        for (int i = 0; i < classCount; i++) {
+            // as written by DataOutput.writeUTF, including the length
+            final byte[] utf = new byte[2 + (buffer.getShort(buffer.position()) & 0xFFFF)];
+            buffer.get(utf);
+            classNames[i] = new DataInputStream(new ByteArrayInputStream(utf)).readUTF();
+        }
+        if (buffer.remaining() < objectCount * 8) {
+            throw new IOException("Truncated heap snapshot");
+        }
+        origins = buffer.asLongBuffer();
+        origins.limit(objectCount);
+        buffer.position(buffer.position() + objectCount * 8);
+        classOf = intView(buffer, objectCount);
+        sizes = intView(buffer, objectCount);
+        roots = intView(buffer, rootCount);
+        outStart = intView(buffer, objectCount + 1);
+        outTargets = intView(buffer, referenceCount);
+        inStart = intView(buffer, objectCount + 1);
+        inSources = intView(buffer, referenceCount);
+        classStart = intView(buffer, classCount + 1);
+        classMembers = intView(buffer, objectCount);
+    }
+
+    /**
+     * Gets a view of the next {@code length} ints of a buffer, and skips them.
+     */
+    private static IntBuffer intView(ByteBuffer buffer, int length) throws IOException {
+        if (buffer.remaining() < length * 4) {
+            throw new IOException("Truncated heap snapshot");
+        }
+        final IntBuffer view = buffer.asIntBuffer();
+        view.limit(length);
+        buffer.position(buffer.position() + length * 4);
+        return view;
+    }
+
+    /**
+     * Copies the elements of a view from index {@code from} to index {@code to}; views are only accessed with absolute
+     * operations or through duplicates, so that queries can run concurrently.
+     */
+    private static int[] copy(IntBuffer view, int from, int to) {
+        final int[] result = new int[to - from];
+        final IntBuffer duplicate = view.duplicate();
+        duplicate.position(from);
+        duplicate.get(result);
+        return result;
+    }
+
+    /**
+     * Loads a snapshot from a file. The file is mapped into memory for as long as the snapshot is in use.
+     */
+    public static HeapSnapshot load(File file) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = randomAccessFile.getChannel();
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            return new HeapSnapshot(buffer);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    public int wordSize() {
+        return wordSize;
+    }
+
+    public int objectCount() {
+        return origins.limit();
+    }
+
+    public int classCount() {
+        return classNames.length;
+    }
+
+    public String className(int classId) {
+        return classNames[classId];
+    }
+
+    /**
+     * Gets the class of a given name.
+     *
+     * @return the class, or {@code -1} if the snapshot holds no instance of a class of that name
+     */
+    public int findClass(String className) {
+        for (int i = 0; i < classNames.length; i++) {
+            if (classNames[i].equals(className)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long origin(int id) {
+        return origins.get(id);
+    }
+
+    public int classOf(int id) {
+        return classOf.get(id);
+    }
+
+    public int size(int id) {
+        return sizes.get(id);
+    }
+
+    /**
+     * Gets the object at a given origin.
+     *
+     * @return the object, or {@code -1} if there is no object at {@code origin}
+     */
+    public int findObject(long origin) {
+        int low = 0;
+        int high = objectCount() - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final long middleOrigin = origins.get(middle);
+            if (middleOrigin < origin) {
+                low = middle + 1;
+            } else if (middleOrigin > origin) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    public int[] roots() {
+        return copy(roots, 0, roots.limit());
+    }
+
+    /**
+     * Gets the objects referenced by an object.
+     */
+    public int[] references(int id) {
+        return copy(outTargets, outStart.get(id), outStart.get(id + 1));
+    }
+
+    /**
+     * Gets the objects that reference an object.
+     */
+    public int[] referrers(int id) {
+        return copy(inSources, inStart.get(id), inStart.get(id + 1));
+    }
+
+    /**
+     * Gets the instances of a class, in address order.
+     */
+    public int[] instancesOf(int classId) {
+        return copy(classMembers, classStart.get(classId), classStart.get(classId + 1));
+    }
+
+    public int instanceCount(int classId) {
+        return classStart.get(classId + 1) - classStart.get(classId);
+    }
+
+    /**
+     * Gets the total size of the instances of a class.
+     */
+    public long shallowSize(int classId) {
+        long size = 0;
+        for (int i = classStart.get(classId); i < classStart.get(classId + 1); i++) {
+            size += sizes.get(classMembers.get(i));
+        }
+        return size;
+    }
+
+    /**
+     * Gets the immediate dominator of an object.
+     *
+     * @return the immediate dominator of {@code id}, or {@link #VIRTUAL_ROOT} if {@code id} is dominated by no object
+     */
+    public int dominator(int id) {
+        computeDominators();
+        return dominators[id];
+    }
+
+    /**
+     * Gets the size of the objects that would be unreachable if a given object were unreachable, including itself.
+     */
+    public long retainedSize(int id) {
+        computeDominators();
+        return retainedSizes[id];
+    }
+
+    /**
+     * Gets the objects with the largest retained sizes, in decreasing order of retained size.
+     *
+     * @param count the maximum number of objects to return
+     */
+    public int[] largestRetainedSizes(int count) {
+        computeDominators();
+        final int n = objectCount();
+        final Integer[] ids = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+        }
+        Arrays.sort(ids, new Comparator<Integer>() {
+            public int compare(Integer id1, Integer id2) {
+                return Long.compare(retainedSizes[id2], retainedSizes[id1]);
+            }
+        });
+        final int[] result = new int[Math.min(count, n)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids[i];
+        }
+        return result;
+    }
+
+    /**
+     * Computes the dominator tree with the iterative algorithm of Cooper, Harvey and Kennedy, over the objects in
+     * reverse postorder of a depth-first traversal from the virtual root, and then the retained sizes.
+     */
+    private synchronized void computeDominators() {
+        if (dominators != null) {
+            return;
+        }
+        final int n = objectCount();
+        // node n is the virtual root
+        final int[] postorderNumber = new int[n + 1];
+        final int[] reversePostorder = new int[n + 1];
+        final boolean[] isRoot = new boolean[n];
+        for (int i = 0; i < roots.limit(); i++) {
+            isRoot[roots.get(i)] = true;
+        }
+        final int count = depthFirstOrder(postorderNumber, reversePostorder, isRoot);
+        assert count == n + 1;
+
+        final int[] idom = new int[n + 1];
+        Arrays.fill(idom, -1);
+        idom[n] = n;
+        final boolean[] isExtraRoot = extraRoots;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i <= n; i++) {
+                final int node = reversePostorder[i];
+                int newIdom = -1;
+                if (isRoot[node] || isExtraRoot[node]) {
+                    newIdom = n;
+                }
+                for (int r = inStart.get(node); r < inStart.get(node + 1); r++) {
+                    final int predecessor = inSources.get(r);
+                    if (idom[predecessor] != -1) {
+                        newIdom = newIdom == -1 ? predecessor : intersect(predecessor, newIdom, idom, postorderNumber);
+                    }
+                }
+                if (idom[node] != newIdom) {
+                    idom[node] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+
+        dominators = new int[n];
+        retainedSizes = new long[n];
+        for (int id = 0; id < n; id++) {
+            dominators[id] = idom[id] == n ? VIRTUAL_ROOT : idom[id];
+            retainedSizes[id] = sizes.get(id);
+        }
+        // children precede their dominators in postorder
+        for (int i = n; i >= 1; i--) {
+            final int node = reversePostorder[i];
+            final int dominator = dominators[node];
+            if (dominator != VIRTUAL_ROOT) {
+                retainedSizes[dominator] += retainedSizes[node];
+            }
+        }
+        extraRoots = null;
+    }
+
+    private static int intersect(int node1, int node2, int[] idom, int[] postorderNumber) {
+        int finger1 = node1;
+        int finger2 = node2;
+        while (finger1 != finger2) {
+            while (postorderNumber[finger1] < postorderNumber[finger2]) {
+                finger1 = idom[finger1];
+            }
+            while (postorderNumber[finger2] < postorderNumber[finger1]) {
+                finger2 = idom[finger2];
+            }
+        }
+        return finger1;
+    }
+
+    /**
+     * Objects that became roots because they are not reachable from the recorded roots; only used while computing
+     * dominators.
+     */
+    private boolean[] extraRoots;
+
+    /**
+     * Numbers the objects and the virtual root in postorder of an iterative depth-first traversal, and lists them in
+     * reverse postorder. Objects not reachable from the roots are made {@link #extraRoots}.
+     *
+     * @return the number of nodes visited, which includes all objects
+     */
+    private int depthFirstOrder(int[] postorderNumber, int[] reversePostorder, boolean[] isRoot) {
+        final int n = objectCount();
+        final boolean[] visited = new boolean[n];
+        extraRoots = new boolean[n];
+        final int[] stack = new int[n];
+        final int[] nextEdge = new int[n];
+        int number = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int start = 0; start < n; start++) {
+                if (visited[start]) {
+                    continue;
+                }
+                if (pass == 0) {
+                    if (!isRoot[start]) {
+                        continue;
+                    }
+                } else {
+                    extraRoots[start] = true;
+                }
+                int sp = 0;
+                stack[sp++] = start;
+                visited[start] = true;
+                nextEdge[start] = outStart.get(start);
+                while (sp > 0) {
+                    final int node = stack[sp - 1];
+                    if (nextEdge[node] < outStart.get(node + 1)) {
+                        final int successor = outTargets.get(nextEdge[node]++);
+                        if (!visited[successor]) {
+                            visited[successor] = true;
+                            nextEdge[successor] = outStart.get(successor);
+                            stack[sp++] = successor;
+                        }
+                    } else {
+                        sp--;
+                        postorderNumber[node] = number++;
+                    }
+                }
+            }
+        }
+        postorderNumber[n] = number++;
+        for (int node = 0; node <= n; node++) {
+            reversePostorder[number - 1 - postorderNumber[node]] = node;
+        }
+        return number;
+    }
+}
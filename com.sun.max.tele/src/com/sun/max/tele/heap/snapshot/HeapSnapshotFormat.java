@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.tele.heap.snapshot;
+
+import java.io.*;
+
+/**
+ * Constants and encoding helpers shared by the {@linkplain HeapSnapshotWriter writer} and the
+ * {@linkplain HeapSnapshot reader} of heap snapshot files.
+ * <p>
+ * A snapshot file starts with a header of {@code int}s: {@link #MAGIC}, {@link #VERSION}, the word size of the VM, and
+ * the number of objects, classes, references and roots. It is followed by the class names and by these arrays, in
+ * order, where objects are identified by their index in address order:
+ * <ul>
+ * <li>{@code long[objects]}: the origin of each object, sorted</li>
+ * <li>{@code int[objects]}: the class of each object</li>
+ * <li>{@code int[objects]}: the size in bytes of each object</li>
+ * <li>{@code int[roots]}: the objects that are roots</li>
+ * <li>{@code int[objects + 1]}, {@code int[references]}: the objects referenced by each object</li>
+ * <li>{@code int[objects + 1]}, {@code int[references]}: the objects referring to each object</li>
+ * <li>{@code int[classes + 1]}, {@code int[objects]}: the objects of each class</li>
+ * </ul>
+ * Each pair of arrays is an index: the objects associated with object (or class) {@code i} are the elements of the
+ * second array from {@code start[i]} to {@code start[i + 1]}. All values are big endian.
+ * <p>
+ * While the heap is being walked, objects are streamed to a temporary file of variable length records instead:
+ * a {@link #RECORD_CLASS} record for each new class, a {@link #RECORD_OBJECT} record for each object and a final
+ * {@link #RECORD_END}.
+ */
+final class HeapSnapshotFormat {
+
+    private HeapSnapshotFormat() {
+    }
+
+    /**
+     * "MXHS".
+     */
+    static final int MAGIC = 0x4D584853;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 7 * 4;
+
+    static final int RECORD_END = 0;
+    static final int RECORD_CLASS = 1;
+    static final int RECORD_OBJECT = 2;
+
+    static final int OBJECT_IS_ROOT = 1;
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = in.readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed variable length value");
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        return (int) readVarLong(in);
+    }
+}
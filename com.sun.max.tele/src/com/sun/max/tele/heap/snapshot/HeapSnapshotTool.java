@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.tele.heap.snapshot;
+
+import java.io.*;
+import java.util.*;
+
+import com.sun.max.program.*;
+import com.sun.max.program.option.*;
+import com.sun.max.tele.*;
+import com.sun.max.tele.TeleVM.Options;
+import com.sun.max.vm.hosted.*;
+
+/**
+ * Headless tool that exports a {@linkplain HeapSnapshot heap snapshot} of a VM and runs queries over snapshots.
+ * <p>
+ * Without a {@code -query} option, the tool connects to a VM like the Inspector does, e.g. to a core dump with
+ * {@code -mode=attach -target=file -location=<dump>}, and writes a snapshot of its heap to the {@code -snapshot} file.
+ * With a {@code -query} option, the query is run over an existing snapshot and no VM is involved. The queries are:
+ * <ul>
+ * <li>{@code histogram}: the number and total size of the instances of each class</li>
+ * <li>{@code instances:<class>}: the instances of a class</li>
+ * <li>{@code referrers:<address>}: the objects referencing the object at an address</li>
+ * <li>{@code retained:<address>}: the retained size and the dominators of the object at an address</li>
+ * <li>{@code top:<n>}: the {@code n} objects with the largest retained sizes</li>
+ * </ul>
+ */
+public final class HeapSnapshotTool {
+
+    private HeapSnapshotTool() {
+    }
+
+    public static void main(String[] args) {
+        final Options options = new Options();
+        Trace.addTo(options);
+        final Option<String> snapshotOption = options.newStringOption("snapshot", null, "The heap snapshot file to write or query.");
+        final Option<String> queryOption = options.newStringOption("query", null,
+            "Query to run over the snapshot instead of exporting one: histogram | instances:<class> | referrers:<address> | retained:<address> | top:<n>");
+        final Option<Boolean> helpOption = options.newBooleanOption("help", false, "Show help message and exits.");
+        options.parseArguments(args);
+
+        if (helpOption.getValue() || snapshotOption.getValue() == null) {
+            options.printHelp(System.out, 80);
+            return;
+        }
+        final File file = new File(snapshotOption.getValue());
+        try {
+            if (queryOption.getValue() == null) {
+                final TeleVM vm = TeleVM.create(options);
+                new HeapSnapshotWriter(vm).write(file);
+            } else {
+                final long startTimeMillis = System.currentTimeMillis();
+                final HeapSnapshot snapshot = HeapSnapshot.load(file);
+                query(snapshot, queryOption.getValue(), System.out);
+                System.out.println("(" + (System.currentTimeMillis() - startTimeMillis) + " ms)");
+            }
+        } catch (BootImageException bootImageException) {
+            System.err.println("Could not load boot image: " + bootImageException.getMessage());
+            System.exit(1);
+        } catch (IOException ioException) {
+            System.err.println("Heap snapshot " + file + ": " + ioException.getMessage());
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static void query(HeapSnapshot snapshot, String query, PrintStream out) {
+        final int colon = query.indexOf(':');
+        final String name = colon < 0 ? query : query.substring(0, colon);
+        final String argument = colon < 0 ? null : query.substring(colon + 1);
+        if (name.equals("histogram")) {
+            histogram(snapshot, out);
+        } else if (name.equals("instances") && argument != null) {
+            final int classId = snapshot.findClass(argument);
+            if (classId < 0) {
+                out.println("No instances of " + argument);
+                return;
+            }
+            for (int id : snapshot.instancesOf(classId)) {
+                printObject(snapshot, id, out);
+            }
+        } else if (name.equals("referrers") && argument != null) {
+            final int id = findObject(snapshot, argument, out);
+            if (id >= 0) {
+                for (int referrer : snapshot.referrers(id)) {
+                    printObject(snapshot, referrer, out);
+                }
+            }
+        } else if (name.equals("retained") && argument != null) {
+            final int id = findObject(snapshot, argument, out);
+            if (id >= 0) {
+                out.println("retained size: " + snapshot.retainedSize(id));
+                out.println("dominators:");
+                for (int dominator = snapshot.dominator(id); dominator != HeapSnapshot.VIRTUAL_ROOT; dominator = snapshot.dominator(dominator)) {
+                    printObject(snapshot, dominator, out);
+                }
+            }
+        } else if (name.equals("top") && argument != null) {
+            for (int id : snapshot.largestRetainedSizes(Integer.parseInt(argument))) {
+                out.print(snapshot.retainedSize(id));
+                out.print("  ");
+                printObject(snapshot, id, out);
+            }
+        } else {
+            out.println("Unknown query: " + query);
+        }
+    }
+
+    private static void histogram(final HeapSnapshot snapshot, PrintStream out) {
+        final Integer[] classIds = new Integer[snapshot.classCount()];
+        final long[] shallowSizes = new long[classIds.length];
+        for (int i = 0; i < classIds.length; i++) {
+            classIds[i] = i;
+            shallowSizes[i] = snapshot.shallowSize(i);
+        }
+        Arrays.sort(classIds, new Comparator<Integer>() {
+            public int compare(Integer classId1, Integer classId2) {
+                return Long.compare(shallowSizes[classId2], shallowSizes[classId1]);
+            }
+        });
+        out.printf("%12s %14s  %s%n", "instances", "bytes", "class");
+        for (int classId : classIds) {
+            out.printf("%12d %14d  %s%n", snapshot.instanceCount(classId), shallowSizes[classId], snapshot.className(classId));
+        }
+        out.printf("%12d objects%n", snapshot.objectCount());
+    }
+
+    private static int findObject(HeapSnapshot snapshot, String address, PrintStream out) {
+        final int id = snapshot.findObject(Long.decode(address));
+        if (id < 0) {
+            out.println("No object at " + address);
+        }
+        return id;
+    }
+
+    private static void printObject(HeapSnapshot snapshot, int id, PrintStream out) {
+        out.printf("0x%016x %10d  %s%n", snapshot.origin(id), snapshot.size(id), snapshot.className(snapshot.classOf(id)));
+    }
+}
@@ -0,0 +1,477 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.tele.heap.snapshot;
+
+import static com.sun.max.tele.heap.snapshot.HeapSnapshotFormat.*;
+
+import java.io.*;
+import java.util.*;
+
+import com.sun.max.program.*;
+import com.sun.max.tele.*;
+import com.sun.max.tele.data.*;
+import com.sun.max.tele.object.*;
+import com.sun.max.tele.reference.*;
+import com.sun.max.tele.util.*;
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.actor.holder.*;
+import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.heap.gcx.*;
+import com.sun.max.vm.layout.*;
+import com.sun.max.vm.type.*;
+
+/**
+ * Writes a {@linkplain HeapSnapshot snapshot} of the heap of a VM that is paused, or that is read from a core dump.
+ * <p>
+ * The heap regions are walked object by object. Each object is streamed to a temporary file, with its class, size
+ * and the origins of the objects it references, so that the memory needed by the walk does not grow with the heap.
+ * The temporary file is then indexed into the snapshot file.
+ * <p>
+ * The walk reads object headers and reference fields directly from VM memory through temporary references and
+ * only keeps what it learns about each {@link Hub}. It creates no {@link TeleObject}s, which would stay registered
+ * with the inspector's object factory for the rest of the session.
+ * <p>
+ * Objects in the boot and immortal heap regions are recorded as roots. Free chunks and ranges of the heap that do not
+ * hold objects are skipped.
+ */
+public final class HeapSnapshotWriter extends AbstractVmHolder {
+
+    private static final int TRACE_VALUE = 1;
+
+    /**
+     * How far to skip when part of a heap region cannot be read.
+     */
+    private static final long MAX_GAP_SEARCH = 4096;
+
+    private final Map<String, Integer> classIds = new HashMap<String, Integer>();
+    private final Map<Long, HubInfo> hubInfos = new HashMap<Long, HubInfo>();
+    private int objectCount;
+    private long referenceCount;
+    private final List<Address> references = new ArrayList<Address>();
+
+    public HeapSnapshotWriter(TeleVM vm) {
+        super(vm);
+    }
+
+    /**
+     * Walks the heap of the VM and writes a snapshot of it.
+     *
+     * @param file the snapshot file to write
+     */
+    public void write(File file) throws IOException {
+        final long startTimeMillis = System.currentTimeMillis();
+        Trace.begin(TRACE_VALUE, tracePrefix() + "writing heap snapshot " + file);
+        final File rawFile = File.createTempFile("heap", ".raw", file.getAbsoluteFile().getParentFile());
+        try {
+            final DataOutputStream raw = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(rawFile), 1 << 16));
+            try {
+                vm().lock();
+                try {
+                    for (MaxHeapRegion heapRegion : heap().heapRegions()) {
+                        walkRegion(heapRegion, raw);
+                    }
+                } finally {
+                    vm().unlock();
+                }
+                raw.writeByte(RECORD_END);
+            } finally {
+                raw.close();
+            }
+            TeleError.check(referenceCount <= Integer.MAX_VALUE, "too many references for a heap snapshot");
+            new Indexer(vm().platform().nBytesInWord(), objectCount, (int) referenceCount, classIds.size()).index(rawFile, file);
+        } finally {
+            rawFile.delete();
+        }
+        Trace.end(TRACE_VALUE, tracePrefix() + "writing heap snapshot " + file + ": " + objectCount + " objects, " + referenceCount + " references", startTimeMillis);
+    }
+
+    private void walkRegion(MaxHeapRegion heapRegion, DataOutputStream raw) throws IOException {
+        final MaxMemoryRegion memoryRegion = heapRegion.memoryRegion();
+        if (memoryRegion == null || !memoryRegion.isAllocated()) {
+            return;
+        }
+        final boolean isRoot = heapRegion == heap().bootHeapRegion() || heapRegion == heap().immortalHeapRegion();
+        final Address mark = memoryRegion.mark();
+        final Address end = mark != null && mark.isNotZero() ? mark : memoryRegion.end();
+        Trace.line(TRACE_VALUE, tracePrefix() + "walking " + memoryRegion.regionName() + " " + memoryRegion.start().to0xHexString() + "-" + end.to0xHexString());
+
+        final int wordSize = vm().platform().nBytesInWord();
+        Address cell = memoryRegion.start();
+        while (cell.lessThan(end)) {
+            final Address origin = objects().layoutScheme().generalLayout.cellToOrigin(cell.asPointer());
+            HubInfo hubInfo = null;
+            long size = 0;
+            try {
+                if (objects().isPlausibleOriginUnsafe(origin)) {
+                    final RemoteReference reference = referenceManager().makeTemporaryRemoteReference(origin);
+                    hubInfo = hubInfo(reference.readHubAsWord().asAddress(), raw);
+                    if (hubInfo != null) {
+                        size = objectSize(reference, hubInfo);
+                        if (hubInfo.classId >= 0) {
+                            writeObject(origin, hubInfo, size, isRoot, raw);
+                        }
+                    }
+                }
+            } catch (DataIOError dataIOError) {
+                // unmapped part of the region
+                cell = cell.plus(MAX_GAP_SEARCH);
+                continue;
+            }
+            if (size <= 0) {
+                // not an object origin; try the next word
+                cell = cell.plus(wordSize);
+                continue;
+            }
+            cell = cell.plus(size);
+        }
+    }
+
+    /**
+     * Gets what the walk needs to know about the objects described by a hub, reading it from the VM the first
+     * time the hub is seen.
+     *
+     * @return {@code null} if {@code hubOrigin} does not hold a hub
+     */
+    private HubInfo hubInfo(Address hubOrigin, DataOutputStream raw) throws IOException {
+        HubInfo hubInfo = hubInfos.get(hubOrigin.toLong());
+        if (hubInfo != null) {
+            return hubInfo;
+        }
+        final RemoteReference hubReference = referenceManager().makeTemporaryRemoteReference(hubOrigin);
+        final ClassActor classActor;
+        final ClassActor hubClassActor;
+        try {
+            classActor = classes().makeClassActor(fields().Hub_classActor.readRemoteReference(hubReference));
+            final RemoteReference hubHubReference = referenceManager().makeTemporaryRemoteReference(hubReference.readHubAsWord().asAddress());
+            hubClassActor = classes().makeClassActor(fields().Hub_classActor.readRemoteReference(hubHubReference));
+        } catch (InvalidReferenceException invalidReferenceException) {
+            return null;
+        }
+        final String className = classActor.typeDescriptor.toJavaString();
+        int classId = -1;
+        if (!className.equals(HeapFreeChunk.class.getName())) {
+            Integer id = classIds.get(className);
+            if (id == null) {
+                id = classIds.size();
+                classIds.put(className, id);
+                writeClassRecord(raw, id, className);
+            }
+            classId = id;
+        }
+
+        final List<FieldActor> referenceFields = new ArrayList<FieldActor>();
+        Kind arrayKind = null;
+        boolean isHybrid = false;
+        if (StaticHub.class.isAssignableFrom(hubClassActor.toJava())) {
+            // static tuples hold the static fields of their class only
+            for (FieldActor fieldActor : classActor.localStaticFieldActors()) {
+                if (fieldActor.kind.isReference) {
+                    referenceFields.add(fieldActor);
+                }
+            }
+        } else if (classActor.isArrayClass()) {
+            arrayKind = classActor.componentClassActor().kind;
+        } else {
+            isHybrid = classActor.isHybridClass();
+            for (ClassActor c = classActor; c != null; c = c.superClassActor) {
+                for (FieldActor fieldActor : c.localInstanceFieldActors()) {
+                    if (fieldActor.kind.isReference) {
+                        referenceFields.add(fieldActor);
+                    }
+                }
+            }
+        }
+        final long tupleSize = fields().Hub_tupleSize.readWord(hubReference).asSize().toLong();
+        hubInfo = new HubInfo(classId, arrayKind, isHybrid, tupleSize, referenceFields.toArray(new FieldActor[referenceFields.size()]));
+        hubInfos.put(hubOrigin.toLong(), hubInfo);
+        return hubInfo;
+    }
+
+    private long objectSize(RemoteReference reference, HubInfo hubInfo) {
+        if (hubInfo.arrayKind != null) {
+            return Layout.getArraySize(hubInfo.arrayKind, objects().unsafeReadArrayLength(reference)).toLong();
+        }
+        if (hubInfo.isHybrid) {
+            return Layout.hybridLayout().getArraySize(objects().unsafeReadArrayLength(reference)).toLong();
+        }
+        if (hubInfo.classId < 0) {
+            // a free chunk covers the free space that follows its header
+            return Math.max(hubInfo.tupleSize, fields().HeapFreeChunk_size.readWord(reference).asSize().toLong());
+        }
+        return hubInfo.tupleSize;
+    }
+
+    private void writeObject(Address origin, HubInfo hubInfo, long size, boolean isRoot, DataOutputStream raw) throws IOException {
+        references.clear();
+        if (hubInfo.arrayKind != null) {
+            if (hubInfo.arrayKind.isReference) {
+                final int length = objects().unsafeReadArrayLength(referenceManager().makeTemporaryRemoteReference(origin));
+                for (int i = 0; i < length; i++) {
+                    addReference(memory().readWord(objects().unsafeArrayIndexToAddress(Kind.REFERENCE, origin, i)).asAddress());
+                }
+            }
+        } else {
+            for (FieldActor fieldActor : hubInfo.referenceFields) {
+                addReference(memory().readWord(origin, fieldActor.offset()).asAddress());
+            }
+        }
+
+        writeObjectRecord(raw, origin.toLong(), hubInfo.classId, size, isRoot, references);
+        objectCount++;
+        referenceCount += references.size();
+    }
+
+    static void writeClassRecord(DataOutputStream raw, int classId, String className) throws IOException {
+        raw.writeByte(RECORD_CLASS);
+        writeVarInt(raw, classId);
+        raw.writeUTF(className);
+    }
+
+    static void writeObjectRecord(DataOutputStream raw, long origin, int classId, long size, boolean isRoot, List<Address> references) throws IOException {
+        raw.writeByte(RECORD_OBJECT);
+        writeVarLong(raw, origin);
+        writeVarInt(raw, classId);
+        writeVarLong(raw, size);
+        raw.writeByte(isRoot ? OBJECT_IS_ROOT : 0);
+        writeVarInt(raw, references.size());
+        for (Address address : references) {
+            writeVarLong(raw, address.toLong());
+        }
+    }
+
+    private void addReference(Address origin) {
+        if (origin.isNotZero()) {
+            references.add(origin);
+        }
+    }
+
+    /**
+     * What the walk needs to know about the objects described by one {@link Hub}.
+     */
+    private static final class HubInfo {
+
+        /**
+         * The id of the class of the objects or -1 for {@linkplain HeapFreeChunk free chunks}, which are skipped.
+         */
+        final int classId;
+
+        /**
+         * The component kind of arrays or {@code null} if the objects are not arrays.
+         */
+        final Kind arrayKind;
+
+        final boolean isHybrid;
+
+        final long tupleSize;
+
+        /**
+         * The reference fields of tuples, hybrids and static tuples.
+         */
+        final FieldActor[] referenceFields;
+
+        HubInfo(int classId, Kind arrayKind, boolean isHybrid, long tupleSize, FieldActor[] referenceFields) {
+            this.classId = classId;
+            this.arrayKind = arrayKind;
+            this.isHybrid = isHybrid;
+            this.tupleSize = tupleSize;
+            this.referenceFields = referenceFields;
+        }
+    }
+
+    /**
+     * Builds the indexes of a snapshot from the records streamed during a heap walk.
+     */
+    static final class Indexer {
+
+        private final int wordSize;
+        private final int objectCount;
+        private final int referenceCount;
+        private final String[] classNames;
+
+        private final long[] rawOrigins;
+        private final int[] rawClassIds;
+        private final int[] rawSizes;
+        private final boolean[] rawIsRoot;
+        private final int[] rawReferenceStart;
+        private final long[] rawReferences;
+
+        Indexer(int wordSize, int objectCount, int referenceCount, int classCount) {
+            this.wordSize = wordSize;
+            this.objectCount = objectCount;
+            this.referenceCount = referenceCount;
+            classNames = new String[classCount];
+            rawOrigins = new long[objectCount];
+            rawClassIds = new int[objectCount];
+            rawSizes = new int[objectCount];
+            rawIsRoot = new boolean[objectCount];
+            rawReferenceStart = new int[objectCount + 1];
+            rawReferences = new long[referenceCount];
+        }
+
+        void index(File rawFile, File file) throws IOException {
+            readRaw(rawFile);
+
+            // objects are identified by their index in address order
+            final long[] origins = rawOrigins.clone();
+            Arrays.sort(origins);
+            final int[] classOf = new int[objectCount];
+            final int[] sizes = new int[objectCount];
+            final int[] rawToId = new int[objectCount];
+            int rootCount = 0;
+            for (int i = 0; i < objectCount; i++) {
+                final int id = Arrays.binarySearch(origins, rawOrigins[i]);
+                rawToId[i] = id;
+                classOf[id] = rawClassIds[i];
+                sizes[id] = rawSizes[i];
+                if (rawIsRoot[i]) {
+                    rootCount++;
+                }
+            }
+            final int[] roots = new int[rootCount];
+            rootCount = 0;
+            for (int i = 0; i < objectCount; i++) {
+                if (rawIsRoot[i]) {
+                    roots[rootCount++] = rawToId[i];
+                }
+            }
+            Arrays.sort(roots);
+
+            // resolve references, dropping those to locations that are not in the snapshot
+            final int[] outStart = new int[objectCount + 1];
+            final int[] inStart = new int[objectCount + 1];
+            final int[] rawTargets = new int[referenceCount];
+            for (int i = 0; i < objectCount; i++) {
+                for (int r = rawReferenceStart[i]; r < rawReferenceStart[i + 1]; r++) {
+                    final int target = Arrays.binarySearch(origins, rawReferences[r]);
+                    rawTargets[r] = target;
+                    if (target >= 0) {
+                        outStart[rawToId[i] + 1]++;
+                        inStart[target + 1]++;
+                    }
+                }
+            }
+            prefixSum(outStart);
+            prefixSum(inStart);
+            final int resolvedCount = outStart[objectCount];
+            final int[] outTargets = new int[resolvedCount];
+            final int[] inSources = new int[resolvedCount];
+            final int[] outFill = Arrays.copyOf(outStart, objectCount);
+            for (int i = 0; i < objectCount; i++) {
+                final int id = rawToId[i];
+                for (int r = rawReferenceStart[i]; r < rawReferenceStart[i + 1]; r++) {
+                    if (rawTargets[r] >= 0) {
+                        outTargets[outFill[id]++] = rawTargets[r];
+                    }
+                }
+            }
+            final int[] inFill = Arrays.copyOf(inStart, objectCount);
+            for (int id = 0; id < objectCount; id++) {
+                for (int r = outStart[id]; r < outStart[id + 1]; r++) {
+                    inSources[inFill[outTargets[r]]++] = id;
+                }
+            }
+
+            // group objects by class, in address order within each class
+            final int[] classStart = new int[classNames.length + 1];
+            for (int id = 0; id < objectCount; id++) {
+                classStart[classOf[id] + 1]++;
+            }
+            prefixSum(classStart);
+            final int[] classMembers = new int[objectCount];
+            final int[] classFill = Arrays.copyOf(classStart, classNames.length);
+            for (int id = 0; id < objectCount; id++) {
+                classMembers[classFill[classOf[id]]++] = id;
+            }
+
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(wordSize);
+                out.writeInt(objectCount);
+                out.writeInt(classNames.length);
+                out.writeInt(resolvedCount);
+                out.writeInt(roots.length);
+                for (String className : classNames) {
+                    out.writeUTF(className);
+                }
+                for (long origin : origins) {
+                    out.writeLong(origin);
+                }
+                writeInts(out, classOf);
+                writeInts(out, sizes);
+                writeInts(out, roots);
+                writeInts(out, outStart);
+                writeInts(out, outTargets);
+                writeInts(out, inStart);
+                writeInts(out, inSources);
+                writeInts(out, classStart);
+                writeInts(out, classMembers);
+            } finally {
+                out.close();
+            }
+        }
+
+        private void readRaw(File rawFile) throws IOException {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(rawFile), 1 << 16));
+            try {
+                int i = 0;
+                int r = 0;
+                while (true) {
+                    final int record = in.readUnsignedByte();
+                    if (record == RECORD_END) {
+                        break;
+                    } else if (record == RECORD_CLASS) {
+                        final int classId = readVarInt(in);
+                        classNames[classId] = in.readUTF();
+                    } else if (record == RECORD_OBJECT) {
+                        rawOrigins[i] = readVarLong(in);
+                        rawClassIds[i] = readVarInt(in);
+                        rawSizes[i] = (int) readVarLong(in);
+                        rawIsRoot[i] = (in.readUnsignedByte() & OBJECT_IS_ROOT) != 0;
+                        final int n = readVarInt(in);
+                        rawReferenceStart[i] = r;
+                        for (int k = 0; k < n; k++) {
+                            rawReferences[r++] = readVarLong(in);
+                        }
+                        i++;
+                    } else {
+                        throw new IOException("Malformed heap walk record " + record);
+                    }
+                }
+                rawReferenceStart[i] = r;
+            } finally {
+                in.close();
+            }
+        }
+
+        private static void prefixSum(int[] counts) {
+            for (int i = 1; i < counts.length; i++) {
+                counts[i] += counts[i - 1];
+            }
+        }
+
+        private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+            for (int value : values) {
+                out.writeInt(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.tele.object;
+
+import java.util.*;
+
+import com.sun.max.tele.*;
+import com.sun.max.tele.reference.*;
+import com.sun.max.vm.compiler.target.*;
+
+/**
+ * Canonical surrogate for an {@link InlineCache} of an interface call site in the VM, describing
+ * the state of the cache and the receiver types linked into it.
+ */
+public final class TeleInlineCache extends TeleTupleObject {
+
+    protected TeleInlineCache(TeleVM vm, RemoteReference inlineCacheReference) {
+        super(vm, inlineCacheReference);
+    }
+
+    /**
+     * @return one of the state constants defined in {@link InlineCache}
+     */
+    public int state() {
+        return fields().InlineCache_state.readInt(reference());
+    }
+
+    public int misses() {
+        return fields().InlineCache_misses.readInt(reference());
+    }
+
+    /**
+     * Gets the method called at the site of this cache.
+     */
+    public TeleMethodActor getTeleMethodActor() {
+        return (TeleMethodActor) objects().makeTeleObject(fields().InlineCache_method.readRemoteReference(reference()));
+    }
+
+    /**
+     * Gets the receiver hubs currently linked into the cache.
+     */
+    public List<TeleHub> linkedHubs() {
+        final int size = fields().InlineCache_size.readInt(reference());
+        final List<TeleHub> hubs = new ArrayList<TeleHub>(size);
+        final TeleArrayObject teleHubs = (TeleArrayObject) objects().makeTeleObject(fields().InlineCache_hubs.readRemoteReference(reference()));
+        if (teleHubs != null) {
+            for (int i = 0; i < size && i < teleHubs.length(); i++) {
+                final TeleObject teleHub = objects().makeTeleObject(teleHubs.readRemoteReference(i));
+                if (teleHub instanceof TeleHub) {
+                    hubs.add((TeleHub) teleHub);
+                }
+            }
+        }
+        return hubs;
+    }
+
+    @Override
+    public String maxineRole() {
+        return "InlineCache";
+    }
+
+    @Override
+    public String maxineTerseRole() {
+        return "IC";
+    }
+
+    @Override
+    public boolean hasTextualVisualization() {
+        return true;
+    }
+
+    @Override
+    public String textualVisualization() {
+        final StringBuilder sb = new StringBuilder(InlineCache.stateName(state()));
+        final TeleMethodActor teleMethodActor = getTeleMethodActor();
+        if (teleMethodActor != null) {
+            sb.append(' ').append(teleMethodActor.methodActor().format("%H.%n(%p)"));
+        }
+        final List<TeleHub> hubs = linkedHubs();
+        if (!hubs.isEmpty()) {
+            sb.append(" [");
+            for (int i = 0; i < hubs.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(hubs.get(i).getTeleClassActor().getName());
+            }
+            sb.append(']');
+        }
+        sb.append(" misses=").append(misses());
+        return sb.toString();
+    }
+}
@@ -39,6 +39,9 @@ import com.sun.max.unsafe.*;
  * {@linkplain ByteBuffer#isDirect() direct} {@link ByteBuffer}s are used, unless the target VM is remote. The buffer for each page is
  * allocated from a global buffer until the global buffer is exhausted. If the target VM is remote or the
  * global buffer has been exhausted, then the buffer for each page is a heap allocated byte array.
+ * <p>
+ * Since the page cache is bounded, a page object (and its buffer) is {@linkplain #reassign(long) reassigned} to another
+ * page of remote memory when the page it caches is evicted.
  */
 public class Page extends AbstractVmHolder {
 
@@ -54,7 +57,13 @@ public class Page extends AbstractVmHolder {
      */
     private long epoch = -1;
 
-    private final long index;
+    /**
+     * Generation of explicit invalidations of the cache this page belongs to, as of the last time this page was
+     * {@linkplain #checkGeneration(long) checked}.
+     */
+    private long generation;
+
+    private long index;
 
 
     /**
@@ -110,7 +119,7 @@ public class Page extends AbstractVmHolder {
      * Decide whether to use direct buffers.
      * It is counter-productive to use them if the target VM is remote.
      */
-    private static boolean useDirectBuffers() {
+    static boolean useDirectBuffers() {
         return TeleVM.targetLocation().kind != Kind.REMOTE;
     }
 
@@ -142,6 +151,52 @@ public class Page extends AbstractVmHolder {
         epoch = -1;
     }
 
+    /**
+     * Invalidates this page if the cache it belongs to was invalidated since this page was last checked.
+     *
+     * @param currentGeneration the current invalidation generation of the cache
+     */
+    void checkGeneration(long currentGeneration) {
+        if (generation != currentGeneration) {
+            generation = currentGeneration;
+            invalidate();
+        }
+    }
+
+    /**
+     * Reuses this page, and its buffer, to cache a different page of remote memory.
+     *
+     * @param newIndex the index of the remote memory page to be cached by this page
+     * @param currentGeneration the current invalidation generation of the cache
+     */
+    void reassign(long newIndex, long currentGeneration) {
+        index = newIndex;
+        generation = currentGeneration;
+        invalidate();
+    }
+
+    /**
+     * @return whether the contents of this page are up to date with respect to remote memory
+     */
+    boolean isValid() {
+        return epoch >= teleIO.epoch();
+    }
+
+    /**
+     * Sets the contents of this page from bytes that were read in bulk from remote memory during the current epoch.
+     *
+     * @param src buffer holding the contents of this page
+     * @param srcOffset the offset in {@code src} of the contents of this page
+     */
+    void fill(ByteBuffer src, int srcOffset) {
+        final ByteBuffer srcSlice = src.duplicate();
+        srcSlice.position(srcOffset).limit(srcOffset + size());
+        final ByteBuffer dstSlice = buffer.duplicate();
+        dstSlice.clear();
+        dstSlice.put(srcSlice);
+        epoch = teleIO.epoch();
+    }
+
     /**
      * Reads into the cache the contents of the remote memory page.
      *
@@ -34,11 +34,38 @@ import com.sun.max.tele.util.*;
 import com.sun.max.unsafe.*;
 
 /**
+ * Access to remote memory through a cache of {@linkplain Page pages}.
+ * <p>
+ * The cache is bounded: when it holds {@link #maxPages} pages, the least recently used page is evicted and its
+ * {@link Page} object is reused. A miss on the page following the pages fetched by the previous miss is taken to be
+ * part of a sequential scan, in which case several pages are fetched with a single read of remote memory. The number
+ * of pages fetched doubles with each sequential miss, up to {@link #maxPrefetchPages}.
+ * <p>
+ * Cached pages are refreshed lazily when the {@linkplain TeleIO#epoch() epoch} of the remote memory changes. Explicit
+ * invalidations, e.g. after a write, increment a generation counter instead of visiting the cached pages, and pages
+ * from an older generation are refreshed when next accessed.
  */
 public class PageDataAccess extends DataAccessAdapter {
 
     private static final int TRACE_VALUE = 1;
 
+    private static final int DEFAULT_MAX_PREFETCH_PAGES = 64;
+
+    /**
+     * Gets the value of an integer system property, or a default value if it is not set or malformed.
+     */
+    private static int intProperty(String name, int defaultValue) {
+        final String value = System.getProperty(name);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException numberFormatException) {
+                TeleWarning.message("Malformed value for the \"" + name + "\" property", numberFormatException);
+            }
+        }
+        return defaultValue;
+    }
+
     protected String  tracePrefix() {
         return "[PageDataAccess] ";
     }
@@ -49,6 +76,40 @@ public class PageDataAccess extends DataAccessAdapter {
     private final int offsetMask;
     private final ByteBuffer writeBuffer;
 
+    /**
+     * Maximum number of pages in the cache. By default, as many pages as fit in the
+     * {@linkplain Page#globalDirectBufferPoolSize global direct buffer pool}.
+     */
+    private final int maxPages;
+
+    /**
+     * Maximum number of pages fetched by a single read during a sequential scan; 1 disables prefetching.
+     */
+    private final int maxPrefetchPages;
+
+    /**
+     * Buffer into which several pages are read at once, allocated on first use.
+     */
+    private ByteBuffer prefetchBuffer;
+
+    /**
+     * Index following the last page fetched on the previous miss.
+     */
+    private long nextSequentialIndex = -1;
+
+    /**
+     * Number of pages fetched by the previous miss.
+     */
+    private int prefetchPages = 1;
+
+    /**
+     * Incremented by each explicit {@linkplain #invalidate(Address, Size) invalidation}.
+     */
+    private long generation;
+
+    private long misses;
+    private long prefetchedPages;
+
     public PageDataAccess(TeleVM vm, TeleIO teleProcess, DataModel dataModel) {
         super(dataModel.wordWidth, dataModel.endianness.asByteOrder());
         this.vm = vm;
@@ -57,6 +118,9 @@ public class PageDataAccess extends DataAccessAdapter {
         indexShift = Integer.numberOfTrailingZeros(teleProcess.pageSize());
         offsetMask = teleProcess.pageSize() - 1;
         writeBuffer = ByteBuffer.wrap(new byte[Longs.SIZE]).order(byteOrder);
+        final int defaultMaxPages = (int) Math.min(Integer.MAX_VALUE, Page.globalDirectBufferPoolSize / teleProcess.pageSize());
+        maxPages = Math.max(2, intProperty("max.tele.page.cacheSize", defaultMaxPages));
+        maxPrefetchPages = Math.max(1, Math.min(maxPages / 2, intProperty("max.tele.page.maxPrefetch", DEFAULT_MAX_PREFETCH_PAGES)));
     }
 
     public int pageSize() {
@@ -71,7 +135,10 @@ public class PageDataAccess extends DataAccessAdapter {
         return address.toInt() & offsetMask;
     }
 
-    private final HashMap<Long, Page> indexToPage = new HashMap<Long, Page>();
+    /**
+     * The cached pages, in least recently accessed order.
+     */
+    private final LinkedHashMap<Long, Page> indexToPage = new LinkedHashMap<Long, Page>(1024, 0.75f, true);
 
     private static void checkNullPointer(Address address) {
         if (address.isZero()) {
@@ -79,22 +146,11 @@ public class PageDataAccess extends DataAccessAdapter {
         }
     }
 
-    private void invalidatePage(long index) {
-        final Page page = indexToPage.get(index);
-        if (page != null) {
-            page.invalidate();
-        }
-    }
-
+    /**
+     * Invalidates the cached contents of a range of remote memory. All cached pages are invalidated, lazily.
+     */
     public synchronized void invalidate(Address address, Size size) {
-        long numberOfPages = getIndex(size);
-        if (getOffset(address) + getOffset(size) > pageSize()) {
-            numberOfPages++;
-        }
-        final long startIndex = getIndex(address);
-        for (long index = startIndex; index <= startIndex + numberOfPages; index++) {
-            invalidatePage(index);
-        }
+        generation++;
     }
 
     public void invalidateForWrite(Address address, int size) {
@@ -102,18 +158,99 @@ public class PageDataAccess extends DataAccessAdapter {
         invalidate(address, Size.fromInt(size));
     }
 
-    private Page getPage(long index) {
+    /**
+     * Gets the cache entry for a page, creating it if needed. The contents of a new entry are not valid.
+     */
+    private Page getCachedPage(long index) {
         Page page = indexToPage.get(index);
         if (page == null) {
-            page = new Page(vm, teleIO, index, byteOrder);
-            indexToPage.put(index, page);
-            if ((indexToPage.size() % 1000) == 0) {
-                Trace.line(TRACE_VALUE, tracePrefix() + "Memory cache: " + indexToPage.size() + " pages");
+            if (indexToPage.size() >= maxPages) {
+                final Iterator<Page> eldest = indexToPage.values().iterator();
+                page = eldest.next();
+                eldest.remove();
+                page.reassign(index, generation);
+            } else {
+                page = new Page(vm, teleIO, index, byteOrder);
+                page.checkGeneration(generation);
+                if (((indexToPage.size() + 1) % 1000) == 0) {
+                    Trace.line(TRACE_VALUE, tracePrefix() + "Memory cache: " + (indexToPage.size() + 1) + " pages");
+                }
             }
+            indexToPage.put(index, page);
+        } else {
+            page.checkGeneration(generation);
+        }
+        return page;
+    }
+
+    private Page getPage(long index) {
+        final Page page = getCachedPage(index);
+        if (!page.isValid()) {
+            miss(index);
         }
         return page;
     }
 
+    /**
+     * Handles a miss on a page. If the miss continues a sequential scan, the page is fetched together with the
+     * following pages. Otherwise, the page is left to be read on its own when accessed.
+     */
+    private void miss(long index) {
+        misses++;
+        if (index == nextSequentialIndex) {
+            prefetchPages = Math.min(prefetchPages * 2, maxPrefetchPages);
+        } else {
+            prefetchPages = 1;
+        }
+        nextSequentialIndex = index + 1;
+        if (prefetchPages > 1) {
+            final int fetched = prefetch(index, prefetchPages);
+            nextSequentialIndex = index + Math.max(fetched, 1);
+            if (misses % 1000 == 0) {
+                Trace.line(TRACE_VALUE, tracePrefix() + "Memory cache: " + misses + " misses, " + prefetchedPages + " pages prefetched");
+            }
+        }
+    }
+
+    /**
+     * Reads up to {@code count} pages starting at a given page with a single read of remote memory, stopping before
+     * the first page that is already cached and valid.
+     *
+     * @return the number of pages read, or 0 if the read failed, e.g. because some page is not mapped. In the latter
+     *         case, pages are read one at a time as they are accessed.
+     */
+    private int prefetch(long index, int count) {
+        int n = 1;
+        while (n < count) {
+            final Page page = indexToPage.get(index + n);
+            if (page != null) {
+                page.checkGeneration(generation);
+                if (page.isValid()) {
+                    break;
+                }
+            }
+            n++;
+        }
+        final int pageSize = pageSize();
+        if (prefetchBuffer == null) {
+            final int capacity = maxPrefetchPages * pageSize;
+            prefetchBuffer = (Page.useDirectBuffers() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity)).order(byteOrder);
+        }
+        prefetchBuffer.clear().limit(n * pageSize);
+        try {
+            DataIO.Static.readFully(teleIO, Address.fromLong(index << indexShift), prefetchBuffer);
+        } catch (DataIOError dataIOError) {
+            return 0;
+        } catch (TerminatedProcessIOException terminatedProcessIOException) {
+            return 0;
+        }
+        for (int i = 0; i < n; i++) {
+            getCachedPage(index + i).fill(prefetchBuffer, i * pageSize);
+        }
+        prefetchedPages += n - 1;
+        return n;
+    }
+
     private Page getPage(Address address) {
         return getPage(getIndex(address));
     }
@@ -146,7 +283,7 @@ public class PageDataAccess extends DataAccessAdapter {
         return getPage(address).readInt(getOffset(address));
     }
 
-    public long readLong(Address address) {
+    public synchronized long readLong(Address address) {
         checkNullPointer(address);
         return getPage(address).readLong(getOffset(address));
     }
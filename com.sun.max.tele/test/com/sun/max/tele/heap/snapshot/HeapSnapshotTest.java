@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.tele.heap.snapshot;
+
+import static com.sun.max.tele.heap.snapshot.HeapSnapshotFormat.*;
+
+import java.io.*;
+import java.util.*;
+
+import com.sun.max.ide.*;
+import com.sun.max.unsafe.*;
+
+/**
+ * Tests that a snapshot indexed by {@link HeapSnapshotWriter} from the records of a heap walk is read back by
+ * {@link HeapSnapshot}. The records are written directly, so that no VM is needed.
+ */
+public class HeapSnapshotTest extends MaxTestCase {
+
+    public HeapSnapshotTest(String name) {
+        super(name);
+    }
+
+    public static void main(String[] args) {
+        junit.textui.TestRunner.run(HeapSnapshotTest.class);
+    }
+
+    private static final int ROOT = 0;
+    private static final int NODE = 1;
+    private static final int LEAF = 2;
+
+    private int referenceCount;
+
+    private void writeObject(DataOutputStream raw, long origin, int classId, long size, boolean isRoot, long... references) throws IOException {
+        final List<Address> addresses = new ArrayList<Address>();
+        for (long reference : references) {
+            addresses.add(Address.fromLong(reference));
+        }
+        HeapSnapshotWriter.writeObjectRecord(raw, origin, classId, size, isRoot, addresses);
+        referenceCount += references.length;
+    }
+
+    /**
+     * Writes and loads a snapshot of this graph, walked out of address order:
+     * <pre>
+     *   0x1000 (root) --> 0x2000 --> 0x4000 --> 0x9000 (not in the snapshot)
+     *          |                       ^  ^
+     *          +-------> 0x3000 -------+  |
+     *                                     |
+     *   0x5000 (only referenced from a thread stack)
+     * </pre>
+     */
+    private HeapSnapshot writeAndLoad() throws IOException {
+        final File rawFile = File.createTempFile("heap", ".raw");
+        final File file = File.createTempFile("heap", ".snapshot");
+        try {
+            final DataOutputStream raw = new DataOutputStream(new FileOutputStream(rawFile));
+            try {
+                HeapSnapshotWriter.writeClassRecord(raw, NODE, "Node");
+                writeObject(raw, 0x3000, NODE, 24, false, 0x4000);
+                HeapSnapshotWriter.writeClassRecord(raw, ROOT, "Root");
+                writeObject(raw, 0x1000, ROOT, 16, true, 0x2000, 0x3000);
+                HeapSnapshotWriter.writeClassRecord(raw, LEAF, "Leaf");
+                writeObject(raw, 0x5000, LEAF, 8, false, 0x4000);
+                writeObject(raw, 0x2000, NODE, 24, false, 0x4000);
+                writeObject(raw, 0x4000, NODE, 32, false, 0x9000);
+                raw.writeByte(RECORD_END);
+            } finally {
+                raw.close();
+            }
+            new HeapSnapshotWriter.Indexer(8, 5, referenceCount, 3).index(rawFile, file);
+            return HeapSnapshot.load(file);
+        } finally {
+            rawFile.delete();
+            file.delete();
+        }
+    }
+
+    public void test_objects() throws IOException {
+        final HeapSnapshot snapshot = writeAndLoad();
+        assertEquals(8, snapshot.wordSize());
+        assertEquals(5, snapshot.objectCount());
+        final long[] origins = {0x1000, 0x2000, 0x3000, 0x4000, 0x5000};
+        final int[] sizes = {16, 24, 24, 32, 8};
+        for (int id = 0; id < origins.length; id++) {
+            assertEquals(origins[id], snapshot.origin(id));
+            assertEquals(id, snapshot.findObject(origins[id]));
+            assertEquals(sizes[id], snapshot.size(id));
+        }
+        assertEquals(-1, snapshot.findObject(0x3008));
+        assertEquals(-1, snapshot.findObject(0x9000));
+        assertTrue(Arrays.equals(new int[] {0}, snapshot.roots()));
+    }
+
+    public void test_classes() throws IOException {
+        final HeapSnapshot snapshot = writeAndLoad();
+        assertEquals(3, snapshot.classCount());
+        assertEquals("Leaf", snapshot.className(LEAF));
+        assertEquals(NODE, snapshot.findClass("Node"));
+        assertEquals(-1, snapshot.findClass("Missing"));
+        assertEquals(ROOT, snapshot.classOf(0));
+        assertEquals(LEAF, snapshot.classOf(4));
+        assertTrue(Arrays.equals(new int[] {1, 2, 3}, snapshot.instancesOf(NODE)));
+        assertEquals(3, snapshot.instanceCount(NODE));
+        assertEquals(80, snapshot.shallowSize(NODE));
+    }
+
+    public void test_references() throws IOException {
+        final HeapSnapshot snapshot = writeAndLoad();
+        assertTrue(Arrays.equals(new int[] {1, 2}, snapshot.references(0)));
+        assertTrue(Arrays.equals(new int[] {3}, snapshot.references(4)));
+        // the reference to 0x9000 is dropped
+        assertEquals(0, snapshot.references(3).length);
+        assertTrue(Arrays.equals(new int[] {1, 2, 4}, snapshot.referrers(3)));
+        assertEquals(0, snapshot.referrers(0).length);
+    }
+
+    public void test_dominators() throws IOException {
+        final HeapSnapshot snapshot = writeAndLoad();
+        assertEquals(HeapSnapshot.VIRTUAL_ROOT, snapshot.dominator(0));
+        assertEquals(0, snapshot.dominator(1));
+        assertEquals(0, snapshot.dominator(2));
+        // also reachable from 0x5000, which is made a root
+        assertEquals(HeapSnapshot.VIRTUAL_ROOT, snapshot.dominator(3));
+        assertEquals(HeapSnapshot.VIRTUAL_ROOT, snapshot.dominator(4));
+        assertEquals(64, snapshot.retainedSize(0));
+        assertEquals(32, snapshot.retainedSize(3));
+        assertEquals(8, snapshot.retainedSize(4));
+        assertTrue(Arrays.equals(new int[] {0, 3}, snapshot.largestRetainedSizes(2)));
+    }
+
+    public void test_notASnapshot() throws IOException {
+        final File file = File.createTempFile("heap", ".snapshot");
+        try {
+            final DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+            try {
+                out.writeInt(~MAGIC);
+                out.writeInt(VERSION);
+            } finally {
+                out.close();
+            }
+            HeapSnapshot.load(file);
+            fail();
+        } catch (IOException e) {
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -24,6 +24,7 @@ package com.sun.max.config.vm;
 
 import com.sun.max.config.*;
 import com.sun.max.vm.classfile.*;
+import com.sun.max.vm.code.*;
 import com.sun.max.vm.compiler.target.*;
 import com.sun.max.vm.jdk.*;
 import com.sun.max.vm.runtime.*;
@@ -81,6 +82,7 @@ public class Package extends BootImagePackage {
                         );
 
         registerThreadLocal(Compilation.class, "COMPILATION");
+        registerThreadLocal(PersistentCodeCache.class, "EMBEDDINGS");
         registerThreadLocal(Snippets.class, "NATIVE_CALLS_DISABLED");
         registerThreadLocal(ErrorContext.class, "ERROR_CONTEXTS");
         registerThreadLocal(JDK_java_lang_Throwable.class, "TRACE_UNDER_CONSTRUCTION");
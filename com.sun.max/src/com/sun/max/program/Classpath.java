@@ -179,7 +179,7 @@ public class Classpath {
         }
 
         @Override
-        public ZipFile zipFile() {
+        public synchronized ZipFile zipFile() {
             if (zipFile == null && file != null) {
                 try {
                     zipFile = new ZipFile(file);
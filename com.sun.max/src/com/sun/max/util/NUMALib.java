@@ -27,4 +27,13 @@ public class NUMALib {
 
     @C_FUNCTION
     public static native int numaNodeOfAddress(long address);
+
+    @C_FUNCTION
+    public static native int numaConfiguredNodes();
+
+    @C_FUNCTION
+    public static native int numaNodeOfCPU();
+
+    @C_FUNCTION
+    public static native void numaBindMemory(long address, long size, int node);
 }
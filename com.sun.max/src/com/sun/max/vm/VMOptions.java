@@ -329,6 +329,14 @@ public class VMOptions {
     private static final VMStringOption logFileOption = register(new VMStringOption("-XX:LogFile=", false, null,
         "Redirect VM log output to the specified file. By default, VM log output goes to the standard output stream."), MaxineVM.Phase.STARTING);
 
+    /**
+     * This option is parsed in the native code (see maxine.c and image.c). It's declared here simply so that it
+     * shows up in the {@linkplain #printUsage(Category) usage} message.
+     */
+    private static final VMStringOption relocatedBootImageOption = register(new VMStringOption("-XX:RelocatedBootImage=", false, null,
+        "Map the boot image from a copy already relocated for a fixed address, creating the copy in the specified file if needed. " +
+        "Boot image pages that are not written are then shared between VM processes."), MaxineVM.Phase.STARTING);
+
     /**
      * The '-verbose' option and all its variants (e.g. '-verbose:gc', '-verbose:class' etc).
      */
@@ -1715,6 +1715,27 @@ public abstract class ClassActor extends Actor implements RiResolvedType {
         return isInitialized(initializationState);
     }
 
+    /**
+     * Verifies this class ahead of its initialization, if it has not been verified yet. Unlike verification
+     * during {@linkplain #makeInitialized() initialization}, a verification error is not propagated. The class is
+     * instead left unverified so that the error is raised again, on the thread that initializes the class.
+     *
+     * @return {@code true} if this class is now verified
+     */
+    public boolean preVerify() {
+        synchronized (this) {
+            if (isPrepared(initializationState)) {
+                try {
+                    verify();
+                } catch (LinkageError error) {
+                    return false;
+                }
+                initializationState = VERIFIED_;
+            }
+            return !isPrepared(initializationState) && !isError(initializationState);
+        }
+    }
+
     /**
      * Modifies the initialization state of this class actor if necessary to prevent it being verified.
      */
@@ -1968,7 +1989,8 @@ public abstract class ClassActor extends Actor implements RiResolvedType {
                     return o1.offset() - o2.offset();
                 }
             });
-            return sortedFields.toArray(new RiResolvedField[0]);
+            sortedFields.addAll(Arrays.asList(fields));
+            return sortedFields.toArray(new RiResolvedField[sortedFields.size()]);
         }
         return fields;
     }
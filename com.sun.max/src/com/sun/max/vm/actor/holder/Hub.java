@@ -53,6 +53,7 @@ public abstract class Hub extends Hybrid {
      * - hybrids: the cell size before expansion
      * - arrays:  the object header size
      */
+    @INSPECTED
     public final Size tupleSize;
     public final Hub componentHub;
     public final SpecificLayout specificLayout;
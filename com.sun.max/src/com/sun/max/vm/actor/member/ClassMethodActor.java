@@ -38,8 +38,10 @@ import com.sun.max.vm.bytecode.graft.*;
 import com.sun.max.vm.classfile.*;
 import com.sun.max.vm.classfile.constant.*;
 import com.sun.max.vm.compiler.RuntimeCompiler.*;
+import com.sun.max.vm.compiler.deopt.*;
 import com.sun.max.vm.compiler.target.*;
 import com.sun.max.vm.jni.*;
+import com.sun.max.vm.profile.*;
 import com.sun.max.vm.object.ObjectAccess;
 import com.sun.max.vm.runtime.FatalError;
 import com.sun.max.vm.type.*;
@@ -527,4 +529,76 @@ public abstract class ClassMethodActor extends MethodActor {
     public RiConstantPool getConstantPool() {
         return compilee().codeAttribute().cp;
     }
+
+    /**
+     * Gets the profile gathered by the current baseline compilation of this method.
+     *
+     * @return {@code null} if there is no baseline code for this method or it was compiled without profiling
+     */
+    private MethodProfile baselineProfile() {
+        if (isHosted()) {
+            return null;
+        }
+        TargetMethod tm = Compilations.currentTargetMethod(compiledState, Nature.BASELINE);
+        if (tm == null) {
+            return null;
+        }
+        MethodProfile mp = tm.profile();
+        if (mp == null || mp.rawData() == null) {
+            return null;
+        }
+        return mp;
+    }
+
+    @Override
+    public RiTypeProfile typeProfile(int bci) {
+        MethodProfile mp = baselineProfile();
+        if (mp == null || mp.uncommonTrapCount() >= Deoptimization.PerMethodTrapLimit) {
+            // speculating on the receiver types of this method has failed too often
+            return null;
+        }
+        Integer[] pairs = mp.getTypeProfile(bci);
+        if (pairs == null) {
+            return null;
+        }
+        int entries = pairs.length / 2;
+        int total = 0;
+        int anonymous = 0;
+        for (int i = 0; i < entries; i++) {
+            total += pairs[i * 2 + 1];
+            if (pairs[i * 2] == MethodProfile.UNDEFINED_TYPE_ID) {
+                anonymous++;
+            }
+        }
+        if (total <= 0) {
+            return null;
+        }
+        RiTypeProfile profile = new RiTypeProfile();
+        profile.count = total;
+        profile.morphism = entries;
+        profile.types = new RiResolvedType[entries - anonymous];
+        profile.probabilities = new float[entries - anonymous];
+        int j = 0;
+        for (int i = 0; i < entries; i++) {
+            int id = pairs[i * 2];
+            if (id != MethodProfile.UNDEFINED_TYPE_ID) {
+                profile.types[j] = ClassIDManager.toClassActor(id);
+                profile.probabilities[j] = pairs[i * 2 + 1] / (float) total;
+                j++;
+            }
+        }
+        return profile;
+    }
+
+    @Override
+    public double branchProbability(int bci) {
+        MethodProfile mp = baselineProfile();
+        return mp == null ? -1 : mp.getBranchTakenProbability(bci);
+    }
+
+    @Override
+    public double[] switchProbability(int bci) {
+        MethodProfile mp = baselineProfile();
+        return mp == null ? null : mp.getSwitchProbabilities(bci);
+    }
 }
@@ -40,6 +40,7 @@ import com.sun.max.unsafe.*;
 import com.sun.max.vm.*;
 import com.sun.max.vm.actor.holder.*;
 import com.sun.max.vm.classfile.constant.*;
+import com.sun.max.vm.code.*;
 import com.sun.max.vm.compiler.*;
 import com.sun.max.vm.hosted.*;
 import com.sun.max.vm.hosted.JDKInterceptor.InterceptedField;
@@ -752,7 +753,9 @@ public class FieldActor extends MemberActor implements RiResolvedField {
             }
             v = getValue((receiver == null) ? null : receiver.asObject());
             if (!isConstantWhenNotZero() || !v.isZero()) {
-                return v.asCiConstant();
+                CiConstant value = v.asCiConstant();
+                PersistentCodeCache.noteFoldedField(this, receiver, value);
+                return value;
             }
         }
         return null;
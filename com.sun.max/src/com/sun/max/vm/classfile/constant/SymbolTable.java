@@ -23,6 +23,7 @@
 package com.sun.max.vm.classfile.constant;
 
 import java.io.*;
+import java.lang.ref.*;
 
 import com.sun.max.collect.*;
 import com.sun.max.collect.ChainedHashMapping.Entry;
@@ -30,7 +31,14 @@ import com.sun.max.vm.*;
 
 /**
  * Implementation of symbol and String interning, the latter of which is a Java language requirement.
- *
+ * <p>
+ * The table is split into {@value #STRIPE_COUNT} independently locked stripes, selected by the hash of
+ * the key, so that concurrent class loading and interning threads rarely contend on the same lock.
+ * <p>
+ * Symbols live as long as the VM. Strings interned by applications via {@link String#intern()} that are not
+ * also symbols are held {@linkplain WeakReference weakly} and can be reclaimed by the GC once unreachable.
+ * A symbol subsequently created for the same value adopts the interned string, which preserves the
+ * identity guarantee of {@link String#intern()}.
  */
 public final class SymbolTable {
 
@@ -77,38 +85,189 @@ public final class SymbolTable {
     }
 
     /**
-     * Searching and adding entries to this map is only performed by {@linkplain #makeSymbol(String) one method} which
-     * is synchronized.
+     * A weakly held string interned by {@link SymbolTable#intern(String)} for which there is no symbol.
      */
-    private static final ChainingValueChainedHashMapping<String, Utf8ConstantEntry> symbolTable = new ChainingValueChainedHashMapping<String, Utf8ConstantEntry>(40000);
+    static final class InternedString extends WeakReference<String> {
+        final int hash;
+        InternedString next;
+
+        InternedString(String value, int hash, InternedString next) {
+            super(value);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    /**
+     * One lock-protected partition of the table. All accesses to a stripe are synchronized on the stripe.
+     */
+    static final class Stripe {
+        final ChainingValueChainedHashMapping<String, Utf8ConstantEntry> symbols = new ChainingValueChainedHashMapping<String, Utf8ConstantEntry>(INITIAL_STRIPE_CAPACITY);
+
+        private InternedString[] strings = new InternedString[16];
+        private int stringCount;
+
+        String lookupString(String value, int hash) {
+            for (InternedString e = strings[hash & (strings.length - 1)]; e != null; e = e.next) {
+                if (e.hash == hash) {
+                    String s = e.get();
+                    if (s != null && s.equals(value)) {
+                        return s;
+                    }
+                }
+            }
+            return null;
+        }
+
+        void addString(String value, int hash) {
+            if (stringCount >= (strings.length >> 1) + (strings.length >> 2)) {
+                rehash();
+            }
+            int index = hash & (strings.length - 1);
+            strings[index] = new InternedString(value, hash, strings[index]);
+            stringCount++;
+        }
+
+        /**
+         * Removes the entry for a string that is being promoted to a symbol.
+         */
+        void removeString(String value, int hash) {
+            int index = hash & (strings.length - 1);
+            InternedString prev = null;
+            for (InternedString e = strings[index]; e != null; prev = e, e = e.next) {
+                if (e.get() == value) {
+                    if (prev == null) {
+                        strings[index] = e.next;
+                    } else {
+                        prev.next = e.next;
+                    }
+                    stringCount--;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Drops the entries whose strings have been reclaimed and grows the table if it is still too full.
+         */
+        private void rehash() {
+            int live = 0;
+            for (InternedString head : strings) {
+                for (InternedString e = head; e != null; e = e.next) {
+                    if (e.get() != null) {
+                        live++;
+                    }
+                }
+            }
+            int length = strings.length;
+            if (live >= length >> 1) {
+                length <<= 1;
+            }
+            InternedString[] newStrings = new InternedString[length];
+            for (InternedString head : strings) {
+                InternedString e = head;
+                while (e != null) {
+                    InternedString next = e.next;
+                    if (e.get() != null) {
+                        int index = e.hash & (length - 1);
+                        e.next = newStrings[index];
+                        newStrings[index] = e;
+                    }
+                    e = next;
+                }
+            }
+            strings = newStrings;
+            stringCount = live;
+        }
+    }
+
+    private static final int STRIPE_SHIFT = 6;
+
+    private static final int STRIPE_COUNT = 1 << STRIPE_SHIFT;
+
+    private static final int INITIAL_STRIPE_CAPACITY = 40000 / STRIPE_COUNT;
+
+    private static final Stripe[] stripes = createStripes();
+
+    private static Stripe[] createStripes() {
+        Stripe[] result = new Stripe[STRIPE_COUNT];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new Stripe();
+        }
+        return result;
+    }
+
+    /**
+     * Selects the stripe for a hash using its high bits so that the low bits used to index
+     * the buckets within a stripe remain evenly distributed.
+     */
+    private static Stripe stripeFor(int hash) {
+        return stripes[(hash * 0x9E3779B9) >>> (32 - STRIPE_SHIFT)];
+    }
 
     public static final Utf8Constant INIT = makeSymbol("<init>");
     public static final Utf8Constant CLINIT = makeSymbol("<clinit>");
     public static final Utf8Constant FINALIZE = makeSymbol("finalize");
 
     public static int length() {
-        return symbolTable.length();
+        int length = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                length += stripe.symbols.length();
+            }
+        }
+        return length;
     }
 
-    public static synchronized Utf8Constant lookupSymbol(String value) {
-        return symbolTable.get(value);
+    public static Utf8Constant lookupSymbol(String value) {
+        Stripe stripe = stripeFor(value.hashCode());
+        synchronized (stripe) {
+            return stripe.symbols.get(value);
+        }
     }
 
-    public static synchronized Utf8Constant makeSymbol(String value) {
-        Utf8ConstantEntry utf8 = symbolTable.get(value);
-        if (utf8 == null) {
-            if (MaxineVM.isHosted()) {
-                // String interning is implemented with another data structure when running hosted
-                utf8 = new Utf8ConstantEntry(value.intern());
-            } else {
-                utf8 = new Utf8ConstantEntry(value);
+    public static Utf8Constant makeSymbol(String value) {
+        int hash = value.hashCode();
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            Utf8ConstantEntry utf8 = stripe.symbols.get(value);
+            if (utf8 == null) {
+                if (MaxineVM.isHosted()) {
+                    // String interning is implemented with another data structure when running hosted
+                    utf8 = new Utf8ConstantEntry(value.intern());
+                } else {
+                    String interned = stripe.lookupString(value, hash);
+                    if (interned != null) {
+                        // The symbol must use the string already returned by String.intern()
+                        stripe.removeString(interned, hash);
+                        utf8 = new Utf8ConstantEntry(interned);
+                    } else {
+                        utf8 = new Utf8ConstantEntry(value);
+                    }
+                }
+                stripe.symbols.put(value, utf8);
             }
-            symbolTable.put(value, utf8);
+            return utf8;
         }
-        return utf8;
     }
 
     public static String intern(String value) {
-        return makeSymbol(value).toString();
+        if (MaxineVM.isHosted()) {
+            return makeSymbol(value).toString();
+        }
+        int hash = value.hashCode();
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            Utf8ConstantEntry utf8 = stripe.symbols.get(value);
+            if (utf8 != null) {
+                return utf8.toString();
+            }
+            String interned = stripe.lookupString(value, hash);
+            if (interned == null) {
+                stripe.addString(value, hash);
+                interned = value;
+            }
+            return interned;
+        }
     }
 }
@@ -156,7 +156,10 @@ public final class CodeEviction extends VmOperation {
                 patchDispatchTables(targetMethod, true);
                 assert invalidateCode(targetMethod.code());
                 targetMethod.wipe();
-                targetMethod.classMethodActor.compiledState = Compilations.EMPTY;
+                if (!targetMethod.isRetired()) {
+                    // retired methods already had their compiled state replaced by concurrent eviction
+                    targetMethod.classMethodActor.compiledState = Compilations.EMPTY;
+                }
             } else {
                 ++nSurvivors;
                 nSurvivingBytes += targetMethod.codeLength();
@@ -605,6 +608,8 @@ public final class CodeEviction extends VmOperation {
             codeEvictionLogger.logMove_Progress("FINISHED walking threads");
         }
 
+        ConcurrentCodeEviction.evictionCompacted();
+
         CodeManager.Inspect.notifyEvictionCompleted(CodeManager.runtimeBaselineCodeRegion);
 
         // phase 3 (optional): dump after
@@ -831,6 +836,53 @@ public final class CodeEviction extends VmOperation {
 
     private final InvalidateBaselineDirectCalls invalidateBaselineDirectCalls = new InvalidateBaselineDirectCalls();
 
+    /**
+     * Set while {@linkplain #unlinkRetired(TargetMethod[], int, int) unlinking} retired methods, in which case the
+     * retired methods, rather than the unmarked ones, are the stale callees.
+     */
+    private boolean unlinkingRetired;
+
+    /**
+     * Resets direct calls to retired methods in live baseline code.
+     */
+    final class UnlinkBaselineDirectCalls implements TargetMethod.Closure {
+        @Override
+        public boolean doTargetMethod(TargetMethod targetMethod) {
+            if (!targetMethod.isWiped()) {
+                nCallBaseline += patchDirectCallsIn(targetMethod);
+            }
+            return true;
+        }
+    }
+
+    private final UnlinkBaselineDirectCalls unlinkBaselineDirectCalls = new UnlinkBaselineDirectCalls();
+
+    /**
+     * Makes some {@linkplain TargetMethod#isRetired() retired} baseline methods unreachable for new invocations by
+     * resetting the dispatch table entries and direct calls that reference them. Their code is left in place, so that
+     * activations that are still on some stack can complete. Used by {@link ConcurrentCodeEviction}; must be called
+     * during a VM operation.
+     *
+     * @param tms an array of retired methods
+     * @param from the index of the first method to unlink
+     * @param to the index after the last method to unlink
+     * @return the number of direct calls that were reset
+     */
+    static int unlinkRetired(TargetMethod[] tms, int from, int to) {
+        final CodeEviction ce = codeEviction;
+        for (int i = from; i < to; i++) {
+            ce.patchDispatchTables(tms[i], false);
+        }
+        ce.unlinkingRetired = true;
+        CodeManager.runtimeBaselineCodeRegion.doNewTargetMethods(ce.unlinkBaselineDirectCalls);
+        CodeManager.runtimeOptCodeRegion.doAllTargetMethods(ce.invalidateOptDirectCalls);
+        ce.invalidateBootDirectCalls();
+        ce.unlinkingRetired = false;
+        final int calls = ce.nCallBaseline + ce.nCallOpt + ce.nCallBoot;
+        ce.resetCounters();
+        return calls;
+    }
+
     private final InvalidateOptDirectCalls invalidateOptDirectCalls = new InvalidateOptDirectCalls();
 
     private void invalidateBootDirectCalls() {
@@ -891,6 +943,9 @@ public final class CodeEviction extends VmOperation {
     }
 
     private boolean isStaleCallee(TargetMethod tm) {
+        if (unlinkingRetired) {
+            return tm != null && tm.isRetired();
+        }
         return tm != null && CodeManager.runtimeBaselineCodeRegion.contains(tm.codeStart().toAddress()) && !tm.isMarked() && !tm.isWiped();
     }
 
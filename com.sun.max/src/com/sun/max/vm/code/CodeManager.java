@@ -239,7 +239,11 @@ public abstract class CodeManager {
                 start = currentCodeRegion.allocate(allocationSize, false);
             }
 
-            // Allocation in the baseline code region may take another attempt upon contention, after compaction.
+            // Allocation in the baseline code region may take another attempt upon contention, after reclaiming
+            // the space of methods retired by concurrent eviction, and then after compaction.
+            if (start.isZero() && currentCodeRegion == runtimeBaselineCodeRegion && ConcurrentCodeEviction.reclaim()) {
+                start = currentCodeRegion.allocate(allocationSize, false);
+            }
             if (start.isZero() && currentCodeRegion == runtimeBaselineCodeRegion) {
                 CodeEviction.run();
                 assert validateCodeCache();
@@ -247,6 +251,8 @@ public abstract class CodeManager {
                 if (CodeCacheContentionFrequency > 0 && CodeEviction.logging()) {
                     CodeEviction.codeEvictionLogger.logStats_Surviving(lastSurvivorSize, largestSurvivorSize);
                 }
+            } else if (currentCodeRegion == runtimeBaselineCodeRegion) {
+                ConcurrentCodeEviction.notifyAllocation();
             }
         }
 
@@ -198,7 +198,8 @@ public class CodeRegion extends LinearAllocatorRegion {
             findIndex = Arrays.copyOf(findIndex, (endIdx * 3) / 2 + 1);
         }
         for (int i = startIdx; i <= endIdx; i++) {
-            assert findIndex[i] == 0;
+            // Pages in space reclaimed by concurrent code eviction keep pointing at the preceding method.
+            assert findIndex[i] <= insertionPoint;
             findIndex[i] = insertionPoint;
         }
     }
@@ -225,7 +226,10 @@ public class CodeRegion extends LinearAllocatorRegion {
             if (method == null) {
                 return null;
             }
-            assert validMethodStart(method, cp);
+            if (!validMethodStart(method, cp)) {
+                // cp is in a gap between methods, e.g., space reclaimed by concurrent code eviction
+                return null;
+            }
             if (methodFound(method, cp)) {
                 return method;
             }
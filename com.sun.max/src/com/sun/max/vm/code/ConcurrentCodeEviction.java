@@ -0,0 +1,502 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.code;
+
+import java.util.*;
+
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.compiler.target.*;
+import com.sun.max.vm.runtime.*;
+import com.sun.max.vm.stack.*;
+import com.sun.max.vm.thread.*;
+import com.sun.max.vm.ti.*;
+
+/**
+ * Mostly-concurrent eviction of cold methods from the baseline code region. This complements the stop-the-world
+ * {@linkplain CodeEviction code eviction}, which remains the fallback when the region is exhausted.
+ * <p>
+ * A daemon thread runs an eviction cycle whenever the used part of the region exceeds
+ * {@link #CodeEvictionTriggerPercentage}. A cycle proceeds as follows:
+ * <ol>
+ * <li>Baseline methods whose invocation counters did not change since the previous cycle are
+ * {@linkplain TargetMethod#sampleCold() sampled as cold} and selected as candidates, unless they are protected for the
+ * same reasons as in {@link CodeEviction}.</li>
+ * <li>A short safepoint pause that does not walk any stack {@linkplain TargetMethod#retire() retires} the candidates:
+ * their compiled state is replaced, and the dispatch table entries and direct calls that reference them are reset.
+ * After this pause no new activation of a retired method can start.</li>
+ * <li>Each thread's stack is scanned with a {@linkplain Handshake per-thread handshake}, marking the retired methods
+ * that still have activations.</li>
+ * <li>Retired methods found on no stack are dead. Their space is reclaimed at the next pause, which is the next
+ * epoch: the code is not copied, its space is returned to the {@linkplain SemiSpaceCodeRegion#reclaim(TargetMethod[],
+ * int) free list} of the region. Retired methods still on some stack are scanned again in the next cycle.</li>
+ * </ol>
+ * Cycles are serialized with code allocation by the {@link CodeManager} lock, and a cycle during which a
+ * stop-the-world eviction happened is abandoned.
+ */
+public final class ConcurrentCodeEviction {
+
+    private ConcurrentCodeEviction() {
+    }
+
+    static boolean UseConcurrentCodeEviction;
+    static int CodeEvictionTriggerPercentage = 80;
+    static boolean TraceConcurrentCodeEviction;
+
+    static {
+        VMOptions.addFieldOption("-XX:", "UseConcurrentCodeEviction", ConcurrentCodeEviction.class,
+            "Evict cold baseline methods concurrently, in the background.", MaxineVM.Phase.STARTING);
+        VMOptions.addFieldOption("-XX:", "CodeEvictionTriggerPercentage", ConcurrentCodeEviction.class,
+            "Percentage of the baseline code region in use that triggers a concurrent eviction cycle (default: 80).",
+            MaxineVM.Phase.STARTING);
+        VMOptions.addFieldOption("-XX:", "TraceConcurrentCodeEviction", ConcurrentCodeEviction.class,
+            "Report every concurrent code eviction cycle, with its pause time.", MaxineVM.Phase.STARTING);
+    }
+
+    /**
+     * Interval in milliseconds at which the {@link EvictionDaemon} checks for requested cycles.
+     */
+    private static final int POLL_INTERVAL = 50;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static boolean initialized;
+
+    /**
+     * Set when a cycle should be started by the {@link EvictionDaemon}.
+     */
+    private static volatile boolean requested;
+
+    /**
+     * Methods that were retired and may still have activations.
+     */
+    private static TargetMethod[] retired = new TargetMethod[INITIAL_CAPACITY];
+    private static int retiredCount;
+
+    /**
+     * Retired methods that were found on no stack, whose space is reclaimed at the next pause.
+     */
+    private static TargetMethod[] dead = new TargetMethod[INITIAL_CAPACITY];
+    private static int deadCount;
+
+    /**
+     * The candidates of the current cycle, with the compiled state observed when they were selected and the state
+     * replacing it when they are retired.
+     */
+    private static TargetMethod[] candidates = new TargetMethod[INITIAL_CAPACITY];
+    private static Object[] expectedStates = new Object[INITIAL_CAPACITY];
+    private static Object[] replacementStates = new Object[INITIAL_CAPACITY];
+    private static int candidateCount;
+
+    private static int cycles;
+
+    /**
+     * Starts the eviction daemon if concurrent eviction is enabled. Called once the VM is running.
+     */
+    public static void initialize() {
+        if (UseConcurrentCodeEviction && !initialized) {
+            initialized = true;
+            new EvictionDaemon().start();
+        }
+    }
+
+    /**
+     * Requests an eviction cycle if the baseline code region is filled beyond the trigger percentage. Called by the
+     * {@link CodeManager} after each allocation in the baseline code region.
+     */
+    static void notifyAllocation() {
+        if (initialized && !requested) {
+            final SemiSpaceCodeRegion region = CodeManager.runtimeBaselineCodeRegion;
+            if (region.usedSpace().toLong() * 100 >= region.spaceSize().toLong() * CodeEvictionTriggerPercentage) {
+                requested = true;
+            }
+        }
+    }
+
+    /**
+     * Reclaims the space of the dead methods in a short pause. Called by the {@link CodeManager}, with its lock held,
+     * when an allocation in the baseline code region failed.
+     *
+     * @return {@code true} if some space was reclaimed
+     */
+    static boolean reclaim() {
+        if (deadCount == 0) {
+            return false;
+        }
+        pause.retiring = false;
+        pause.submit();
+        return pause.reclaimed > 0;
+    }
+
+    /**
+     * Forgets all retired and dead methods after a stop-the-world eviction. That eviction has either wiped them, or
+     * found them on some stack and kept them as ordinary unreachable methods.
+     */
+    static void evictionCompacted() {
+        for (int i = 0; i < retiredCount; i++) {
+            retired[i].unretire();
+            retired[i] = null;
+        }
+        retiredCount = 0;
+        for (int i = 0; i < deadCount; i++) {
+            dead[i] = null;
+        }
+        deadCount = 0;
+    }
+
+    private static final class EvictionDaemon extends Thread {
+
+        EvictionDaemon() {
+            super(VmThread.systemThreadGroup, "CodeEviction");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    Thread.sleep(POLL_INTERVAL);
+                } catch (InterruptedException e) {
+                }
+                if (requested) {
+                    runCycle();
+                    requested = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Selects cold baseline methods as candidates.
+     */
+    private static final class CandidateSelector implements TargetMethod.Closure {
+        @Override
+        public boolean doTargetMethod(TargetMethod targetMethod) {
+            // sample first, so that the invocation counters of every method are tracked
+            if (targetMethod.sampleCold() && !targetMethod.isRetired() && !targetMethod.isWiped() && !targetMethod.isProtected() &&
+                !targetMethod.withinInvocationThreshold() && !targetMethod.hasTypeProfile()) {
+                if (candidateCount == candidates.length) {
+                    final int newLength = candidates.length * 2;
+                    candidates = Arrays.copyOf(candidates, newLength);
+                    expectedStates = Arrays.copyOf(expectedStates, newLength);
+                    replacementStates = Arrays.copyOf(replacementStates, newLength);
+                }
+                candidates[candidateCount] = targetMethod;
+                expectedStates[candidateCount] = targetMethod.classMethodActor.compiledState;
+                candidateCount++;
+            }
+            return true;
+        }
+    }
+
+    private static final CandidateSelector candidateSelector = new CandidateSelector();
+
+    /**
+     * Computes the compiled state that replaces the state of each candidate, dropping candidates that are being
+     * recompiled.
+     */
+    private static void computeReplacementStates() {
+        int n = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            final TargetMethod tm = candidates[i];
+            final Object state = expectedStates[i];
+            if (state instanceof Compilations) {
+                final Compilations compilations = (Compilations) state;
+                final Object replacement;
+                if (compilations.baseline != tm) {
+                    replacement = state;
+                } else if (compilations.optimized == null) {
+                    replacement = Compilations.EMPTY;
+                } else {
+                    replacement = new Compilations(null, compilations.optimized);
+                }
+                candidates[n] = tm;
+                expectedStates[n] = state;
+                replacementStates[n] = replacement;
+                n++;
+            }
+        }
+        clearCandidates(n);
+    }
+
+    private static void clearCandidates(int newCount) {
+        for (int i = newCount; i < candidateCount; i++) {
+            candidates[i] = null;
+            expectedStates[i] = null;
+            replacementStates[i] = null;
+        }
+        candidateCount = newCount;
+    }
+
+    /**
+     * Ensures the retired and dead lists can take all the candidates, so that the pause does not allocate.
+     */
+    private static void ensureCapacity() {
+        final int needed = retiredCount + candidateCount;
+        if (needed > retired.length) {
+            retired = Arrays.copyOf(retired, needed * 2);
+        }
+        if (deadCount + needed > dead.length) {
+            dead = Arrays.copyOf(dead, (deadCount + needed) * 2);
+        }
+    }
+
+    /**
+     * The pause of a cycle. It reclaims the dead methods of the previous cycle and, if {@link #retiring}, retires and
+     * unlinks the candidates of the current cycle. It does not walk any stack.
+     */
+    private static final class EvictionPause extends VmOperation {
+
+        boolean retiring;
+        int reclaimed;
+        long reclaimedBytes;
+        int newlyRetired;
+        int unlinkedCalls;
+        long pauseNanos;
+
+        EvictionPause() {
+            super("concurrent code eviction", null, Mode.Safepoint);
+        }
+
+        @Override
+        protected void doIt() {
+            final long start = System.nanoTime();
+            final SemiSpaceCodeRegion region = CodeManager.runtimeBaselineCodeRegion;
+            CodeManager.Inspect.notifyEvictionStarted(region);
+
+            reclaimed = deadCount;
+            reclaimedBytes = 0;
+            for (int i = 0; i < deadCount; i++) {
+                final TargetMethod tm = dead[i];
+                VMTI.handler().methodUnloaded(tm.classMethodActor, tm.codeStart().toPointer());
+                reclaimedBytes += tm.size().toLong();
+                tm.wipe();
+            }
+            region.reclaim(dead, deadCount);
+            for (int i = 0; i < deadCount; i++) {
+                dead[i] = null;
+            }
+            deadCount = 0;
+
+            newlyRetired = 0;
+            unlinkedCalls = 0;
+            if (retiring) {
+                final int from = retiredCount;
+                for (int i = 0; i < candidateCount; i++) {
+                    final TargetMethod tm = candidates[i];
+                    final ClassMethodActor cma = tm.classMethodActor;
+                    // skip methods whose state changed since they were selected, e.g. because they are being recompiled
+                    if (cma.compiledState == expectedStates[i]) {
+                        cma.compiledState = replacementStates[i];
+                        tm.retire();
+                        retired[retiredCount++] = tm;
+                    }
+                }
+                newlyRetired = retiredCount - from;
+                if (newlyRetired > 0) {
+                    unlinkedCalls = CodeEviction.unlinkRetired(retired, from, retiredCount);
+                }
+            }
+
+            CodeManager.Inspect.notifyEvictionCompleted(region);
+            pauseNanos = System.nanoTime() - start;
+        }
+    }
+
+    private static final EvictionPause pause = new EvictionPause();
+
+    /**
+     * Marks the retired methods that have an activation on the stack of a thread.
+     */
+    private static final class RetiredMethodsMarker extends RawStackFrameVisitor {
+        @Override
+        public boolean visitFrame(StackFrameCursor current, StackFrameCursor callee) {
+            final TargetMethod tm = current.targetMethod();
+            if (tm != null && tm.isRetired()) {
+                tm.mark();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Scans the stack of a single thread for retired methods.
+     */
+    private static final class StackScan extends Handshake {
+
+        private final VmStackFrameWalker walker = new VmStackFrameWalker(Pointer.zero());
+        private final RetiredMethodsMarker marker = new RetiredMethodsMarker();
+
+        StackScan() {
+            super("concurrent code eviction stack scan");
+        }
+
+        @Override
+        protected void doThread(VmThread vmThread, Pointer ip, Pointer sp, Pointer fp) {
+            // the thread was stopped in native code before invoking any Java method
+            if (ip.isZero() && sp.isZero() && fp.isZero()) {
+                return;
+            }
+            walker.setTLA(vmThread.tla());
+            walker.inspect(ip, sp, fp, marker);
+        }
+    }
+
+    private static final StackScan stackScan = new StackScan();
+
+    private static VmThread[] scannedThreads = new VmThread[16];
+    private static int scannedThreadCount;
+
+    private static final Pointer.Procedure collectScannedThread = new Pointer.Procedure() {
+        public void run(Pointer tla) {
+            if (scannedThreadCount < scannedThreads.length) {
+                scannedThreads[scannedThreadCount] = VmThread.fromTLA(tla);
+            }
+            scannedThreadCount++;
+        }
+    };
+
+    private static final Pointer.Predicate isScannedThread = new Pointer.Predicate() {
+        public boolean evaluate(Pointer tla) {
+            final VmThread vmThread = VmThread.fromTLA(tla);
+            return vmThread != null && !vmThread.isVmOperationThread() && vmThread != VmThread.current();
+        }
+    };
+
+    /**
+     * Scans the stack of every thread, stopping one thread at a time. The eviction daemon itself only runs boot
+     * image code, and so is not scanned.
+     */
+    private static void scanStacks() {
+        while (true) {
+            scannedThreadCount = 0;
+            synchronized (VmThreadMap.THREAD_LOCK) {
+                VmThreadMap.ACTIVE.forAllThreadLocals(isScannedThread, collectScannedThread);
+            }
+            if (scannedThreadCount <= scannedThreads.length) {
+                break;
+            }
+            scannedThreads = new VmThread[scannedThreadCount * 2];
+        }
+        for (int i = 0; i < scannedThreadCount; i++) {
+            final VmThread vmThread = scannedThreads[i];
+            scannedThreads[i] = null;
+            // a thread that terminated since it was collected has no activations left
+            stackScan.execute(vmThread);
+        }
+    }
+
+    /**
+     * Moves the retired methods that were not marked by the stack scans to the dead list, and unmarks the others.
+     *
+     * @return the number of methods that became dead
+     */
+    private static int partitionRetired() {
+        final int oldDeadCount = deadCount;
+        int n = 0;
+        for (int i = 0; i < retiredCount; i++) {
+            final TargetMethod tm = retired[i];
+            retired[i] = null;
+            if (tm.isMarked()) {
+                tm.unmark();
+                retired[n++] = tm;
+            } else {
+                dead[deadCount++] = tm;
+            }
+        }
+        retiredCount = n;
+        return deadCount - oldDeadCount;
+    }
+
+    /**
+     * Runs one eviction cycle on the eviction daemon.
+     */
+    private static void runCycle() {
+        final long cycleStart = System.nanoTime();
+        final CodeManager codeManager = Code.getCodeManager();
+        final int evictionCount;
+        final int newlyRetired;
+        final int unlinkedCalls;
+        final int reclaimed;
+        final long reclaimedBytes;
+        final long pauseNanos;
+
+        synchronized (codeManager) {
+            evictionCount = CodeEviction.evictionCount();
+            CodeManager.runtimeBaselineCodeRegion.doNewTargetMethods(candidateSelector);
+        }
+        computeReplacementStates();
+
+        synchronized (codeManager) {
+            if (CodeEviction.evictionCount() != evictionCount) {
+                // the candidates may have been wiped or moved
+                clearCandidates(0);
+                return;
+            }
+            ensureCapacity();
+            pause.retiring = true;
+            pause.submit();
+            clearCandidates(0);
+            // the pause may be reused by allocations as soon as the lock is released
+            newlyRetired = pause.newlyRetired;
+            unlinkedCalls = pause.unlinkedCalls;
+            reclaimed = pause.reclaimed;
+            reclaimedBytes = pause.reclaimedBytes;
+            pauseNanos = pause.pauseNanos;
+        }
+
+        scanStacks();
+
+        final int newlyDead;
+        synchronized (codeManager) {
+            if (CodeEviction.evictionCount() != evictionCount) {
+                return;
+            }
+            newlyDead = partitionRetired();
+        }
+
+        cycles++;
+        if (TraceConcurrentCodeEviction) {
+            final long cycleNanos = System.nanoTime() - cycleStart;
+            final boolean lockDisabledSafepoints = Log.lock();
+            Log.print("Concurrent code eviction #");
+            Log.print(cycles);
+            Log.print(": retired ");
+            Log.print(newlyRetired);
+            Log.print(" methods (");
+            Log.print(unlinkedCalls);
+            Log.print(" direct calls reset), reclaimed ");
+            Log.print(reclaimed);
+            Log.print(" methods (");
+            Log.print(reclaimedBytes);
+            Log.print(" bytes), ");
+            Log.print(newlyDead);
+            Log.print(" dead, ");
+            Log.print(retiredCount);
+            Log.print(" still on stack, pause ");
+            Log.print(pauseNanos / 1000);
+            Log.print(" us, cycle ");
+            Log.print(cycleNanos / 1000);
+            Log.println(" us");
+            Log.unlock(lockDisabledSafepoints);
+        }
+    }
+}
@@ -0,0 +1,720 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.code;
+
+import static com.sun.max.vm.MaxineVM.*;
+import static com.sun.max.vm.VMOptions.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import com.sun.cri.ci.*;
+import com.sun.cri.ci.CiAssumptions.Assumption;
+import com.sun.cri.ci.CiTargetMethod.Safepoint;
+import com.sun.max.lang.*;
+import com.sun.max.platform.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.*;
+import com.sun.max.vm.actor.holder.*;
+import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.classfile.constant.*;
+import com.sun.max.vm.hosted.*;
+import com.sun.max.vm.object.*;
+import com.sun.max.vm.thread.*;
+import com.sun.max.vm.type.*;
+
+/**
+ * An opt-in cache of optimized compilations that survives across VM runs. When enabled with
+ * {@code -XX:PersistentCodeCache=<file>}, the {@link CiTargetMethod} of each optimized method compiled
+ * or reused during a run is written to the file at shutdown. The code, its {@linkplain CiTargetMethod#assumptions()
+ * dependencies}, and the call and data patch sites needed to relocate it are all part of a {@link CiTargetMethod}.
+ * <p>
+ * The next run reads the file at startup but only decodes an entry when its method is first submitted to the
+ * optimizing compiler. At that point, all the types and methods the entry refers to must already be loaded and
+ * initialized; otherwise the entry is dropped. The compiler then validates the entry's assumptions against the current
+ * class hierarchy and installs it through the usual code manager and dependency paths. An entry whose assumptions
+ * no longer hold is discarded and the method is compiled normally.
+ * <p>
+ * References to VM objects are written as symbolic tokens. Any other object constant, e.g. a string literal or an
+ * array, makes the compilation that refers to it uncacheable since its identity cannot be preserved across runs.
+ * Entries are keyed by the method and the class of its defining loader. Each entry records a hash of the bytecode
+ * of its method and of every method inlined into it, and is dropped if any of them has changed. The file records a
+ * checksum of the boot image file and is ignored as a whole if it was written by a different boot image.
+ * <p>
+ * Code can also embed values that are specific to the run that compiled it as immediates: the {@linkplain
+ * ClassActor#id ids} of classes used for interface dispatch and type checks, and the values of static final fields
+ * folded by the compiler. While a method is compiled, these are collected as its {@link Embeddings} and saved with
+ * the entry. An entry is only reused if every such class has the same id and every such field has the same value
+ * in the current run.
+ */
+public final class PersistentCodeCache {
+
+    private static final int MAGIC = 0xCAC4E002;
+
+    /**
+     * The file backing the cache, or {@code null} if the cache is disabled.
+     */
+    private static String cacheFile;
+
+    static {
+        VMOptions.addFieldOption("-XX:", "PersistentCodeCache", Classes.getDeclaredField(PersistentCodeCache.class, "cacheFile"),
+            "File in which optimized code is saved at shutdown and reused by the next VM run.", MaxineVM.Phase.STARTING);
+    }
+
+    /**
+     * Encoded entries read from the cache file that have not yet been requested in this run.
+     */
+    private static final HashMap<String, byte[]> stored = new HashMap<String, byte[]>();
+
+    /**
+     * Compilations produced or reused in this run, keyed by {@link #key(ClassMethodActor)}.
+     */
+    private static final HashMap<String, CiTargetMethod> recorded = new HashMap<String, CiTargetMethod>();
+
+    private static final HashMap<String, ClassMethodActor> recordedMethods = new HashMap<String, ClassMethodActor>();
+
+    /**
+     * Entries from the cache file that were reused in this run, saved again unchanged at shutdown.
+     */
+    private static final HashMap<String, byte[]> reused = new HashMap<String, byte[]>();
+
+    /**
+     * The run-specific values embedded by compilations recorded in this run, keyed by {@link #key(ClassMethodActor)}.
+     */
+    private static final HashMap<String, Embeddings> recordedEmbeddings = new HashMap<String, Embeddings>();
+
+    private static boolean enabled;
+
+    /**
+     * The checksum of the boot image file of this run, see {@link #bootImageChecksum(File)}.
+     */
+    private static long bootImageChecksum;
+
+    private static int hits;
+    private static int misses;
+    private static int rejected;
+
+    private PersistentCodeCache() {
+    }
+
+    /**
+     * Determines if the persistent code cache is enabled in this run.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Loads the cache file, if any, and arranges for the cache to be saved when the VM shuts down.
+     * Called once the VM is in the {@link MaxineVM.Phase#RUNNING} phase.
+     */
+    public static void initialize() {
+        if (cacheFile == null || isHosted()) {
+            return;
+        }
+        File bootImageFile = new File(MaxineVM.getExecutablePath(), BootImageGenerator.IMAGE_FILE_NAME);
+        try {
+            bootImageChecksum = bootImageChecksum(bootImageFile);
+        } catch (IOException e) {
+            Log.println("WARNING: Persistent code cache disabled, cannot read boot image " + bootImageFile + ": " + e);
+            return;
+        }
+        enabled = true;
+        load(new File(cacheFile));
+        Runtime.getRuntime().addShutdownHook(new Thread("PersistentCodeCacheWriter") {
+            @Override
+            public void run() {
+                save(new File(cacheFile));
+            }
+        });
+    }
+
+    /**
+     * Computes the checksum of a boot image file, identifying the boot image that produced a cache file. Code in the
+     * cache refers to boot image code and objects by address, so it can only be reused with exactly the same boot
+     * image. The checksum is the CRC-32 of the file's contents in the low 32 bits and its length in the high 32 bits.
+     */
+    private static long bootImageChecksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+            }
+        } finally {
+            in.close();
+        }
+        return (file.length() << 32) | crc.getValue();
+    }
+
+    /**
+     * Gets the key of a method's entry. Classes with the same name defined by different loaders are told apart by the
+     * class of their loader; any remaining ambiguity is resolved by the {@linkplain #bytecodeHash bytecode hashes}.
+     */
+    private static String key(ClassMethodActor method) {
+        ClassLoader classLoader = method.holder().classLoader;
+        String loader = classLoader == null ? "" : classLoader.getClass().getName();
+        return loader + ':' + method.holder().typeDescriptor.toString() + '.' + method.name + method.descriptor();
+    }
+
+    /**
+     * Gets a hash of the bytecode of a method.
+     */
+    private static long bytecodeHash(ClassMethodActor method) {
+        byte[] code = method.code();
+        if (code == null) {
+            return 0L;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(code, 0, code.length);
+        return ((long) code.length << 32) | crc.getValue();
+    }
+
+    /**
+     * Gets the methods whose bytecode a compilation was derived from: the compiled method itself and every method
+     * inlined into it, as recorded by its assumptions and the frames of its debug info.
+     */
+    private static Set<ClassMethodActor> bytecodeSources(ClassMethodActor method, CiTargetMethod ciTargetMethod) {
+        LinkedHashSet<ClassMethodActor> methods = new LinkedHashSet<ClassMethodActor>();
+        methods.add(method);
+        CiAssumptions assumptions = ciTargetMethod.assumptions();
+        if (assumptions != null) {
+            for (Assumption assumption : assumptions) {
+                if (assumption instanceof CiAssumptions.InlinedMethod) {
+                    Object inlinee = ((CiAssumptions.InlinedMethod) assumption).dependee;
+                    if (inlinee instanceof ClassMethodActor) {
+                        methods.add((ClassMethodActor) inlinee);
+                    }
+                }
+            }
+        }
+        for (Safepoint safepoint : ciTargetMethod.safepoints) {
+            if (safepoint.debugInfo != null) {
+                for (CiCodePos pos = safepoint.debugInfo.codePos; pos != null; pos = pos.caller) {
+                    if (pos.method instanceof ClassMethodActor) {
+                        methods.add((ClassMethodActor) pos.method);
+                    }
+                }
+            }
+        }
+        return methods;
+    }
+
+    private static synchronized void load(File file) {
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (in.readInt() != MAGIC || in.readLong() != bootImageChecksum) {
+                    if (verboseOption.verboseCompilation) {
+                        Log.println("Ignoring persistent code cache " + file + " written by a different boot image");
+                    }
+                    return;
+                }
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String key = in.readUTF();
+                    byte[] data = new byte[in.readInt()];
+                    in.readFully(data);
+                    stored.put(key, data);
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            Log.println("WARNING: Error reading persistent code cache " + file + ": " + e);
+            stored.clear();
+        }
+    }
+
+    private static synchronized void save(File file) {
+        HashMap<String, byte[]> entries = new HashMap<String, byte[]>(stored);
+        entries.putAll(reused);
+        for (Map.Entry<String, CiTargetMethod> e : recorded.entrySet()) {
+            byte[] data = encode(recordedMethods.get(e.getKey()), e.getValue(), recordedEmbeddings.get(e.getKey()));
+            if (data != null) {
+                entries.put(e.getKey(), data);
+            }
+        }
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            try {
+                out.writeInt(MAGIC);
+                out.writeLong(bootImageChecksum);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, byte[]> e : entries.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    out.writeInt(e.getValue().length);
+                    out.write(e.getValue());
+                }
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            Log.println("WARNING: Error writing persistent code cache " + file + ": " + e);
+        }
+        if (verboseOption.verboseCompilation) {
+            Log.println("Persistent code cache: " + entries.size() + " entries saved, " + hits + " hits, " + misses + " misses, " + rejected + " rejected");
+        }
+    }
+
+    /**
+     * Gets the cached compilation for a given method, if there is one that can be decoded in the current VM.
+     * Each entry is handed out at most once. The caller must validate the
+     * {@linkplain CiTargetMethod#assumptions() assumptions} of the returned compilation before installing it,
+     * and should call {@link #reject} if they no longer hold.
+     *
+     * @return the cached compilation for {@code method} or {@code null}
+     */
+    public static CiTargetMethod lookup(ClassMethodActor method) {
+        if (!enabled) {
+            return null;
+        }
+        byte[] data;
+        synchronized (PersistentCodeCache.class) {
+            data = stored.remove(key(method));
+            if (data == null) {
+                misses++;
+                return null;
+            }
+        }
+        CiTargetMethod ciTargetMethod = decode(method, data);
+        synchronized (PersistentCodeCache.class) {
+            if (ciTargetMethod == null) {
+                rejected++;
+            } else {
+                hits++;
+                reused.put(key(method), data);
+            }
+        }
+        if (verboseOption.verboseCompilation) {
+            boolean lockDisabledSafepoints = Log.lock();
+            Log.printCurrentThread(false);
+            Log.print(ciTargetMethod == null ? ": Dropped persistent code for " : ": Reusing persistent code for ");
+            Log.printMethod(method, true);
+            Log.unlock(lockDisabledSafepoints);
+        }
+        return ciTargetMethod;
+    }
+
+    /**
+     * Notes that a compilation returned by {@link #lookup} was not installed because its assumptions no longer hold.
+     */
+    public static void reject(ClassMethodActor method) {
+        synchronized (PersistentCodeCache.class) {
+            hits--;
+            rejected++;
+            reused.remove(key(method));
+        }
+        if (verboseOption.verboseCompilation) {
+            boolean lockDisabledSafepoints = Log.lock();
+            Log.printCurrentThread(false);
+            Log.print(": Dropped persistent code with invalid assumptions for ");
+            Log.printMethod(method, true);
+            Log.unlock(lockDisabledSafepoints);
+        }
+    }
+
+    /**
+     * Records an optimized compilation that was produced and installed in this run so that it is saved at shutdown.
+     *
+     * @param embeddings the run-specific values embedded by the compilation, as returned by {@link #endCompilation}
+     */
+    public static void record(ClassMethodActor method, CiTargetMethod ciTargetMethod, Embeddings embeddings) {
+        if (!enabled) {
+            return;
+        }
+        if (embeddings.uncacheable) {
+            if (verboseOption.verboseCompilation) {
+                boolean lockDisabledSafepoints = Log.lock();
+                Log.printCurrentThread(false);
+                Log.print(": Not saving persistent code that embeds a folded object for ");
+                Log.printMethod(method, true);
+                Log.unlock(lockDisabledSafepoints);
+            }
+            return;
+        }
+        String key = key(method);
+        synchronized (PersistentCodeCache.class) {
+            recorded.put(key, ciTargetMethod);
+            recordedMethods.put(key, method);
+            recordedEmbeddings.put(key, embeddings);
+        }
+    }
+
+    /**
+     * The values specific to the current run that a compilation embeds in its code.
+     */
+    public static final class Embeddings {
+        final ArrayList<ClassActor> classIDs = new ArrayList<ClassActor>();
+        final ArrayList<FieldActor> foldedFields = new ArrayList<FieldActor>();
+        final ArrayList<CiConstant> foldedValues = new ArrayList<CiConstant>();
+
+        /**
+         * Set if the compilation folded a value that cannot be validated in a later run.
+         */
+        boolean uncacheable;
+    }
+
+    private static final ObjectThreadLocal<Embeddings> EMBEDDINGS =
+        new ObjectThreadLocal<Embeddings>("PERSISTENT_CODE_EMBEDDINGS", "run-specific values embedded by the current compilation");
+
+    /**
+     * Starts collecting the run-specific values embedded by a compilation on the current thread.
+     *
+     * @return the values being collected for an enclosing compilation on this thread, to be passed to {@link #endCompilation}
+     */
+    public static Embeddings beginCompilation() {
+        Embeddings outer = EMBEDDINGS.getWithoutInitialization();
+        EMBEDDINGS.set(new Embeddings());
+        return outer;
+    }
+
+    /**
+     * Stops collecting the run-specific values embedded by the compilation on the current thread.
+     *
+     * @param outer the value returned by the matching call to {@link #beginCompilation}
+     * @return the values embedded by the compilation
+     */
+    public static Embeddings endCompilation(Embeddings outer) {
+        Embeddings embeddings = EMBEDDINGS.getWithoutInitialization();
+        EMBEDDINGS.set(outer);
+        return embeddings;
+    }
+
+    /**
+     * Notes that the code being compiled on the current thread embeds the {@linkplain ClassActor#id id} of a class.
+     */
+    public static void noteClassID(ClassActor classActor) {
+        if (!enabled) {
+            return;
+        }
+        Embeddings embeddings = EMBEDDINGS.getWithoutInitialization();
+        if (embeddings != null && !embeddings.classIDs.contains(classActor)) {
+            embeddings.classIDs.add(classActor);
+        }
+    }
+
+    /**
+     * Notes that the code being compiled on the current thread may embed the current value of a field.
+     *
+     * @param receiver the object whose field was folded or {@code null} for a static field
+     */
+    public static void noteFoldedField(FieldActor fieldActor, CiConstant receiver, CiConstant value) {
+        if (!enabled) {
+            return;
+        }
+        Embeddings embeddings = EMBEDDINGS.getWithoutInitialization();
+        if (embeddings != null) {
+            if (receiver != null || value.kind.isObject()) {
+                embeddings.uncacheable = true;
+            } else if (!embeddings.foldedFields.contains(fieldActor)) {
+                embeddings.foldedFields.add(fieldActor);
+                embeddings.foldedValues.add(value);
+            }
+        }
+    }
+
+    private static byte[] encode(ClassMethodActor method, CiTargetMethod ciTargetMethod, Embeddings embeddings) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            Encoder out = new Encoder(buffer);
+            Set<ClassMethodActor> sources = bytecodeSources(method, ciTargetMethod);
+            out.writeInt(sources.size());
+            for (ClassMethodActor source : sources) {
+                out.writeUTF(source.holder().typeDescriptor.toString());
+                out.writeUTF(source.name.toString());
+                out.writeUTF(source.descriptor().toString());
+                out.writeLong(bytecodeHash(source));
+            }
+            out.writeInt(embeddings.classIDs.size());
+            for (ClassActor classActor : embeddings.classIDs) {
+                out.writeUTF(classActor.typeDescriptor.toString());
+                out.writeInt(classActor.id);
+            }
+            out.writeInt(embeddings.foldedFields.size());
+            for (int i = 0; i < embeddings.foldedFields.size(); i++) {
+                FieldActor fieldActor = embeddings.foldedFields.get(i);
+                out.writeUTF(fieldActor.holder().typeDescriptor.toString());
+                out.writeUTF(fieldActor.name.toString());
+                out.writeUTF(fieldActor.descriptor().toString());
+                out.writeObject(embeddings.foldedValues.get(i));
+            }
+            out.writeObject(ciTargetMethod);
+            out.close();
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            if (verboseOption.verboseCompilation) {
+                Log.println("Persistent code cache cannot encode " + method + ": " + e.getMessage());
+            }
+            return null;
+        }
+    }
+
+    private static CiTargetMethod decode(ClassMethodActor method, byte[] data) {
+        try {
+            ClassLoader classLoader = method.holder().classLoader;
+            Decoder in = new Decoder(new ByteArrayInputStream(data), classLoader);
+            try {
+                int sourceCount = in.readInt();
+                for (int i = 0; i < sourceCount; i++) {
+                    ClassActor holder = TypeToken.lookup(classLoader, in.readUTF());
+                    Utf8Constant name = SymbolTable.makeSymbol(in.readUTF());
+                    SignatureDescriptor descriptor = SignatureDescriptor.create(in.readUTF());
+                    long hash = in.readLong();
+                    MethodActor source = holder == null ? null : holder.findLocalMethodActor(name, descriptor);
+                    if (!(source instanceof ClassMethodActor) || bytecodeHash((ClassMethodActor) source) != hash) {
+                        return null;
+                    }
+                }
+                int classCount = in.readInt();
+                for (int i = 0; i < classCount; i++) {
+                    String descriptor = in.readUTF();
+                    ClassActor classActor = TypeToken.lookup(classLoader, descriptor);
+                    if (classActor == null || classActor.id != in.readInt()) {
+                        return null;
+                    }
+                }
+                int fieldCount = in.readInt();
+                for (int i = 0; i < fieldCount; i++) {
+                    ClassActor holder = new TypeToken(in.readUTF()).resolve(classLoader);
+                    Utf8Constant name = SymbolTable.makeSymbol(in.readUTF());
+                    TypeDescriptor descriptor = JavaTypeDescriptor.parseTypeDescriptor(in.readUTF());
+                    FieldActor fieldActor = holder.findLocalStaticFieldActor(name, descriptor);
+                    CiConstant value = (CiConstant) in.readObject();
+                    if (fieldActor == null || !value.equals(fieldActor.constantValue(null))) {
+                        return null;
+                    }
+                }
+                return (CiTargetMethod) in.readObject();
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes a compilation, substituting symbolic tokens for references to VM objects.
+     */
+    private static final class Encoder extends ObjectOutputStream {
+        Encoder(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (obj == null || obj instanceof String || obj instanceof Enum || obj instanceof Number || obj instanceof Boolean) {
+                return obj;
+            }
+            if (obj instanceof CiConstant && ((CiConstant) obj).kind.isObject()) {
+                // Only objects that can be re-resolved in another run may be embedded in cached code
+                Object value = ((CiConstant) obj).asObject();
+                if (value != null && !(value instanceof Actor || value instanceof Hub || value instanceof Class || ObjectAccess.readHub(value) instanceof StaticHub)) {
+                    throw new NotSerializableException("object constant of type " + value.getClass().getName());
+                }
+                return obj;
+            }
+            if (obj == CiValue.IllegalValue) {
+                return IllegalValueToken.INSTANCE;
+            }
+            if (obj instanceof CiRegister) {
+                return new RegisterToken(((CiRegister) obj).number);
+            }
+            if (obj instanceof ClassActor) {
+                return new TypeToken((ClassActor) obj);
+            }
+            if (obj instanceof MethodActor) {
+                return new MethodToken((MethodActor) obj);
+            }
+            if (obj instanceof Hub) {
+                Hub hub = (Hub) obj;
+                return new ObjectToken(ObjectToken.HUB, hub instanceof StaticHub, new TypeToken(hub.classActor));
+            }
+            if (obj instanceof Class) {
+                return new ObjectToken(ObjectToken.MIRROR, false, new TypeToken(ClassActor.fromJava((Class) obj)));
+            }
+            Hub hub = ObjectAccess.readHub(obj);
+            if (hub instanceof StaticHub) {
+                return new ObjectToken(ObjectToken.STATIC_TUPLE, true, new TypeToken(hub.classActor));
+            }
+            Class<?> c = obj.getClass();
+            if (c.isArray() || c.getName().startsWith("com.sun.cri.ci.") || c.getName().startsWith("java.util.")) {
+                return obj;
+            }
+            throw new NotSerializableException(c.getName());
+        }
+    }
+
+    /**
+     * Reads a compilation, resolving symbolic tokens against the classes currently loaded.
+     */
+    private static final class Decoder extends ObjectInputStream {
+        final ClassLoader classLoader;
+
+        Decoder(InputStream in, ClassLoader classLoader) throws IOException {
+            super(in);
+            this.classLoader = classLoader;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            if (obj instanceof Token) {
+                return ((Token) obj).resolve(classLoader);
+            }
+            if (obj instanceof String) {
+                return ((String) obj).intern();
+            }
+            return obj;
+        }
+    }
+
+    private abstract static class Token implements Serializable {
+        abstract Object resolve(ClassLoader classLoader) throws IOException;
+    }
+
+    private static final class IllegalValueToken extends Token {
+        static final IllegalValueToken INSTANCE = new IllegalValueToken();
+
+        @Override
+        Object resolve(ClassLoader classLoader) {
+            return CiValue.IllegalValue;
+        }
+    }
+
+    private static final class RegisterToken extends Token {
+        final int number;
+
+        RegisterToken(int number) {
+            this.number = number;
+        }
+
+        @Override
+        Object resolve(ClassLoader classLoader) throws IOException {
+            if (number == CiRegister.None.number) {
+                return CiRegister.None;
+            } else if (number == CiRegister.Frame.number) {
+                return CiRegister.Frame;
+            } else if (number == CiRegister.CallerFrame.number) {
+                return CiRegister.CallerFrame;
+            }
+            CiRegister[] registers = Platform.target().arch.registers;
+            if (number < 0 || number >= registers.length) {
+                throw new InvalidObjectException("unknown register " + number);
+            }
+            return registers[number];
+        }
+    }
+
+    private static final class TypeToken extends Token {
+        final String descriptor;
+
+        TypeToken(ClassActor classActor) {
+            this.descriptor = classActor.typeDescriptor.toString();
+        }
+
+        TypeToken(String descriptor) {
+            this.descriptor = descriptor;
+        }
+
+        /**
+         * Finds a class that is already loaded, without requiring it to be initialized.
+         */
+        static ClassActor lookup(ClassLoader classLoader, String descriptor) {
+            TypeDescriptor typeDescriptor = JavaTypeDescriptor.parseTypeDescriptor(descriptor);
+            ClassActor classActor = ClassRegistry.get(classLoader, typeDescriptor, true);
+            if (classActor == null) {
+                classActor = ClassRegistry.getInBootOrVM(typeDescriptor);
+            }
+            return classActor;
+        }
+
+        @Override
+        ClassActor resolve(ClassLoader classLoader) throws IOException {
+            ClassActor classActor = lookup(classLoader, descriptor);
+            if (classActor == null || !classActor.isInitialized()) {
+                // Optimized code may omit class initialization checks for classes initialized when it was compiled
+                throw new InvalidObjectException("class not initialized: " + descriptor);
+            }
+            return classActor;
+        }
+    }
+
+    private static final class MethodToken extends Token {
+        final TypeToken holder;
+        final String name;
+        final String signature;
+
+        MethodToken(MethodActor methodActor) {
+            this.holder = new TypeToken(methodActor.holder());
+            this.name = methodActor.name.toString();
+            this.signature = methodActor.descriptor().toString();
+        }
+
+        @Override
+        Object resolve(ClassLoader classLoader) throws IOException {
+            ClassActor classActor = holder.resolve(classLoader);
+            MethodActor methodActor = classActor.findLocalMethodActor(SymbolTable.makeSymbol(name), SignatureDescriptor.create(signature));
+            if (methodActor == null) {
+                throw new InvalidObjectException("method not found: " + holder.descriptor + "." + name + signature);
+            }
+            return methodActor;
+        }
+    }
+
+    private static final class ObjectToken extends Token {
+        static final int HUB = 0;
+        static final int MIRROR = 1;
+        static final int STATIC_TUPLE = 2;
+
+        final int kind;
+        final boolean isStatic;
+        final TypeToken type;
+
+        ObjectToken(int kind, boolean isStatic, TypeToken type) {
+            this.kind = kind;
+            this.isStatic = isStatic;
+            this.type = type;
+        }
+
+        @Override
+        Object resolve(ClassLoader classLoader) throws IOException {
+            ClassActor classActor = type.resolve(classLoader);
+            switch (kind) {
+                case HUB:
+                    return isStatic ? classActor.staticHub() : classActor.dynamicHub();
+                case MIRROR:
+                    return classActor.toJava();
+                default:
+                    return classActor.staticTuple();
+            }
+        }
+    }
+}
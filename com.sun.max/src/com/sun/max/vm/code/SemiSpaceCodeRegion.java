@@ -29,10 +29,18 @@ import com.sun.max.vm.*;
 import com.sun.max.vm.compiler.target.*;
 import com.sun.max.vm.heap.*;
 import com.sun.max.vm.heap.debug.*;
+import com.sun.max.vm.layout.*;
 import com.sun.max.vm.runtime.*;
+import com.sun.max.vm.type.*;
 
 /**
  * A code region with semi-space characteristics.
+ * <p>
+ * Besides being compacted by {@linkplain CodeEviction code eviction}, to-space can have the space of individual methods
+ * {@linkplain #reclaim(TargetMethod[], int) reclaimed} by {@linkplain ConcurrentCodeEviction concurrent code eviction}.
+ * Reclaimed space is formatted as byte arrays so that the region remains parsable, and kept in a free list that
+ * {@link #allocate(Size, boolean)} tries before bumping the allocation mark. The free list is discarded when spaces are
+ * {@linkplain #flip() flipped}.
  */
 public final class SemiSpaceCodeRegion extends CodeRegion {
 
@@ -74,6 +82,17 @@ public final class SemiSpaceCodeRegion extends CodeRegion {
     @INSPECTED
     protected int fromLength;
 
+    /**
+     * Head of the list of reclaimed chunks of to-space. Each chunk is formatted as a byte array whose first element
+     * holds the address of the next chunk.
+     */
+    private Address freeList = Address.zero();
+
+    /**
+     * Total size of the chunks in the {@link #freeList}.
+     */
+    private Size freeListSize = Size.zero();
+
     /**
      * Binds this code region to some allocated memory range and sets the semi-space addresses.
      *
@@ -118,6 +137,8 @@ public final class SemiSpaceCodeRegion extends CodeRegion {
         int[] tmpIndex = findIndex;
         findIndex = fromFindIndex;
         fromFindIndex = tmpIndex;
+        freeList = Address.zero();
+        freeListSize = Size.zero();
     }
 
     /**
@@ -129,6 +150,13 @@ public final class SemiSpaceCodeRegion extends CodeRegion {
             FatalError.unexpected("Allocation size must be word aligned");
         }
 
+        if (!freeList.isZero() && !adjustForDebugTag) {
+            final Pointer cell = allocateFromFreeList(size);
+            if (!cell.isZero()) {
+                return cell;
+            }
+        }
+
         Pointer oldAllocationMark = mark();
         Pointer cell = adjustForDebugTag ? DebugHeap.adjustForDebugTag(oldAllocationMark) : oldAllocationMark;
         Address end = cell.plus(size);
@@ -142,6 +170,134 @@ public final class SemiSpaceCodeRegion extends CodeRegion {
         return cell;
     }
 
+    private static Size chunkHeaderSize() {
+        return Size.fromInt(Layout.byteArrayLayout().headerSize());
+    }
+
+    /**
+     * The smallest chunk that can be kept in the free list: an array header plus the link to the next chunk.
+     */
+    private static Size minChunkSize() {
+        return chunkHeaderSize().plus(Word.size());
+    }
+
+    private static Size chunkSize(Address chunk) {
+        return Layout.size(Layout.cellToOrigin(chunk.asPointer()));
+    }
+
+    private static Address nextChunk(Address chunk) {
+        return chunk.asPointer().readWord(chunkHeaderSize().toInt()).asAddress();
+    }
+
+    /**
+     * Formats a range of to-space as a chunk of the free list.
+     */
+    private static void formatChunk(Pointer chunk, Size size, Address next) {
+        Cell.plantArray(chunk, ClassRegistry.BYTE_ARRAY.dynamicHub(), size.minus(chunkHeaderSize()).toInt());
+        chunk.writeWord(chunkHeaderSize().toInt(), next);
+    }
+
+    /**
+     * Allocates from the first chunk of the free list that either fits exactly, or leaves a remainder large enough to
+     * stay in the free list.
+     *
+     * @return the allocated cell, or zero if no chunk can satisfy the request
+     */
+    private Pointer allocateFromFreeList(Size size) {
+        Address previous = Address.zero();
+        Address chunk = freeList;
+        while (!chunk.isZero()) {
+            final Size chunkSize = chunkSize(chunk);
+            final Address next = nextChunk(chunk);
+            final Size remainder = chunkSize.minus(size);
+            if (remainder.isZero() || (chunkSize.greaterThan(size) && remainder.greaterEqual(minChunkSize()))) {
+                Address replacement = next;
+                if (!remainder.isZero()) {
+                    replacement = chunk.plus(size);
+                    formatChunk(replacement.asPointer(), remainder, next);
+                }
+                if (previous.isZero()) {
+                    freeList = replacement;
+                } else {
+                    previous.asPointer().writeWord(chunkHeaderSize().toInt(), replacement);
+                }
+                freeListSize = freeListSize.minus(size);
+                return chunk.asPointer();
+            }
+            previous = chunk;
+            chunk = next;
+        }
+        return Pointer.zero();
+    }
+
+    /**
+     * Returns the space of some target methods in to-space to the free list, and removes them from the sorted list of
+     * target methods. The methods must already be {@linkplain TargetMethod#wipe() wiped}.
+     * Must only be called during a VM operation, as this modifies the data used to {@linkplain #find(Address) find}
+     * target methods.
+     *
+     * @param methods the methods to reclaim
+     * @param count the number of methods in {@code methods}
+     */
+    public void reclaim(TargetMethod[] methods, int count) {
+        for (int i = 0; i < count; i++) {
+            final TargetMethod tm = methods[i];
+            assert tm.isWiped() && isInToSpace(tm.start()) : "can only reclaim wiped methods in to-space";
+            final Size size = tm.size();
+            if (size.greaterEqual(minChunkSize())) {
+                formatChunk(tm.start().asPointer(), size, freeList);
+                freeList = tm.start();
+                freeListSize = freeListSize.plus(size);
+            } else {
+                formatChunk(tm.start().asPointer(), size, Address.zero());
+            }
+        }
+        int newLength = 0;
+        for (int i = 0; i < length; i++) {
+            final TargetMethod tm = targetMethods[i];
+            if (!tm.isWiped()) {
+                targetMethods[newLength++] = tm;
+            }
+        }
+        Arrays.fill(targetMethods, newLength, length, null);
+        length = newLength;
+        rebuildFindIndex();
+    }
+
+    /**
+     * Recomputes the {@link #findIndex} after methods were removed. Pages whose beginning isn't covered by any method
+     * point to the preceding method.
+     */
+    private void rebuildFindIndex() {
+        int page = 0;
+        for (int i = 0; i < length; i++) {
+            final TargetMethod tm = targetMethods[i];
+            final int startIdx = tm.start().plus(FIND_INDEX_ALIGN - 1).minus(start()).unsignedShiftedRight(FIND_INDEX_ALIGN_SHIFT).toInt();
+            final int endIdx = tm.end().minus(1).minus(start()).unsignedShiftedRight(FIND_INDEX_ALIGN_SHIFT).toInt();
+            while (page < startIdx) {
+                findIndex[page++] = i == 0 ? 0 : i - 1;
+            }
+            while (page <= endIdx) {
+                findIndex[page++] = i;
+            }
+        }
+        Arrays.fill(findIndex, page, findIndex.length, 0);
+    }
+
+    /**
+     * Amount of to-space holding code, i.e., allocated and not in the free list.
+     */
+    public Size usedSpace() {
+        return mark().minus(toSpace).asSize().minus(freeListSize);
+    }
+
+    /**
+     * Size of each of the two spaces.
+     */
+    public Size spaceSize() {
+        return spaceSize;
+    }
+
     /**
      * Looks up the target method containing a particular address <i>in from-space</i>.
      */
@@ -364,6 +364,8 @@ public class CompilationBroker {
                 compilationThreadPool.setDaemon(true);
                 compilationThreadPool.startThreads();
             }
+            PersistentCodeCache.initialize();
+            ConcurrentCodeEviction.initialize();
             if (PrintCodeCacheMetrics != 0) {
                 Runtime.getRuntime().addShutdownHook(new Thread("CodeCacheMetricsPrinter") {
                     @Override
@@ -676,7 +678,8 @@ public class CompilationBroker {
         TargetMethod newMethod = Compilations.currentTargetMethod(cma.compiledState, null);
 
         if (oldMethod == newMethod || newMethod == null) {
-            if (!(cma.compiledState instanceof Compilation)) {
+            Object compiledState = cma.compiledState;
+            if (!(compiledState instanceof Compilation)) {
                 // There is no newer compiled version available yet that we could just patch to, so recompile
                 logCounterOverflow(mpo, "");
                 try {
@@ -689,6 +692,9 @@ public class CompilationBroker {
                     // the next counter overflow (due to integer wrapping) will be a while away.
                     return;
                 }
+            } else if (backgroundCompilationInitialized) {
+                // The method is still hot while its recompilation is pending: move it up the queue
+                vm().compilationBroker.compilationThreadPool.boost((Compilation) compiledState);
             }
         }
 
@@ -24,22 +24,82 @@ import static com.sun.max.vm.VMOptions.*;
 
 import java.util.*;
 
+import com.sun.max.annotate.*;
 import com.sun.max.vm.*;
 import com.sun.max.vm.actor.member.*;
 import com.sun.max.vm.Log;
 import com.sun.max.vm.compiler.target.*;
+import com.sun.max.vm.profile.*;
 import com.sun.max.vm.thread.*;
 import com.sun.max.vm.ti.*;
 
 /**
  * This class implements a thread pool that maintains a variable number of compilation threads.
+ * <p>
+ * Pending compilations are kept in a priority queue. The priority of a compilation is the number of
+ * {@linkplain MethodProfile#entryBackedgeCount entry/backedge counter} overflows of its method observed since it was
+ * requested, so methods that keep getting hotter while waiting are compiled first. Requests with the same priority are
+ * served in FIFO order. There is at most one pending request per method. A request is dropped without compiling if it
+ * has been superseded by another compilation of its method, or if it has waited longer than
+ * {@link #CompilationQueueMaxWait} milliseconds without its method overflowing its counter again. When the queue holds
+ * {@link #CompilationQueueLimit} requests, a new request evicts a stale or colder request if there is one and is
+ * rejected otherwise. As a new request has the lowest priority and the highest sequence number, only stale requests
+ * are colder than it. A dropped request leaves its method with its previous code and resets its counter so that it is
+ * requested again if it stays hot.
  */
 public class CompilationThreadPool {
 
+    /**
+     * A pending compilation in the queue.
+     */
+    private static final class Request {
+        final Compilation compilation;
+        final long sequence;
+        final long enqueueTime;
+        int priority;
+
+        Request(Compilation compilation, long sequence) {
+            this.compilation = compilation;
+            this.sequence = sequence;
+            this.enqueueTime = System.nanoTime();
+            this.priority = 1;
+        }
+
+        boolean isStale() {
+            if (compilation.classMethodActor.compiledState != compilation) {
+                return true;
+            }
+            return CompilationQueueMaxWait > 0 && priority == 1 && waitTime() / 1000000L > CompilationQueueMaxWait;
+        }
+
+        long waitTime() {
+            return System.nanoTime() - enqueueTime;
+        }
+    }
+
+    /**
+     * Orders requests by decreasing priority and then by increasing sequence number.
+     */
+    private static final Comparator<Request> REQUEST_ORDER = new Comparator<Request>() {
+        public int compare(Request r1, Request r2) {
+            if (r1.priority != r2.priority) {
+                return r1.priority > r2.priority ? -1 : 1;
+            }
+            return r1.sequence < r2.sequence ? -1 : (r1.sequence == r2.sequence ? 0 : 1);
+        }
+    };
+
     /**
      * A queue of pending compilations.
      */
-    private final LinkedList<Compilation> pending = new LinkedList<Compilation>();
+    private final PriorityQueue<Request> pending = new PriorityQueue<Request>(64, REQUEST_ORDER);
+
+    /**
+     * The pending request for each method in {@link #pending}.
+     */
+    private final HashMap<ClassMethodActor, Request> pendingByMethod = new HashMap<ClassMethodActor, Request>();
+
+    private long nextSequence;
 
     private CompilationThread[] threadPool;
 
@@ -50,11 +110,49 @@ public class CompilationThreadPool {
 
     private static boolean GCOnRecompilation;
 
+    private static int CompilationQueueLimit = 256;
+
+    private static int CompilationQueueMaxWait = 0;
+
     static {
         addFieldOption("-XX:", "GCOnRecompilation", CompilationThreadPool.class, "Force GC before every re-compilation.");
         addFieldOption("-XX:", "CTPS", CompilationThreadPool.class, "Compilation threadpool size (Default: 4)");
+        addFieldOption("-XX:", "CompilationQueueLimit", CompilationThreadPool.class,
+            "Maximum number of pending background compilations. Further requests evict colder ones or are rejected.");
+        addFieldOption("-XX:", "CompilationQueueMaxWait", CompilationThreadPool.class,
+            "Drop pending compilations of methods that did not get hotter within <n> milliseconds (0 = never).");
     }
 
+    public static final VMBooleanOption PrintCompilationQueueStatsOption = register(new VMBooleanOption("-XX:-PrintCompilationQueueStats",
+            "Report statistics of the background compilation queue.") {
+        @Override
+        protected void beforeExit() {
+            if (getValue()) {
+                printStats();
+            }
+        }
+    }, MaxineVM.Phase.STARTING);
+
+    /*
+     * Queue metrics, guarded by the lock of the queue of the (single) thread pool.
+     */
+    @RESET
+    private static long enqueuedCount;
+    @RESET
+    private static long dequeuedCount;
+    @RESET
+    private static long boostedCount;
+    @RESET
+    private static long staleCount;
+    @RESET
+    private static long rejectedCount;
+    @RESET
+    private static int maxQueueDepth;
+    @RESET
+    private static long totalWaitTime;
+    @RESET
+    private static long maxWaitTime;
+
     public CompilationThreadPool() {
         threadPool = new CompilationThread[CTPS];
         for (int i = 0; i < CTPS; i++) {
@@ -75,12 +173,179 @@ public class CompilationThreadPool {
     }
 
     public void addCompilationToQueue(Compilation compilation) {
+        Request dropped;
         synchronized (pending) {
-            pending.add(compilation);
-            pending.notify();
+            Request request = pendingByMethod.get(compilation.classMethodActor);
+            if (request != null) {
+                if (request.compilation == compilation) {
+                    boostLocked(request);
+                    return;
+                }
+                // the pending request has been superseded by this one
+                removeLocked(request);
+                staleCount++;
+                dropped = request;
+            } else if (pending.size() >= CompilationQueueLimit) {
+                Request incoming = new Request(compilation, nextSequence);
+                Request evicted = evictionCandidateLocked(incoming);
+                rejectedCount++;
+                if (evicted == null) {
+                    // no request is colder than the new one: apply backpressure to the requester
+                    dropped = incoming;
+                    compilation = null;
+                } else {
+                    removeLocked(evicted);
+                    dropped = evicted;
+                }
+            } else {
+                dropped = null;
+            }
+            if (compilation != null) {
+                request = new Request(compilation, nextSequence++);
+                pending.add(request);
+                pendingByMethod.put(compilation.classMethodActor, request);
+                enqueuedCount++;
+                if (pending.size() > maxQueueDepth) {
+                    maxQueueDepth = pending.size();
+                }
+                pending.notify();
+            }
+        }
+        if (dropped != null) {
+            drop(dropped, "dropped from compilation queue");
+        }
+    }
+
+    /**
+     * Raises the priority of a pending compilation, e.g. because its method overflowed its counter again.
+     *
+     * @param compilation a compilation that may be pending in this queue
+     */
+    public void boost(Compilation compilation) {
+        synchronized (pending) {
+            Request request = pendingByMethod.get(compilation.classMethodActor);
+            if (request != null && request.compilation == compilation) {
+                boostLocked(request);
+            }
         }
     }
 
+    /**
+     * Gets the number of pending compilations.
+     */
+    public int queueDepth() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    private void boostLocked(Request request) {
+        // re-insert the request so that the queue reflects its new priority
+        pending.remove(request);
+        request.priority++;
+        pending.add(request);
+        boostedCount++;
+    }
+
+    private void removeLocked(Request request) {
+        pending.remove(request);
+        pendingByMethod.remove(request.compilation.classMethodActor);
+    }
+
+    /**
+     * Selects the pending request to evict from a full queue in favor of a new request.
+     *
+     * @return a stale request, or else the coldest request if it would be served after {@code incoming}, or
+     *         {@code null} if every pending request is hotter than {@code incoming}
+     */
+    private Request evictionCandidateLocked(Request incoming) {
+        Request coldest = null;
+        for (Request request : pending) {
+            if (request.isStale()) {
+                return request;
+            }
+            if (coldest == null || REQUEST_ORDER.compare(request, coldest) > 0) {
+                coldest = request;
+            }
+        }
+        if (coldest != null && REQUEST_ORDER.compare(coldest, incoming) > 0) {
+            return coldest;
+        }
+        return null;
+    }
+
+    /**
+     * Removes the next compilation to be performed from the queue, blocking while the queue is empty.
+     * Stale requests are dropped.
+     */
+    protected Compilation take() throws InterruptedException {
+        while (true) {
+            Request request;
+            synchronized (pending) {
+                request = pending.poll();
+                while (request == null) {
+                    pending.wait();
+                    request = pending.poll();
+                }
+                pendingByMethod.remove(request.compilation.classMethodActor);
+                long waitTime = request.waitTime();
+                dequeuedCount++;
+                totalWaitTime += waitTime;
+                if (waitTime > maxWaitTime) {
+                    maxWaitTime = waitTime;
+                }
+                if (!request.isStale()) {
+                    return request.compilation;
+                }
+                staleCount++;
+            }
+            drop(request, "stale");
+        }
+    }
+
+    /**
+     * Drops a request that will not be compiled. The method keeps its previous code and its counter is reset so
+     * that it is requested again if it stays hot.
+     */
+    private static void drop(Request request, String reason) {
+        Compilation compilation = request.compilation;
+        compilation.abandon();
+        TargetMethod baseline = compilation.prevCompilations.baseline;
+        if (baseline != null && baseline.profile() != null) {
+            baseline.profile().entryBackedgeCount = MethodInstrumentation.initialEntryBackedgeCount;
+        }
+        if (VMOptions.verboseOption.verboseCompilation) {
+            boolean lockDisabledSafepoints = Log.lock();
+            Log.printCurrentThread(false);
+            Log.print(": Compilation of ");
+            Log.printMethod(compilation.classMethodActor, false);
+            Log.print(" ");
+            Log.println(reason);
+            Log.unlock(lockDisabledSafepoints);
+        }
+    }
+
+    private static void printStats() {
+        Log.println("Compilation queue statistics:");
+        Log.print("  enqueued: ");
+        Log.print(enqueuedCount);
+        Log.print(", dequeued: ");
+        Log.print(dequeuedCount);
+        Log.print(", boosted: ");
+        Log.print(boostedCount);
+        Log.print(", stale: ");
+        Log.print(staleCount);
+        Log.print(", rejected: ");
+        Log.println(rejectedCount);
+        Log.print("  max queue depth: ");
+        Log.print(maxQueueDepth);
+        Log.print(", average wait: ");
+        Log.print(dequeuedCount == 0 ? 0 : totalWaitTime / dequeuedCount / 1000L);
+        Log.print("us, max wait: ");
+        Log.print(maxWaitTime / 1000L);
+        Log.println("us");
+    }
+
     /**
      * This class implements a daemon thread that performs compilations in the background. Depending on the compiler
      * configuration, multiple compilation threads may be working in parallel.
@@ -119,14 +384,7 @@ public class CompilationThreadPool {
          */
         void compileOne() throws InterruptedException {
             compilation = null;
-            synchronized (pending) {
-                while (compilation == null) {
-                    compilation = pending.poll();
-                    if (compilation == null) {
-                        pending.wait();
-                    }
-                }
-            }
+            compilation = take();
             compilation.compilingThread = Thread.currentThread();
             if (GCOnRecompilation) {
                 System.gc();
@@ -146,4 +404,3 @@ public class CompilationThreadPool {
         }
     }
 }
-
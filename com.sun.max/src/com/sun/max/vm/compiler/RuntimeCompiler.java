@@ -128,6 +128,23 @@ public interface RuntimeCompiler {
      */
     String name(ClassMethodActor classMethodActor);
 
+    /**
+     * Implemented by an optimizing compiler that can produce code for
+     * {@linkplain com.sun.max.vm.compiler.deopt.OnStackReplacement on-stack replacement}.
+     */
+    interface OnStackReplacementSupport {
+        /**
+         * Compiles a method for on-stack replacement of a baseline frame at a given loop header. The code
+         * is installed in the code cache but not made the default implementation of the method.
+         *
+         * @param classMethodActor the method to compile
+         * @param osrBCI the bytecode index of the loop header at which execution is transferred to the compiled code
+         * @return the compiled code, entered at its {@linkplain CallEntryPoint#OPTIMIZED_ENTRY_POINT optimized entry
+         *         point} with a pointer to the OSR buffer in the integer return register
+         */
+        TargetMethod compileOSR(ClassMethodActor classMethodActor, int osrBCI);
+    }
+
     abstract class DefaultNameAdapter implements RuntimeCompiler {
         public String name(ClassMethodActor classMethodActor) {
             return getClass().getSimpleName();
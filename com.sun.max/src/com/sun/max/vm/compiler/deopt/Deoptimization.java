@@ -30,12 +30,14 @@ import com.sun.max.vm.*;
 import com.sun.max.vm.actor.holder.*;
 import com.sun.max.vm.actor.member.*;
 import com.sun.max.vm.code.*;
+import com.sun.max.vm.compiler.RuntimeCompiler;
 import com.sun.max.vm.compiler.WordUtil;
 import com.sun.max.vm.compiler.target.*;
 import com.sun.max.vm.compiler.target.TargetMethod.FrameAccess;
 import com.sun.max.vm.compiler.target.amd64.AMD64TargetMethodUtil;
 import com.sun.max.vm.log.VMLog.Record;
 import com.sun.max.vm.log.hosted.*;
+import com.sun.max.vm.monitor.*;
 import com.sun.max.vm.profile.MethodProfile;
 import com.sun.max.vm.reference.*;
 import com.sun.max.vm.runtime.*;
@@ -105,11 +107,19 @@ public class Deoptimization extends VmOperation {
      */
     public static int DeoptimizeALot;
 
+    /**
+     * The number of uncommon traps at positions in a method after which optimized code no longer speculates on the
+     * receiver types profiled for the method.
+     */
+    public static int PerMethodTrapLimit = 2;
+
     static {
         VMOptions.addFieldOption("-XX:", "UseDeopt", Deoptimization.class, "Enable deoptimization.");
         VMOptions.addFieldOption("-XX:", "DeoptimizeALot", Deoptimization.class,
                                  "Invalidate and deoptimize a selection of executing optimized methods every <n> milliseconds. " +
                                  "A value of 0 disables this mechanism.");
+        VMOptions.addFieldOption("-XX:", "PerMethodTrapLimit", Deoptimization.class,
+                                 "Number of uncommon traps in a method after which optimized code no longer speculates on its profiled receiver types.");
     }
 
     /**
@@ -794,6 +804,7 @@ public class Deoptimization extends VmOperation {
             topFrame = handleFrame;
         }
 
+        relockElidedMonitors(topFrame);
 
         if (deoptLogger.enabled()) {
             CiFrame locationsFrame = (pendingException == null) ?
@@ -881,6 +892,31 @@ public class Deoptimization extends VmOperation {
         FatalError.unexpected("should not reach here: unrolled deopt error");
     }
 
+    /**
+     * Acquires the locks that were elided by the optimizing compiler on objects that did not escape it.
+     * The objects have already been materialized by {@link TargetMethod#debugInfoAt} and each elided
+     * lock is replaced by its owner, as expected by the deoptimized frames. The locks in caller frames are
+     * acquired first so that they are entered in the order in which the interpreter would have entered them.
+     *
+     * @param frame the frame whose locks (and those of its callers) are to be acquired
+     */
+    private static void relockElidedMonitors(CiFrame frame) {
+        if (frame == null) {
+            return;
+        }
+        relockElidedMonitors(frame.caller());
+        for (int i = 0; i < frame.numLocks; i++) {
+            CiValue lock = frame.getLockValue(i);
+            if (lock.isMonitor()) {
+                CiMonitorValue monitor = (CiMonitorValue) lock;
+                if (monitor.eliminated) {
+                    Monitor.enter(((CiConstant) monitor.owner).asObject());
+                }
+                frame.values[frame.numLocals + frame.numStack + i] = monitor.owner;
+            }
+        }
+    }
+
     /**
      * Finds the frame containing a handler for an exception thrown at the current BCI or
      * of a synchronized method (so that an extra exception handler exists in order to exit a monitor).
@@ -946,9 +982,37 @@ public class Deoptimization extends VmOperation {
      */
     public static void uncommonTrap(Pointer csa, Pointer ip, Pointer sp, Pointer fp) {
         FatalError.check(!csa.isZero(), "callee save area expected for uncommon trap");
+        invalidateAfterUncommonTrap(CodePointer.from(ip));
         deoptimize(CodePointer.from(ip), sp, fp, csa, vm().registerConfigs.uncommonTrapStub.getCalleeSaveLayout(), null);
     }
 
+    /**
+     * Invalidates an optimized method that hit an uncommon trap. The speculation guarded by the trap failed, so the
+     * method is recompiled instead of trapping every time execution reaches the trap again. The trap is counted in the
+     * profile of the method containing its position, which may have been inlined into the trapping method.
+     *
+     * @param ip the address of the uncommon trap
+     */
+    private static void invalidateAfterUncommonTrap(CodePointer ip) {
+        TargetMethod tm = Code.codePointerToTargetMethod(ip.toPointer());
+        if (tm == null || tm.invalidated() != null || tm.isInBootCodeRegion()) {
+            return;
+        }
+        tm.forEachCodePos(new TargetMethod.CodePosClosure() {
+            public boolean doCodePos(ClassMethodActor method, int bci) {
+                TargetMethod baseline = Compilations.currentTargetMethod(method.compiledState, RuntimeCompiler.Nature.BASELINE);
+                if (baseline != null && baseline.profile() != null) {
+                    baseline.profile().incrementUncommonTrapCount();
+                }
+                // only the innermost position holds the failed speculation
+                return false;
+            }
+        }, ip);
+        ArrayList<TargetMethod> methods = new ArrayList<TargetMethod>(1);
+        methods.add(tm);
+        new Deoptimization(methods).go();
+    }
+
     @NEVER_INLINE // makes inspecting easier
     static void logPatchITable(ClassActor classActor, int iIndex) {
         if (deoptLogger.enabled()) {
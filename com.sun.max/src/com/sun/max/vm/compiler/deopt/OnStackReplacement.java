@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.compiler.deopt;
+
+import static com.sun.max.platform.Platform.*;
+import static com.sun.max.vm.MaxineVM.*;
+import static com.sun.max.vm.VMOptions.*;
+import static com.sun.max.vm.compiler.CallEntryPoint.*;
+import static com.sun.max.vm.intrinsics.Infopoints.*;
+
+import com.sun.cri.ci.*;
+import com.sun.max.annotate.*;
+import com.sun.max.lang.*;
+import com.sun.max.memory.*;
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.compiler.*;
+import com.sun.max.vm.compiler.RuntimeCompiler.*;
+import com.sun.max.vm.compiler.target.*;
+import com.sun.max.vm.compiler.target.TargetMethod.*;
+import com.sun.max.vm.heap.*;
+import com.sun.max.vm.profile.*;
+import com.sun.max.vm.reference.*;
+import com.sun.max.vm.runtime.*;
+import com.sun.max.vm.stack.*;
+import com.sun.max.vm.thread.*;
+
+/**
+ * On-stack replacement (OSR) of a baseline frame executing a long running loop with optimized code.
+ * <p>
+ * The baseline compiler decrements the {@linkplain MethodProfile#entryBackedgeCount entry/backedge counter} of a method
+ * on every backward branch. When the counter overflows, {@link #backwardBranchCounterOverflow} is called with the
+ * bytecode index of the loop header that is the branch target. Apart from triggering the usual recompilation of the
+ * method for subsequent invocations, the optimizing compiler is asked to produce code that is entered at the loop header.
+ * This code is cached in the method's {@link MethodProfile} per loop header.
+ * <p>
+ * The migration to OSR code proceeds as follows:
+ * <ol>
+ * <li>The baseline frame is decoded and an OSR buffer holding one word per local variable slot is allocated outside
+ * the heap. Both are done while safepoints are still enabled as decoding allocates.</li>
+ * <li>Safepoints are disabled so that no GC can move the objects referenced from the baseline frame, and the values of
+ * its local variables are copied into the OSR buffer.</li>
+ * <li>The stack is unwound to the return address of the baseline frame and the OSR code is entered at its
+ * {@linkplain CallEntryPoint#OPTIMIZED_ENTRY_POINT optimized entry point} with the address of the OSR buffer in the
+ * integer return register. To the caller of the baseline frame, it looks as if the OSR code had been called in place
+ * of the baseline code. As baseline code pops its stack parameters on return, so does the OSR code.</li>
+ * <li>The OSR code builds its frame, loads the local variables from the buffer and then calls {@link #migrationEnd}
+ * which releases the buffer and re-enables safepoints.</li>
+ * </ol>
+ * Migration is only supported on AMD64. It is never performed at a loop header with a non-empty operand stack or
+ * while holding locks; the optimizing compiler bails out in these cases which is recorded so that it is not retried.
+ */
+public final class OnStackReplacement {
+
+    private OnStackReplacement() {
+    }
+
+    /**
+     * Option for enabling on-stack replacement of baseline frames at loop headers. Disabled by default; the
+     * {@code jtt-osr} tester configuration runs the jtt tests with it enabled.
+     */
+    public static boolean UseOnStackReplacement;
+
+    static {
+        VMOptions.addFieldOption("-XX:", "UseOnStackReplacement", OnStackReplacement.class,
+                                 "Replace baseline frames executing hot loops with optimized code (AMD64 only).");
+    }
+
+    /**
+     * Determines if on-stack replacement is enabled and supported on this platform.
+     */
+    @INLINE
+    public static boolean isEnabled() {
+        return UseOnStackReplacement && platform().isa == ISA.AMD64;
+    }
+
+    /**
+     * Handles an overflow of the entry/backedge counter upon a backward branch in baseline code. This method
+     * must be called on the thread that overflowed the counter, directly from the baseline code of the method.
+     * If this method returns, execution simply continues in the baseline frame.
+     *
+     * @param mpo the profile of the method containing the backward branch
+     * @param osrBCI the bytecode index of the loop header targeted by the backward branch
+     */
+    @NEVER_INLINE
+    public static void backwardBranchCounterOverflow(MethodProfile mpo, int osrBCI) {
+        CompilationBroker.instrumentationCounterOverflow(mpo, null);
+        if (!isEnabled() || mpo.compilationDisabled || Heap.isAllocationDisabledForCurrentThread() ||
+                        Compilation.isCompilationRunningInCurrentThread()) {
+            return;
+        }
+
+        TargetMethod osrMethod = getOSRMethod(mpo, osrBCI);
+        if (osrMethod != null) {
+            migrate(mpo, osrMethod, osrBCI);
+        }
+        // Migration was not possible. We don't want to see another counter overflow in the near future.
+        if (mpo.entryBackedgeCount <= 0) {
+            mpo.entryBackedgeCount = MethodInstrumentation.initialEntryBackedgeCount;
+        }
+    }
+
+    /**
+     * Gets the OSR code for a given loop header of a method, compiling it if it has not yet been requested.
+     *
+     * @return {@code null} if there is no OSR code available for {@code osrBCI}
+     */
+    private static TargetMethod getOSRMethod(MethodProfile mpo, int osrBCI) {
+        if (mpo.osrRequested(osrBCI)) {
+            return mpo.osrMethod(osrBCI);
+        }
+        RuntimeCompiler compiler = vm().compilationBroker.optimizingCompiler;
+        if (!(compiler instanceof OnStackReplacementSupport)) {
+            mpo.setOSRMethod(osrBCI, null);
+            return null;
+        }
+        ClassMethodActor cma = mpo.method.classMethodActor;
+        TargetMethod osrMethod = null;
+        try {
+            osrMethod = ((OnStackReplacementSupport) compiler).compileOSR(cma, osrBCI);
+        } catch (CiBailout e) {
+            logOSR(mpo, osrBCI, "compilation bailed out: ", e.getMessage());
+        } catch (RuntimeException e) {
+            logOSRFailure(mpo, osrBCI, e);
+        } catch (InternalError e) {
+            logOSRFailure(mpo, osrBCI, e);
+        }
+        mpo.setOSRMethod(osrBCI, osrMethod);
+        if (osrMethod != null) {
+            logOSR(mpo, osrBCI, "compiled ", null);
+        }
+        return osrMethod;
+    }
+
+    /**
+     * Locates the baseline frame of the method whose profile overflowed and its caller.
+     */
+    static final class FrameFinder extends RawStackFrameVisitor {
+        final TargetMethod tm;
+        Pointer ip;
+        Pointer sp;
+        Pointer fp;
+        Pointer returnAddressPointer;
+        Pointer callerIP;
+        Pointer callerSP;
+        Pointer callerFP;
+
+        FrameFinder(TargetMethod tm) {
+            this.tm = tm;
+        }
+
+        @Override
+        public boolean visitFrame(StackFrameCursor current, StackFrameCursor callee) {
+            if (ip == null) {
+                if (current.targetMethod() == tm) {
+                    ip = current.ipAsPointer();
+                    sp = current.sp();
+                    fp = current.fp();
+                    returnAddressPointer = tm.returnAddressPointer(current);
+                }
+                return true;
+            }
+            callerIP = current.ipAsPointer();
+            callerSP = current.sp();
+            callerFP = current.fp();
+            return false;
+        }
+    }
+
+    /**
+     * Replaces the baseline frame of the method whose profile overflowed with a frame of the given OSR code.
+     * This method only returns if migration is not possible.
+     */
+    private static void migrate(MethodProfile mpo, TargetMethod osrMethod, int osrBCI) {
+        FrameFinder finder = new FrameFinder(mpo.method);
+        new VmStackFrameWalker(VmThread.current().tla()).inspect(Pointer.fromLong(here()),
+                                                                 VMRegister.getCpuStackPointer(),
+                                                                 VMRegister.getCpuFramePointer(),
+                                                                 finder);
+        if (finder.callerIP == null) {
+            logOSR(mpo, osrBCI, "migration not possible", null);
+            return;
+        }
+
+        // Decode the frame and allocate the buffer while safepoints are still enabled: decoding allocates
+        // the CiFrame and its values, which a GC keeps up to date with the objects referenced from the frame.
+        TargetMethod tm = mpo.method;
+        int safepointIndex = tm.findSafepointIndex(CodePointer.from(finder.ip));
+        FatalError.check(safepointIndex >= 0, "no safepoint at backward branch counter overflow call");
+        FrameAccess fa = new FrameAccess(null, Pointer.zero(), finder.sp, finder.fp, finder.callerSP, finder.callerFP);
+        CiFrame frame = tm.debugInfoAt(safepointIndex, fa).frame();
+
+        int numLocals = frame.numLocals;
+        Pointer buffer = Memory.allocate(Size.fromInt(Math.max(1, numLocals) * Word.size()));
+        if (buffer.isZero()) {
+            return;
+        }
+
+        boolean wasDisabled = SafepointPoll.disable();
+        FatalError.check(!wasDisabled, "safepoints must be enabled for on-stack replacement");
+        if (!finder.returnAddressPointer.readWord(0).equals(finder.callerIP)) {
+            // the return address has been patched (e.g. for deoptimization of the caller)
+            SafepointPoll.enable();
+            Memory.deallocate(buffer);
+            logOSR(mpo, osrBCI, "migration not possible", null);
+            return;
+        }
+        for (int i = 0; i < numLocals; i++) {
+            CiConstant value = (CiConstant) frame.getLocalValue(i);
+            if (value.kind.isObject()) {
+                buffer.setWord(i, Reference.fromJava(value.asObject()).toOrigin());
+            } else {
+                buffer.setWord(i, Address.fromLong(value.asLong()));
+            }
+        }
+
+        logOSR(mpo, osrBCI, "migrating", null);
+        Stubs.unwindLong(osrMethod.getEntryPoint(OPTIMIZED_ENTRY_POINT).toAddress(), finder.returnAddressPointer, finder.callerFP, buffer.toLong());
+        FatalError.unexpected("should not reach here");
+    }
+
+    /**
+     * Called by OSR code once it has loaded the local variables from the OSR buffer.
+     *
+     * @param buffer the OSR buffer allocated by {@link #migrate}
+     */
+    public static void migrationEnd(Pointer buffer) {
+        Memory.deallocate(buffer);
+        SafepointPoll.enable();
+    }
+
+    /**
+     * Logs a failure of the optimizing compiler while compiling OSR code. The failure is recorded like a bailout, so the
+     * loop header simply continues to run baseline code.
+     */
+    private static void logOSRFailure(MethodProfile mpo, int osrBCI, Throwable error) {
+        logOSR(mpo, osrBCI, "compilation failed: ", error.toString());
+        if (verboseOption.verboseCompilation) {
+            error.printStackTrace(Log.out);
+        }
+    }
+
+    private static void logOSR(MethodProfile mpo, int osrBCI, String msg, String detail) {
+        if (verboseOption.verboseCompilation) {
+            boolean lockDisabledSafepoints = Log.lock();
+            Log.printCurrentThread(false);
+            Log.print(": OSR of ");
+            Log.printMethod(mpo.method, false);
+            Log.print(" @ ");
+            Log.print(osrBCI);
+            Log.print(": ");
+            Log.print(msg);
+            if (detail != null) {
+                Log.print(detail);
+            }
+            Log.println();
+            Log.unlock(lockDisabledSafepoints);
+        }
+    }
+}
@@ -344,6 +344,24 @@ public class Compilation {
         return result;
     }
 
+    /**
+     * Abandons this compilation before it has been started, e.g. because it was dropped from the
+     * {@linkplain CompilationThreadPool compilation queue}. The compilation state of the method is reverted
+     * to the state before this compilation and any threads waiting for the result of this compilation
+     * get the previously available target method.
+     */
+    public void abandon() {
+        synchronized (classMethodActor) {
+            assert !done && result == null;
+            if (classMethodActor.compiledState == this) {
+                classMethodActor.compiledState = prevCompilations;
+            }
+            result = prevCompilations.currentTargetMethod(null);
+            done = true;
+            classMethodActor.notifyAll();
+        }
+    }
+
     /**
      * Allows a thread to relinquish ownership of a compilation
      * if another thread is to compile it.
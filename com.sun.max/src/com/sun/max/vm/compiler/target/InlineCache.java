@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.compiler.target;
+
+import com.oracle.max.cri.intrinsics.*;
+import com.sun.max.annotate.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.holder.*;
+import com.sun.max.vm.actor.member.*;
+import com.sun.max.vm.object.*;
+
+/**
+ * A polymorphic inline cache for a single interface call site in optimized code.
+ * <p>
+ * The cache maps receiver {@linkplain Hub hubs} to the index of the hub word holding the itable entry
+ * for the call, so that a hit avoids the mtable lookup (and its division) normally needed to dispatch
+ * an interface call. The compiled call site compares the receiver's hub against the {@link #hubs} of the
+ * cache and, on a hit, dispatches through the hub word at the corresponding entry of {@link #indices}.
+ * A miss calls {@link #miss(InlineCache, Object)}, which links the receiver's hub into the cache.
+ * <p>
+ * A cache moves through the states {@link #UNLINKED}, {@link #MONOMORPHIC}, {@link #POLYMORPHIC} and
+ * finally {@link #MEGAMORPHIC} once more than {@link #PolymorphicInlineCacheSize} receiver types have been
+ * seen. The call site reads the state before probing any entry, so megamorphic sites skip the probes and
+ * go straight to the regular itable dispatch without calling the miss handler.
+ * <p>
+ * Linking a hub only ever fills an empty entry and never changes the code of the call site. The index is
+ * published before the hub so a concurrent reader that matches a hub always sees its index. Since the
+ * cached value is a hub slot rather than a code address, entries remain valid when the target code is
+ * recompiled, relocated or evicted: those operations patch the hub slot itself.
+ */
+public final class InlineCache {
+
+    /**
+     * The number of entries of every cache, which bounds {@link #PolymorphicInlineCacheSize}.
+     * The inline cache check emitted at a call site is unrolled over this many entries.
+     */
+    public static final int MAX_ENTRIES = 4;
+
+    public static final int UNLINKED = 0;
+    public static final int MONOMORPHIC = 1;
+    public static final int POLYMORPHIC = 2;
+    public static final int MEGAMORPHIC = 3;
+
+    private static final String[] STATE_NAMES = {"unlinked", "monomorphic", "polymorphic", "megamorphic"};
+
+    static boolean UseInlineCaches = true;
+    static int PolymorphicInlineCacheSize = MAX_ENTRIES;
+    static boolean TraceInlineCaches;
+    static {
+        VMOptions.addFieldOption("-XX:", "UseInlineCaches", InlineCache.class, "Use polymorphic inline caches for interface calls in optimized code.");
+        VMOptions.addFieldOption("-XX:", "PolymorphicInlineCacheSize", InlineCache.class, "Number of receiver types an inline cache records before it becomes megamorphic (at most " + MAX_ENTRIES + ").");
+        VMOptions.addFieldOption("-XX:", "TraceInlineCaches", InlineCache.class, "Trace inline cache state transitions.");
+    }
+
+    /**
+     * Determines if interface call sites in code being compiled now should use inline caches.
+     */
+    public static boolean enabled() {
+        return UseInlineCaches && !MaxineVM.isHosted();
+    }
+
+    /**
+     * The interface method called at the site.
+     */
+    @INSPECTED
+    public final InterfaceMethodActor method;
+
+    /**
+     * The receiver hubs linked into this cache. Only the first {@link #size} entries are non-null.
+     */
+    @INSPECTED
+    final Hub[] hubs = new Hub[MAX_ENTRIES];
+
+    /**
+     * The index of the hub word holding the itable entry for {@link #method} in the corresponding element of {@link #hubs}.
+     */
+    @INSPECTED
+    final int[] indices = new int[MAX_ENTRIES];
+
+    @INSPECTED
+    volatile int state;
+
+    @INSPECTED
+    int size;
+
+    /**
+     * The number of calls that missed in this cache.
+     */
+    @INSPECTED
+    int misses;
+
+    public InlineCache(InterfaceMethodActor method) {
+        this.method = method;
+    }
+
+    public int state() {
+        return state;
+    }
+
+    public static String stateName(int state) {
+        return STATE_NAMES[state];
+    }
+
+    /**
+     * Handles a miss in an inline cache, linking the receiver's hub into the cache unless it is megamorphic.
+     *
+     * @param cache the inline cache of the call site
+     * @param receiver the non-null receiver of the call
+     * @return the index of the hub word holding the entry point to call
+     */
+    public static int miss(InlineCache cache, Object receiver) {
+        final Hub hub = ObjectAccess.readHub(receiver);
+        final int index = hub.getITableIndex(cache.method.holder().id) + cache.method.iIndexInInterface();
+        cache.link(hub, index);
+        return index;
+    }
+
+    private synchronized void link(Hub hub, int index) {
+        misses++;
+        if (state == MEGAMORPHIC) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            if (hubs[i] == hub) {
+                // linked by a racing thread
+                return;
+            }
+        }
+        int newState;
+        if (size >= Math.min(PolymorphicInlineCacheSize, MAX_ENTRIES)) {
+            newState = MEGAMORPHIC;
+        } else {
+            indices[size] = index;
+            MemoryBarriers.barrier(MemoryBarriers.STORE_STORE);
+            hubs[size] = hub;
+            size++;
+            newState = size == 1 ? MONOMORPHIC : POLYMORPHIC;
+        }
+        if (TraceInlineCaches && newState != state) {
+            final boolean lockDisabledSafepoints = Log.lock();
+            Log.print("InlineCache: ");
+            Log.print(method.format("%H.%n(%p)"));
+            Log.print(" ");
+            Log.print(stateName(state));
+            Log.print(" -> ");
+            Log.println(stateName(newState));
+            Log.unlock(lockDisabledSafepoints);
+        }
+        state = newState;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("InlineCache[").append(method).append(", ").append(stateName(state));
+        for (int i = 0; i < size; i++) {
+            sb.append(i == 0 ? ": " : ", ").append(hubs[i].classActor.name);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -152,6 +152,12 @@ public abstract class TargetMethod extends MemoryRegion {
     @INSPECTED
     protected Address oldStart = Address.zero();
 
+    /**
+     * Set when this method has been unlinked by {@linkplain ConcurrentCodeEviction concurrent code eviction} and
+     * its code is only waiting for its last activations to complete before being reclaimed.
+     */
+    private boolean retired;
+
     /**
      * Array of call trampolines for architectures that require them.
      */
@@ -500,6 +506,15 @@ public abstract class TargetMethod extends MemoryRegion {
         return frameSize;
     }
 
+    /**
+     * Gets the number of bytes popped off the stack by the return instruction(s) of this method in addition to the
+     * return address. This is used by the generic frame walking code and is non-zero for optimized code that
+     * replaced a baseline frame (whose callee pops its parameters) by on-stack replacement.
+     */
+    public int returnStackAdjustment() {
+        return 0;
+    }
+
     /**
      * The entry point used for <i>standard</i> calls in this target method to JVM compiled/interpreted code.
      * Non-standard calls are those to external native code and calls to the runtime inserted by the compiler. The
@@ -1441,6 +1456,31 @@ public abstract class TargetMethod extends MemoryRegion {
         return oldStart.equals(Address.allOnes().asAddress());
     }
 
+    /**
+     * Determines if this method has been {@linkplain ConcurrentCodeEviction retired}.
+     */
+    public final boolean isRetired() {
+        return retired;
+    }
+
+    public final void retire() {
+        retired = true;
+    }
+
+    public final void unretire() {
+        retired = false;
+    }
+
+    /**
+     * Samples the invocation counters of this method for {@linkplain ConcurrentCodeEviction concurrent code eviction}.
+     * Methods without invocation counters are always considered cold.
+     *
+     * @return {@code true} if this method was not invoked since the previous sample
+     */
+    public boolean sampleCold() {
+        return true;
+    }
+
     /**
      * Determines if this method is protected from eviction.
      */
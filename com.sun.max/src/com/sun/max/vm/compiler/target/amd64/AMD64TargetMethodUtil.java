@@ -287,7 +287,8 @@ public final class AMD64TargetMethodUtil {
 
         StackFrameWalker sfw = current.stackFrameWalker();
         Pointer callerIP = sfw.readWord(ripPointer, 0).asPointer();
-        Pointer callerSP = ripPointer.plus(Word.size()); // Skip return instruction pointer on stack
+        // Skip return instruction pointer on stack and any parameters popped by the return instruction
+        Pointer callerSP = ripPointer.plus(Word.size() + tm.returnStackAdjustment());
         Pointer callerFP;
         if (!csa.isZero() && csl.contains(AMD64.rbp.number)) {
             // Read RBP from the callee save area
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.heap;
+
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.heap.HeapSchemeWithTLAB.TLABStats;
+
+/**
+ * A TLAB refill policy that sizes each thread's TLAB from the amount of memory the thread allocated between GCs.
+ * Threads that allocate a lot get larger TLABs and refill less often, whereas idle threads end up with small TLABs
+ * that waste little space.
+ *
+ * The TLAB size is the exponentially weighted average of the thread's allocations between GCs divided by a target
+ * number of refills, itself derived from the acceptable waste: each refill leaves on average half of the
+ * refill waste limit unused, so a waste target of {@code P} percent gives {@code 100 / (2 * P)} refills per GC.
+ * The size is bounded by a minimum and a maximum TLAB size.
+ *
+ * On allocation failure, the TLAB is refilled only if the request is smaller than the refill waste limit, that is,
+ * if the space left in the TLAB is too small to be worth keeping. Otherwise the object is allocated directly in the
+ * heap and the limit is raised, so that a thread repeatedly failing to allocate in its TLAB eventually refills it.
+ */
+public class AdaptiveTLABRefillPolicy extends TLABRefillPolicy {
+    /**
+     * Weight, in percent, of the last GC interval in the average allocation of the thread.
+     */
+    static final int ALLOCATION_WEIGHT = 35;
+
+    /**
+     * Number of words the refill waste limit is raised by on each allocation outside the TLAB.
+     */
+    static final int REFILL_WASTE_INCREMENT_WORDS = 4;
+
+    private final Size minSize;
+    private final Size maxSize;
+    private final int targetRefills;
+    private final int refillWasteFraction;
+    private final TLABStats stats;
+
+    /**
+     * Size the TLAB should have on next refill.
+     */
+    private Size nextSize;
+
+    /**
+     * Allocation requests smaller than this limit that fail in the TLAB cause a refill.
+     */
+    private Size refillWasteLimit;
+
+    /**
+     * Bytes allocated by the thread since the last GC, in TLABs or directly in the heap.
+     */
+    private long allocated;
+
+    /**
+     * Number of TLAB refills since the last GC.
+     */
+    private int refills;
+
+    /**
+     * Weighted average of the bytes allocated by the thread between GCs, or -1 before the first GC.
+     */
+    private long averageAllocated = -1L;
+
+    /**
+     * Creates a policy for a thread that was just given its first TLAB.
+     *
+     * @param initialTLABSize size of the thread's first TLAB
+     * @param wasteTargetPercent the percentage of the space handed out in TLABs that may be left unused at refill
+     * @param refillWasteFraction the fraction of the TLAB size that may be left unused when refilling
+     */
+    AdaptiveTLABRefillPolicy(Size initialTLABSize, Size minSize, Size maxSize, int wasteTargetPercent, int refillWasteFraction, TLABStats stats) {
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetRefills = Math.max(1, 100 / (2 * Math.max(1, wasteTargetPercent)));
+        this.refillWasteFraction = Math.max(1, refillWasteFraction);
+        this.stats = stats;
+        nextSize = initialTLABSize;
+        refillWasteLimit = initialTLABSize.dividedBy(this.refillWasteFraction);
+        allocated = initialTLABSize.toLong();
+        refills = 1;
+    }
+
+    @Override
+    public boolean shouldRefill(Size size, Pointer allocationMark) {
+        if (allocationMark.isZero()) {
+            // No TLAB. Refill whatsoever
+            return true;
+        }
+        if (size.lessThan(refillWasteLimit)) {
+            // The space left in the TLAB is smaller than the request, and therefore below the acceptable waste.
+            return true;
+        }
+        // The space left may be worth keeping. Allocate outside the TLAB, but become more tolerant of waste
+        // so that repeated failures end up refilling the TLAB.
+        allocated += size.toLong();
+        refillWasteLimit = refillWasteLimit.plus(Word.size() * REFILL_WASTE_INCREMENT_WORDS);
+        stats.directAllocationCount++;
+        return false;
+    }
+
+    @Override
+    public Size nextTlabSize() {
+        return nextSize;
+    }
+
+    @Override
+    public void notifyRefill(Size tlabSize, Size leftover) {
+        allocated += tlabSize.toLong() - leftover.toLong();
+        refills++;
+    }
+
+    /**
+     * Computes the size of the thread's TLABs until the next GC from the thread's allocations since the last GC.
+     */
+    @Override
+    public void notifyReset(Size leftover) {
+        allocated = Math.max(0L, allocated - leftover.toLong());
+        stats.resetLeftover += leftover.toLong();
+        stats.resetCount++;
+        if (averageAllocated < 0L) {
+            averageAllocated = allocated;
+        } else {
+            averageAllocated = (averageAllocated * (100 - ALLOCATION_WEIGHT) + allocated * ALLOCATION_WEIGHT) / 100;
+        }
+        Size size = Size.fromLong(averageAllocated / targetRefills).alignUp(Word.size());
+        if (size.lessThan(minSize)) {
+            size = minSize;
+        } else if (size.greaterThan(maxSize)) {
+            size = maxSize;
+        }
+        if (!size.equals(nextSize)) {
+            stats.resizeCount++;
+            nextSize = size;
+        }
+        stats.recordTLABSize(size, refills);
+        refillWasteLimit = nextSize.dividedBy(refillWasteFraction);
+        allocated = 0L;
+        refills = 0;
+    }
+}
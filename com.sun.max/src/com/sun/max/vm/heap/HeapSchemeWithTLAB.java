@@ -107,6 +107,36 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
     private static final VMSizeOption tlabSizeOption = register(new VMSizeOption("-XX:TLABSize=", Size.K.times(64),
         "The size of thread-local allocation buffers."), MaxineVM.Phase.PRISTINE);
 
+    /**
+     * A VM option for sizing each thread's TLAB from its allocation rate. See {@link AdaptiveTLABRefillPolicy}.
+     */
+    public static boolean ResizeTLAB = false;
+
+    /**
+     * The percentage of the space handed out in TLABs that the adaptive policy may leave unused.
+     */
+    public static int TLABWasteTargetPercent = 1;
+
+    /**
+     * The fraction of the TLAB size that the adaptive policy may leave unused when refilling a TLAB.
+     */
+    public static int TLABRefillWasteFraction = 64;
+
+    static {
+        VMOptions.addFieldOption("-XX:", "ResizeTLAB", HeapSchemeWithTLAB.class,
+                        "Dynamically resize each thread's TLAB according to its allocation rate between GCs.", MaxineVM.Phase.PRISTINE);
+        VMOptions.addFieldOption("-XX:", "TLABWasteTargetPercent", HeapSchemeWithTLAB.class,
+                        "Percentage of the space handed out in TLABs allowed to be wasted when TLABs are resized.", MaxineVM.Phase.PRISTINE);
+        VMOptions.addFieldOption("-XX:", "TLABRefillWasteFraction", HeapSchemeWithTLAB.class,
+                        "Maximum fraction of a resized TLAB that may be wasted when refilling it.", MaxineVM.Phase.PRISTINE);
+    }
+
+    private static final VMSizeOption minTlabSizeOption = register(new VMSizeOption("-XX:MinTLABSize=", Size.K.times(2),
+        "The minimum size of thread-local allocation buffers when they are resized."), MaxineVM.Phase.PRISTINE);
+
+    private static final VMSizeOption maxTlabSizeOption = register(new VMSizeOption("-XX:MaxTLABSize=", Size.M,
+        "The maximum size of thread-local allocation buffers when they are resized."), MaxineVM.Phase.PRISTINE);
+
     /**
      * The top of the current thread-local allocation buffer. This will remain zero if TLABs are not
      * {@linkplain #useTLAB enabled}.
@@ -160,6 +190,7 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
             final Pointer etla = VmThreadLocal.ETLA.load(tla);
             final Pointer tlabMark = TLAB_MARK.load(etla);
             Pointer tlabTop = TLAB_TOP.load(etla);
+            final TLABRefillPolicy refillPolicy = TLABRefillPolicy.getForCurrentThread(etla);
             if (logTLAB()) {
                 logger.logReset(UnsafeCast.asVmThread(VM_THREAD.loadRef(etla).toJava()), tlabTop, tlabMark);
             }
@@ -168,11 +199,13 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
                 // (1) it has never been filled, in which case it's allocation mark is null too
                 if (tlabMark.equals(Address.zero()))  {
                     // No TLABs, so nothing to reset.
+                    if (refillPolicy != null) {
+                        refillPolicy.notifyReset(Size.zero());
+                    }
                     return;
                 }
                 // (2) allocation has been disabled for the thread.
                 FatalError.check(!ALLOCATION_DISABLED.load(currentTLA()).isZero(), "inconsistent TLAB state");
-                TLABRefillPolicy refillPolicy = TLABRefillPolicy.getForCurrentThread(etla);
                 if (refillPolicy != null) {
                     // Go fetch the actual TLAB top in case the heap scheme needs it for its doBeforeReset handler.
                     tlabTop = refillPolicy.getSavedTlabTop().asPointer();
@@ -180,6 +213,9 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
                     refillPolicy.saveTlabTop(Address.zero());
                 }
             }
+            if (refillPolicy != null) {
+                refillPolicy.notifyReset(tlabTop.minus(tlabMark).asSize());
+            }
             doBeforeReset(etla, tlabMark, tlabTop);
             TLAB_TOP.store(etla, Address.zero());
             TLAB_MARK.store(etla, Address.zero());
@@ -243,6 +279,58 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
          */
         volatile long leftover = 0L;
 
+        /**
+         * Count of TLAB refills.
+         */
+        volatile long refillCount = 0L;
+
+        /**
+         * Total size of the TLABs handed out at refill.
+         */
+        volatile long refilledBytes = 0L;
+
+        /**
+         * Count of allocations done outside of a TLAB because the {@link AdaptiveTLABRefillPolicy} decided not to refill it.
+         */
+        volatile long directAllocationCount = 0L;
+
+        /**
+         * Count of TLAB resets (typically, one per thread and per GC) and leftover at reset.
+         */
+        volatile long resetCount = 0L;
+        volatile long resetLeftover = 0L;
+
+        /**
+         * Count of TLAB size changes decided by the {@link AdaptiveTLABRefillPolicy}, smallest and largest size decided,
+         * and largest number of refills of a thread between two GCs.
+         */
+        volatile long resizeCount = 0L;
+        volatile long minResizedTlabSize = Long.MAX_VALUE;
+        volatile long maxResizedTlabSize = 0L;
+        volatile int maxRefillsBetweenGCs = 0;
+
+        void recordTLABSize(Size size, int refills) {
+            if (size.toLong() < minResizedTlabSize) {
+                minResizedTlabSize = size.toLong();
+            }
+            if (size.toLong() > maxResizedTlabSize) {
+                maxResizedTlabSize = size.toLong();
+            }
+            if (refills > maxRefillsBetweenGCs) {
+                maxRefillsBetweenGCs = refills;
+            }
+        }
+
+        private static void printSize(long size) {
+            if (size > Size.K.toLong()) {
+                Log.print(Size.K.plus(size).unsignedShiftedRight(10).toLong());
+                Log.println(" K");
+            } else {
+                Log.print(size);
+                Log.println(" bytes");
+            }
+        }
+
         void printTLABStats() {
             Log.println("\n\n Summary TLAB stats");
             Log.print("   inlined allocation slow-path count: ");
@@ -252,12 +340,28 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
             Log.print("   tlab overflow count               :");
             Log.println(tlabOverflowCount);
             Log.print("   leftover at TLAB refill           :");
-            if (leftover > Size.K.toLong()) {
-                Log.print(Size.K.plus(leftover).unsignedShiftedRight(10).toLong());
-                Log.println(" K");
-            } else {
-                Log.print(leftover);
-                Log.println(" bytes");
+            printSize(leftover);
+            Log.print("   tlab refill count                 :");
+            Log.println(refillCount);
+            Log.print("   space handed out at TLAB refill   :");
+            printSize(refilledBytes);
+            Log.print("   tlab reset count                  :");
+            Log.println(resetCount);
+            Log.print("   leftover at TLAB reset            :");
+            printSize(resetLeftover);
+            if (ResizeTLAB) {
+                Log.print("   allocations outside TLAB          :");
+                Log.println(directAllocationCount);
+                Log.print("   tlab resize count                 :");
+                Log.println(resizeCount);
+                if (resizeCount > 0) {
+                    Log.print("   smallest resized TLAB             :");
+                    printSize(minResizedTlabSize);
+                    Log.print("   largest resized TLAB              :");
+                    printSize(maxResizedTlabSize);
+                }
+                Log.print("   max refills of a thread per GC    :");
+                Log.println(maxRefillsBetweenGCs);
             }
         }
     }
@@ -360,6 +464,31 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
         initialTlabSize = size;
     }
 
+    /**
+     * The largest size a TLAB may be given when TLABs are {@linkplain #ResizeTLAB resized}.
+     * Heap schemes that rely on TLABs being no larger than the initial TLAB size must override this.
+     */
+    protected Size maxTlabSize() {
+        final Size maxTlabSize = maxTlabSizeOption.getValue();
+        return maxTlabSize.lessThan(initialTlabSize) ? initialTlabSize : maxTlabSize;
+    }
+
+    /**
+     * Creates the refill policy of a thread that was just given its first TLAB.
+     * @param tlabSize the size of the thread's first TLAB
+     */
+    protected TLABRefillPolicy newTLABRefillPolicy(Size tlabSize) {
+        if (ResizeTLAB) {
+            final Size maxTlabSize = maxTlabSize();
+            Size minTlabSize = minTlabSizeOption.getValue();
+            if (minTlabSize.greaterThan(maxTlabSize)) {
+                minTlabSize = maxTlabSize;
+            }
+            return new AdaptiveTLABRefillPolicy(tlabSize, minTlabSize, maxTlabSize, TLABWasteTargetPercent, TLABRefillWasteFraction, globalTlabStats);
+        }
+        return new SimpleTLABRefillPolicy(tlabSize);
+    }
+
     public void refillTLAB(Pointer tlab, Size size) {
         final Pointer etla = ETLA.load(currentTLA());
         refillTLAB(etla, tlab, size);
@@ -380,7 +509,12 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
         final Pointer allocationMark = TLAB_MARK.load(etla);
         if (!allocationMark.isZero()) {
             final Pointer oldTop = TLAB_TOP.load(etla);
-            globalTlabStats.leftover += oldTop.minus(allocationMark).toLong();
+            final Size leftover = oldTop.greaterThan(allocationMark) ? oldTop.minus(allocationMark).asSize() : Size.zero();
+            globalTlabStats.leftover += leftover.toLong();
+            final TLABRefillPolicy refillPolicy = TLABRefillPolicy.getForCurrentThread(etla);
+            if (refillPolicy != null) {
+                refillPolicy.notifyRefill(size, leftover);
+            }
             // It is a refill, not an initial fill. So invoke handler.
             doBeforeTLABRefill(allocationMark, oldTop);
         } else {
@@ -388,6 +522,8 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
                 "Must not refill TLAB when in custom allocator is set");
         }
 
+        globalTlabStats.refillCount++;
+        globalTlabStats.refilledBytes += size.toLong();
         TLAB_TOP.store(etla, tlabTop);
         TLAB_MARK.store(etla, tlab);
         if (logTLAB()) {
@@ -485,17 +621,15 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
     @NO_SAFEPOINT_POLLS("dynamic profiler call chain must be atomic")
     @NEVER_INLINE
     public final void profile(int size, Hub hub, Pointer cell) {
-        final String objectType = hub.classActor.name();
         final long address = cell.toLong();
-        allocationProfiler.profile(size, objectType, address);
+        allocationProfiler.profile(size, hub, address);
     }
 
     @NO_SAFEPOINT_POLLS("dynamic profiler call chain must be atomic")
     @NEVER_INLINE
     public final void profileArray(int size, Hub hub, Pointer cell) {
-        final String objectType = hub.classActor.name();
         final long address = cell.toLong();
-        allocationProfiler.profile(size, objectType, address);
+        allocationProfiler.profile(size, hub, address);
     }
 
     /**
@@ -547,9 +681,8 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
         final Pointer cell = tlabAllocate(size);
 
         if (MaxineVM.profileThatObject(dynamicHub)) {
-            final String objectType = dynamicHub.classActor.name();
             final long address = cell.toLong();
-            allocationProfiler.profile(size.toInt(), objectType, address);
+            allocationProfiler.profile(size.toInt(), dynamicHub, address);
         }
         return Cell.plantArray(cell, size, dynamicHub, length);
     }
@@ -565,9 +698,8 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
         } else {
 
             if (MaxineVM.profileThatObject(hub)) {
-                final String objectType = hub.classActor.name();
                 final long address = cell.toLong();
-                allocationProfiler.profile(hub.tupleSize.toInt(), objectType, address);
+                allocationProfiler.profile(hub.tupleSize.toInt(), hub, address);
             }
             return Cell.plantTuple(cell, hub);
         }
@@ -579,9 +711,8 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
         final Pointer cell = tlabAllocate(size);
 
         if (MaxineVM.profileThatObject(hub)) {
-            final String objectType = hub.classActor.name();
             final long address = cell.toLong();
-            allocationProfiler.profile(size.toInt(), objectType, address);
+            allocationProfiler.profile(size.toInt(), hub, address);
         }
         return Cell.plantHybrid(cell, size, hub);
     }
@@ -606,9 +737,8 @@ public abstract class HeapSchemeWithTLAB extends HeapSchemeAdaptor {
         final Pointer oldOrigin = Reference.fromJava(object).toOrigin();
         final Hub hub = Layout.getHub(oldOrigin);
         if (MaxineVM.profileThatObject(hub)) {
-            final String objectType = hub.classActor.name();
             final long address = cell.toLong();
-            allocationProfiler.profile(size.toInt(), objectType, address);
+            allocationProfiler.profile(size.toInt(), hub, address);
         }
     }
 
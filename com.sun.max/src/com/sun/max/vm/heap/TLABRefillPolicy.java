@@ -65,6 +65,21 @@ public abstract class TLABRefillPolicy {
      */
     public abstract Size nextTlabSize();
 
+    /**
+     * Notifies the policy that the current thread's TLAB was refilled.
+     * @param tlabSize size of the new TLAB
+     * @param leftover space left unused in the TLAB being replaced
+     */
+    public void notifyRefill(Size tlabSize, Size leftover) {
+    }
+
+    /**
+     * Notifies the policy that the thread's TLAB is being reset, typically before a GC.
+     * @param leftover space left unused in the TLAB being reset
+     */
+    public void notifyReset(Size leftover) {
+    }
+
     @INTRINSIC(UNSAFE_CAST)
     private static native TLABRefillPolicy asTLABRefillPolicy(Object object);
 
@@ -26,6 +26,7 @@ import static com.sun.max.vm.heap.gcx.EvacuationTimers.TIMED_OPERATION.*;
 import static com.sun.max.vm.heap.gcx.HeapFreeChunk.*;
 
 import com.sun.max.annotate.*;
+import com.sun.max.atomic.*;
 import com.sun.max.unsafe.*;
 import com.sun.max.vm.*;
 import com.sun.max.vm.MaxineVM.Phase;
@@ -75,6 +76,17 @@ public abstract class Evacuator extends PointerIndexVisitor implements CellVisit
 
     private boolean refDiscoveryEnabled = true;
 
+    /**
+     * Indicates whether this evacuator currently races with other evacuators for evacuating the cells of the evacuated area.
+     * When set, forwarding references are installed atomically and discovery of special references is serialized.
+     */
+    private boolean parallelEvacuation;
+
+    /**
+     * Spin lock serializing the discovery of special references by evacuators running in parallel.
+     */
+    private static final AtomicInteger specialReferenceDiscoveryLock = new AtomicInteger();
+
     private GCOperation currentGCOperation;
 
     private EvacuationTimers timers;
@@ -98,7 +110,13 @@ public abstract class Evacuator extends PointerIndexVisitor implements CellVisit
 
     private void updateSpecialReference(Pointer origin) {
         if (refDiscoveryEnabled) {
-            SpecialReferenceManager.discoverSpecialReference(origin);
+            if (parallelEvacuation) {
+                lockSpecialReferenceDiscovery();
+                SpecialReferenceManager.discoverSpecialReference(origin);
+                unlockSpecialReferenceDiscovery();
+            } else {
+                SpecialReferenceManager.discoverSpecialReference(origin);
+            }
         } else {
             // Treat referent as strong reference.
             if (traceEvacVisitedCell()) {
@@ -112,6 +130,24 @@ public abstract class Evacuator extends PointerIndexVisitor implements CellVisit
         }
     }
 
+    static void lockSpecialReferenceDiscovery() {
+        while (!specialReferenceDiscoveryLock.compareAndSet(0, 1)) {
+            // spin
+        }
+    }
+
+    static void unlockSpecialReferenceDiscovery() {
+        specialReferenceDiscoveryLock.set(0);
+    }
+
+    final boolean isParallelEvacuation() {
+        return parallelEvacuation;
+    }
+
+    void setParallelEvacuation(boolean parallelEvacuation) {
+        this.parallelEvacuation = parallelEvacuation;
+    }
+
     final void enableSpecialRefDiscovery() {
         refDiscoveryEnabled = true;
     }
@@ -120,6 +156,10 @@ public abstract class Evacuator extends PointerIndexVisitor implements CellVisit
         refDiscoveryEnabled = false;
     }
 
+    final boolean isSpecialRefDiscoveryEnabled() {
+        return refDiscoveryEnabled;
+    }
+
     @INLINE
     private void updateReferenceArray(Pointer refArrayOrigin, final int firstIndex, final int length) {
         for (int index = firstIndex; index < length; index++) {
@@ -208,6 +248,9 @@ public abstract class Evacuator extends PointerIndexVisitor implements CellVisit
      * @return a reference to the evacuated cell's new location
      */
     protected final Reference getForwardRef(Pointer origin) {
+        if (parallelEvacuation) {
+            return evacuateAtomically(origin);
+        }
         Reference forwardRef = Layout.readForwardRef(origin);
         if (forwardRef.isZero()) {
             final Pointer toOrigin = evacuate(origin);
@@ -217,6 +260,42 @@ public abstract class Evacuator extends PointerIndexVisitor implements CellVisit
         return forwardRef;
     }
 
+    /**
+     * Evacuate a cell of the evacuated area if not already done, and return the reference to the evacuated cell new location.
+     * Same as {@link #getForwardRef(Pointer)}, but safe to use when other evacuators may concurrently evacuate the same cell.
+     * The race is won by the first evacuator to compare-and-swap the cell's hub word, whether it installs a forwarding
+     * reference to a copy already made or only claims the cell before copying it. Evacuators whose compare-and-swap fails
+     * discard any copy they made and return the forwarding reference installed by the winner.
+     * Default is to not support parallel evacuation.
+     *
+     * @param origin origin of the cell in the evacuated area
+     * @return a reference to the evacuated cell's new location
+     */
+    Reference evacuateAtomically(Pointer origin) {
+        throw FatalError.unimplemented();
+    }
+
+    /**
+     * Size of a cell computed from the specified hub rather than from the cell's hub word, which may be concurrently
+     * overwritten with a forwarding reference during parallel evacuation.
+     *
+     * @param origin origin of the cell
+     * @param hub the hub of the cell
+     * @return the size of the cell
+     */
+    @INLINE
+    static Size cellSize(Pointer origin, Hub hub) {
+        final SpecificLayout specificLayout = hub.specificLayout;
+        if (specificLayout == Layout.tupleLayout()) {
+            return hub.tupleSize;
+        }
+        final int length = Layout.readArrayLength(origin);
+        if (specificLayout == Layout.hybridLayout()) {
+            return Layout.hybridLayout().getArraySize(length);
+        }
+        return Layout.arrayLayout().getArraySize(hub.classActor.componentClassActor().kind, length);
+    }
+
     @NEVER_INLINE
     private void reportDarkMatterForwarding(Pointer origin, Pointer at, Pointer forwarded) {
         final boolean lockDisabledSafepoints = Log.lock();
@@ -239,6 +318,9 @@ public abstract class Evacuator extends PointerIndexVisitor implements CellVisit
      * @return a reference to the evacuated cell's new location
      */
     protected final Reference getForwardRef(Pointer origin, Pointer at) {
+        if (parallelEvacuation) {
+            return evacuateAtomically(origin);
+        }
         Reference forwardRef = Layout.readForwardRef(origin);
         if (forwardRef.isZero()) {
             final Pointer toOrigin = evacuate(origin);
@@ -24,21 +24,30 @@ package com.sun.max.vm.heap.gcx;
 
 import static com.sun.max.vm.heap.HeapSchemeAdaptor.*;
 
+import com.oracle.max.cri.intrinsics.*;
 import com.sun.max.annotate.*;
+import com.sun.max.atomic.*;
 import com.sun.max.memory.*;
 import com.sun.max.unsafe.*;
 import com.sun.max.vm.*;
+import com.sun.max.vm.actor.holder.*;
 import com.sun.max.vm.heap.gcx.EvacuatingSpace.SpaceBounds;
 import com.sun.max.vm.heap.gcx.EvacuationTimers.TIMED_OPERATION;
 import com.sun.max.vm.heap.gcx.rset.ctbl.*;
 import com.sun.max.vm.layout.*;
 import com.sun.max.vm.log.VMLog.Record;
 import com.sun.max.vm.log.hosted.*;
+import com.sun.max.vm.reference.*;
 import com.sun.max.vm.runtime.*;
 /**
  * A heap space evacuator that evacuates objects from one space to a card-table covered space.
  * Locations of references to evacuatees from other heap spaces are provided by a card table.
  *
+ * The evacuator can also run in parallel with other instances evacuating the same space (see {@link #setParallelEvacuation(boolean)}).
+ * Each instance then allocates from its own parallel local allocation buffers (PLABs) obtained from a separate
+ * {@link EvacuationBufferProvider}, forwarding references are installed atomically, and the survivor ranges an evacuator
+ * records can be stolen by the others.
+ *
  * TODO: replace direct cfotable updates with proper use of the DeadSpaceListener interface implemented by the card table.
  * (see all fixme comments below). This would make allocation in survivor space independent of details of the card table RSet.
  */
@@ -78,6 +87,22 @@ public class EvacuatorToCardSpace extends Evacuator {
      */
     private final EvacuationBufferProvider evacuationBufferProvider;
 
+    /**
+     * The provider of the evacuation buffers for this evacuator when evacuating in parallel with other evacuators.
+     */
+    private EvacuationBufferProvider parallelEvacuationBufferProvider;
+
+    /**
+     * Threshold below which refills of the evacuation buffer are automatic when evacuating in parallel.
+     * Larger cells are allocated directly in the to-space.
+     */
+    private Size parallelMinRefillThreshold;
+
+    /**
+     * Spin lock protecting the survivor ranges queue against evacuators stealing ranges during parallel evacuation.
+     */
+    private final AtomicInteger survivorRangesLock = new AtomicInteger();
+
     /**
      * Remembered set of the from space.
      */
@@ -166,6 +191,25 @@ public class EvacuatorToCardSpace extends Evacuator {
         this.logger = new EvacuationLogger(name);
     }
 
+    /**
+     * Creates an evacuator helping another one to evacuate its space in parallel. The helper shares the spaces, remembered set and
+     * loggers of the evacuator it helps, and only ever evacuates in parallel.
+     *
+     * @param leader the evacuator to help
+     */
+    protected EvacuatorToCardSpace(EvacuatorToCardSpace leader) {
+        this.fromSpace = leader.fromSpace;
+        this.toSpace = leader.toSpace;
+        this.rset = leader.rset;
+        this.cfoTable = leader.cfoTable;
+        this.evacuationBufferProvider = leader.evacuationBufferProvider;
+        this.evacuatedAreaBounds = leader.evacuatedAreaBounds;
+        this.logger = leader.logger;
+        this.dumper = leader.dumper;
+        setPhaseLogger(leader.phaseLogger);
+        setDetailLogger(leader.detailLogger);
+    }
+
     public void setEvacuationSpace(EvacuatingSpace fromSpace,  HeapSpace toSpace) {
         this.fromSpace = fromSpace;
         this.toSpace = toSpace;
@@ -181,12 +225,47 @@ public class EvacuatorToCardSpace extends Evacuator {
      * @param retireAfterEvacuation indicate whether evacuation buffer are kept across evacuation. If set to false, the evacuation buffer is retire to its provider after evacuation.
      */
     public void initialize(int maxSurvivorRanges, boolean alwaysRefill, Size minRefillThreshold, boolean retireAfterEvacuation) {
-        this.survivorRanges = new SurvivorRangesQueue(maxSurvivorRanges);
+        if (survivorRanges == null || survivorRanges.capacity() < maxSurvivorRanges) {
+            this.survivorRanges = new SurvivorRangesQueue(maxSurvivorRanges);
+        }
         this.alwaysRefill = alwaysRefill;
         this.minRefillThreshold =  alwaysRefill ? Size.fromLong(Long.MAX_VALUE) : minRefillThreshold;
         this.retireAfterEvacuation = retireAfterEvacuation;
     }
 
+    /**
+     * Initialize the evacuator for parallel evacuation. Must be called after {@link #initialize(int, boolean, Size, boolean)}, if any.
+     * When evacuating in parallel, the evacuation buffer is refilled on allocation failure only if the space left in the buffer is
+     * less than the specified threshold, and is always retired to its provider after evacuation.
+     *
+     * @param maxSurvivorRanges maximum number of discontinuous range of survivors the evacuator may have to keep track of during parallel evacuation
+     * @param evacuationBufferProvider provider of the evacuator's private evacuation buffers during parallel evacuation
+     * @param minRefillThreshold cells larger than this threshold are allocated directly in the to-space during parallel evacuation
+     */
+    public void initializeParallelEvacuation(int maxSurvivorRanges, EvacuationBufferProvider evacuationBufferProvider, Size minRefillThreshold) {
+        if (survivorRanges == null || survivorRanges.capacity() < maxSurvivorRanges) {
+            this.survivorRanges = new SurvivorRangesQueue(maxSurvivorRanges);
+        }
+        this.parallelEvacuationBufferProvider = evacuationBufferProvider;
+        this.parallelMinRefillThreshold = minRefillThreshold;
+    }
+
+    @Override
+    void setParallelEvacuation(boolean parallelEvacuation) {
+        FatalError.check(ptop.isZero(), "Evacuation buffer must be retired when switching to or from parallel evacuation");
+        super.setParallelEvacuation(parallelEvacuation);
+    }
+
+    @INLINE
+    private EvacuationBufferProvider bufferProvider() {
+        return isParallelEvacuation() ? parallelEvacuationBufferProvider : evacuationBufferProvider;
+    }
+
+    @INLINE
+    private Size refillThreshold() {
+        return isParallelEvacuation() ? parallelMinRefillThreshold : minRefillThreshold;
+    }
+
     /**
      * Number of bytes evacuated in the last evacuation.
      * @return a number of bytes
@@ -195,6 +274,13 @@ public class EvacuatorToCardSpace extends Evacuator {
         return evacuatedBytes;
     }
 
+    /**
+     * Account for bytes evacuated by the evacuators that helped this one during parallel evacuation.
+     */
+    void addEvacuatedBytes(Size numBytes) {
+        evacuatedBytes = evacuatedBytes.plus(numBytes);
+    }
+
     /**
      * Retire promotion buffer before a GC on the promotion space is performed.
      */
@@ -210,11 +296,24 @@ public class EvacuatorToCardSpace extends Evacuator {
     @Override
     protected void doBeforeEvacuation() {
         fromSpace.doBeforeGC();
+        prepareEvacuationBuffer();
+        if (logger.enabled()) {
+            SpaceBounds toSpaceBounds = toSpace.bounds();
+            logger.logBeginEvacuation(evacuatedAreaBounds.lowestAddress(), evacuatedAreaBounds.highestAddress(), toSpaceBounds.lowestAddress(), toSpaceBounds.highestAddress());
+        }
+    }
+
+    /**
+     * Reset the evacuation state and the evacuation buffer before evacuation.
+     * When evacuating in parallel, the evacuation buffer is only refilled on the first allocation, so that evacuators with nothing to evacuate
+     * don't waste to-space.
+     */
+    final void prepareEvacuationBuffer() {
         evacuatedBytes = Size.zero();
         lastOverflowAllocatedRangeStart = Pointer.zero();
         lastOverflowAllocatedRangeEnd = Pointer.zero();
         debugRetired_ptop = Pointer.zero();
-        if (ptop.isZero()) {
+        if (ptop.isZero() && !isParallelEvacuation()) {
             Address chunk = evacuationBufferProvider.refillEvacuationBuffer();
             Size chunkSize = HeapFreeChunk.getFreechunkSize(chunk);
             pnextChunk = HeapFreeChunk.getFreeChunkNext(chunk);
@@ -224,29 +323,37 @@ public class EvacuatorToCardSpace extends Evacuator {
         }
         initialEvacuationMark = ptop;
         allocatedRangeStart = ptop;
-        if (logger.enabled()) {
-            SpaceBounds toSpaceBounds = toSpace.bounds();
-            logger.logBeginEvacuation(evacuatedAreaBounds.lowestAddress(), evacuatedAreaBounds.highestAddress(), toSpaceBounds.lowestAddress(), toSpaceBounds.highestAddress());
-        }
     }
 
     @Override
     protected void doAfterEvacuation() {
-        survivorRanges.clear();
         fromSpace.doAfterGC();
-        Pointer limit = pend.plus(evacuationBufferHeadroom());
         if (logger.enabled()) {
-            logger.logEndEvacuation(limit);
+            logger.logEndEvacuation(pend.plus(evacuationBufferHeadroom()));
+        }
+        releaseEvacuationBuffer();
+    }
+
+    /**
+     * Leave the evacuation buffer in an iterable state after evacuation, and retire it to its provider if required.
+     */
+    final void releaseEvacuationBuffer() {
+        survivorRanges.clear();
+        if (ptop.isZero()) {
+            // The evacuation buffer was never refilled.
+            return;
         }
+        final boolean alwaysRefill = this.alwaysRefill && !isParallelEvacuation();
+        Pointer limit = pend.plus(evacuationBufferHeadroom());
         Size spaceLeft = limit.minus(ptop).asSize();
-        if ((alwaysRefill && spaceLeft.greaterThan(minObjectSize())) || spaceLeft.greaterEqual(minRefillThreshold)) {
+        if ((alwaysRefill && spaceLeft.greaterThan(minObjectSize())) || spaceLeft.greaterEqual(refillThreshold())) {
             // Leave remaining space in an iterable format.
             // Next evacuation will start from top again.
             HeapFreeChunk.format(ptop, spaceLeft);
             rset.notifyRetireFreeSpace(ptop, spaceLeft);
-            if (retireAfterEvacuation) {
+            if (retireAfterEvacuation || isParallelEvacuation()) {
                 // Note: if an overflow occurred and the TLAB isn't in the toSpace but in some other space, the leftover will not be retired but simply formatted as dead object.
-                evacuationBufferProvider.retireEvacuationBuffer(ptop, limit);
+                bufferProvider().retireEvacuationBuffer(ptop, limit);
                 // Will trigger refill in doBeforeEvacution on next GC
                 ptop = Pointer.zero();
                 pend = Pointer.zero();
@@ -271,7 +378,14 @@ public class EvacuatorToCardSpace extends Evacuator {
             DarkMatter.checkNoDarkMatterRef(start, end);
         }
         evacuatedBytes = evacuatedBytes.plus(rangeSize);
-        survivorRanges.add(start, end);
+        if (isParallelEvacuation()) {
+            lockSurvivorRanges();
+            final boolean added = survivorRanges.add(start, end);
+            unlockSurvivorRanges();
+            FatalError.check(added, "Too many survivor ranges for parallel evacuation");
+        } else {
+            survivorRanges.add(start, end);
+        }
         if (logger.enabled()) {
             logger.logUpdateSurvivorRange(start, end);
         }
@@ -311,20 +425,21 @@ public class EvacuatorToCardSpace extends Evacuator {
     private Address debugRetired_ptop = Address.zero(); // FIXME: just for debugging for now
 
     protected Pointer refillOrAllocate(Size size) {
-        if (size.lessThan(minRefillThreshold)) {
+        if (size.lessThan(refillThreshold())) {
             // check if request can fit in the remaining space when taking the headroom into account.
             Pointer limit = pend.plus(evacuationBufferHeadroom());
-            if (ptop.plus(size).equals(limit)) {
+            if (ptop.isZero()) {
+                // The evacuation buffer hasn't been refilled yet (parallel evacuation only). Nothing to retire.
+            } else if (ptop.plus(size).equals(limit)) {
                 Pointer cell = ptop;
                 ptop = limit;
                 return cell;
-            }
-            if (ptop.lessThan(limit)) {
+            } else if (ptop.lessThan(limit)) {
                 debugRetired_ptop = ptop;
                 // Retire and update FOT accordingly
                 // FIXME: same as  rset.notifyRetireDeadSpace(ptop, limit.minus(ptop).asSize()) but faster. It'll be cleaner to use the rset interface though.
                 cfoTable.set(ptop, limit);
-                evacuationBufferProvider.retireEvacuationBuffer(ptop, limit);
+                bufferProvider().retireEvacuationBuffer(ptop, limit);
                 if (MaxineVM.isDebug()) {
                     final Address deadSpaceLastWordAddress = limit.minus(Word.size());
                     if (CardTableRSet.alignDownToCard(ptop).lessThan(CardTableRSet.alignDownToCard(deadSpaceLastWordAddress))) {
@@ -335,11 +450,12 @@ public class EvacuatorToCardSpace extends Evacuator {
             // Check if there is another chunk in the lab.
             Address chunk = pnextChunk;
             if (chunk.isZero()) {
-                chunk = evacuationBufferProvider.refillEvacuationBuffer();
-                FatalError.check(!chunk.isZero() && (alwaysRefill || HeapFreeChunk.getFreechunkSize(chunk).greaterEqual(minRefillThreshold)), "refill request should always succeed");
+                chunk = bufferProvider().refillEvacuationBuffer();
+                FatalError.check(!chunk.isZero() && ((alwaysRefill && !isParallelEvacuation()) || HeapFreeChunk.getFreechunkSize(chunk).greaterEqual(refillThreshold())), "refill request should always succeed");
             }
             pnextChunk = HeapFreeChunk.getFreeChunkNext(chunk);
-            if (!chunk.equals(limit)) {
+            if (!chunk.equals(limit) || isParallelEvacuation()) {
+                // Parallel evacuation: a PLAB may be contiguous to the previous one, but the space left in the previous one was retired.
                 recordRange(allocatedRangeStart, ptop);
                 allocatedRangeStart = chunk;
             } else {
@@ -407,13 +523,151 @@ public class EvacuatorToCardSpace extends Evacuator {
         return toCell;
     }
 
+    /**
+     * Value of the hub word of a cell claimed by an evacuator that hasn't finished copying it yet.
+     */
+    @INLINE
+    private static Reference claimedForwardRef() {
+        return Reference.zero().marked();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Small cells are copied speculatively in the evacuation buffer, and the copy is undone if another evacuator won the race for
+     * forwarding the cell. Since the undone copy is always the last allocation in the evacuation buffer, undoing it never wastes space.
+     * Large cells are allocated directly in the to-space, where undoing may leave holes. Instead, they are first claimed by atomically
+     * setting their hub word to a special value. Losers of the race wait for the winner to install the forwarding reference.
+     */
+    @Override
+    final Reference evacuateAtomically(Pointer origin) {
+        Reference hubRef = Layout.readHubReference(origin);
+        if (hubRef.isMarked()) {
+            return waitForForwardRef(origin, hubRef);
+        }
+        final Hub hub = UnsafeCast.asHub(hubRef.toJava());
+        final Size size = cellSize(origin, hub);
+        final Pointer fromCell = Layout.originToCell(origin);
+        if (size.lessThan(refillThreshold())) {
+            final Pointer toCell = allocate(size);
+            Memory.copyBytes(fromCell, toCell, size);
+            final Reference forwardRef = Reference.fromOrigin(Layout.cellToOrigin(toCell));
+            final Reference witness = Layout.compareAndSwapForwardRef(origin, hubRef, forwardRef);
+            if (witness == hubRef) {
+                return forwardRef;
+            }
+            // Another evacuator forwarded the cell first.
+            FatalError.check(toCell.plus(size).equals(ptop), "Undone evacuation must be the last allocation");
+            ptop = toCell;
+            return waitForForwardRef(origin, witness);
+        }
+        final Reference witness = Layout.compareAndSwapForwardRef(origin, hubRef, Reference.zero());
+        if (witness != hubRef) {
+            return waitForForwardRef(origin, witness);
+        }
+        final Pointer toCell = allocate(size);
+        Memory.copyBytes(fromCell, toCell, size);
+        final Pointer toOrigin = Layout.cellToOrigin(toCell);
+        // The copy holds the claimed value in place of the hub.
+        Layout.writeHubReference(toOrigin, hubRef);
+        final Reference forwardRef = Reference.fromOrigin(toOrigin);
+        MemoryBarriers.barrier(MemoryBarriers.STORE_STORE);
+        Layout.writeForwardRef(origin, forwardRef);
+        return forwardRef;
+    }
+
+    /**
+     * Return the forwarding reference of a cell forwarded or claimed by another evacuator.
+     *
+     * @param origin origin of the cell
+     * @param hubWord the last value read from the cell's hub word
+     */
+    private static Reference waitForForwardRef(Pointer origin, Reference hubWord) {
+        Reference forwardRef = hubWord;
+        while (forwardRef == claimedForwardRef()) {
+            // Another evacuator is copying the cell.
+            forwardRef = Layout.readHubReference(origin);
+        }
+        return forwardRef.unmarked();
+    }
+
     private boolean checkDarkMatterRefs = false;
     public void enableDarkMatterRefCheck(boolean b) {
         checkDarkMatterRefs = MaxineVM.isDebug() && b;
     }
 
+    private void lockSurvivorRanges() {
+        while (!survivorRangesLock.compareAndSet(0, 1)) {
+            // spin
+        }
+    }
+
+    private void unlockSurvivorRanges() {
+        survivorRangesLock.set(0);
+    }
+
+    /**
+     * Indicates whether the survivor ranges queue is empty. The answer is only a hint when evacuating in parallel.
+     */
+    final boolean hasSurvivorRanges() {
+        return !survivorRanges.isEmpty();
+    }
+
+    /**
+     * Make the survivor range allocated in the current evacuation buffer visible to other evacuators.
+     */
+    final void publishSurvivorRanges() {
+        updateSurvivorRanges();
+    }
+
+    /**
+     * Remove the oldest range from the survivor ranges queue of an evacuator and evacuate the cells reachable from it.
+     * Used during parallel evacuation, where the specified evacuator may be this evacuator or another one.
+     *
+     * @param owner the evacuator whose survivor range is processed
+     * @return true if a survivor range was processed, false if the owner's queue was empty
+     */
+    final boolean evacuateSurvivorRangeOf(EvacuatorToCardSpace owner) {
+        owner.lockSurvivorRanges();
+        if (owner.survivorRanges.isEmpty()) {
+            owner.unlockSurvivorRanges();
+            return false;
+        }
+        final Pointer start = owner.survivorRanges.start();
+        final Pointer end = owner.survivorRanges.end();
+        owner.survivorRanges.remove();
+        owner.unlockSurvivorRanges();
+        if (logger.enabled()) {
+            logger.logEvacuateSurvivorRange(start, end);
+        }
+        evacuateRange(start, end);
+        return true;
+    }
+
+    /**
+     * Evacuate the cells reachable from this evacuator's survivor ranges, including those resulting from this evacuation, until none is left.
+     * Used during parallel evacuation. Other evacuators may steal some of the ranges meanwhile.
+     */
+    final void drainSurvivorRanges() {
+        do {
+            updateSurvivorRanges();
+        } while (evacuateSurvivorRangeOf(this));
+    }
+
+    /**
+     * Evacuate all objects reachable from the survivor ranges of the evacuators running in parallel with this one.
+     * Default is to only process this evacuator's survivor ranges.
+     */
+    protected void evacuateReachablesInParallel() {
+        drainSurvivorRanges();
+    }
+
     @Override
     final protected void evacuateReachables() {
+        if (isParallelEvacuation()) {
+            evacuateReachablesInParallel();
+            return;
+        }
         updateSurvivorRanges();
         while (!survivorRanges.isEmpty()) {
             final Pointer start = survivorRanges.start();
@@ -40,6 +40,10 @@ import com.sun.max.vm.runtime.*;
  * A region-based, mark-sweep heap space, with bump pointer allocation only.
  * Each partially occupied region has a list of addressed ordered free chunks, used to allocate TLAB refills.
  * An overflow allocator avoids refilling too frequently.
+ * <p>
+ * The space can be swept lazily (see {@link #lazySweep(TricolorHeapMarker, boolean, Size)}): the collector only sweeps enough regions to satisfy
+ * its heap sizing policy, and leaves the others on the sweep list. Allocators that run out of swept regions sweep more regions on demand.
+ * Whatever is left is swept before the next collection starts marking.
  */
 public final class FirstFitMarkSweepSpace<T extends HeapAccountOwner> extends HeapRegionSweeper implements HeapSpace, RegionProvider {
     /* For simplicity at the moment. Should be able to allocate this in GC's own heap (i.e., the HeapRegionManager's allocator).
@@ -84,6 +88,16 @@ public final class FirstFitMarkSweepSpace<T extends HeapAccountOwner> extends He
      */
     private HeapRegionList sweepList;
 
+    /**
+     * Heap marker whose mark bitmap describes the regions left unswept on the {@link #sweepList} by the last lazy sweep, or null if the space is fully swept.
+     */
+    private TricolorHeapMarker lazySweepMarker;
+
+    /**
+     * Whether the regions left unswept by the last lazy sweep are swept imprecisely.
+     */
+    private boolean lazySweepImprecise;
+
     /**
      * Total number of regions currently allocated to this heap space.
      */
@@ -108,6 +122,12 @@ public final class FirstFitMarkSweepSpace<T extends HeapAccountOwner> extends He
      */
     final ChunkListAllocator<RegionChunkListRefillManager> tlabAllocator;
 
+    /**
+     * TLAB refill allocators of each NUMA node, indexed by node, when NUMA-aware region placement is enabled (see {@link NUMARegionPlacement}).
+     * The allocator of node 0 is the {@link #tlabAllocator}. Null otherwise.
+     */
+    private ChunkListAllocator<RegionChunkListRefillManager>[] nodeTLABAllocators;
+
     /**
      * Overflow allocator. Handles direct allocation request and all small overflow of TLABs.
      */
@@ -291,10 +311,17 @@ public final class FirstFitMarkSweepSpace<T extends HeapAccountOwner> extends He
                         }
                     }
                 }
+                if (sweepOnDemand(true)) {
+                    // Contiguous empty regions may be found among the regions left unswept by the last collection. Retry before collecting.
+                    continue;
+                }
                 if (MaxineVM.isDebug()) {
                     checkForSuspisciousGC(gcCount++);
                 }
-            } while (Heap.collectGarbage()); // Always collect for at least one region.
+                if (!Heap.collectGarbage()) { // Always collect for at least one region.
+                    break;
+                }
+            } while (true);
             // Not enough freed memory.
             throw outOfMemoryError;
         }
@@ -409,6 +436,9 @@ public final class FirstFitMarkSweepSpace<T extends HeapAccountOwner> extends He
         refillManager.setMinChunkSize(minReclaimableSpace);
         // Initialize the tlab allocator with a first region.
         tlabAllocator.initialize(regionSize, regionSize);
+        if (NUMARegionPlacement.isEnabled()) {
+            initializeNodeTLABAllocators(regionSize);
+        }
         overflowAllocator.initialize(Address.zero(), Size.zero(), Size.zero());
     }
 
@@ -419,13 +449,47 @@ public final class FirstFitMarkSweepSpace<T extends HeapAccountOwner> extends He
         return overflowAllocator.allocateCleared(size);
     }
 
+    @SuppressWarnings("unchecked")
+    private void initializeNodeTLABAllocators(Size regionSize) {
+        final int numNodes = NUMARegionPlacement.numNodes();
+        nodeTLABAllocators = (ChunkListAllocator<RegionChunkListRefillManager>[]) new ChunkListAllocator[numNodes];
+        nodeTLABAllocators[0] = tlabAllocator;
+        for (int node = 1; node < numNodes; node++) {
+            RegionChunkListRefillManager refillManager = new RegionChunkListRefillManager(tlabAllocator.refillManager.deadSpaceListener);
+            refillManager.setRegionProvider(this);
+            refillManager.setRefillPolicy(minReclaimableSpace);
+            refillManager.setMinChunkSize(minReclaimableSpace);
+            refillManager.setNode(node);
+            ChunkListAllocator<RegionChunkListRefillManager> allocator = new ChunkListAllocator<RegionChunkListRefillManager>(refillManager);
+            nodeTLABAllocators[node] = allocator;
+            allocator.initialize(regionSize, regionSize);
+        }
+    }
+
+    /**
+     * Number of TLAB refill allocators, i.e., one per NUMA node when NUMA-aware placement is enabled, one otherwise.
+     */
+    private int numTLABAllocators() {
+        return nodeTLABAllocators == null ? 1 : nodeTLABAllocators.length;
+    }
+
+    private ChunkListAllocator<RegionChunkListRefillManager> tlabAllocator(int index) {
+        return nodeTLABAllocators == null ? tlabAllocator : nodeTLABAllocators[index];
+    }
+
     public Pointer allocateTLAB(Size size) {
+        if (nodeTLABAllocators != null) {
+            return nodeTLABAllocators[NUMARegionPlacement.currentNode()].allocateTLAB(size);
+        }
         return tlabAllocator.allocateTLAB(size);
     }
 
     public void retireTLAB(Pointer start, Size size) {
-        if (tlabAllocator.retireTop(start, size)) {
-            return;
+        // The retiring thread may have migrated to another node since the TLAB was allocated.
+        for (int i = 0; i < numTLABAllocators(); i++) {
+            if (tlabAllocator(i).retireTop(start, size)) {
+                return;
+            }
         }
         if (size.lessThan(minRetiredFreeChunkSize())) {
             DarkMatter.format(start, size);
@@ -457,7 +521,12 @@ public final class FirstFitMarkSweepSpace<T extends HeapAccountOwner> extends He
     }
 
     public Size freeSpace() {
-        return allocationRegionsFreeSpace.plus(tlabAllocator.refillManager.freeSpace().plus(tlabAllocator.freeSpace().plus(overflowAllocator.freeSpace())));
+        Size freeSpace = allocationRegionsFreeSpace.plus(overflowAllocator.freeSpace());
+        for (int i = 0; i < numTLABAllocators(); i++) {
+            final ChunkListAllocator<RegionChunkListRefillManager> allocator = tlabAllocator(i);
+            freeSpace = freeSpace.plus(allocator.refillManager.freeSpace().plus(allocator.freeSpace()));
+        }
+        return freeSpace;
     }
 
     public Size usedSpace() {
@@ -465,9 +534,17 @@ public final class FirstFitMarkSweepSpace<T extends HeapAccountOwner> extends He
     }
 
     public void doBeforeGC() {
+        if (lazySweepMarker != null) {
+            // Marking is about to overwrite the mark bitmap the unswept regions depend on.
+            while (sweepNextRegion()) {
+            }
+        }
         overflowAllocator.doBeforeGC();
-        tlabAllocator.doBeforeGC();
-        FatalError.check(tlabAllocator.refillManager.allocatingRegion() == INVALID_REGION_ID, "TLAB allocating region must have been retired");
+        for (int i = 0; i < numTLABAllocators(); i++) {
+            final ChunkListAllocator<RegionChunkListRefillManager> allocator = tlabAllocator(i);
+            allocator.doBeforeGC();
+            FatalError.check(allocator.refillManager.allocatingRegion() == INVALID_REGION_ID, "TLAB allocating region must have been retired");
+        }
         // Move all regions to the sweep list. This tracks all the regions used by the space.
         sweepList.appendAndClear(unavailableRegions);
         sweepList.appendAndClear(allocationRegions);
@@ -495,6 +572,79 @@ public final class FirstFitMarkSweepSpace<T extends HeapAccountOwner> extends He
         FatalError.check(sweepList.isEmpty(), "Sweeping list must be empty");
     }
 
+    /**
+     * Sweep the space lazily. Regions are swept in address order until the allocation regions have at least the specified amount of free space, or all regions are swept.
+     * The remaining regions stay on the sweep list and are swept on demand by allocators that run out of regions, or before the next collection.
+     * The mark bitmap of the heap marker must be left untouched until then.
+     *
+     * @param heapMarker the heap marker that marked the space
+     * @param doImprecise whether to sweep imprecisely
+     * @param minFreeSpace amount of free space after which the remaining regions are left to be swept on demand
+     */
+    public void lazySweep(TricolorHeapMarker heapMarker, boolean doImprecise, Size minFreeSpace) {
+        if (MaxineVM.isDebug()) {
+            sweepList.checkIsAddressOrdered();
+        }
+        allocationRegionsFreeSpace = Size.zero();
+        csrIsLiveMultiRegionObjectTail = false;
+        lazySweepMarker = heapMarker;
+        lazySweepImprecise = doImprecise;
+        while (sweepNextRegion() && allocationRegionsFreeSpace.lessThan(minFreeSpace)) {
+        }
+    }
+
+    /**
+     * Indicates whether some regions were left unswept by the last lazy sweep.
+     */
+    public boolean hasUnsweptRegions() {
+        return lazySweepMarker != null;
+    }
+
+    /**
+     * Sweep the next region left unswept by the last lazy sweep.
+     * @return true if regions remain to be swept
+     */
+    private boolean sweepNextRegion() {
+        final boolean more = lazySweepMarker.sweepNextRegion(this, lazySweepImprecise);
+        // The free chunks of the swept region may be handed out to allocators: don't keep references to them.
+        csrHead = null;
+        csrTail = null;
+        if (!more) {
+            FatalError.check(sweepList.isEmpty(), "Sweeping list must be empty");
+            lazySweepMarker = null;
+        }
+        return more;
+    }
+
+    /**
+     * Sweep regions left unswept by the last lazy sweep on behalf of an allocator that ran out of regions.
+     * Safepoints are disabled while sweeping, so that a collection never observes a partially swept region.
+     * Must be called with the refill lock held, or at a safepoint.
+     *
+     * @param all if true, sweep all the remaining regions; otherwise, stop as soon as a region with free space is found
+     * @return true if some regions were swept, false if the space was already fully swept
+     */
+    private boolean sweepOnDemand(boolean all) {
+        if (lazySweepMarker == null) {
+            return false;
+        }
+        final boolean wasDisabled = SafepointPoll.disable();
+        final Size freeSpaceBefore = allocationRegionsFreeSpace;
+        while (sweepNextRegion() && (all || allocationRegionsFreeSpace.equals(freeSpaceBefore))) {
+        }
+        if (!wasDisabled) {
+            SafepointPoll.enable();
+        }
+        return true;
+    }
+
+    /**
+     * Sweep all the regions left unswept by the last lazy sweep. Must be called at a safepoint, e.g., before verifying or walking the space.
+     */
+    public void completeLazySweep() {
+        sweepOnDemand(true);
+    }
+
     private HeapRegionInfo nextRegionToSweep() {
         return RegionTable.theRegionTable().regionInfo(sweepList.removeHead());
     }
@@ -692,8 +842,12 @@ public final class FirstFitMarkSweepSpace<T extends HeapAccountOwner> extends He
 
     @Override
     public void visit(CellRangeVisitor visitor) {
+        // Unswept regions hold dead objects whose references may point to reclaimed space.
+        completeLazySweep();
         // Make allocating regions iterable first.
-        tlabAllocator.unsafeMakeParsable();
+        for (int i = 0; i < numTLABAllocators(); i++) {
+            tlabAllocator(i).unsafeMakeParsable();
+        }
         overflowAllocator.unsafeMakeParsable();
         regionsRangeIterable.addMatchingFlags(Flag.IS_ALLOCATING);
         iterateRegions(visitor);
@@ -703,13 +857,16 @@ public final class FirstFitMarkSweepSpace<T extends HeapAccountOwner> extends He
 
     private void verifyHeapRegionsBalance() {
         int balance = 0;
-        balance += tlabAllocator.refillManager().allocatingRegion() == INVALID_REGION_ID ? 0 : 1;
+        for (int i = 0; i < numTLABAllocators(); i++) {
+            balance += tlabAllocator(i).refillManager().allocatingRegion() == INVALID_REGION_ID ? 0 : 1;
+        }
         // balance += currentOverflowAllocatingRegion == INVALID_REGION_ID ? 0 : 1;
         balance += overflowAllocator.refillManager().allocatingRegion() == INVALID_REGION_ID ? 0 : 1;
 
         balance += tlabAllocationRegions.size();
         balance += allocationRegions.size();
         balance += unavailableRegions.size();
+        balance += sweepList.size();
         FatalError.check(balance == numRegionsInSpace, "incorrect balance of regions in space");
     }
 
@@ -733,35 +890,79 @@ public final class FirstFitMarkSweepSpace<T extends HeapAccountOwner> extends He
         }
     }
 
-    public int getAllocatingRegion() {
-        final int regionID = tlabAllocationRegionList().removeHead();
-        if (regionID != INVALID_REGION_ID) {
-            final HeapRegionInfo regionInfo = fromRegionID(regionID);
-            final int numFreeBytes = regionInfo.isEmpty() ?  regionSizeInBytes : regionInfo.freeBytesInChunks();
-            allocationRegionsFreeSpace = allocationRegionsFreeSpace.minus(numFreeBytes);
-        }
+    private int toAllocatingRegion(int regionID) {
+        final HeapRegionInfo regionInfo = fromRegionID(regionID);
+        final int numFreeBytes = regionInfo.isEmpty() ?  regionSizeInBytes : regionInfo.freeBytesInChunks();
+        allocationRegionsFreeSpace = allocationRegionsFreeSpace.minus(numFreeBytes);
         return regionID;
     }
 
-    public int getAllocatingRegion(Size minFreeBytes, int maxFreeChunks) {
-        final int minFreeSpace = minFreeBytes.toInt();
-        regionInfoIterable.initialize(allocationRegions);
+    public int getAllocatingRegion() {
+        do {
+            final int regionID = tlabAllocationRegionList().removeHead();
+            if (regionID != INVALID_REGION_ID) {
+                return toAllocatingRegion(regionID);
+            }
+        } while (sweepOnDemand(false));
+        return INVALID_REGION_ID;
+    }
+
+    /**
+     * Remove from a list the first region bound to the specified node.
+     * @return a region identifier, or {@link HeapRegionConstants#INVALID_REGION_ID} if the list has no region on the node
+     */
+    private int removeNodeRegion(HeapRegionList regionList, int node) {
+        regionInfoIterable.initialize(regionList);
         regionInfoIterable.reset();
         for (HeapRegionInfo regionInfo : regionInfoIterable) {
-            if (regionInfo.isEmpty()) {
-                allocationRegionsFreeSpace = allocationRegionsFreeSpace.minus(regionSizeInBytes);
-            } else if (regionInfo.freeBytesInChunks() >= minFreeSpace && regionInfo.numFreeChunks() == maxFreeChunks) {
-                allocationRegionsFreeSpace = allocationRegionsFreeSpace.minus(regionInfo.freeBytesInChunks());
-            } else {
-                continue;
+            final int regionID = regionInfo.toRegionID();
+            if (NUMARegionPlacement.nodeOf(regionID) == node) {
+                regionInfoIterable.remove();
+                return regionID;
             }
-            // Found a refill.
-            regionInfoIterable.remove();
-            return  regionInfo.toRegionID();
         }
         return INVALID_REGION_ID;
     }
 
+    public int getAllocatingRegion(int node) {
+        do {
+            // Prefer partially used regions on the node, then empty ones, and only then regions on other nodes.
+            int regionID = removeNodeRegion(tlabAllocationRegions, node);
+            if (regionID == INVALID_REGION_ID) {
+                regionID = removeNodeRegion(allocationRegions, node);
+                if (regionID == INVALID_REGION_ID) {
+                    regionID = tlabAllocationRegionList().removeHead();
+                }
+            }
+            if (regionID != INVALID_REGION_ID) {
+                NUMARegionPlacement.recordRefill(node, regionID);
+                return toAllocatingRegion(regionID);
+            }
+        } while (sweepOnDemand(false));
+        return INVALID_REGION_ID;
+    }
+
+    public int getAllocatingRegion(Size minFreeBytes, int maxFreeChunks) {
+        final int minFreeSpace = minFreeBytes.toInt();
+        do {
+            regionInfoIterable.initialize(allocationRegions);
+            regionInfoIterable.reset();
+            for (HeapRegionInfo regionInfo : regionInfoIterable) {
+                if (regionInfo.isEmpty()) {
+                    allocationRegionsFreeSpace = allocationRegionsFreeSpace.minus(regionSizeInBytes);
+                } else if (regionInfo.freeBytesInChunks() >= minFreeSpace && regionInfo.numFreeChunks() == maxFreeChunks) {
+                    allocationRegionsFreeSpace = allocationRegionsFreeSpace.minus(regionInfo.freeBytesInChunks());
+                } else {
+                    continue;
+                }
+                // Found a refill.
+                regionInfoIterable.remove();
+                return  regionInfo.toRegionID();
+            }
+        } while (sweepOnDemand(false));
+        return INVALID_REGION_ID;
+    }
+
 
     public Size minRetiredFreeChunkSize() {
         return minReclaimableSpace;
@@ -418,6 +418,7 @@ class FixedSizeRegionAllocator {
         if (VirtualMemory.commitMemory(regionStart(firstRegionId), size, VirtualMemory.Type.HEAP)) {
             committed.set(firstRegionId, firstRegionId + numRegions);
             committedSize += numRegions;
+            NUMARegionPlacement.bind(firstRegionId, numRegions);
             return true;
         }
         return false;
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.heap.gcx;
+
+import static com.sun.max.vm.VMOptions.*;
+
+import com.sun.max.annotate.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.heap.*;
+import com.sun.max.vm.monitor.modal.sync.*;
+import com.sun.max.vm.runtime.*;
+import com.sun.max.vm.thread.*;
+
+/**
+ * A gang of GC worker threads helping the {@link VmOperationThread} with the parallel phases of a garbage collection.
+ * <p>
+ * The worker threads are started when the VM enters the {@link MaxineVM.Phase#STARTING} phase. They are marked as
+ * {@linkplain VmThread#isGCWorkerThread() GC worker threads}, which exempts them from being frozen by {@link GCOperation}s
+ * and from having their stack scanned for roots. To make this safe, the worker threads and every object their stack may refer to
+ * are allocated in the boot or in the immortal heap: the gang itself and the {@link Task}s it runs are boot image objects, and the
+ * worker threads are allocated in immortal memory.
+ * <p>
+ * Parallel phases are run by the VM operation thread via {@link #run(Task)}, which hands the task to all the ready workers,
+ * participates to it itself as worker 0, then waits for every other worker to complete.
+ * If no worker thread is ready (e.g., {@code -XX:ParallelGCThreads=0}), the VM operation thread runs the task alone.
+ */
+public final class GCWorkerGang {
+
+    private static final VMIntOption parallelGCThreadsOption =
+        register(new VMIntOption("-XX:ParallelGCThreads=", 0, "Number of GC worker threads helping the VM operation thread with parallel GC phases."),
+                        MaxineVM.Phase.PRISTINE);
+
+    /**
+     * Upper bound on the number of GC worker threads.
+     */
+    public static final int MAX_GC_WORKER_THREADS = 64;
+
+    /**
+     * A unit of work executed concurrently by all the participants of a parallel GC phase.
+     */
+    public interface Task {
+        /**
+         * Executes the task on behalf of a participant.
+         *
+         * @param workerId identifier of the participant, in the range {@code [0, numWorkers[}. The VM operation thread is always worker 0.
+         * @param numWorkers number of participants to the task
+         */
+        void run(int workerId, int numWorkers);
+    }
+
+    private static final GCWorkerGang theGang = new GCWorkerGang();
+
+    public static GCWorkerGang theGang() {
+        return theGang;
+    }
+
+    /**
+     * Lock protecting the state of the gang and used to dispatch tasks to worker threads.
+     */
+    private static final Object GANG_LOCK = JavaMonitorManager.newVmLock("GC_WORKER_GANG_LOCK");
+
+    /**
+     * Number of worker threads (excluding the VM operation thread) registered with the gang and waiting for tasks.
+     */
+    private int readyWorkers;
+
+    /**
+     * Number of worker threads still running the current task.
+     */
+    private int activeWorkers;
+
+    /**
+     * Incremented every time a new task is dispatched. Worker threads use it to detect a new task.
+     */
+    private int epoch;
+
+    private Task currentTask;
+
+    private int currentNumWorkers = 1;
+
+    static final class GCWorkerThread extends Thread {
+        GCWorkerThread(int index) {
+            super(VmThread.systemThreadGroup, "GCWorker-" + index);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            theGang.workLoop();
+        }
+    }
+
+    @HOSTED_ONLY
+    private GCWorkerGang() {
+    }
+
+    /**
+     * Number of worker threads requested with {@code -XX:ParallelGCThreads}.
+     */
+    private static int requestedWorkerThreads() {
+        final int requested = parallelGCThreadsOption.getValue();
+        if (requested <= 0) {
+            return 0;
+        }
+        return requested > MAX_GC_WORKER_THREADS ? MAX_GC_WORKER_THREADS : requested;
+    }
+
+    /**
+     * Starts the worker threads requested with {@code -XX:ParallelGCThreads}.
+     */
+    private void start() {
+        final int requested = requestedWorkerThreads();
+        if (requested == 0) {
+            return;
+        }
+        Heap.enableImmortalMemoryAllocation();
+        try {
+            for (int i = 1; i <= requested; i++) {
+                new GCWorkerThread(i).start();
+            }
+        } finally {
+            Heap.disableImmortalMemoryAllocation();
+        }
+    }
+
+    /**
+     * Maximum number of participants to a task, including the VM operation thread.
+     * Can be used as soon as VM options are parsed, i.e., before the worker threads are started.
+     */
+    public int maxNumWorkers() {
+        return requestedWorkerThreads() + 1;
+    }
+
+    /**
+     * Number of participants a task would be run with if dispatched now.
+     */
+    public int numWorkers() {
+        return readyWorkers + 1;
+    }
+
+    /**
+     * Indicates whether parallel phases can be run with more than one thread.
+     */
+    public boolean isParallel() {
+        return readyWorkers > 0;
+    }
+
+    /**
+     * Number of participants of the task currently run by the gang.
+     */
+    public int currentNumWorkers() {
+        return currentNumWorkers;
+    }
+
+    private void workLoop() {
+        final int workerId;
+        int lastEpoch;
+        // Change the worker status while holding the thread lock, so that no VM operation is freezing or thawing threads
+        // while doing so.
+        synchronized (VmThreadMap.THREAD_LOCK) {
+            VmThread.current().setAsGCWorkerThread();
+        }
+        synchronized (GANG_LOCK) {
+            readyWorkers++;
+            workerId = readyWorkers;
+            lastEpoch = epoch;
+        }
+        while (true) {
+            final Task task;
+            final int numWorkers;
+            synchronized (GANG_LOCK) {
+                while (epoch == lastEpoch) {
+                    try {
+                        GANG_LOCK.wait();
+                    } catch (InterruptedException e) {
+                    }
+                }
+                lastEpoch = epoch;
+                task = currentTask;
+                numWorkers = currentNumWorkers;
+            }
+            if (workerId < numWorkers) {
+                Heap.disableAllocationForCurrentThread();
+                task.run(workerId, numWorkers);
+                Heap.enableAllocationForCurrentThread();
+            }
+            synchronized (GANG_LOCK) {
+                activeWorkers--;
+                if (activeWorkers == 0) {
+                    GANG_LOCK.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a task with all the ready worker threads and the VM operation thread, and waits for the task's completion.
+     * Must only be called by the VM operation thread.
+     *
+     * @param task the task to run
+     */
+    public void run(Task task) {
+        FatalError.check(VmThread.current().isVmOperationThread(), "Parallel GC tasks must be run by the VM operation thread");
+        if (readyWorkers == 0) {
+            currentNumWorkers = 1;
+            task.run(0, 1);
+            return;
+        }
+        synchronized (GANG_LOCK) {
+            currentTask = task;
+            currentNumWorkers = readyWorkers + 1;
+            activeWorkers = readyWorkers;
+            epoch++;
+            GANG_LOCK.notifyAll();
+        }
+        task.run(0, currentNumWorkers);
+        synchronized (GANG_LOCK) {
+            while (activeWorkers > 0) {
+                try {
+                    GANG_LOCK.wait();
+                } catch (InterruptedException e) {
+                }
+            }
+            currentTask = null;
+        }
+    }
+
+    /**
+     * Starts the worker threads when the VM enters the {@link MaxineVM.Phase#STARTING} phase.
+     * Must be called by heap schemes using the gang from their own {@link HeapScheme#initialize(MaxineVM.Phase)} method.
+     */
+    public void initialize(MaxineVM.Phase phase) {
+        if (phase == MaxineVM.Phase.STARTING) {
+            start();
+        }
+    }
+}
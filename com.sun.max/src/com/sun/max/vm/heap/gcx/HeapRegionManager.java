@@ -246,6 +246,7 @@ public final class HeapRegionManager implements HeapAccountOwner {
         }
 
         unreserved = numTotalRegions;
+        NUMARegionPlacement.initialize(startOfManagedSpace, numTotalRegions);
         final HeapScheme heapScheme = VMConfiguration.vmConfig().heapScheme();
         if (heapScheme instanceof RSetCoverage) {
             ((RSetCoverage) heapScheme).initializeCoverage(startOfManagedSpace, managedSpaceSize);
@@ -23,11 +23,13 @@
 package com.sun.max.vm.heap.gcx;
 
 import com.sun.max.unsafe.*;
+import com.sun.max.util.*;
 import com.sun.max.vm.*;
 import com.sun.max.vm.runtime.*;
 
 /**
- * Statistics on heap regions free space and fragmentation.
+ * Statistics on heap regions free space and fragmentation, and on the placement of regions on NUMA nodes when NUMA-aware
+ * placement is enabled (see {@link NUMARegionPlacement}).
  */
 public final class HeapRegionStatistics {
     /**
@@ -54,6 +56,17 @@ public final class HeapRegionStatistics {
      */
     final int [] regionsFragmentation;
 
+    /**
+     * Number of regions, and free space in these regions, per NUMA node.
+     */
+    final int [] nodeRegions;
+    final long [] nodeFreeBytes;
+
+    /**
+     * Number of regions whose first page was found on another node than the one the region is bound to.
+     */
+    private int misplacedRegions;
+
     /**
      * Private region info iterator.
      */
@@ -78,6 +91,8 @@ public final class HeapRegionStatistics {
         fragmentSizes = new int[log2LargestChunkSize + 1];
         freeSpaceSizes = new int[log2LargestChunkSize + 1];
         regionsFragmentation = new int[maxFragmentation + 1];
+        nodeRegions = new int[NUMARegionPlacement.numNodes()];
+        nodeFreeBytes = new long[NUMARegionPlacement.numNodes()];
     }
 
     public void clear() {
@@ -88,6 +103,11 @@ public final class HeapRegionStatistics {
         for (int i = 0; i < regionsFragmentation.length; i++) {
             regionsFragmentation[i] = 0;
         }
+        for (int i = 0; i < nodeRegions.length; i++) {
+            nodeRegions[i] = 0;
+            nodeFreeBytes[i] = 0L;
+        }
+        misplacedRegions = 0;
     }
 
     /**
@@ -106,6 +126,20 @@ public final class HeapRegionStatistics {
         } else {
             freeSpaceSizes[0]++;
         }
+        if (NUMARegionPlacement.isEnabled()) {
+            addPlacement(rinfo);
+        }
+    }
+
+    private void addPlacement(HeapRegionInfo rinfo) {
+        final int node = NUMARegionPlacement.nodeOf(rinfo.toRegionID());
+        nodeRegions[node]++;
+        nodeFreeBytes[node] += rinfo.isEmpty() ? HeapRegionConstants.regionSizeInBytes : rinfo.freeBytesInChunks();
+        // A negative status indicates the page isn't backed yet.
+        final int actualNode = NUMALib.numaNodeOfAddress(rinfo.regionStart().toLong());
+        if (actualNode >= 0 && actualNode != node) {
+            misplacedRegions++;
+        }
     }
 
     public void addFull(HeapRegionInfo rinfo) {
@@ -160,6 +194,19 @@ public final class HeapRegionStatistics {
                 Log.print(i); Log.print(" : "); Log.println(numRegions);
             }
         }
+        if (NUMARegionPlacement.isEnabled()) {
+            dumpPlacement();
+        }
+    }
+
+    private void dumpPlacement() {
+        Log.println(" node  : # regions   free bytes");
+        for (int i = 0; i < nodeRegions.length; i++) {
+            Log.print(i); Log.print(" : "); Log.print(nodeRegions[i]); Log.print("   "); Log.println(nodeFreeBytes[i]);
+        }
+        Log.print("misplaced regions : "); Log.println(misplacedRegions);
+        Log.print("TLAB refills from local / remote node regions : ");
+        Log.print(NUMARegionPlacement.localRefills()); Log.print(" / "); Log.println(NUMARegionPlacement.remoteRefills());
     }
 
     public void reportStats(HeapAccount<? extends HeapAccountOwner>heapAccount) {
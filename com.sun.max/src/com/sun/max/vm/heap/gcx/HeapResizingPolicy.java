@@ -36,6 +36,16 @@ public class HeapResizingPolicy {
      */
     final int maxFreeSpaceRatioForShrinking = 70;
 
+    /**
+     * Free space below which the policy expands the heap after a collection.
+     * A lazy sweeper can stop sweeping eagerly once it has found that much free space, since the policy will not resize the heap.
+     *
+     * @param heapSpace the space the policy applies to
+     */
+    public Size minFreeSpaceAfterGC(ResizableSpace heapSpace) {
+        return Size.fromLong((heapSpace.totalSpace().toLong() * minFreeSpaceRatioForExpansion) / 100);
+    }
+
     /**
      * Resize the heap according to policy.
      *
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.heap.gcx;
+
+import static com.sun.max.vm.heap.gcx.HeapRegionConstants.*;
+
+import com.sun.max.annotate.*;
+import com.sun.max.unsafe.*;
+import com.sun.max.util.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.MaxineVM.Phase;
+
+/**
+ * Placement of heap regions on NUMA nodes.
+ * When enabled, the regions managed by the {@link HeapRegionManager} are interleaved over the configured NUMA nodes: region {@code i}
+ * is on node {@code i % numNodes}, and its memory is bound to that node when committed. Since regions are committed and allocated
+ * lowest first, a heap committed well below its maximum size is still spread over all nodes. Allocators and GC workers can then map
+ * a region to its node, and the node of the current thread, to favor node-local accesses.
+ * When disabled, or when the platform doesn't have more than one NUMA node, all regions are on node 0.
+ */
+public final class NUMARegionPlacement {
+    private static boolean UseNUMA = false;
+    static {
+        VMOptions.addFieldOption("-XX:", "UseNUMA", NUMARegionPlacement.class,
+            "Bind heap regions to NUMA nodes and serve TLABs from regions on the local node", Phase.PRISTINE);
+    }
+
+    private NUMARegionPlacement() {
+    }
+
+    /**
+     * Indicates whether NUMA-aware placement is in effect.
+     */
+    @CONSTANT_WHEN_NOT_ZERO
+    private static boolean enabled;
+
+    @CONSTANT_WHEN_NOT_ZERO
+    private static int numNodes = 1;
+
+    /**
+     * First byte of the space covered by region placement.
+     */
+    @CONSTANT_WHEN_NOT_ZERO
+    private static Address start;
+
+    /**
+     * Number of regions covered by region placement.
+     */
+    @CONSTANT_WHEN_NOT_ZERO
+    private static int numRegions;
+
+    /**
+     * Number of TLAB refills served with a region on the node of the requesting thread, and with a region on another node.
+     */
+    private static int localRefills;
+    private static int remoteRefills;
+
+    /**
+     * Set up region placement for the regions of the heap region manager. Called once, before any region is committed.
+     *
+     * @param startOfManagedSpace address of the first region
+     * @param numRegions total number of regions
+     */
+    static void initialize(Address startOfManagedSpace, int numRegions) {
+        start = startOfManagedSpace;
+        NUMARegionPlacement.numRegions = numRegions;
+        if (!UseNUMA) {
+            return;
+        }
+        if (NUMALib.numalib_available() == -1) {
+            Log.println("WARNING: NUMA support unavailable, ignoring -XX:+UseNUMA");
+            return;
+        }
+        final int configuredNodes = NUMALib.numaConfiguredNodes();
+        if (configuredNodes <= 1) {
+            return;
+        }
+        numNodes = configuredNodes;
+        enabled = true;
+        if (MaxineVM.isDebug()) {
+            Log.print("NUMA region placement: ");
+            Log.print(numRegions);
+            Log.print(" regions interleaved over ");
+            Log.print(numNodes);
+            Log.println(" nodes");
+        }
+    }
+
+    @INLINE
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    @INLINE
+    public static int numNodes() {
+        return numNodes;
+    }
+
+    /**
+     * The node the memory of a region is bound to.
+     */
+    @INLINE
+    public static int nodeOf(int regionID) {
+        return enabled ? nodeOf(regionID, numNodes) : 0;
+    }
+
+    /**
+     * The node of a region when regions are interleaved over a given number of nodes.
+     */
+    @INLINE
+    public static int nodeOf(int regionID, int numNodes) {
+        return regionID % numNodes;
+    }
+
+    /**
+     * The region at a given index in the sequence of regions of a node, when regions are interleaved over a given number of nodes.
+     */
+    @INLINE
+    public static int regionOfNode(int node, int index, int numNodes) {
+        return node + index * numNodes;
+    }
+
+    @INLINE
+    public static int numRegions() {
+        return numRegions;
+    }
+
+    /**
+     * Start of a region.
+     */
+    public static Address regionStart(int regionID) {
+        return start.plus(Size.fromInt(regionID).shiftedLeft(log2RegionSizeInBytes));
+    }
+
+    /**
+     * The node of the processor the current thread runs on.
+     * Threads may migrate between nodes, so this is only a hint.
+     */
+    public static int currentNode() {
+        if (!enabled) {
+            return 0;
+        }
+        final int node = NUMALib.numaNodeOfCPU();
+        return node < 0 || node >= numNodes ? 0 : node;
+    }
+
+    /**
+     * Bind the memory of a range of regions to the node of each region. Called when the regions are committed.
+     *
+     * @param firstRegionID first region of the range
+     * @param numRegions number of regions in the range
+     */
+    static void bind(int firstRegionID, int numRegions) {
+        if (!enabled) {
+            return;
+        }
+        final int end = firstRegionID + numRegions;
+        for (int regionID = firstRegionID; regionID < end; regionID++) {
+            NUMALib.numaBindMemory(regionStart(regionID).toLong(), regionSizeInBytes, nodeOf(regionID));
+        }
+    }
+
+    /**
+     * Record the placement of a region handed out to the TLAB allocator of a node. Must be called with the refill lock held.
+     */
+    static void recordRefill(int node, int regionID) {
+        if (nodeOf(regionID) == node) {
+            localRefills++;
+        } else {
+            remoteRefills++;
+        }
+    }
+
+    static int localRefills() {
+        return localRefills;
+    }
+
+    static int remoteRefills() {
+        return remoteRefills;
+    }
+}
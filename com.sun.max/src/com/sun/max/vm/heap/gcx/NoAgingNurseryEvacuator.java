@@ -50,6 +50,8 @@ public class NoAgingNurseryEvacuator extends EvacuatorToCardSpace {
      * we check if the visited cell boundary coincide with the first free bytes of the allocator, and skip it if it does.
      *
      * Note that the allocator that feed the promotion lab is kept in an iterable state.
+     * During parallel evacuation, the promotion labs of all GC workers lie above the {@link #dirtyCardScanLimit}, which
+     * bounds the walk instead.
      */
     final class DirtyCardEvacuationClosure implements CellVisitor, OverlappingCellVisitor,  CellRangeVisitor {
         private final CardTableRSet cachedRSet;
@@ -60,6 +62,10 @@ public class NoAgingNurseryEvacuator extends EvacuatorToCardSpace {
 
         @Override
         public Pointer visitCell(Pointer cell, Address start, Address end) {
+            if (cell.greaterEqual(dirtyCardScanLimit)) {
+                // Skip area allocated by parallel evacuation.
+                return end.asPointer();
+            }
             if (cell.equals(ptop)) {
                 // Skip allocating area.
                 return pend;
@@ -113,12 +119,51 @@ public class NoAgingNurseryEvacuator extends EvacuatorToCardSpace {
     private final DirtyCardEvacuationClosure heapSpaceDirtyCardClosure;
     private final BootRegionDirtyCardEvacuationClosure bootRegionDirtyCardClosure;
 
+    /**
+     * Upper bound of the area of the to-space whose dirty cards are scanned. Cells at or above this address are
+     * skipped by the dirty card walk. Set to the top of the to-space at the beginning of a parallel evacuation.
+     */
+    private Address dirtyCardScanLimit = Address.max();
+
+    /**
+     * Driver of parallel evacuation. Null if this evacuator is only used serially or is a helper of another evacuator.
+     */
+    private ParallelNurseryEvacuation parallelNurseryEvacuation;
+
     public NoAgingNurseryEvacuator(EvacuatingSpace fromSpace, HeapSpace toSpace, EvacuationBufferProvider evacuationBufferProvider, CardTableRSet rset, String name) {
         super(fromSpace, toSpace, evacuationBufferProvider, rset, name);
         this.heapSpaceDirtyCardClosure = new DirtyCardEvacuationClosure();
         this.bootRegionDirtyCardClosure = new BootRegionDirtyCardEvacuationClosure();
     }
 
+    /**
+     * Creates a helper evacuator run by a GC worker thread on behalf of the specified evacuator during parallel evacuation.
+     */
+    @HOSTED_ONLY
+    NoAgingNurseryEvacuator(NoAgingNurseryEvacuator leader) {
+        super(leader);
+        this.heapSpaceDirtyCardClosure = new DirtyCardEvacuationClosure();
+        this.bootRegionDirtyCardClosure = new BootRegionDirtyCardEvacuationClosure();
+    }
+
+    @HOSTED_ONLY
+    void setParallelNurseryEvacuation(ParallelNurseryEvacuation parallelNurseryEvacuation) {
+        this.parallelNurseryEvacuation = parallelNurseryEvacuation;
+    }
+
+    void setDirtyCardScanLimit(Address limit) {
+        dirtyCardScanLimit = limit;
+    }
+
+    /**
+     * Evacuate cells of the evacuated space referenced from the dirty cards of the specified range of the to-space.
+     * @param start a card-aligned address in the to-space
+     * @param end a card-aligned address in the to-space
+     */
+    final void evacuateFromDirtyCards(Address start, Address end) {
+        heapSpaceDirtyCardClosure.visitCells(start, end);
+    }
+
     @Override
     public void setGCOperation(GCOperation gcOperation) {
         super.setGCOperation(gcOperation);
@@ -138,6 +183,10 @@ public class NoAgingNurseryEvacuator extends EvacuatorToCardSpace {
 
     @Override
     protected void evacuateFromRSets() {
+        if (isParallelEvacuation()) {
+            parallelNurseryEvacuation.evacuateFromDirtyCards();
+            return;
+        }
         // Visit the dirty cards of the old gen (i.e., the toSpace).
         final boolean traceRSet = CardTableRSet.traceCardTableRSet();
         if (traceDirtyCardWalk()) {
@@ -149,5 +198,17 @@ public class NoAgingNurseryEvacuator extends EvacuatorToCardSpace {
         }
     }
 
+    @Override
+    protected void evacuateReachablesInParallel() {
+        parallelNurseryEvacuation.evacuateReachables();
+    }
+
+    @Override
+    protected void doAfterEvacuation() {
+        super.doAfterEvacuation();
+        if (isParallelEvacuation()) {
+            parallelNurseryEvacuation.releaseHelpers();
+        }
+    }
 }
 
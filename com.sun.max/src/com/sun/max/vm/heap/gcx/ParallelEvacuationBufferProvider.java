@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.heap.gcx;
+
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.runtime.*;
+
+/**
+ * Provider of parallel local allocation buffers (PLABs) for an evacuator running in parallel with other evacuators.
+ * PLABs of a fixed size are carved out of the to-space with the to-space's atomic bump pointer allocator, so that each
+ * GC worker can refill its own evacuation buffer without synchronizing with the others.
+ * <p>
+ * The provider never asks the to-space's allocator for a refill: the heap scheme must make sure the to-space has enough
+ * free space for all the survivors and the PLABs of all workers before evacuating in parallel.
+ */
+public final class ParallelEvacuationBufferProvider implements EvacuationBufferProvider {
+    private final BaseAtomicBumpPointerAllocator<? extends Refiller> allocator;
+
+    /**
+     * Size of the PLABs handed out by the provider.
+     */
+    private Size bufferSize = Size.zero();
+
+    /**
+     * Number of PLABs handed out since the last reset. Statistics only.
+     */
+    private int refills;
+
+    public ParallelEvacuationBufferProvider(BaseAtomicBumpPointerAllocator<? extends Refiller> allocator) {
+        this.allocator = allocator;
+    }
+
+    public void initialize(Size bufferSize) {
+        FatalError.check(bufferSize.greaterEqual(HeapFreeChunk.heapFreeChunkHeaderSize()) && bufferSize.isWordAligned(), "Invalid PLAB size");
+        this.bufferSize = bufferSize;
+    }
+
+    public Size bufferSize() {
+        return bufferSize;
+    }
+
+    public int refills() {
+        return refills;
+    }
+
+    public void resetStatistics() {
+        refills = 0;
+    }
+
+    @Override
+    public Address refillEvacuationBuffer() {
+        FatalError.check(allocator.freeSpace().greaterEqual(bufferSize), "Out of to-space during parallel evacuation");
+        final Pointer buffer = allocator.allocateRaw(bufferSize);
+        HeapFreeChunk.format(buffer, bufferSize);
+        refills++;
+        return buffer;
+    }
+
+    @Override
+    public void retireEvacuationBuffer(Address startOfSpaceLeft, Address endOfSpaceLeft) {
+        // Give the space left back to the allocator if no other PLAB was allocated after this one. Otherwise, leave it as a hole.
+        if (!allocator.retireTop(startOfSpaceLeft, endOfSpaceLeft.minus(startOfSpaceLeft).asSize())) {
+            DarkMatter.format(startOfSpaceLeft, endOfSpaceLeft);
+        }
+    }
+}
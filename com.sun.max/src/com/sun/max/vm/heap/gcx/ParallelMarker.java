@@ -0,0 +1,589 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.heap.gcx;
+
+import static com.sun.max.vm.VMOptions.*;
+import static com.sun.max.vm.heap.gcx.HeapRegionConstants.*;
+
+import com.sun.max.annotate.*;
+import com.sun.max.atomic.*;
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.holder.*;
+import com.sun.max.vm.heap.*;
+import com.sun.max.vm.layout.*;
+import com.sun.max.vm.reference.*;
+import com.sun.max.vm.runtime.*;
+
+/**
+ * Parallel tracing of the heap for a {@link TricolorHeapMarker}, using the threads of the {@link GCWorkerGang}.
+ * <p>
+ * Root marking is done by the VM operation thread as for sequential marking. Tracing then alternates two kinds of parallel rounds:
+ * <ul>
+ * <li>a <em>collect</em> round, wherein workers claim stripes of the mark bitmap and push the grey objects they find in
+ * them on their own {@link ParallelMarkingStack}. The mark bitmap is only read during this round, which makes decoding
+ * colors from the bitmap unambiguous;</li>
+ * <li>a <em>drain</em> round, wherein workers pop grey objects from their own stack, or steal some from other workers' stacks,
+ * turn them black and visit their references. White references are turned grey with an atomic update of the mark bitmap, so that
+ * exactly one worker succeeds in greying, and then pushing, any given object.</li>
+ * </ul>
+ * When a marking stack is full, the grey object is left in the mark bitmap and a new collect round is scheduled once the
+ * drain round terminates. Tracing completes when a drain round terminates without any stack overflow.
+ * <p>
+ * Unlike the sequential forward scan, no finger is used: every grey object goes through a marking stack, and the marks are
+ * black as soon as an object is claimed for visiting.
+ */
+final class ParallelMarker implements GCWorkerGang.Task, SpecialReferenceManager.GC {
+    private static final VMIntOption parallelMarkingStackSizeOption =
+        register(new VMIntOption("-XX:ParallelMarkingStackSize=", 16 * 1024, "Size of each GC worker's marking stack in number of references."),
+                        MaxineVM.Phase.PRISTINE);
+
+    /**
+     * Number of words of the mark bitmap in a stripe claimed by a worker during a collect round.
+     */
+    private static final int STRIPE_LENGTH = 256;
+
+    /**
+     * Per-worker marking state.
+     */
+    final class Worker extends PointerIndexVisitor {
+        final int id;
+        final ParallelMarkingStack markingStack = new ParallelMarkingStack();
+
+        /**
+         * Rightmost object greyed by this worker.
+         */
+        Address rightmost;
+
+        /**
+         * Leftmost object this worker failed to push on its marking stack.
+         */
+        Address leftmostOverflow;
+
+        /**
+         * Statistics.
+         */
+        long visitedCells;
+        long stolenCells;
+
+        Worker(int id) {
+            this.id = id;
+        }
+
+        void reset() {
+            markingStack.reset();
+            rightmost = Address.zero();
+            leftmostOverflow = heapMarker.coveredAreaEnd;
+            visitedCells = 0L;
+            stolenCells = 0L;
+        }
+
+        /**
+         * Records a grey object that couldn't be pushed on the marking stack. It will be found by the next collect round.
+         */
+        void recordOverflow(Pointer cell) {
+            overflowed = true;
+            if (cell.lessThan(leftmostOverflow)) {
+                leftmostOverflow = cell;
+            }
+        }
+
+        @INLINE
+        private void markObjectGrey(Pointer cell) {
+            if (cell.greaterEqual(heapMarker.coveredAreaStart) && heapMarker.atomicMarkGreyIfWhite(cell)) {
+                if (cell.greaterThan(rightmost)) {
+                    rightmost = cell;
+                }
+                if (!markingStack.push(cell)) {
+                    recordOverflow(cell);
+                }
+            }
+        }
+
+        @INLINE
+        private void markRefGrey(Reference ref) {
+            markObjectGrey(Layout.originToCell(ref.toOrigin()));
+        }
+
+        @Override
+        public void visit(Pointer pointer, int wordIndex) {
+            markRefGrey(pointer.getReference(wordIndex));
+        }
+
+        private void visitGreyCell(Pointer cell) {
+            if (MaxineVM.isDebug() && Heap.logAllGC()) {
+                TricolorHeapMarker.printVisitedCell(cell, "Visiting grey cell ");
+            }
+            final Pointer origin = Layout.cellToOrigin(cell);
+            final Reference hubRef = Layout.readHubReference(origin);
+            markRefGrey(hubRef);
+            final Hub hub = UnsafeCast.asHub(hubRef.toJava());
+            if (MaxineVM.isDebug()) {
+                heapMarker.checkGreyCellHub(origin, hub);
+            }
+            final SpecificLayout specificLayout = hub.specificLayout;
+            if (specificLayout.isTupleLayout()) {
+                TupleReferenceMap.visitReferences(hub, origin, this);
+                if (hub.isJLRReference) {
+                    // Cells are visited only once, but several workers may discover special references concurrently.
+                    discoverSpecialReference(cell);
+                }
+            } else if (specificLayout.isReferenceArrayLayout()) {
+                final int length = Layout.readArrayLength(origin);
+                for (int index = 0; index < length; index++) {
+                    markRefGrey(Layout.getReference(origin, index));
+                }
+            } else if (specificLayout.isHybridLayout()) {
+                TupleReferenceMap.visitReferences(hub, origin, this);
+            }
+        }
+
+        /**
+         * Visits a cell if the calling worker wins the race for turning it black.
+         */
+        @INLINE
+        private void visitIfGrey(Pointer cell) {
+            final int bitIndex = heapMarker.bitIndexOf(cell);
+            if (heapMarker.atomicMarkBlackFromGrey(bitIndex)) {
+                heapMarker.traceBlackMark(cell, bitIndex);
+                visitedCells++;
+                visitGreyCell(cell);
+            }
+        }
+
+        void drain() {
+            Pointer cell = markingStack.pop();
+            while (!cell.isZero()) {
+                visitIfGrey(cell);
+                cell = markingStack.pop();
+            }
+        }
+
+        /**
+         * Tries to steal a cell from another worker's marking stack and visits it.
+         * @return true if a cell was stolen
+         */
+        boolean steal() {
+            for (int i = 1; i < numWorkers; i++) {
+                final Worker victim = workers[(id + i) % numWorkers];
+                final Pointer cell = victim.markingStack.steal();
+                if (!cell.isZero()) {
+                    stolenCells++;
+                    visitIfGrey(cell);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Collects the grey objects whose mark is in a range of words of the mark bitmap and pushes them on the marking stack.
+         * Must only be called while the mark bitmap isn't modified.
+         *
+         * @param firstBitmapWordIndex first word of the range
+         * @param lastBitmapWordIndex last word of the range
+         * @return false if the marking stack filled up before the range was completely scanned
+         */
+        boolean collectGreyObjects(int firstBitmapWordIndex, int lastBitmapWordIndex) {
+            final Pointer colorMapBase = heapMarker.base.asPointer();
+            final int log2BitsPerWord = Word.widthValue().log2numberOfBits;
+            // Whether the first bit of the current bitmap word is the grey bit of an object whose mark begins in the previous word.
+            boolean carry = leadingMarkEndsBitmapWord(firstBitmapWordIndex - 1);
+            for (int bitmapWordIndex = firstBitmapWordIndex; bitmapWordIndex <= lastBitmapWordIndex; bitmapWordIndex++) {
+                final long bitmapWord = colorMapBase.getLong(bitmapWordIndex);
+                long marks = carry ? bitmapWord & ~1L : bitmapWord;
+                carry = false;
+                while (marks != 0L) {
+                    // Scanning from a known color boundary, the least set bit is always the leading bit of a mark.
+                    final int bitIndexInWord = Pointer.fromLong(marks).leastSignificantBitSet();
+                    final boolean isGrey;
+                    if (bitIndexInWord == TricolorHeapMarker.LAST_BIT_INDEX_IN_WORD) {
+                        isGrey = (colorMapBase.getLong(bitmapWordIndex + 1) & 1L) != 0L;
+                        carry = true;
+                        marks = 0L;
+                    } else {
+                        isGrey = (bitmapWord & TricolorHeapMarker.bitmaskFor(bitIndexInWord + 1)) != 0L;
+                        marks &= ~(TricolorHeapMarker.COLOR_MASK << bitIndexInWord);
+                    }
+                    if (isGrey) {
+                        final Pointer cell = heapMarker.addressOf((bitmapWordIndex << log2BitsPerWord) + bitIndexInWord).asPointer();
+                        if (!markingStack.push(cell)) {
+                            recordOverflow(cell);
+                            return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    final TricolorHeapMarker heapMarker;
+
+    /**
+     * Marking state of each participant. Index 0 is used by the VM operation thread.
+     */
+    private final Worker[] workers;
+
+    /**
+     * Number of workers participating to the current marking.
+     */
+    private int numWorkers;
+
+    /**
+     * Indicates whether the current round is a collect round.
+     */
+    private boolean collectRound;
+
+    /**
+     * Range of words of the mark bitmap scanned by the current collect round, and index of the next stripe to claim.
+     */
+    private int firstBitmapWordIndex;
+    private int lastBitmapWordIndex;
+    private final AtomicInteger nextStripe = new AtomicInteger();
+
+    /**
+     * When NUMA-aware region placement is enabled, the range of words of the mark bitmap scanned by the current collect round is
+     * claimed region by region, each node with its own index of the next of its regions to claim.
+     * Workers claim regions of their own node first, then help with the regions of the other nodes.
+     */
+    private AtomicInteger[] nodeNextRegion;
+
+    /**
+     * Number of workers that ran out of work during the current drain round.
+     */
+    private final AtomicInteger idleWorkers = new AtomicInteger();
+
+    /**
+     * Spin lock serializing the discovery of special references.
+     */
+    private final AtomicInteger discoveryLock = new AtomicInteger();
+
+    /**
+     * Set when a grey object couldn't be pushed on a marking stack.
+     */
+    private volatile boolean overflowed;
+
+    /**
+     * Rightmost marked object, i.e., the rightmost of the roots and of the objects greyed by all workers.
+     */
+    Address rightmost;
+
+    private int rounds;
+
+    @HOSTED_ONLY
+    ParallelMarker(TricolorHeapMarker heapMarker) {
+        this.heapMarker = heapMarker;
+        workers = new Worker[GCWorkerGang.MAX_GC_WORKER_THREADS + 1];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i);
+        }
+    }
+
+    /**
+     * Allocates the marking stacks of the workers that may participate to marking.
+     */
+    void initialize() {
+        final int length = parallelMarkingStackSizeOption.getValue();
+        final int maxWorkers = GCWorkerGang.theGang().maxNumWorkers();
+        for (int i = 0; i < maxWorkers; i++) {
+            workers[i].markingStack.initialize(length);
+        }
+        if (NUMARegionPlacement.isEnabled()) {
+            final int numNodes = NUMARegionPlacement.numNodes();
+            nodeNextRegion = new AtomicInteger[numNodes];
+            for (int node = 0; node < numNodes; node++) {
+                nodeNextRegion[node] = new AtomicInteger();
+            }
+        }
+    }
+
+    private void discoverSpecialReference(Pointer cell) {
+        while (!discoveryLock.compareAndSet(0, 1)) {
+            // spin
+        }
+        SpecialReferenceManager.discoverSpecialReference(cell);
+        discoveryLock.set(0);
+    }
+
+    /**
+     * Indicates whether the last bit of the specified word of the mark bitmap is the leading bit of a mark.
+     * Colors are decoded backward from the end of the word: a run of consecutive set bits always begins with a leading bit
+     * and alternates leading bits and grey bits, so the parity of the length of the run decides the nature of its last bit.
+     */
+    private boolean leadingMarkEndsBitmapWord(int bitmapWordIndex) {
+        final Pointer colorMapBase = heapMarker.base.asPointer();
+        int runLength = 0;
+        int index = bitmapWordIndex;
+        while (index >= 0) {
+            final int ones = Long.numberOfLeadingZeros(~colorMapBase.getLong(index));
+            runLength += ones;
+            if (ones < Word.widthValue().numberOfBits) {
+                break;
+            }
+            index--;
+        }
+        return (runLength & 1) != 0;
+    }
+
+    public void run(int workerId, int gangSize) {
+        // Workers that joined the gang after marking started don't participate.
+        if (workerId >= numWorkers) {
+            return;
+        }
+        final Worker worker = workers[workerId];
+        if (collectRound) {
+            collect(worker);
+        } else {
+            drain(worker);
+        }
+    }
+
+    private void collect(Worker worker) {
+        if (nodeNextRegion != null) {
+            collectFromNodes(worker);
+            return;
+        }
+        collect(worker, nextStripe, firstBitmapWordIndex, lastBitmapWordIndex);
+    }
+
+    /**
+     * Claims stripes from a range of words of the mark bitmap until the range is exhausted.
+     * @return false if the worker's marking stack is full, true otherwise
+     */
+    private boolean collect(Worker worker, AtomicInteger nextStripe, int firstBitmapWordIndex, int lastBitmapWordIndex) {
+        while (true) {
+            final int stripe = nextStripe.getAndAdd(1);
+            final int first = firstBitmapWordIndex + stripe * STRIPE_LENGTH;
+            if (first > lastBitmapWordIndex) {
+                return true;
+            }
+            final int last = first + STRIPE_LENGTH - 1;
+            if (!worker.collectGreyObjects(first, last > lastBitmapWordIndex ? lastBitmapWordIndex : last)) {
+                // Marking stack is full. The next collect round will take care of the remaining grey objects.
+                return false;
+            }
+        }
+    }
+
+    private void collectFromNodes(Worker worker) {
+        final int numNodes = nodeNextRegion.length;
+        final int localNode = NUMARegionPlacement.currentNode();
+        for (int i = 0; i < numNodes; i++) {
+            final int node = (localNode + i) % numNodes;
+            if (!collectNode(worker, node, numNodes)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Claims the regions of a node, in address order, until none of them overlaps the range of words of the mark bitmap
+     * of the current collect round. The first region also covers the words below it, and the last region the words above it.
+     * @return false if the worker's marking stack is full, true otherwise
+     */
+    private boolean collectNode(Worker worker, int node, int numNodes) {
+        final int numRegions = NUMARegionPlacement.numRegions();
+        while (true) {
+            final int regionID = NUMARegionPlacement.regionOfNode(node, nodeNextRegion[node].getAndAdd(1), numNodes);
+            if (regionID >= numRegions) {
+                return true;
+            }
+            final Address regionStart = NUMARegionPlacement.regionStart(regionID);
+            final int first = regionID == 0 ? firstBitmapWordIndex : Math.max(firstBitmapWordIndex, heapMarker.bitmapWordIndex(regionStart));
+            if (first > lastBitmapWordIndex) {
+                return true;
+            }
+            int last = lastBitmapWordIndex;
+            if (regionID < numRegions - 1) {
+                last = Math.min(last, heapMarker.bitmapWordIndex(regionStart.plus(regionSizeInBytes)) - 1);
+            }
+            if (first <= last && !worker.collectGreyObjects(first, last)) {
+                // Marking stack is full. The next collect round will take care of the remaining grey objects.
+                return false;
+            }
+        }
+    }
+
+    private void drain(Worker worker) {
+        while (true) {
+            worker.drain();
+            if (worker.steal()) {
+                continue;
+            }
+            // Out of work. Terminate when all workers are out of work, or go back to work if some marking stack isn't empty.
+            idleWorkers.getAndAdd(1);
+            while (true) {
+                if (idleWorkers.get() == numWorkers) {
+                    return;
+                }
+                if (hasWork()) {
+                    idleWorkers.getAndAdd(-1);
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean hasWork() {
+        for (int i = 0; i < numWorkers; i++) {
+            if (!workers[i].markingStack.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void runCollectRound(Address leftmost, Address rightmost) {
+        collectRound = true;
+        overflowed = false;
+        firstBitmapWordIndex = heapMarker.bitmapWordIndex(leftmost);
+        // The grey bit of the rightmost object may be in the next word of the bitmap.
+        lastBitmapWordIndex = heapMarker.bitmapWordIndex(rightmost);
+        nextStripe.set(0);
+        if (nodeNextRegion != null) {
+            for (AtomicInteger nextRegion : nodeNextRegion) {
+                nextRegion.set(0);
+            }
+        }
+        rounds++;
+        GCWorkerGang.theGang().run(this);
+    }
+
+    private void runDrainRound() {
+        collectRound = false;
+        idleWorkers.set(0);
+        rounds++;
+        GCWorkerGang.theGang().run(this);
+        for (int i = 0; i < numWorkers; i++) {
+            final Worker worker = workers[i];
+            FatalError.check(worker.markingStack.isEmpty(), "Marking stacks must be empty after a drain round");
+            if (worker.rightmost.greaterThan(rightmost)) {
+                rightmost = worker.rightmost;
+            }
+        }
+    }
+
+    /**
+     * Drains the marking stacks, then runs collect and drain rounds until no more grey objects are left in the mark bitmap.
+     */
+    private void drainAndRecoverFromOverflow() {
+        do {
+            runDrainRound();
+            if (!overflowed) {
+                return;
+            }
+            Address leftmostOverflow = heapMarker.coveredAreaEnd;
+            for (int i = 0; i < numWorkers; i++) {
+                final Worker worker = workers[i];
+                if (worker.leftmostOverflow.lessThan(leftmostOverflow)) {
+                    leftmostOverflow = worker.leftmostOverflow;
+                }
+                worker.leftmostOverflow = heapMarker.coveredAreaEnd;
+            }
+            runCollectRound(leftmostOverflow, rightmost);
+        } while (true);
+    }
+
+    /**
+     * Trace all objects reachable from the objects marked grey during root marking.
+     *
+     * @param rootsLeftmost leftmost object marked grey during root marking
+     * @param rootsRightmost rightmost object marked grey during root marking
+     */
+    void visitGreyObjectsAfterRootMarking(Address rootsLeftmost, Address rootsRightmost) {
+        numWorkers = GCWorkerGang.theGang().numWorkers();
+        if (numWorkers > GCWorkerGang.theGang().maxNumWorkers()) {
+            numWorkers = GCWorkerGang.theGang().maxNumWorkers();
+        }
+        rounds = 0;
+        for (int i = 0; i < numWorkers; i++) {
+            workers[i].reset();
+        }
+        rightmost = rootsRightmost;
+        if (rootsLeftmost.greaterEqual(heapMarker.coveredAreaEnd)) {
+            // No roots in the covered area.
+            return;
+        }
+        if (rootsLeftmost.greaterThan(rightmost)) {
+            rightmost = rootsLeftmost;
+        }
+        runCollectRound(rootsLeftmost, rightmost);
+        drainAndRecoverFromOverflow();
+    }
+
+    /**
+     * Trace all objects reachable from the objects marked grey while processing special references.
+     */
+    void visitGreyObjects() {
+        drainAndRecoverFromOverflow();
+    }
+
+    public boolean isReachable(Reference ref) {
+        Pointer origin = ref.toOrigin();
+        if (heapMarker.isCovered(origin)) {
+            return !heapMarker.isWhite(origin);
+        }
+        // Same as for the sequential forward scan.
+        return true;
+    }
+
+    public Reference preserve(Reference ref) {
+        // Only called by the VM operation thread while the other workers are idle.
+        final Pointer cell = Layout.originToCell(ref.toOrigin());
+        if (cell.greaterEqual(heapMarker.coveredAreaStart) && heapMarker.markGreyIfWhite(cell)) {
+            final Worker worker = workers[0];
+            if (cell.greaterThan(rightmost)) {
+                rightmost = cell;
+            }
+            if (!worker.markingStack.push(cell)) {
+                worker.recordOverflow(cell);
+            }
+        }
+        return ref;
+    }
+
+    public boolean mayRelocateLiveObjects() {
+        return false;
+    }
+
+    void reportLastStatistics() {
+        long visited = 0L;
+        long stolen = 0L;
+        for (int i = 0; i < numWorkers; i++) {
+            visited += workers[i].visitedCells;
+            stolen += workers[i].stolenCells;
+        }
+        Log.print(", parallel marking (workers=");
+        Log.print(numWorkers);
+        Log.print(", rounds=");
+        Log.print(rounds);
+        Log.print(", visited=");
+        Log.print(visited);
+        Log.print(", stolen=");
+        Log.print(stolen);
+        Log.print(")");
+    }
+
+    @Override
+    public String toString() {
+        return "parallel marking";
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.heap.gcx;
+
+import com.oracle.max.cri.intrinsics.*;
+import com.sun.max.annotate.*;
+import com.sun.max.memory.*;
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.holder.*;
+import com.sun.max.vm.reference.*;
+
+/**
+ * Fixed size marking stack owned by a single GC worker thread and from which other GC worker threads can steal cells.
+ * This is a bounded variant of the Chase-Lev work-stealing deque: the owner pushes and pops cells at the bottom of the stack
+ * without synchronization, whereas thieves steal cells from the top with a compare-and-swap.
+ * The only synchronization between the owner and the thieves occurs when the owner pops the last cell of the stack.
+ * <p>
+ * Unlike {@link MarkingStack}, the stack doesn't drain itself nor recover from overflow: {@link #push(Pointer)} simply fails
+ * when the stack is full, and the caller is responsible for remembering that some grey objects are only recorded in the mark bitmap.
+ */
+final class ParallelMarkingStack {
+    /**
+     * Start of the storage of the stack.
+     */
+    private Pointer base = Pointer.zero();
+
+    /**
+     * Capacity of the stack. Always a power of two.
+     */
+    private int capacity;
+
+    private int mask;
+
+    /**
+     * Index of the next cell to steal. Only updated with a compare-and-swap.
+     */
+    private volatile int top;
+
+    /**
+     * Index of the next free slot. Only updated by the owner of the stack.
+     */
+    private volatile int bottom;
+
+    @FOLD
+    private static int topOffset() {
+        return ClassActor.fromJava(ParallelMarkingStack.class).findLocalInstanceFieldActor("top").offset();
+    }
+
+    ParallelMarkingStack() {
+    }
+
+    /**
+     * Allocates the storage of the stack.
+     *
+     * @param length requested number of cells that the stack can hold. Rounded up to the next power of two.
+     */
+    void initialize(int length) {
+        capacity = Integer.highestOneBit(length);
+        if (capacity < length) {
+            capacity <<= 1;
+        }
+        mask = capacity - 1;
+        final Size size = Size.fromInt(capacity).shiftedLeft(Word.widthValue().log2numberOfBytes);
+        base = Memory.allocate(size);
+        if (base.isZero()) {
+            MaxineVM.reportPristineMemoryFailure("parallel marking stack", "allocate", size);
+        }
+    }
+
+    boolean isInitialized() {
+        return !base.isZero();
+    }
+
+    void reset() {
+        top = 0;
+        bottom = 0;
+    }
+
+    /**
+     * Indicates whether the stack is empty. The answer is only a hint if the stack isn't owned by the caller.
+     */
+    @INLINE
+    boolean isEmpty() {
+        return bottom - top <= 0;
+    }
+
+    /**
+     * Pushes a cell at the bottom of the stack. Must only be called by the owner of the stack.
+     *
+     * @param cell a grey cell
+     * @return true if the cell was pushed, false if the stack is full
+     */
+    boolean push(Pointer cell) {
+        final int b = bottom;
+        if (b - top >= capacity) {
+            return false;
+        }
+        base.setWord(b & mask, cell);
+        // Make sure the cell is visible to thieves before the new bottom is.
+        MemoryBarriers.barrier(MemoryBarriers.STORE_STORE);
+        bottom = b + 1;
+        return true;
+    }
+
+    /**
+     * Pops a cell from the bottom of the stack. Must only be called by the owner of the stack.
+     *
+     * @return a cell, or zero if the stack is empty
+     */
+    Pointer pop() {
+        final int b = bottom - 1;
+        bottom = b;
+        // The new bottom must be visible to thieves before top is read.
+        MemoryBarriers.barrier(MemoryBarriers.STORE_LOAD);
+        final int t = top;
+        if (b - t < 0) {
+            // Stack was empty.
+            bottom = t;
+            return Pointer.zero();
+        }
+        Pointer cell = base.getWord(b & mask).asPointer();
+        if (b != t) {
+            return cell;
+        }
+        // Popping the last cell: race with thieves for it.
+        if (Reference.fromJava(this).compareAndSwapInt(topOffset(), t, t + 1) != t) {
+            cell = Pointer.zero();
+        }
+        bottom = t + 1;
+        return cell;
+    }
+
+    /**
+     * Steals a cell from the top of the stack. May be called by any thread.
+     *
+     * @return a cell, or zero if the stack was empty or if another thread won the race for the top cell.
+     */
+    Pointer steal() {
+        final int t = top;
+        MemoryBarriers.barrier(MemoryBarriers.LOAD_LOAD);
+        final int b = bottom;
+        if (b - t <= 0) {
+            return Pointer.zero();
+        }
+        final Pointer cell = base.getWord(t & mask).asPointer();
+        if (Reference.fromJava(this).compareAndSwapInt(topOffset(), t, t + 1) != t) {
+            return Pointer.zero();
+        }
+        return cell;
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.heap.gcx;
+
+import com.sun.max.annotate.*;
+import com.sun.max.atomic.*;
+import com.sun.max.unsafe.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.MaxineVM.Phase;
+import com.sun.max.vm.heap.*;
+import com.sun.max.vm.heap.gcx.rset.ctbl.*;
+import com.sun.max.vm.runtime.*;
+
+/**
+ * Parallel evacuation of a nursery by a {@link NoAgingNurseryEvacuator}, the <em>leader</em>, helped by evacuators run by the
+ * threads of the {@link GCWorkerGang}.
+ * <p>
+ * Evacuation follows the phases of {@link Evacuator#evacuate(boolean)}. The leader scans the roots, the boot heap, the code and the immortal heap alone.
+ * The remaining phases are run by the gang:
+ * <ul>
+ * <li>the dirty cards of the part of the to-space allocated before evacuation are split into stripes claimed by the workers. After each stripe,
+ * a worker evacuates the cells reachable from the survivors it has copied so far;</li>
+ * <li>evacuation of reachable cells, wherein workers scan their own survivor ranges, or steal ranges from other workers, until all workers are out of work.
+ * This phase is run once after the dirty card scan, and once after the leader has processed the discovered special references.</li>
+ * </ul>
+ * Cells are forwarded atomically (see {@link EvacuatorToCardSpace}), and each worker copies survivors to its own promotion lab (PLAB),
+ * carved out of the to-space by a {@link ParallelEvacuationBufferProvider}. Cells larger than a fraction of the PLAB size are allocated directly in the to-space.
+ * <p>
+ * PLABs can't be refilled by collecting garbage in the middle of evacuation. Parallel evacuation is therefore only used when the to-space
+ * has enough free space to accommodate the worst case, i.e., the whole evacuated space plus the space lost at the end of PLABs (see {@link #canEvacuateInParallel(Size, Size)}).
+ */
+public final class ParallelNurseryEvacuation implements GCWorkerGang.Task {
+    public static Size EvacuationPLABSize = Size.K.times(32);
+    public static int ParallelEvacuationSurvivorRanges = 4096;
+    static {
+        VMOptions.addFieldOption("-XX:", "EvacuationPLABSize", ParallelNurseryEvacuation.class,
+                        "Size of the promotion lab of each GC worker during parallel evacuation", Phase.PRISTINE);
+        VMOptions.addFieldOption("-XX:", "ParallelEvacuationSurvivorRanges", ParallelNurseryEvacuation.class,
+                        "Maximum number of pending survivor ranges of each GC worker during parallel evacuation", Phase.PRISTINE);
+    }
+
+    /**
+     * Ratio of the PLAB size to the size of the largest cell allocated in a PLAB. Bounds the space left unused at the end of PLABs
+     * to a fraction of the evacuated bytes.
+     */
+    private static final int PLAB_SIZE_TO_LARGE_CELL_RATIO = 8;
+
+    /**
+     * Number of cards of the to-space in a stripe claimed by a worker during the dirty card scan.
+     */
+    private static final int CARDS_PER_STRIPE = 128;
+
+    private static final int STRIPE_SIZE = CARDS_PER_STRIPE << CardTableRSet.LOG2_CARD_SIZE;
+
+    /**
+     * Evacuators of the participants to parallel evacuation. Index 0 is the leader, run by the VM operation thread.
+     */
+    private final NoAgingNurseryEvacuator[] evacuators;
+
+    /**
+     * Providers of the PLABs of each evacuator.
+     */
+    private final ParallelEvacuationBufferProvider[] bufferProviders;
+
+    /**
+     * Number of workers participating to the current evacuation.
+     */
+    private int numWorkers;
+
+    /**
+     * Indicates whether the gang is currently scanning dirty cards.
+     */
+    private boolean dirtyCardScan;
+
+    /**
+     * Card-aligned range of the to-space whose dirty cards are scanned, and index of the next stripe to claim.
+     */
+    private Address dirtyCardsStart;
+    private Address dirtyCardsEnd;
+    private final AtomicInteger nextStripe = new AtomicInteger();
+
+    /**
+     * Number of workers that ran out of survivor ranges to scan during the current round.
+     */
+    private final AtomicInteger idleWorkers = new AtomicInteger();
+
+    @HOSTED_ONLY
+    public ParallelNurseryEvacuation(NoAgingNurseryEvacuator leader, BaseAtomicBumpPointerAllocator<? extends Refiller> toSpaceAllocator) {
+        final int maxEvacuators = GCWorkerGang.MAX_GC_WORKER_THREADS + 1;
+        evacuators = new NoAgingNurseryEvacuator[maxEvacuators];
+        bufferProviders = new ParallelEvacuationBufferProvider[maxEvacuators];
+        evacuators[0] = leader;
+        for (int i = 0; i < maxEvacuators; i++) {
+            if (i > 0) {
+                evacuators[i] = new NoAgingNurseryEvacuator(leader);
+            }
+            bufferProviders[i] = new ParallelEvacuationBufferProvider(toSpaceAllocator);
+        }
+        leader.setParallelNurseryEvacuation(this);
+    }
+
+    private Size plabSize() {
+        return EvacuationPLABSize.alignUp(Word.widthValue().numberOfBytes);
+    }
+
+    /**
+     * Set the PLAB size and allocate the survivor ranges queues of the evacuators that may participate to parallel evacuation.
+     * Must be called after the leader is initialized.
+     */
+    public void initialize() {
+        final Size plabSize = plabSize();
+        final Size largeCellThreshold = plabSize.dividedBy(PLAB_SIZE_TO_LARGE_CELL_RATIO);
+        final int maxWorkers = GCWorkerGang.theGang().maxNumWorkers();
+        for (int i = 0; i < maxWorkers; i++) {
+            bufferProviders[i].initialize(plabSize);
+            evacuators[i].initializeParallelEvacuation(ParallelEvacuationSurvivorRanges, bufferProviders[i], largeCellThreshold);
+        }
+    }
+
+    private static int participants() {
+        final GCWorkerGang gang = GCWorkerGang.theGang();
+        final int n = gang.numWorkers();
+        return n > gang.maxNumWorkers() ? gang.maxNumWorkers() : n;
+    }
+
+    /**
+     * Indicates whether the gang can evacuate a space in parallel.
+     * The to-space must be able to hold all the used space of the evacuated space, plus, per PLAB, up to the largest cell allocated in a PLAB,
+     * plus the PLABs left partially used by each worker.
+     *
+     * @param evacuatedSpaceUsed amount of space used in the evacuated space
+     * @param toSpaceFree amount of free space in the to-space
+     */
+    public boolean canEvacuateInParallel(Size evacuatedSpaceUsed, Size toSpaceFree) {
+        if (!GCWorkerGang.theGang().isParallel()) {
+            return false;
+        }
+        final Size plabSize = plabSize();
+        final Size worstCase = evacuatedSpaceUsed.plus(evacuatedSpaceUsed.dividedBy(PLAB_SIZE_TO_LARGE_CELL_RATIO - 1)).plus(plabSize.times(2 * participants()));
+        return toSpaceFree.greaterEqual(worstCase);
+    }
+
+    /**
+     * Evacuate the leader's evacuated space in parallel.
+     *
+     * @param logPhases log the phases of the evacuation
+     * @param toSpaceStart start of the to-space
+     * @param toSpaceTop first byte of the to-space not yet allocated. Dirty cards are only scanned below this address.
+     */
+    public void evacuate(boolean logPhases, Address toSpaceStart, Address toSpaceTop) {
+        numWorkers = participants();
+        dirtyCardsStart = toSpaceStart;
+        dirtyCardsEnd = toSpaceTop.alignUp(1 << CardTableRSet.LOG2_CARD_SIZE);
+        final NoAgingNurseryEvacuator leader = evacuators[0];
+        for (int i = 0; i < numWorkers; i++) {
+            final NoAgingNurseryEvacuator evacuator = evacuators[i];
+            bufferProviders[i].resetStatistics();
+            evacuator.setParallelEvacuation(true);
+            evacuator.setDirtyCardScanLimit(toSpaceTop);
+            if (i > 0) {
+                evacuator.setEvacuationSpace(leader.fromSpace, leader.toSpace);
+                evacuator.setGCOperation(leader.getGCOperation());
+                evacuator.prepareEvacuationBuffer();
+            }
+        }
+
+        leader.evacuate(logPhases);
+
+        for (int i = 0; i < numWorkers; i++) {
+            final NoAgingNurseryEvacuator evacuator = evacuators[i];
+            evacuator.setParallelEvacuation(false);
+            evacuator.setDirtyCardScanLimit(Address.max());
+            if (i > 0) {
+                evacuator.setGCOperation(null);
+            }
+        }
+    }
+
+    public void run(int workerId, int gangSize) {
+        // Workers that joined the gang after evacuation started don't participate.
+        if (workerId >= numWorkers) {
+            return;
+        }
+        final NoAgingNurseryEvacuator evacuator = evacuators[workerId];
+        if (dirtyCardScan) {
+            scanDirtyCards(evacuator);
+        } else {
+            drain(evacuator, workerId);
+        }
+    }
+
+    private void scanDirtyCards(NoAgingNurseryEvacuator evacuator) {
+        while (true) {
+            final Address start = dirtyCardsStart.plus((long) nextStripe.getAndAdd(1) * STRIPE_SIZE);
+            if (start.greaterEqual(dirtyCardsEnd)) {
+                return;
+            }
+            final Address end = start.plus(STRIPE_SIZE);
+            evacuator.evacuateFromDirtyCards(start, end.greaterThan(dirtyCardsEnd) ? dirtyCardsEnd : end);
+            evacuator.drainSurvivorRanges();
+        }
+    }
+
+    private void drain(NoAgingNurseryEvacuator evacuator, int workerId) {
+        while (true) {
+            evacuator.drainSurvivorRanges();
+            if (steal(evacuator, workerId)) {
+                continue;
+            }
+            // Out of work. Terminate when all workers are out of work, or go back to work if some worker has pending survivor ranges.
+            idleWorkers.getAndAdd(1);
+            while (true) {
+                if (idleWorkers.get() == numWorkers) {
+                    return;
+                }
+                if (hasWork()) {
+                    idleWorkers.getAndAdd(-1);
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean steal(NoAgingNurseryEvacuator thief, int thiefId) {
+        for (int i = 1; i < numWorkers; i++) {
+            final NoAgingNurseryEvacuator victim = evacuators[(thiefId + i) % numWorkers];
+            if (victim.hasSurvivorRanges() && thief.evacuateSurvivorRangeOf(victim)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasWork() {
+        for (int i = 0; i < numWorkers; i++) {
+            if (evacuators[i].hasSurvivorRanges()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evacuate the cells referenced from the dirty cards of the to-space, and the cells reachable from them.
+     * Called by the leader.
+     */
+    void evacuateFromDirtyCards() {
+        evacuators[0].publishSurvivorRanges();
+        dirtyCardScan = true;
+        nextStripe.set(0);
+        GCWorkerGang.theGang().run(this);
+    }
+
+    /**
+     * Evacuate all the cells reachable from the pending survivor ranges of all the workers.
+     * Called by the leader.
+     */
+    void evacuateReachables() {
+        final NoAgingNurseryEvacuator leader = evacuators[0];
+        leader.publishSurvivorRanges();
+        final boolean refDiscoveryEnabled = leader.isSpecialRefDiscoveryEnabled();
+        for (int i = 1; i < numWorkers; i++) {
+            if (refDiscoveryEnabled) {
+                evacuators[i].enableSpecialRefDiscovery();
+            } else {
+                evacuators[i].disableSpecialRefDiscovery();
+            }
+        }
+        dirtyCardScan = false;
+        idleWorkers.set(0);
+        GCWorkerGang.theGang().run(this);
+        for (int i = 0; i < numWorkers; i++) {
+            FatalError.check(!evacuators[i].hasSurvivorRanges(), "Survivor ranges must be empty after parallel evacuation");
+        }
+    }
+
+    /**
+     * Retire the PLABs of the helpers and account for the bytes they evacuated. Called by the leader after evacuation.
+     */
+    void releaseHelpers() {
+        final NoAgingNurseryEvacuator leader = evacuators[0];
+        for (int i = 1; i < numWorkers; i++) {
+            final NoAgingNurseryEvacuator helper = evacuators[i];
+            helper.releaseEvacuationBuffer();
+            leader.addEvacuatedBytes(helper.evacuatedBytes());
+        }
+        if (Heap.verbose()) {
+            reportStatistics();
+        }
+    }
+
+    private void reportStatistics() {
+        long refills = 0L;
+        for (int i = 0; i < numWorkers; i++) {
+            refills += bufferProviders[i].refills();
+        }
+        Log.print("--Parallel evacuation (workers=");
+        Log.print(numWorkers);
+        Log.print(", PLAB refills=");
+        Log.print(refills);
+        Log.println(")");
+    }
+
+    @Override
+    public String toString() {
+        return "parallel nursery evacuation";
+    }
+}
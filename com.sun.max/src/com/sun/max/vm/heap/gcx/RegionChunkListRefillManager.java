@@ -76,6 +76,11 @@ public final class RegionChunkListRefillManager extends ChunkListRefillManager {
      */
     private Size wastedSpace;
 
+    /**
+     * NUMA node whose regions are preferred when changing allocating region.
+     */
+    private int node;
+
     private static final OutOfMemoryError outOfMemoryError = new OutOfMemoryError();
 
     public void setRegionProvider(RegionProvider regionProvider) {
@@ -90,6 +95,14 @@ public final class RegionChunkListRefillManager extends ChunkListRefillManager {
         return allocatingRegion;
     }
 
+    void setNode(int node) {
+        this.node = node;
+    }
+
+    int node() {
+        return node;
+    }
+
     public RegionChunkListRefillManager() {
         this(NullDeadSpaceListener.nullDeadSpaceListener());
     }
@@ -133,7 +146,7 @@ public final class RegionChunkListRefillManager extends ChunkListRefillManager {
             int gcCount = 0;
             retireCurrentAllocatingRegion();
             do {
-                allocatingRegion = regionProvider.getAllocatingRegion();
+                allocatingRegion = NUMARegionPlacement.isEnabled() ? regionProvider.getAllocatingRegion(node) : regionProvider.getAllocatingRegion();
                 if (allocatingRegion != INVALID_REGION_ID) {
                     if (allocatingRegion == DebuggedRegion) {
                         TLABLog.TraceTLABAllocation = true;
@@ -43,6 +43,13 @@ public interface RegionProvider {
      */
     int getAllocatingRegion();
 
+    /**
+     * Obtain a region with free space, preferably one whose memory is bound to the specified NUMA node.
+     * @param node a NUMA node (see {@link NUMARegionPlacement})
+     * @return an region identifier, or {@link HeapRegionConstants#INVALID_REGION_ID} if free space is exhausted.
+     */
+    int getAllocatingRegion(int node);
+
     /**
      * Obtain a region with at least the specified amount of free space, and at most the specified number of chunks.
      * @param minFreeBytes
@@ -178,6 +178,12 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
      */
     static boolean VerifyGreyLessAreas = false;
 
+    /**
+     * Trace the heap in parallel with the {@link GCWorkerGang}'s threads.
+     * Tracing is sequential if the gang has no worker threads (see {@code -XX:ParallelGCThreads}).
+     */
+    static boolean ParallelMarking = false;
+
     /**
      * A ready-to-use option to try new code.
      */
@@ -188,6 +194,7 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
         VMOptions.addFieldOption("-XX:", "UseDeepMarkStackFlush", TricolorHeapMarker.class, "Visit flushed cells and mark their reference grey when flushing the mark stack", Phase.PRISTINE);
         VMOptions.addFieldOption("-XX:", "VerifyAfterMarking", TricolorHeapMarker.class, "Verify absence of grey bits after marking is completed", Phase.PRISTINE);
         VMOptions.addFieldOption("-XX:", "VerifyGreyLessAreas", TricolorHeapMarker.class, "Verify absence of grey bits in areas that shouldn't have any grey objects", Phase.PRISTINE);
+        VMOptions.addFieldOption("-XX:", "ParallelMarking", TricolorHeapMarker.class, "Trace the heap with the GC worker threads (see -XX:ParallelGCThreads)", Phase.PRISTINE);
 
         VMOptions.addFieldOption("-XX:", "UseNewCode", TricolorHeapMarker.class, "Use new refactored code)", Phase.PRISTINE);
     }
@@ -317,6 +324,16 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
      */
     final MarkingStack markingStack;
 
+    /**
+     * Parallel tracing support. Used instead of the forward scan when {@link #ParallelMarking} is enabled.
+     */
+    final ParallelMarker parallelMarker;
+
+    /**
+     * Indicates whether the current marking uses the {@link #parallelMarker}.
+     */
+    private boolean useParallelMarking;
+
     private final TimerMetric rootScanTimer = new TimerMetric(new SingleUseTimer(HeapScheme.GC_TIMING_CLOCK));
     private final TimerMetric bootHeapScanTimer = new TimerMetric(new SingleUseTimer(HeapScheme.GC_TIMING_CLOCK));
     private final TimerMetric codeScanTimer = new TimerMetric(new SingleUseTimer(HeapScheme.GC_TIMING_CLOCK));
@@ -445,6 +462,9 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
         Log.print(recoveryScanTimer.getElapsedTime());
         Log.print(", weak refs=");
         Log.print(weakRefTimer.getLastElapsedTime());
+        if (useParallelMarking) {
+            parallelMarker.reportLastStatistics();
+        }
     }
 
     public void reportTotalElapsedTimes() {
@@ -522,6 +542,7 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
         bitmapWordBoundaryMask = Address.fromInt(1).shiftedLeft(log2BytesCoveredPerBit + Word.widthValue().log2numberOfBits).minus(1).not();
         colorMap = new MemoryRegion("Mark Bitmap");
         markingStack = null;
+        parallelMarker = null;
         rootCellVisitor = null;
         heapRootsScanner = null;
         overflowLinearScanState = null;
@@ -541,6 +562,7 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
         colorMap = new MemoryRegion("Mark Bitmap");
         markingStack = new MarkingStack();
         markingStack.setOverflowHandler(this);
+        parallelMarker = new ParallelMarker(this);
         this.rootCellVisitor = rootCellVisitor;
         rootCellVisitor.initialize(this);
         heapRootsScanner = new SequentialHeapRootsScanner(rootCellVisitor);
@@ -585,6 +607,9 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
                 overflowScanState = overflowLinearScanState;
             }
             overflowScanState.initialize();
+            if (ParallelMarking) {
+                parallelMarker.initialize();
+            }
         }
     }
 
@@ -743,6 +768,74 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
         markBlackFromGrey(bitIndex);
     }
 
+    /**
+     * Atomically set a bit of the color map.
+     *
+     * @param bitIndex a bit index
+     * @return true if the bit was set by the caller, false if it was already set
+     */
+    private boolean atomicSetBit(int bitIndex) {
+        final Pointer wordPointer = bitmapWordPointerAt(bitIndex);
+        final long bitmask = bitmaskFor(bitIndex);
+        long bitmapWord;
+        do {
+            bitmapWord = wordPointer.readLong(0);
+            if ((bitmapWord & bitmask) != 0L) {
+                return false;
+            }
+        } while (wordPointer.compareAndSwapLong(0, bitmapWord, bitmapWord | bitmask) != bitmapWord);
+        return true;
+    }
+
+    /**
+     * Atomically clear a bit of the color map.
+     *
+     * @param bitIndex a bit index
+     * @return true if the bit was cleared by the caller, false if it was already clear
+     */
+    private boolean atomicClearBit(int bitIndex) {
+        final Pointer wordPointer = bitmapWordPointerAt(bitIndex);
+        final long bitmask = bitmaskFor(bitIndex);
+        long bitmapWord;
+        do {
+            bitmapWord = wordPointer.readLong(0);
+            if ((bitmapWord & bitmask) == 0L) {
+                return false;
+            }
+        } while (wordPointer.compareAndSwapLong(0, bitmapWord, bitmapWord & ~bitmask) != bitmapWord);
+        return true;
+    }
+
+    /**
+     * Paint grey a white cell with atomic updates of the color map, for use when several threads mark concurrently.
+     * The leading bit of the color is set first, which elects the single thread that greys the cell. The grey bit,
+     * which may be in the next word of the color map, is set next. In between, the cell looks black.
+     *
+     * @param cell a cell in the covered area
+     * @return true if the caller painted the cell grey, false if the cell wasn't white
+     */
+    @INLINE
+    final boolean atomicMarkGreyIfWhite(Pointer cell) {
+        final int bitIndex = bitIndexOf(cell);
+        if (isWhite(bitIndex) && atomicSetBit(bitIndex)) {
+            atomicSetBit(bitIndex + 1);
+            traceGreyMark(cell, bitIndex);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Turn a grey mark black with an atomic update of the color map, for use when several threads mark concurrently.
+     *
+     * @param bitIndex bit index of a grey or black mark
+     * @return true if the caller turned the mark black, false if the mark was already black
+     */
+    @INLINE
+    final boolean atomicMarkBlackFromGrey(int bitIndex) {
+        return atomicClearBit(bitIndex + 1);
+    }
+
     final boolean isGrey(int bitIndex) {
         int bitIndexInWord = bitIndexInWord(bitIndex);
         if (bitIndexInWord == LAST_BIT_INDEX_IN_WORD) {
@@ -1508,6 +1601,42 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
         visitGreyObjects();
     }
 
+    /**
+     * Visit all objects marked grey during root marking with the {@link #parallelMarker}.
+     * The forward scan state is left as if it had done the tracing, so that sweeping and verification can use it.
+     */
+    private void visitGreyObjectsInParallelAfterRootMarking() {
+        initAfterRootMarking();
+        parallelMarker.visitGreyObjectsAfterRootMarking(rootCellVisitor.leftmost, rootCellVisitor.rightmost);
+        forwardScanState.rightmost = parallelMarker.rightmost;
+        forwardScanState.finger = parallelMarker.rightmost;
+    }
+
+    /**
+     * Process the special references discovered during tracing, and trace the objects they keep alive.
+     *
+     * @param regionsRanges the heap region ranges holding objects to trace, or {@code null} if tracing a contiguous covered area
+     */
+    private void processSpecialReferences(HeapRegionRangeIterable regionsRanges) {
+        if (useParallelMarking) {
+            SpecialReferenceManager.processDiscoveredSpecialReferences(parallelMarker);
+            parallelMarker.visitGreyObjects();
+            forwardScanState.rightmost = parallelMarker.rightmost;
+            forwardScanState.finger = parallelMarker.rightmost;
+            return;
+        }
+        SpecialReferenceManager.processDiscoveredSpecialReferences(forwardScanState);
+        if (regionsRanges == null) {
+            visitGreyObjects();
+        } else {
+            // Note: the VISIT_GREY_FORWARD has already visited the whole heap, so any additional grey reference added by the special reference
+            // manager are on the marking stack. Draining that stack may nevertheless add new grey reference after the finger, so we still
+            // need to iterate over the region ranges past the finger, hence the reset.
+            regionsRanges.reset();
+            visitGreyObjects(regionsRanges);
+        }
+    }
+
 
     /**
      * Find the first black mark in the specified range of the color map.
@@ -1635,18 +1764,30 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
      * This can server region-based heap as well as contiguous heap, wherein a single region is passed in this case.
      */
     public void sweep(HeapRegionSweeper regionsSweeper, boolean doImprecise) {
-        final Address endOfRightmostLiveObject = endOfCell(forwardScanState.rightmost);
-        do {
-            assert regionsSweeper.hasNextSweepingRegion();
-            regionsSweeper.beginSweep();
-            if (doImprecise) {
-                impreciseRegionSweep(regionsSweeper);
-            } else {
-                preciseRegionSweep(regionsSweeper);
-            }
-            regionsSweeper.endSweep();
-        } while (regionsSweeper.endOfSweepingRegion().lessThan(endOfRightmostLiveObject));
+        while (sweepNextRegion(regionsSweeper, doImprecise)) {
+        }
+    }
+
+    /**
+     * Sweep the next region described by the heap region sweeper. Used to sweep regions lazily, one at a time, after marking.
+     * The mark bitmap and the rightmost live object of the last marking must be left untouched until all regions are swept.
+     *
+     * @return true if regions remain to be swept, false if the region holding the rightmost live object has been swept
+     */
+    public boolean sweepNextRegion(HeapRegionSweeper regionsSweeper, boolean doImprecise) {
+        assert regionsSweeper.hasNextSweepingRegion();
+        regionsSweeper.beginSweep();
+        if (doImprecise) {
+            impreciseRegionSweep(regionsSweeper);
+        } else {
+            preciseRegionSweep(regionsSweeper);
+        }
+        regionsSweeper.endSweep();
+        if (regionsSweeper.endOfSweepingRegion().lessThan(endOfCell(forwardScanState.rightmost))) {
+            return true;
+        }
         regionsSweeper.reachedRightmostLiveRegion();
+        return false;
     }
 
     /**
@@ -1782,6 +1923,7 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
             recoveryScanTimer.reset();
         }
         FatalError.check(markingStack.isEmpty(), "Marking stack must be empty");
+        useParallelMarking = ParallelMarking && GCWorkerGang.theGang().isParallel();
 
         clearColorMap();
         markRoots();
@@ -1789,7 +1931,11 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
         markPhase = MARK_PHASE.VISIT_GREY_FORWARD;
         markPhase.traceBegin(traceGCPhases);
         startTimer(heapMarkingTimer);
-        visitGreyObjectsAfterRootMarking();
+        if (useParallelMarking) {
+            visitGreyObjectsInParallelAfterRootMarking();
+        } else {
+            visitGreyObjectsAfterRootMarking();
+        }
         stopTimer(heapMarkingTimer);
         markPhase.traceEnd(traceGCPhases);
 
@@ -1805,8 +1951,7 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
         markPhase = MARK_PHASE.SPECIAL_REF;
         markPhase.traceBegin(traceGCPhases);
         startTimer(weakRefTimer);
-        SpecialReferenceManager.processDiscoveredSpecialReferences(forwardScanState);
-        visitGreyObjects();
+        processSpecialReferences(null);
         stopTimer(weakRefTimer);
         markPhase.traceEnd(traceGCPhases);
 
@@ -1827,6 +1972,7 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
             recoveryScanTimer.reset();
         }
         markingStack.reset();
+        useParallelMarking = ParallelMarking && GCWorkerGang.theGang().isParallel();
         clearColorMap();
         overflowScanState.setHeapRegionsRanges(regionsRanges);
 
@@ -1835,7 +1981,11 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
         markPhase = MARK_PHASE.VISIT_GREY_FORWARD;
         markPhase.traceBegin(traceGCPhases);
         startTimer(heapMarkingTimer);
-        visitGreyObjectsAfterRootMarking(regionsRanges);
+        if (useParallelMarking) {
+            visitGreyObjectsInParallelAfterRootMarking();
+        } else {
+            visitGreyObjectsAfterRootMarking(regionsRanges);
+        }
         stopTimer(heapMarkingTimer);
         markPhase.traceEnd(traceGCPhases);
 
@@ -1897,12 +2047,7 @@ public class TricolorHeapMarker implements MarkingStack.OverflowHandler, HeapMan
         markPhase = MARK_PHASE.SPECIAL_REF;
         markPhase.traceBegin(traceGCPhases);
         startTimer(weakRefTimer);
-        SpecialReferenceManager.processDiscoveredSpecialReferences(forwardScanState);
-        // Note: the VISIT_GREY_FORWARD has already visited the whole heap, so any additional grey reference added by the special reference
-        // manager are on the marking stack. Draining that stack may nevertheless add new grey reference after the finger, so we still
-        // need to iterate over the region ranges past the finger, hence the reset.
-        regionsRanges.reset();
-        visitGreyObjects(regionsRanges);
+        processSpecialReferences(regionsRanges);
         stopTimer(weakRefTimer);
         markPhase.traceEnd(traceGCPhases);
         FatalError.check(markingStack.isEmpty(), "Marking Stack must be empty after special references are processed.");
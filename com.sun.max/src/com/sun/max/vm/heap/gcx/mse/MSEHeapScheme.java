@@ -52,10 +52,13 @@ public final class MSEHeapScheme extends HeapSchemeWithTLABAdaptor implements He
     static boolean DumpFragStatsAfterGC = false;
     static boolean DumpFragStatsAtGCFailure = false;
     static boolean DoImpreciseSweep = false;
+    static boolean LazySweep = false;
     static {
         VMOptions.addFieldOption("-XX:", "DumpFragStatsAfterGC", MSEHeapScheme.class, "Dump region fragmentation stats after GC", Phase.PRISTINE);
         VMOptions.addFieldOption("-XX:", "DumpFragStatsAtGCFailure", MSEHeapScheme.class, "Dump region fragmentation when GC failed to reclaim enough space", Phase.PRISTINE);
         VMOptions.addFieldOption("-XX:", "DoImpreciseSweep", MSEHeapScheme.class, "Control whether to do precise or imprecise sweep", Phase.PRISTINE);
+        VMOptions.addFieldOption("-XX:", "LazySweep", MSEHeapScheme.class,
+                        "Only sweep enough regions during GC to satisfy the heap sizing policy and let allocators sweep the others on demand", Phase.PRISTINE);
     }
 
     /**
@@ -331,13 +334,22 @@ public final class MSEHeapScheme extends HeapSchemeWithTLABAdaptor implements He
                 Log.println("BEGIN: Sweeping");
             }
             startTimer(reclaimTimer);
-            markSweepSpace.sweep(heapMarker, DoImpreciseSweep);
+            if (LazySweep) {
+                // Free space after GC is only a lower bound if some regions are left unswept. It is however enough for the resizing policy
+                // not to expand the heap.
+                markSweepSpace.lazySweep(heapMarker, DoImpreciseSweep, heapResizingPolicy.minFreeSpaceAfterGC(markSweepSpace));
+            } else {
+                markSweepSpace.sweep(heapMarker, DoImpreciseSweep);
+            }
             Size freeSpaceAfterGC = markSweepSpace.freeSpace();
             stopTimer(reclaimTimer);
             if (traceGCPhases) {
                 Log.println("END: Sweeping");
             }
 
+            if (VerifyAfterGC || DumpFragStatsAfterGC) {
+                markSweepSpace.completeLazySweep();
+            }
             if (VerifyAfterGC) {
                 afterGCVerifier.run();
             }
@@ -449,7 +461,7 @@ public final class MSEHeapScheme extends HeapSchemeWithTLABAdaptor implements He
             allocateAndRefillTLAB(etla, tlabSize);
             // Let's do a bit of dirty meta-circularity. The TLAB is refilled, and no-one except the current thread can use it.
             // So the tlab allocation is going to succeed here
-            TLABRefillPolicy.setForCurrentThread(etla, new SimpleTLABRefillPolicy(tlabSize));
+            TLABRefillPolicy.setForCurrentThread(etla, newTLABRefillPolicy(tlabSize));
             // Now, address the initial request. Note that we may recurse down to handleTLABOverflow again here if the
             // request is larger than the TLAB size. However, this second call will succeed and allocate outside of the tlab.
             return tlabAllocate(size);
@@ -62,6 +62,7 @@ public final class GenSSHeapScheme extends HeapSchemeWithTLABAdaptor implements
     static private int BreakAfterGCCount;
     static private Size LargeObjectSizeThreshold = Size.K.times(512);
     public static boolean OldSpaceDirtyCardsStats;
+    static boolean ParallelEvacuation = true;
 
     /**
      * Expected default percentage of survivors. Used to estimate old generation growth at minor collection and decide when to trigger a full GC.
@@ -75,6 +76,7 @@ public final class GenSSHeapScheme extends HeapSchemeWithTLABAdaptor implements
         VMOptions.addFieldOption("-XX:", "OldSpaceDirtyCardsStats", GenSSHeapScheme.class, "Print stats on old space dirty cards", Phase.PRISTINE);
         VMOptions.addFieldOption("-XX:", "BreakAfterGCCount", GenSSHeapScheme.class, "Break at every GC after GC count", Phase.PRISTINE);
         VMOptions.addFieldOption("-XX:", "LargeObjectSizeThreshold", GenSSHeapScheme.class, "Threshold for being treated as a large object", Phase.PRISTINE);
+        VMOptions.addFieldOption("-XX:", "ParallelEvacuation", GenSSHeapScheme.class, "Evacuate the young generation with the GC worker threads when possible", Phase.PRISTINE);
     }
 
     static final class GenSSGCRequest  extends GCRequest {
@@ -321,6 +323,12 @@ public final class GenSSHeapScheme extends HeapSchemeWithTLABAdaptor implements
     @INSPECTED
     private final NoAgingNurseryEvacuator youngSpaceEvacuator;
 
+    /**
+     * Parallel evacuation of the young space, used by minor collection operations when GC worker threads are available
+     * and the old space has enough free space for the worst case.
+     */
+    private final ParallelNurseryEvacuation parallelYoungSpaceEvacuation;
+
     /**
      * Implementation of old space evacuation. Used by full collection operations to collect the old generation.
      */
@@ -444,6 +452,8 @@ public final class GenSSHeapScheme extends HeapSchemeWithTLABAdaptor implements
             youngSpaceEvacuator.setDetailLogger(detailLogger);
             oldSpaceEvacuator.setDetailLogger(detailLogger);
         }
+        // Must be created after the young space evacuator's loggers are set, as its helpers share them.
+        parallelYoungSpaceEvacuation = new ParallelNurseryEvacuation(youngSpaceEvacuator, tenuredAllocator);
         // this will be used at PRISTINE time to store the biased card table address as an exception to reference verification.
         refVerifier.setExclusions(new long[] {1});
     }
@@ -732,14 +742,22 @@ public final class GenSSHeapScheme extends HeapSchemeWithTLABAdaptor implements
         }
         VmThreadMap.ACTIVE.forAllThreadLocals(null, tlabFiller);
         Heap.invokeGCCallbacks(GCCallbackPhase.BEFORE);
+        final CardSpaceAllocator<OldSpaceRefiller> oldSpaceAllocator = oldSpace.allocator();
+        // Parallel evacuation requires the old space allocator's top to be in the old to-space, i.e., no overflow from the previous minor collection.
+        final boolean parallelEvacuation = ParallelEvacuation && oldSpace.space.contains(oldSpaceAllocator.unsafeTop()) &&
+            parallelYoungSpaceEvacuation.canEvacuateInParallel(youngSpace.usedSpace(), oldSpaceAllocator.freeSpace());
         if (MaxineVM.isDebug() && Heap.verbose()) {
-            Log.println("--Begin nursery evacuation");
+            Log.println(parallelEvacuation ? "--Begin parallel nursery evacuation" : "--Begin nursery evacuation");
         }
         final long startGCTime = System.currentTimeMillis();
         evacTimers.start(TOTAL);
         youngSpaceEvacuator.setGCOperation(genCollection);
         HeapScheme.Inspect.notifyHeapPhaseChange(HeapPhase.ANALYZING);
-        youngSpaceEvacuator.evacuate(Heap.logGCPhases());
+        if (parallelEvacuation) {
+            parallelYoungSpaceEvacuation.evacuate(Heap.logGCPhases(), oldSpace.space.start(), oldSpaceAllocator.unsafeTop());
+        } else {
+            youngSpaceEvacuator.evacuate(Heap.logGCPhases());
+        }
         if (resizingPolicy.minorEvacuationOverflow()) {
             overflowedArea.setStart(oldSpace.allocator.start());
             overflowedArea.setEnd(oldSpace.allocator.unsafeTop());
@@ -958,6 +976,7 @@ public final class GenSSHeapScheme extends HeapSchemeWithTLABAdaptor implements
              */
             youngSpaceEvacuator.initialize(2, true, Size.zero(), true);
             oldSpaceEvacuator.initialize(2, true, Size.zero(), true);
+            parallelYoungSpaceEvacuation.initialize();
 
             Address unusedReservedSpaceStart = cardTableRSet.memory().end().alignUp(pageSize);
             // Free reserved space we will not be using.
@@ -1003,6 +1022,15 @@ public final class GenSSHeapScheme extends HeapSchemeWithTLABAdaptor implements
         refillTLAB(etla, tlab, effectiveSize);
     }
 
+    /**
+     * TLABs must not exceed the large object size threshold, above which the young space allocator treats requests as large objects.
+     */
+    @Override
+    protected Size maxTlabSize() {
+        final Size maxTlabSize = super.maxTlabSize();
+        return maxTlabSize.greaterThan(largeObjectSizeThreshold) ? largeObjectSizeThreshold : maxTlabSize;
+    }
+
     @NEVER_INLINE
     @Override
     protected Pointer handleTLABOverflow(Size size, Pointer etla, Pointer tlabMark, Pointer tlabEnd) {
@@ -1021,7 +1049,7 @@ public final class GenSSHeapScheme extends HeapSchemeWithTLABAdaptor implements
             allocateAndRefillTLAB(etla, tlabSize);
             // Let's do a bit of meta-circularity. The TLAB is refilled, and no-one except the current thread can use it.
             // So the TLAB allocation is going to succeed here
-            TLABRefillPolicy.setForCurrentThread(etla, new SimpleTLABRefillPolicy(tlabSize));
+            TLABRefillPolicy.setForCurrentThread(etla, newTLABRefillPolicy(tlabSize));
             // Now, address the initial request. Note that we may recurse down to handleTLABOverflow again here if the
             // request is larger than the TLAB size. However, this second call will succeed and allocate outside of the TLAB.
             return tlabAllocate(size);
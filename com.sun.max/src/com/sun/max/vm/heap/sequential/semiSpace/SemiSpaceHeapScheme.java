@@ -161,6 +161,15 @@ public class SemiSpaceHeapScheme extends HeapSchemeWithTLAB implements CellVisit
         resetTLAB.run(tla);
     }
 
+    /**
+     * TLABs must fit in the {@linkplain #safetyZoneSize safety zone}.
+     */
+    @Override
+    protected Size maxTlabSize() {
+        final Size maxTlabSize = super.maxTlabSize();
+        return maxTlabSize.greaterThan(safetyZoneSize) ? Size.fromInt(safetyZoneSize) : maxTlabSize;
+    }
+
     // Create timing facilities.
     private final TimerMetric clearTimer = new TimerMetric(new SingleUseTimer(HeapScheme.GC_TIMING_CLOCK));
     private final TimerMetric gcTimer = new TimerMetric(new SingleUseTimer(HeapScheme.GC_TIMING_CLOCK));
@@ -886,7 +895,7 @@ public class SemiSpaceHeapScheme extends HeapSchemeWithTLAB implements CellVisit
             allocateAndRefillTLAB(etla, tlabSize);
             // Let's do a bit of meta-circularity. The TLAB is refilled, and no-one except the current thread can use it.
             // So the TLAB allocation is going to succeed here
-            TLABRefillPolicy.setForCurrentThread(etla, new SimpleTLABRefillPolicy(tlabSize));
+            TLABRefillPolicy.setForCurrentThread(etla, newTLABRefillPolicy(tlabSize));
             // Now, address the initial request. Note that we may recurse down to handleTLABOverflow again here if the
             // request is larger than the TLAB size. However, this second call will succeed and allocate outside of the TLAB.
             return tlabAllocate(size);
@@ -81,11 +81,31 @@ public abstract class InflatedMonitorModeHandler extends AbstractModeHandler {
         return lockword;
     }
 
+    /**
+     * Determines if an object is still bound to a monitor that was obtained from the object's lockword.
+     * A monitor can be {@linkplain JavaMonitorManager deflated concurrently} between a thread reading
+     * the lockword and the thread operating on the monitor, so the thread must check the binding
+     * again once the monitor cannot be deflated anymore, i.e. once it owns the monitor.
+     */
+    @INLINE
+    protected static boolean isBoundTo(Object object, JavaMonitor monitor) {
+        // Monitors are only deflated concurrently on 64-bit platforms
+        return Platform.target().arch.is32bit() || ObjectAccess.readMisc(object).equals(InflatedMonitorLockword.boundFromMonitor(monitor));
+    }
+
+    /**
+     * Gets the hashcode of an object bound to a monitor, creating it if necessary.
+     *
+     * @return the hashcode, or 0 if the monitor was deflated concurrently, in which case the caller must retry
+     */
     protected int makeBoundHashCode(Object object, InflatedMonitorLockword lockword, InflatedMonitorLockword hashword) {
         assert hashword.isZero() || Platform.target().arch.is32bit() : " Hashword != null in 64 bit mode ";
         final JavaMonitor monitor = Platform.target().arch.is64bit() ? lockword.getBoundMonitor() : hashword.getBoundMonitor();
         assert monitor != null  : "null monitor in makeboundHashCode";
         final HashableLockword swappedLockword = Platform.target().arch.is64bit() ? HashableLockword.from(monitor.displacedMisc()) : HashableLockword.from(monitor.displacedHash());
+        if (swappedLockword.equals(JavaMonitorManager.deflatingMiscWord())) {
+            return 0;
+        }
         int hashcode = swappedLockword.getHashcode();
         if (hashcode == 0) {
             hashcode = monitorScheme().createHashCode(object);
@@ -93,9 +113,16 @@ public abstract class InflatedMonitorModeHandler extends AbstractModeHandler {
             final HashableLockword answer = Platform.target().arch.is64bit() ? HashableLockword.from(monitor.compareAndSwapDisplacedMisc(swappedLockword, newSwappedLockword))
                             : HashableLockword.from(monitor.compareAndSwapDisplacedHash(swappedLockword, newSwappedLockword));
             if (!answer.equals(swappedLockword)) {
+                if (answer.equals(JavaMonitorManager.deflatingMiscWord())) {
+                    return 0;
+                }
                 hashcode = answer.getHashcode();
             }
         }
+        if (!isBoundTo(object, monitor)) {
+            // The displaced word may have been restored to the object before the hashcode was installed
+            return 0;
+        }
         return hashcode;
     }
 
@@ -151,6 +178,10 @@ public abstract class InflatedMonitorModeHandler extends AbstractModeHandler {
                     ObjectAccess.writeMisc(object, preBindingMiscWord);
                 }
 
+                public boolean compareAndSwapUnboundMiscWord(Object object, Word boundMiscWord, Word preBindingMiscWord) {
+                    return ObjectAccess.compareAndSwapMisc(object, boundMiscWord, preBindingMiscWord).equals(boundMiscWord);
+                }
+
                 public void writeUnboundHashWord(Object object, Word hashWord) {
                     ObjectAccess.writeHash(object, hashWord);
                 }
@@ -186,7 +217,12 @@ public abstract class InflatedMonitorModeHandler extends AbstractModeHandler {
             final InflatedMonitorLockword hashword = Platform.target().arch.is64bit() ? InflatedMonitorLockword.from(Word.zero()) : InflatedMonitorLockword.from(ObjectAccess.readHash(object));
 
             if (lockword.isBound()) {
-                return makeBoundHashCode(object, lockword, hashword);
+                final int hashcode = makeBoundHashCode(object, lockword, hashword);
+                if (hashcode != 0) {
+                    return hashcode;
+                }
+                // The monitor was deflated. Try again.
+                return makeHashCode(object);
             }
             int hashcode = Platform.target().arch.is64bit() ? lockword.getHashcode() : hashword.getHashcode();
             if (hashcode == 0) {
@@ -224,10 +260,17 @@ public abstract class InflatedMonitorModeHandler extends AbstractModeHandler {
                     if (monitor != null) {
                         monitor.monitorExit();
                         JavaMonitorManager.unbindMonitor(monitor);
+                        monitor = null;
                     }
                     final JavaMonitor boundMonitor = Platform.target().arch.is64bit() ? lockword.getBoundMonitor() : hashword.getBoundMonitor();
                     boundMonitor.monitorEnter();
-                    return;
+                    if (isBoundTo(object, boundMonitor)) {
+                        return;
+                    }
+                    // The monitor was deflated before we acquired it. Try again.
+                    boundMonitor.monitorExit();
+                    lockword = readMiscAndProtectBinding(object);
+                    continue;
                 } else if (monitor == null) {
                     monitor = JavaMonitorManager.bindMonitor(object);
                     monitor.monitorEnter();
@@ -340,6 +383,11 @@ public abstract class InflatedMonitorModeHandler extends AbstractModeHandler {
             }
             final JavaMonitor monitor = Platform.target().arch.is64bit() ? inflatedLockword.getBoundMonitor() : InflatedMonitorLockword.from(ObjectAccess.readHash(object)).getBoundMonitor();
             monitor.monitorEnter();
+            if (!isBoundTo(object, monitor)) {
+                // The monitor was deflated before we acquired it.
+                monitor.monitorExit();
+                return false;
+            }
             return true;
         }
 
@@ -394,6 +442,10 @@ public abstract class InflatedMonitorModeHandler extends AbstractModeHandler {
                     ObjectAccess.writeMisc(object, ThinLockword.from(preBindingMiscWord).asUnlocked());
                 }
 
+                public boolean compareAndSwapUnboundMiscWord(Object object, Word boundMiscWord, Word preBindingMiscWord) {
+                    return ObjectAccess.compareAndSwapMisc(object, boundMiscWord, ThinLockword.from(preBindingMiscWord).asUnlocked()).equals(boundMiscWord);
+                }
+
                 public void writeUnboundHashWord(Object object, Word hashWord) {
                     ObjectAccess.writeHash(object, hashWord);
                 }
@@ -459,6 +511,10 @@ public abstract class InflatedMonitorModeHandler extends AbstractModeHandler {
                     ObjectAccess.writeMisc(object, BiasedLockword.from(preBindingMiscWord).asAnonBiased());
                 }
 
+                public boolean compareAndSwapUnboundMiscWord(Object object, Word boundMiscWord, Word preBindingMiscWord) {
+                    return ObjectAccess.compareAndSwapMisc(object, boundMiscWord, BiasedLockword.from(preBindingMiscWord).asAnonBiased()).equals(boundMiscWord);
+                }
+
                 public void writeUnboundHashWord(Object object, Word hashWord) {
                     ObjectAccess.writeHash(object, hashWord);
                 }
@@ -96,36 +96,32 @@ public abstract class BiasedLockModeHandler extends AbstractModeHandler implemen
         }
     }
 
-    class RevokeBiasOperation extends VmOperation {
+    /**
+     * Revokes the bias of an object while the thread owning the bias is stopped by a {@link Handshake}.
+     */
+    class RevokeBiasHandshake extends Handshake {
         final Object object;
         ModalLockword newLockword;
-        RevokeBiasOperation(VmThread thread, Object object) {
-            super("RevokeBias", thread, Mode.Safepoint, false);
+        RevokeBiasHandshake(Object object) {
+            super("RevokeBias");
             this.object = object;
         }
         @Override
-        protected void doIt() {
+        protected void doThread(VmThread vmThread, Pointer ip, Pointer sp, Pointer fp) {
             newLockword = revokeBias(object);
         }
     }
 
     protected ModalLockword revokeWithOwnerSafepointed(final Object object, int vmThreadMapThreadID, BiasedLockword biasedLockword) {
+        final RevokeBiasHandshake handshake = new RevokeBiasHandshake(object);
         synchronized (VmThreadMap.THREAD_LOCK) {
             final VmThread biasOwnerThread = VmThreadMap.ACTIVE.getVmThreadForID(vmThreadMapThreadID);
-            if (biasOwnerThread == null) {
+            if (biasOwnerThread == null || !handshake.execute(biasOwnerThread)) {
                 // The bias owner is terminated. No need to safepoint.
                 // Lets try to reset the bias to anon.
                 return ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, biasedLockword.asAnonBiased()));
             }
-            final Pointer tla = biasOwnerThread.tla();
-            if (tla.isZero()) {
-                // The bias holding thread is still starting up, so how can it own biases??
-                FatalError.unexpected("Attempted to revoke bias for still initializing thread.");
-            }
-
-            RevokeBiasOperation operation = new RevokeBiasOperation(VmThread.fromTLA(tla), object);
-            operation.submit();
-            return operation.newLockword;
+            return handshake.newLockword;
         }
     }
 
@@ -257,35 +253,41 @@ public abstract class BiasedLockModeHandler extends AbstractModeHandler implemen
 
         private void slowPathMonitorEnter(Object object, ModalLockword lockword, int lockwordThreadID) {
             ModalLockword currentLockword = lockword;
-            while (BiasedLockword.isBiasedLockword(currentLockword)) {
-                final BiasedLockword biasedLockword = BiasedLockword.from(currentLockword);
-                // Is the lock unbiased and biasable?
-                if (biasedLockword.equals(biasedLockword.asAnonBiased())) {
-                    // Try to get the bias
-                    final BiasedLockword newBiasedLockword = biasedLockword.asBiasedAndLockedOnceBy(lockwordThreadID);
-                    currentLockword = ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, newBiasedLockword));
-                    if (currentLockword.equals(biasedLockword)) {
-                        // Current thread is now the bias owner
-                        return;
-                    }
-                } else if (biasedLockword.getBiasOwnerID() == lockwordThreadID && biasedLockword.countOverflow()) {
-                    // The current thread owns the lock so we can revoke and delegate
-                    currentLockword = revokeWithoutSafepointing(object);
-                } else {
-                    // Another thread holds the bias - so revoke.
-                    // Note the revoking thread has no special priviledges, we simply revoke and then
-                    // drop into the next locking mode's monitor enter code.
-                    if (Monitor.TraceMonitors) {
-                        final boolean lockDisabledSafepoints = Log.lock();
-                        Log.print("Safepointed revoke for monitorEnter: ");
-                        Log.println(object.getClass().getName());
-                        Log.unlock(lockDisabledSafepoints);
+            while (true) {
+                while (BiasedLockword.isBiasedLockword(currentLockword)) {
+                    final BiasedLockword biasedLockword = BiasedLockword.from(currentLockword);
+                    // Is the lock unbiased and biasable?
+                    if (biasedLockword.equals(biasedLockword.asAnonBiased())) {
+                        // Try to get the bias
+                        final BiasedLockword newBiasedLockword = biasedLockword.asBiasedAndLockedOnceBy(lockwordThreadID);
+                        currentLockword = ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, newBiasedLockword));
+                        if (currentLockword.equals(biasedLockword)) {
+                            // Current thread is now the bias owner
+                            return;
+                        }
+                    } else if (biasedLockword.getBiasOwnerID() == lockwordThreadID && biasedLockword.countOverflow()) {
+                        // The current thread owns the lock so we can revoke and delegate
+                        currentLockword = revokeWithoutSafepointing(object);
+                    } else {
+                        // Another thread holds the bias - so revoke.
+                        // Note the revoking thread has no special priviledges, we simply revoke and then
+                        // drop into the next locking mode's monitor enter code.
+                        if (Monitor.TraceMonitors) {
+                            final boolean lockDisabledSafepoints = Log.lock();
+                            Log.print("Safepointed revoke for monitorEnter: ");
+                            Log.println(object.getClass().getName());
+                            Log.unlock(lockDisabledSafepoints);
+                        }
+                        final int vmThreadMapThreadID = decodeLockwordThreadID(biasedLockword.getBiasOwnerID());
+                        currentLockword = revokeWithOwnerSafepointed(object, vmThreadMapThreadID, biasedLockword);
                     }
-                    final int vmThreadMapThreadID = decodeLockwordThreadID(biasedLockword.getBiasOwnerID());
-                    currentLockword = revokeWithOwnerSafepointed(object, vmThreadMapThreadID, biasedLockword);
                 }
+                if (delegate().delegateMonitorEnter(object, currentLockword, lockwordThreadID)) {
+                    return;
+                }
+                // Try again. Monitor was deflated.
+                currentLockword = ModalLockword.from(ObjectAccess.readMisc(object));
             }
-            delegate().delegateMonitorEnter(object, currentLockword, lockwordThreadID);
         }
 
         public int makeHashCode(Object object) {
@@ -294,41 +296,48 @@ public abstract class BiasedLockModeHandler extends AbstractModeHandler implemen
             }
             int newHashcode = 0;
             ModalLockword lockword = ModalLockword.from(ObjectAccess.readMisc(object));
-            while (BiasedLockword.isBiasedLockword(lockword)) {
-                final BiasedLockword biasedLockword = BiasedLockword.from(lockword);
-                final int hashcode = biasedLockword.getHashcode();
-                if (hashcode != 0) {
-                    return hashcode;
-                }
-                if (newHashcode == 0) {
-                    newHashcode = monitorScheme().createHashCode(object);
-                }
-                // Do we own the bias?
-                final int lockwordThreadID = encodeCurrentThreadIDForLockword();
-                if (biasedLockword.getBiasOwnerID() == lockwordThreadID) {
-                    // No safepoints until after we have the hashcode in place
-                    ObjectAccess.writeMisc(object, biasedLockword.setHashcode(newHashcode));
-                    return newHashcode;
-                } else if (biasedLockword.equals(biasedLockword.asAnonBiased())) {
-                    // If the biased lock is anon biased, then try setting a hashcode
-                    lockword = ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, biasedLockword.setHashcode(newHashcode)));
-                    if (lockword.equals(biasedLockword)) {
-                        return newHashcode;
+            while (true) {
+                while (BiasedLockword.isBiasedLockword(lockword)) {
+                    final BiasedLockword biasedLockword = BiasedLockword.from(lockword);
+                    final int hashcode = biasedLockword.getHashcode();
+                    if (hashcode != 0) {
+                        return hashcode;
                     }
-                } else {
-                    // We have to revoke to set the hashcode...
-                    if (Monitor.TraceMonitors) {
-                        final boolean lockDisabledSafepoints = Log.lock();
-                        Log.print("Safepointed revoke for hashcode: ");
-                        Log.println(object.getClass().getName());
-                        Log.unlock(lockDisabledSafepoints);
+                    if (newHashcode == 0) {
+                        newHashcode = monitorScheme().createHashCode(object);
                     }
-                    final int vmThreadMapThreadID = decodeLockwordThreadID(biasedLockword.getBiasOwnerID());
-                    lockword = revokeWithOwnerSafepointed(object, vmThreadMapThreadID, biasedLockword);
+                    // Do we own the bias?
+                    final int lockwordThreadID = encodeCurrentThreadIDForLockword();
+                    if (biasedLockword.getBiasOwnerID() == lockwordThreadID) {
+                        // No safepoints until after we have the hashcode in place
+                        ObjectAccess.writeMisc(object, biasedLockword.setHashcode(newHashcode));
+                        return newHashcode;
+                    } else if (biasedLockword.equals(biasedLockword.asAnonBiased())) {
+                        // If the biased lock is anon biased, then try setting a hashcode
+                        lockword = ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, biasedLockword.setHashcode(newHashcode)));
+                        if (lockword.equals(biasedLockword)) {
+                            return newHashcode;
+                        }
+                    } else {
+                        // We have to revoke to set the hashcode...
+                        if (Monitor.TraceMonitors) {
+                            final boolean lockDisabledSafepoints = Log.lock();
+                            Log.print("Safepointed revoke for hashcode: ");
+                            Log.println(object.getClass().getName());
+                            Log.unlock(lockDisabledSafepoints);
+                        }
+                        final int vmThreadMapThreadID = decodeLockwordThreadID(biasedLockword.getBiasOwnerID());
+                        lockword = revokeWithOwnerSafepointed(object, vmThreadMapThreadID, biasedLockword);
+                    }
+                }
+                // Not a biased lock; delegate.
+                final int hashcode = delegate().delegateMakeHashcode(object, lockword);
+                if (hashcode != 0) {
+                    return hashcode;
                 }
+                // Possible deflation. Try again.
+                lockword = ModalLockword.from(ObjectAccess.readMisc(object));
             }
-            // Not a biased lock; delegate.
-            return delegate().delegateMakeHashcode(object, lockword);
         }
 
         public int createHash(Object object) {
@@ -365,61 +374,67 @@ public abstract class BiasedLockModeHandler extends AbstractModeHandler implemen
 
         private void slowPathMonitorEnter(Object object, ModalLockword lockword, int lockwordThreadID) {
             ModalLockword currentLockword = lockword;
-            while (BiasedLockword.isBiasedLockword(currentLockword)) {
-                final BiasedLockword biasedLockword = BiasedLockword.from(currentLockword);
-                final BiasedLockEpoch classEpoch = ObjectAccess.readHub(object).biasedLockEpoch;
-                if (classEpoch.isBulkRevocation()) {
-                    // Objects of this class are no longer eligible for biased locking
-                    if (biasedLockword.equals(biasedLockword.asAnonBiased())) {
-                        // Object is not biased or locked, change the lockword to the next locking mode
-                        final ModalLockword newLockword = delegate().prepareModalLockword(object, currentLockword);
-                        currentLockword = ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, newLockword));
-                        if (!currentLockword.equals(biasedLockword)) {
-                            delegate().cancelPreparedModalLockword(newLockword);
+            while (true) {
+                while (BiasedLockword.isBiasedLockword(currentLockword)) {
+                    final BiasedLockword biasedLockword = BiasedLockword.from(currentLockword);
+                    final BiasedLockEpoch classEpoch = ObjectAccess.readHub(object).biasedLockEpoch;
+                    if (classEpoch.isBulkRevocation()) {
+                        // Objects of this class are no longer eligible for biased locking
+                        if (biasedLockword.equals(biasedLockword.asAnonBiased())) {
+                            // Object is not biased or locked, change the lockword to the next locking mode
+                            final ModalLockword newLockword = delegate().prepareModalLockword(object, currentLockword);
+                            currentLockword = ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, newLockword));
+                            if (!currentLockword.equals(biasedLockword)) {
+                                delegate().cancelPreparedModalLockword(newLockword);
+                            }
+                            if (Monitor.TraceMonitors) {
+                                final boolean lockDisabledSafepoints = Log.lock();
+                                Log.print("New object bulk revocation: ");
+                                Log.println(object.getClass().getName());
+                                Log.unlock(lockDisabledSafepoints);
+                            }
+                        } else if (biasedLockword.getBiasOwnerID() == lockwordThreadID) {
+                            // Object is biased and locked by the current thread. Revoke the bias.
+                            currentLockword = revokeWithoutSafepointing(object);
+                        } else {
+                            // Object is biased to another thread. Revoke the bias.
+                            final int vmThreadMapThreadID = decodeLockwordThreadID(biasedLockword.getBiasOwnerID());
+                            currentLockword = revokeWithOwnerSafepointed(object, vmThreadMapThreadID, biasedLockword);
+                        }
+                    } else if (biasedLockword.getBiasOwnerID() == lockwordThreadID && !biasedLockword.getEpoch().equals(classEpoch) &&
+                               !biasedLockword.countUnderflow() && !biasedLockword.countOverflow()) {
+                        // Object is biased to and locked by the current thread, but the object's class has been rebiased.
+                        // We lock as normal. When the lock is released, the object will be rebiased.
+                        ObjectAccess.writeMisc(object, biasedLockword.incrementCount());
+                        return;
+                    } else if (biasedLockword.equals(biasedLockword.asAnonBiased()) || !biasedLockword.getEpoch().equals(classEpoch)) {
+                        // Object is not biased or it's bias is not in the current epoch. Try to get the bias.
+                        final BiasedLockword newBiasedLockword = biasedLockword.asBiasedAndLockedOnceBy(lockwordThreadID, classEpoch);
+                        currentLockword = ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, newBiasedLockword));
+                        if (currentLockword.equals(biasedLockword)) {
+                            // Current thread is now the bias owner
+                            return;
                         }
+                    } else if (biasedLockword.getBiasOwnerID() == lockwordThreadID && biasedLockword.countOverflow()) {
+                        // Overflow of the recursion count. The current thread owns the lock so we can revoke and delegate.
                         if (Monitor.TraceMonitors) {
                             final boolean lockDisabledSafepoints = Log.lock();
-                            Log.print("New object bulk revocation: ");
+                            Log.print("Safepointed revoke for hashcode: ");
                             Log.println(object.getClass().getName());
                             Log.unlock(lockDisabledSafepoints);
                         }
-                    } else if (biasedLockword.getBiasOwnerID() == lockwordThreadID) {
-                        // Object is biased and locked by the current thread. Revoke the bias.
                         currentLockword = revokeWithoutSafepointing(object);
                     } else {
-                        // Object is biased to another thread. Revoke the bias.
-                        final int vmThreadMapThreadID = decodeLockwordThreadID(biasedLockword.getBiasOwnerID());
-                        currentLockword = revokeWithOwnerSafepointed(object, vmThreadMapThreadID, biasedLockword);
+                        // Another thread holds the bias - so revoke.
+                        currentLockword = performRevocation(object, biasedLockword);
                     }
-                } else if (biasedLockword.getBiasOwnerID() == lockwordThreadID && !biasedLockword.getEpoch().equals(classEpoch) &&
-                           !biasedLockword.countUnderflow() && !biasedLockword.countOverflow()) {
-                    // Object is biased to and locked by the current thread, but the object's class has been rebiased.
-                    // We lock as normal. When the lock is released, the object will be rebiased.
-                    ObjectAccess.writeMisc(object, biasedLockword.incrementCount());
+                }
+                if (delegate().delegateMonitorEnter(object, currentLockword, lockwordThreadID)) {
                     return;
-                } else if (biasedLockword.equals(biasedLockword.asAnonBiased()) || !biasedLockword.getEpoch().equals(classEpoch)) {
-                    // Object is not biased or it's bias is not in the current epoch. Try to get the bias.
-                    final BiasedLockword newBiasedLockword = biasedLockword.asBiasedAndLockedOnceBy(lockwordThreadID, classEpoch);
-                    currentLockword = ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, newBiasedLockword));
-                    if (currentLockword.equals(biasedLockword)) {
-                        // Current thread is now the bias owner
-                        return;
-                    }
-                } else if (biasedLockword.getBiasOwnerID() == lockwordThreadID && biasedLockword.countOverflow()) {
-                    // Overflow of the recursion count. The current thread owns the lock so we can revoke and delegate.
-                    if (Monitor.TraceMonitors) {
-                        final boolean lockDisabledSafepoints = Log.lock();
-                        Log.print("Safepointed revoke for hashcode: ");
-                        Log.println(object.getClass().getName());
-                        Log.unlock(lockDisabledSafepoints);
-                    }
-                    currentLockword = revokeWithoutSafepointing(object);
-                } else {
-                    // Another thread holds the bias - so revoke.
-                    currentLockword = performRevocation(object, biasedLockword);
                 }
+                // Try again. Monitor was deflated.
+                currentLockword = ModalLockword.from(ObjectAccess.readMisc(object));
             }
-            delegate().delegateMonitorEnter(object, currentLockword, lockwordThreadID);
         }
 
         public int makeHashCode(Object object) {
@@ -428,45 +443,52 @@ public abstract class BiasedLockModeHandler extends AbstractModeHandler implemen
             }
             int newHashcode = 0;
             ModalLockword lockword = ModalLockword.from(ObjectAccess.readMisc(object));
-            while (BiasedLockword.isBiasedLockword(lockword)) {
-                final BiasedLockword biasedLockword = BiasedLockword.from(lockword);
-                final int hashcode = biasedLockword.getHashcode();
-                if (hashcode != 0) {
-                    return hashcode;
-                }
-
-                if (newHashcode == 0) {
-                    newHashcode = monitorScheme().createHashCode(object);
-                }
+            while (true) {
+                while (BiasedLockword.isBiasedLockword(lockword)) {
+                    final BiasedLockword biasedLockword = BiasedLockword.from(lockword);
+                    final int hashcode = biasedLockword.getHashcode();
+                    if (hashcode != 0) {
+                        return hashcode;
+                    }
 
-                // Do we own the bias?
-                final BiasedLockEpoch classEpoch = ObjectAccess.readHub(object).biasedLockEpoch;
-                final int lockwordThreadID = encodeCurrentThreadIDForLockword();
-                if (biasedLockword.getBiasOwnerID() == lockwordThreadID) {
-                    if (biasedLockword.getEpoch().equals(classEpoch) || !biasedLockword.countUnderflow()) {
-                        ObjectAccess.writeMisc(object, biasedLockword.setHashcode(newHashcode));
-                        return newHashcode;
+                    if (newHashcode == 0) {
+                        newHashcode = monitorScheme().createHashCode(object);
                     }
-                }
-                if (biasedLockword.equals(biasedLockword.asAnonBiased()) || !biasedLockword.getEpoch().equals(classEpoch)) {
-                    lockword = ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, biasedLockword.setHashcode(newHashcode)));
-                    if (lockword.equals(biasedLockword)) {
-                        return newHashcode;
+
+                    // Do we own the bias?
+                    final BiasedLockEpoch classEpoch = ObjectAccess.readHub(object).biasedLockEpoch;
+                    final int lockwordThreadID = encodeCurrentThreadIDForLockword();
+                    if (biasedLockword.getBiasOwnerID() == lockwordThreadID) {
+                        if (biasedLockword.getEpoch().equals(classEpoch) || !biasedLockword.countUnderflow()) {
+                            ObjectAccess.writeMisc(object, biasedLockword.setHashcode(newHashcode));
+                            return newHashcode;
+                        }
                     }
-                } else {
-                    // We have to revoke to set the hashcode...
-                    final int vmThreadMapThreadID = decodeLockwordThreadID(biasedLockword.getBiasOwnerID());
-                    lockword = revokeWithOwnerSafepointed(object, vmThreadMapThreadID, biasedLockword);
-                    if (Monitor.TraceMonitors) {
-                        final boolean lockDisabledSafepoints = Log.lock();
-                        Log.print("Safepointed revoke for hashcode: ");
-                        Log.println(object.getClass().getName());
-                        Log.unlock(lockDisabledSafepoints);
+                    if (biasedLockword.equals(biasedLockword.asAnonBiased()) || !biasedLockword.getEpoch().equals(classEpoch)) {
+                        lockword = ModalLockword.from(ObjectAccess.compareAndSwapMisc(object, biasedLockword, biasedLockword.setHashcode(newHashcode)));
+                        if (lockword.equals(biasedLockword)) {
+                            return newHashcode;
+                        }
+                    } else {
+                        // We have to revoke to set the hashcode...
+                        final int vmThreadMapThreadID = decodeLockwordThreadID(biasedLockword.getBiasOwnerID());
+                        lockword = revokeWithOwnerSafepointed(object, vmThreadMapThreadID, biasedLockword);
+                        if (Monitor.TraceMonitors) {
+                            final boolean lockDisabledSafepoints = Log.lock();
+                            Log.print("Safepointed revoke for hashcode: ");
+                            Log.println(object.getClass().getName());
+                            Log.unlock(lockDisabledSafepoints);
+                        }
                     }
                 }
+                // Not a biased lock; delegate.
+                final int hashcode = delegate().delegateMakeHashcode(object, lockword);
+                if (hashcode != 0) {
+                    return hashcode;
+                }
+                // Possible deflation. Try again.
+                lockword = ModalLockword.from(ObjectAccess.readMisc(object));
             }
-            // Not a biased lock; delegate.
-            return delegate().delegateMakeHashcode(object, lockword);
         }
 
         private BiasedLockRevocationHeuristics getHeuristics(Object object) {
@@ -41,6 +41,12 @@ public abstract class ThinLockModeHandler extends AbstractModeHandler {
 
     private static final int THIN_LOCK_RETRIES = 20;
 
+    /**
+     * Upper bound for the number of {@linkplain Intrinsics#pause() pauses} between two attempts to acquire a
+     * thin lock owned by another thread.
+     */
+    private static final int THIN_LOCK_MAX_BACKOFF = 256;
+
     /**
      * Returns a ThinLockModeHandler with the required interface for fast-path entry from a MonitorScheme.
      */
@@ -114,6 +120,7 @@ public abstract class ThinLockModeHandler extends AbstractModeHandler {
     protected void slowPathMonitorEnter(Object object, ModalLockword lockword, int lockwordThreadID) {
         ModalLockword newLockword = lockword;
         int retries = THIN_LOCK_RETRIES;
+        int backoff = 1;
         while (true) {
             if (ThinLockword.isThinLockword(newLockword)) {
                 final ThinLockword thinLockword = ThinLockword.from(newLockword);
@@ -141,6 +148,11 @@ public abstract class ThinLockModeHandler extends AbstractModeHandler {
                     // Lets try again.
                     newLockword = answer;
                     if (--retries > 0) {
+                        if (ThinLockword.isThinLockword(answer) && ThinLockword.from(answer).getLockOwnerID() != 0) {
+                            // Another thread holds the lock. Back off exponentially so that a short critical
+                            // section can complete before we resort to inflating the lock.
+                            backoff = spinBackoff(backoff);
+                        }
                         continue;
                     }
                 }
@@ -155,7 +167,20 @@ public abstract class ThinLockModeHandler extends AbstractModeHandler {
             // Try again. Monitor was deflated.
             newLockword = ModalLockword.from(ObjectAccess.readMisc(object));
             retries = THIN_LOCK_RETRIES;
+            backoff = 1;
+        }
+    }
+
+    /**
+     * Spins for a given number of iterations.
+     *
+     * @return the number of iterations to spin for on the next backoff
+     */
+    private static int spinBackoff(int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            Intrinsics.pause();
         }
+        return Math.min(iterations << 1, THIN_LOCK_MAX_BACKOFF);
     }
 
     @SNIPPET_SLOWPATH
@@ -30,6 +30,7 @@ import com.sun.max.unsafe.*;
 import com.sun.max.vm.*;
 import com.sun.max.vm.actor.holder.*;
 import com.sun.max.vm.monitor.*;
+import com.sun.max.vm.monitor.modal.modehandlers.inflated.*;
 import com.sun.max.vm.monitor.modal.sync.JavaMonitorManager.ManagedMonitor.*;
 import com.sun.max.vm.monitor.modal.sync.nat.*;
 import com.sun.max.vm.object.*;
@@ -47,6 +48,17 @@ import com.sun.max.vm.thread.*;
  * lockwords is delegated to an {@link UnboundMiscWordWriter} object (most likely the inflated mode handler of the ModalMonitorScheme).
  * This allows unbinding to be a transition to any other locking mode.
  * <p>
+ * If {@linkplain #ConcurrentMonitorDeflation concurrent deflation} is enabled, idle monitors are instead unbound by a
+ * daemon thread running concurrently with the mutator threads, in batches of {@link #MonitorDeflationBatchSize}
+ * monitors. A monitor is only deflated while the daemon holds its mutex and the monitor has no owner and no waiters.
+ * Under the mutex, the daemon first replaces the monitor's displaced misc word with {@link #deflatingMiscWord()}, which
+ * stops threads installing a hashcode. It then swaps the bound lockword of the object back to the unbound lockword
+ * with a CAS. A thread that read the bound lockword before the swap may still acquire the monitor afterwards. It must
+ * therefore check that the object is still bound to the monitor once it owns it, and otherwise release the monitor
+ * and start again. Deflated monitors are only put back on the unbound list at the next global safepoint, once no
+ * thread is {@linkplain #protectBinding(JavaMonitor) in-flight} on them. In this mode, global safepoints only unbind
+ * monitors when the unbound list runs low, so the pause time no longer grows with the number of idle monitors.
+ * <p>
  * GC considerations:
  * <p>
  * 1) As all monitors are GC reachable, so are their bound objects (as this is just a field in the monitor).
@@ -121,11 +133,61 @@ public class JavaMonitorManager {
     public interface UnboundMiscWordWriter {
         void writeUnboundMiscWord(Object object, Word preBindingMiscWord);
         void writeUnboundHashWord(Object object, Word preBindingMiscWord);
+
+        /**
+         * Atomically replaces the misc word of an object with its unbound misc word, if the object is still bound.
+         *
+         * @param boundMiscWord the misc word of the object while it is bound
+         * @return true if the object's misc word was {@code boundMiscWord} and has been replaced
+         */
+        boolean compareAndSwapUnboundMiscWord(Object object, Word boundMiscWord, Word preBindingMiscWord);
     }
 
     @CONSTANT_WHEN_NOT_ZERO
     private static UnboundMiscWordWriter unboundMiscWordWriter;
 
+    private static boolean PrintMonitorStatistics;
+
+    /**
+     * Deflate idle monitors concurrently instead of at global safepoints.
+     */
+    public static boolean ConcurrentMonitorDeflation = true;
+
+    /**
+     * Milliseconds between two passes of the concurrent deflater over the monitor pool.
+     */
+    public static int MonitorDeflationInterval = 1000;
+
+    /**
+     * Number of monitors the concurrent deflater inspects before yielding.
+     */
+    public static int MonitorDeflationBatchSize = 64;
+
+    static {
+        VMOptions.addFieldOption("-XX:", "PrintMonitorStatistics", JavaMonitorManager.class, "Print spin and park statistics of inflated monitors when the VM exits.");
+        VMOptions.addFieldOption("-XX:", "ConcurrentMonitorDeflation", JavaMonitorManager.class, "Deflate idle monitors in a background thread instead of at GC safepoints.");
+        VMOptions.addFieldOption("-XX:", "MonitorDeflationInterval", JavaMonitorManager.class, "Milliseconds between two passes of the concurrent monitor deflater.");
+        VMOptions.addFieldOption("-XX:", "MonitorDeflationBatchSize", JavaMonitorManager.class, "Number of monitors the concurrent monitor deflater inspects before yielding.");
+    }
+
+    /**
+     * Determines if idle monitors are deflated concurrently. Only set once the VM is running, and only on 64-bit
+     * platforms where the binding of a monitor is held in a single lockword.
+     */
+    private static boolean deflateConcurrently;
+
+    /**
+     * Monitors that have been deflated concurrently but may still be referenced by threads that read the object's
+     * lockword before it was unbound. Linked via {@link ManagedMonitor#next()} and only modified by the deflater
+     * with safepoints disabled, or at a global safepoint.
+     */
+    private static ManagedMonitor deflatedList;
+
+    /**
+     * The number of monitors deflated by the concurrent deflater. Only written by the deflater thread.
+     */
+    private static int concurrentDeflations;
+
     @CONSTANT_WHEN_NOT_ZERO
     private static boolean requireProxyAcquirableMonitors;
 
@@ -195,7 +257,68 @@ public class JavaMonitorManager {
                 }
                 Log.unlock(lockDisabledSafepoints);
             }
+        } else if (phase == MaxineVM.Phase.RUNNING) {
+            StandardJavaMonitor.initializeSpinning();
+            if (ConcurrentMonitorDeflation && Platform.target().arch.is64bit() && unboundMiscWordWriter != null) {
+                deflateConcurrently = true;
+                new DeflationDaemon().start();
+            }
+        } else if (phase == MaxineVM.Phase.TERMINATING) {
+            if (PrintMonitorStatistics) {
+                printStatistics();
+            }
+        }
+    }
+
+    /**
+     * Prints the contended acquisition statistics accumulated over all monitors, i.e. how many contended
+     * acquisitions were satisfied by {@linkplain StandardJavaMonitor adaptive spinning} and how many had to park.
+     */
+    public static void printStatistics() {
+        long spinAcquisitions = 0;
+        long parkedAcquisitions = 0;
+        long spinDurations = 0;
+        int contendedMonitors = 0;
+        int boundMonitors = 0;
+        final int n = numberOfBindableMonitors + stickyMonitors.length;
+        for (int i = 0; i < n; i++) {
+            final ManagedMonitor monitor = i < numberOfBindableMonitors ? bindableMonitors[i] : stickyMonitors[i - numberOfBindableMonitors];
+            if (monitor.isBound()) {
+                boundMonitors++;
+            }
+            if (monitor instanceof StandardJavaMonitor) {
+                final StandardJavaMonitor standardMonitor = (StandardJavaMonitor) monitor;
+                final int spins = standardMonitor.spinAcquisitions();
+                final int parks = standardMonitor.parkedAcquisitions();
+                if (spins + parks != 0) {
+                    spinAcquisitions += spins;
+                    parkedAcquisitions += parks;
+                    spinDurations += standardMonitor.spinDuration();
+                    contendedMonitors++;
+                }
+            }
         }
+        final boolean lockDisabledSafepoints = Log.lock();
+        Log.println("Monitor statistics:");
+        Log.print("  monitors: ");
+        Log.print(n);
+        Log.print(", bound: ");
+        Log.print(boundMonitors);
+        Log.print(", contended: ");
+        Log.println(contendedMonitors);
+        Log.print("  contended acquisitions by spinning: ");
+        Log.print(spinAcquisitions);
+        Log.print(", by parking: ");
+        Log.println(parkedAcquisitions);
+        if (contendedMonitors != 0) {
+            Log.print("  average spin duration of contended monitors: ");
+            Log.println(spinDurations / contendedMonitors);
+        }
+        if (deflateConcurrently) {
+            Log.print("  concurrently deflated monitors: ");
+            Log.println(concurrentDeflations);
+        }
+        Log.unlock(lockDisabledSafepoints);
     }
 
     /**
@@ -499,13 +622,19 @@ public class JavaMonitorManager {
     private static void unbindUnownedMonitors() {
         // Mark all protected monitors
         VmThreadMap.ACTIVE.forAllThreadLocals(null, protectedMonitorGatherer);
+        releaseDeflatedMonitors();
+        // With concurrent deflation, only unbind here if the deflater has not kept up
+        final boolean unbind = !deflateConcurrently || numberOfUnboundMonitors < UNBOUNDLIST_MIN_QTY;
         // Deflate all non-protected and non-sticky monitors with no owner
         for (int i = 0; i < numberOfBindableMonitors; i++) {
             final ManagedMonitor monitor = bindableMonitors[i];
-            if (monitor.isHardBound() && monitor.bindingProtection() == BindingProtection.PRE_ACQUIRE) {
+            if (!monitor.isBound()) {
+                continue;
+            }
+            if (unbind && monitor.isHardBound() && monitor.bindingProtection() == BindingProtection.PRE_ACQUIRE) {
                 monitor.setBindingProtection(BindingProtection.UNPROTECTED);
             }
-            if (monitor.bindingProtection() == BindingProtection.UNPROTECTED) {
+            if (unbind && monitor.bindingProtection() == BindingProtection.UNPROTECTED) {
                 if (Monitor.TraceMonitors) {
                     final boolean lockDisabledSafepoints = Log.lock();
                     Log.print("Unbinding monitor: ");
@@ -529,6 +658,131 @@ public class JavaMonitorManager {
         }
     }
 
+    /**
+     * Puts the concurrently deflated monitors that no thread is in-flight on back on the unbound list.
+     * The in-flight monitors have been marked {@linkplain BindingProtection#PROTECTED protected} by the
+     * {@link #protectedMonitorGatherer} and are kept until a later safepoint.
+     * Must only be called on a global safepoint.
+     */
+    private static void releaseDeflatedMonitors() {
+        ManagedMonitor monitor = deflatedList;
+        deflatedList = null;
+        while (monitor != null) {
+            final ManagedMonitor next = monitor.next();
+            if (monitor.bindingProtection() == BindingProtection.PROTECTED) {
+                if (monitor.isOwnedBy(null)) {
+                    monitor.setBindingProtection(BindingProtection.UNPROTECTED);
+                }
+                monitor.setNext(deflatedList);
+                deflatedList = monitor;
+            } else {
+                monitor.reset();
+                addToUnboundList(monitor);
+            }
+            monitor = next;
+        }
+    }
+
+    /**
+     * Gets the value a monitor's displaced misc word holds while the monitor is being deflated concurrently.
+     * This is never a valid displaced misc word, as it has the bits of a bound inflated lockword set.
+     */
+    @INLINE
+    public static Word deflatingMiscWord() {
+        return Word.allOnes();
+    }
+
+    /**
+     * Deflates the idle monitors in the pool. Called periodically by the {@link DeflationDaemon}.
+     */
+    static void deflateIdleMonitors() {
+        int index = 0;
+        while (true) {
+            final ManagedMonitor[] monitors = bindableMonitors;
+            final int end = Math.min(Math.min(numberOfBindableMonitors, monitors.length), index + MonitorDeflationBatchSize);
+            if (index >= end) {
+                break;
+            }
+            for (; index < end; index++) {
+                final ManagedMonitor monitor = monitors[index];
+                if (monitor != null && monitor.isBound()) {
+                    // Deflation must be atomic with respect to safepoints. Its critical section is short
+                    // and neither blocks nor allocates.
+                    final boolean wasDisabled = SafepointPoll.disable();
+                    if (deflate(monitor)) {
+                        concurrentDeflations++;
+                    }
+                    if (!wasDisabled) {
+                        SafepointPoll.enable();
+                    }
+                }
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Deflates a given monitor if it is hard bound and idle.
+     * Must be called with safepoints disabled.
+     *
+     * @return true if the monitor was deflated
+     */
+    private static boolean deflate(ManagedMonitor monitor) {
+        final Object object = monitor.boundObject();
+        if (object == null || !(monitor instanceof StandardJavaMonitor) || !monitor.isHardBound()) {
+            return false;
+        }
+        final StandardJavaMonitor standardMonitor = (StandardJavaMonitor) monitor;
+        if (!standardMonitor.tryLockIdle()) {
+            return false;
+        }
+        boolean deflated = false;
+        final Word displacedMisc = monitor.displacedMisc();
+        if (monitor.compareAndSwapDisplacedMisc(displacedMisc, deflatingMiscWord()).equals(displacedMisc)) {
+            if (unboundMiscWordWriter.compareAndSwapUnboundMiscWord(object, InflatedMonitorLockword.boundFromMonitor(monitor), displacedMisc)) {
+                if (Monitor.TraceMonitors) {
+                    final boolean lockDisabledSafepoints = Log.lock();
+                    Log.print("Deflating monitor: ");
+                    monitor.log();
+                    Log.println();
+                    Log.unlock(lockDisabledSafepoints);
+                }
+                monitor.setBoundObject(null);
+                monitor.setDisplacedMisc(Word.zero());
+                monitor.setBindingProtection(BindingProtection.UNPROTECTED);
+                monitor.setNext(deflatedList);
+                deflatedList = monitor;
+                deflated = true;
+            } else {
+                monitor.setDisplacedMisc(displacedMisc);
+            }
+        }
+        standardMonitor.unlockIdle();
+        return deflated;
+    }
+
+    /**
+     * The daemon thread that periodically {@linkplain JavaMonitorManager#deflateIdleMonitors() deflates} idle monitors.
+     */
+    private static final class DeflationDaemon extends Thread {
+
+        DeflationDaemon() {
+            super(VmThread.systemThreadGroup, "MonitorDeflation");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    Thread.sleep(MonitorDeflationInterval);
+                } catch (InterruptedException e) {
+                }
+                deflateIdleMonitors();
+            }
+        }
+    }
+
     /**
      * Must only be called on a global safepoint.
      */
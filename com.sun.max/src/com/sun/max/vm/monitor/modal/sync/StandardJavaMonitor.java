@@ -55,11 +55,81 @@ import com.sun.max.vm.thread.*;
  * all threads can continue. With this implementation, the notify can hit thread A since it could not re-acquire the
  * lock between the timeout and the notify (remember that thread C holds the lock). So the notify does not wake up
  * thread B, and it sleeps forever - thread B remains blocked forever.
+ * <br>
+ * <br>
+ * A thread that finds the mutex held spins for a while before parking on it, as short critical sections are
+ * usually released sooner than a park/unpark round trip through the OS completes. The spin duration is adapted per
+ * monitor: it grows each time spinning acquires the monitor and shrinks each time the spinning thread has to park
+ * anyway. Both adjustments are made by the thread that subsequently owns the mutex, so they need no synchronization.
  */
 public class StandardJavaMonitor extends AbstractJavaMonitor {
 
+    /**
+     * Spin before parking on a contended monitor.
+     */
+    public static boolean AdaptiveMonitorSpin = true;
+
+    /**
+     * Upper bound for the adaptive spin duration of a monitor.
+     */
+    public static int MonitorSpinLimit = 4096;
+
+    static {
+        VMOptions.addFieldOption("-XX:", "AdaptiveMonitorSpin", StandardJavaMonitor.class, "Spin adaptively before parking on a contended monitor.");
+        VMOptions.addFieldOption("-XX:", "MonitorSpinLimit", StandardJavaMonitor.class, "Maximum number of iterations a thread spins on a contended monitor before parking.");
+    }
+
+    /**
+     * Lower bound for the adaptive spin duration. Keeping a small spin even on monitors where spinning
+     * has failed lets a monitor whose critical sections have become short recover its spin duration.
+     */
+    private static final int MIN_SPIN = 16;
+
+    /**
+     * The spin duration given to a monitor when it is created.
+     */
+    private static final int INITIAL_SPIN = 512;
+
+    /**
+     * Amount by which the spin duration grows after a spin acquired the monitor.
+     */
+    private static final int SPIN_BONUS = 256;
+
+    /**
+     * Amount by which the spin duration shrinks after a spin failed to acquire the monitor.
+     */
+    private static final int SPIN_PENALTY = 512;
+
+    /**
+     * Determines if contending threads spin. Only set once the VM is {@linkplain MaxineVM.Phase#RUNNING running},
+     * and only on multiprocessors, where the owner can make progress while another thread spins.
+     */
+    private static boolean spinEnabled;
+
+    static void initializeSpinning() {
+        spinEnabled = AdaptiveMonitorSpin && MonitorSpinLimit > 0 && Runtime.getRuntime().availableProcessors() > 1;
+    }
+
     protected final Mutex mutex;
 
+    /**
+     * The number of iterations a thread contending for this monitor currently spins before parking.
+     * Only written by the thread holding {@link #mutex}.
+     */
+    private int spinDuration = INITIAL_SPIN;
+
+    /**
+     * The number of contended acquisitions of this monitor that succeeded by spinning.
+     * Only written by the thread holding {@link #mutex}.
+     */
+    private int spinAcquisitions;
+
+    /**
+     * The number of contended acquisitions of this monitor that parked on the mutex.
+     * Only written by the thread holding {@link #mutex}.
+     */
+    private int parkedAcquisitions;
+
     /**
      * The list of threads waiting on this monitor as a result of a call to {@link #monitorWait(long)}. A thread is
      * responsible for adding/removing itself to/from this list on either side of the call to
@@ -95,15 +165,65 @@ public class StandardJavaMonitor extends AbstractJavaMonitor {
             traceEndMonitorEnter(currentThread);
             return;
         }
-        currentThread.setState(Thread.State.BLOCKED);
-        mutex.lock();
-        currentThread.setState(Thread.State.RUNNABLE);
+        if (!mutex.tryLock()) {
+            currentThread.setState(Thread.State.BLOCKED);
+            if (spinLock()) {
+                spinAcquisitions++;
+                spinDuration = Math.min(spinDuration + SPIN_BONUS, MonitorSpinLimit);
+            } else {
+                mutex.lock();
+                parkedAcquisitions++;
+                if (spinEnabled) {
+                    spinDuration = Math.max(spinDuration - SPIN_PENALTY, MIN_SPIN);
+                }
+            }
+            currentThread.setState(Thread.State.RUNNABLE);
+        }
         ownerThread = currentThread;
         setBindingProtection(BindingProtection.PROTECTED);
         recursionCount = 1;
         traceEndMonitorEnter(currentThread);
     }
 
+    /**
+     * Spins for up to this monitor's current {@linkplain #spinDuration spin duration} trying to acquire the mutex.
+     *
+     * @return true if the mutex was acquired
+     */
+    private boolean spinLock() {
+        if (!spinEnabled) {
+            return false;
+        }
+        for (int i = spinDuration; i > 0; i--) {
+            Intrinsics.pause();
+            if (ownerThread == null && mutex.tryLock()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of contended acquisitions of this monitor that succeeded by spinning.
+     */
+    public int spinAcquisitions() {
+        return spinAcquisitions;
+    }
+
+    /**
+     * Gets the number of contended acquisitions of this monitor that parked on its mutex.
+     */
+    public int parkedAcquisitions() {
+        return parkedAcquisitions;
+    }
+
+    /**
+     * Gets the number of iterations a thread contending for this monitor currently spins before parking.
+     */
+    public int spinDuration() {
+        return spinDuration;
+    }
+
     @Override
     public void monitorExit() {
         final VmThread currentThread = VmThread.current();
@@ -241,6 +361,31 @@ public class StandardJavaMonitor extends AbstractJavaMonitor {
         }
     }
 
+    /**
+     * Locks the mutex of this monitor on behalf of the {@linkplain JavaMonitorManager#deflateIdleMonitors() deflater}
+     * if the monitor is idle, i.e. it has no owner, no waiting threads and no notified threads that have yet to resume.
+     * The deflater does not become the owner of the monitor; it merely excludes all other threads from acquiring it.
+     *
+     * @return true if this monitor is idle and its mutex is now held by the current thread
+     */
+    boolean tryLockIdle() {
+        if (ownerThread != null || !mutex.tryLock()) {
+            return false;
+        }
+        if (ownerThread == null && waitingThreads == null && notifiedThreads == 0) {
+            return true;
+        }
+        mutex.unlock();
+        return false;
+    }
+
+    /**
+     * Releases the mutex after a successful {@link #tryLockIdle()}.
+     */
+    void unlockIdle() {
+        mutex.unlock();
+    }
+
     @Override
     public void monitorPrivateAcquire(VmThread owner, int lockQty) {
         FatalError.unexpected("Cannot perform a private monitor acquire from a " + this.getClass().getName());
@@ -251,6 +396,12 @@ public class StandardJavaMonitor extends AbstractJavaMonitor {
         FatalError.unexpected("Cannot perform a private monitor release from a " + this.getClass().getName());
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        spinDuration = INITIAL_SPIN;
+    }
+
     @Override
     public void allocate() {
         mutex.init();
@@ -261,6 +412,8 @@ public class StandardJavaMonitor extends AbstractJavaMonitor {
         super.log();
         Log.print(" mutex=");
         Log.print(Address.fromLong(mutex.logId()));
+        Log.print(" spin=");
+        Log.print(spinDuration);
         Log.print(" waiters={");
         VmThread waiter = waitingThreads;
         while (waiter != null) {
@@ -26,6 +26,7 @@ import com.sun.max.vm.actor.holder.*;
 import com.sun.max.vm.actor.member.*;
 import com.sun.max.vm.code.*;
 import com.sun.max.vm.compiler.*;
+import com.sun.max.vm.compiler.deopt.*;
 import com.sun.max.vm.object.ArrayAccess;
 import com.sun.max.vm.object.ObjectAccess;
 
@@ -87,9 +88,18 @@ public class MethodInstrumentation {
         incrementProfileCounterAtIndex(mpo, mpoIndex);
     }
 
+    /**
+     * Records a backward branch, requesting {@linkplain OnStackReplacement on-stack replacement} at the branch target
+     * upon counter overflow.
+     *
+     * @param osrBCI the bytecode index of the loop header targeted by the branch or {@code -1} if on-stack replacement
+     *            is not possible at this branch
+     */
     @INLINE
-    public static void recordBackwardBranch(MethodProfile mpo) {
-        mpo.entryBackedgeCount--;
+    public static void recordBackwardBranch(MethodProfile mpo, int osrBCI) {
+        if (--mpo.entryBackedgeCount <= 0 && osrBCI >= 0) {
+            OnStackReplacement.backwardBranchCounterOverflow(mpo, osrBCI);
+        }
     }
 
     @INLINE
@@ -105,6 +105,11 @@ public class MethodProfile {
      */
     private int[] deoptimizationCounts;
 
+    /**
+     * The number of uncommon traps hit by optimized code at positions in this method.
+     */
+    private int uncommonTrapCount;
+
     /**
      * When {@code true} re-compilation is disabled.
      * This is used by JVMTI to prevent methods with JVMTI instrumentation from
@@ -112,9 +117,85 @@ public class MethodProfile {
      */
     public boolean compilationDisabled;
 
+    /**
+     * The bytecode indexes of the loop headers for which on-stack replacement code has been requested.
+     * Guarded by the lock of this profile.
+     */
+    private int[] osrBCIs;
+
+    /**
+     * The on-stack replacement code compiled for the loop headers in {@link #osrBCIs}. A {@code null}
+     * entry denotes a failed compilation. Guarded by the lock of this profile.
+     */
+    private TargetMethod[] osrMethods;
+
     protected MethodProfile() {
     }
 
+    private int osrIndex(int bci) {
+        if (osrBCIs != null) {
+            for (int i = 0; i < osrBCIs.length; i++) {
+                if (osrBCIs[i] == bci) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Determines if on-stack replacement code has already been requested for a given loop header and is still valid.
+     * A failed request counts as requested so that it is not repeated.
+     *
+     * @param bci the bytecode index of a loop header
+     */
+    public synchronized boolean osrRequested(int bci) {
+        int index = osrIndex(bci);
+        if (index < 0) {
+            return false;
+        }
+        TargetMethod osrMethod = osrMethods[index];
+        return osrMethod == null || osrMethod.invalidated() == null;
+    }
+
+    /**
+     * Gets the valid on-stack replacement code for a given loop header.
+     *
+     * @param bci the bytecode index of a loop header
+     * @return {@code null} if no valid code is available for {@code bci}
+     */
+    public synchronized TargetMethod osrMethod(int bci) {
+        int index = osrIndex(bci);
+        if (index < 0) {
+            return null;
+        }
+        TargetMethod osrMethod = osrMethods[index];
+        return osrMethod == null || osrMethod.invalidated() != null ? null : osrMethod;
+    }
+
+    /**
+     * Records the result of compiling on-stack replacement code for a given loop header.
+     *
+     * @param bci the bytecode index of a loop header
+     * @param osrMethod the compiled code or {@code null} if compilation failed
+     */
+    public synchronized void setOSRMethod(int bci, TargetMethod osrMethod) {
+        int index = osrIndex(bci);
+        if (index < 0) {
+            if (osrBCIs == null) {
+                index = 0;
+                osrBCIs = new int[1];
+                osrMethods = new TargetMethod[1];
+            } else {
+                index = osrBCIs.length;
+                osrBCIs = Arrays.copyOf(osrBCIs, index + 1);
+                osrMethods = Arrays.copyOf(osrMethods, index + 1);
+            }
+            osrBCIs[index] = bci;
+        }
+        osrMethods[index] = osrMethod;
+    }
+
     /**
      * Increments deoptimization profiling counter for a gived deoptimization reason.
      * @param deoptReasonId deoptimization reason identificator
@@ -205,6 +286,22 @@ public class MethodProfile {
         return UNDEFINED_EXECUTION_COUNT;
     }
 
+    /**
+     * Increments the number of uncommon traps hit by optimized code at positions in this method.
+     */
+    public void incrementUncommonTrapCount() {
+        if (uncommonTrapCount != Integer.MAX_VALUE) {
+            uncommonTrapCount++;
+        }
+    }
+
+    /**
+     * Gets the number of uncommon traps hit by optimized code at positions in this method.
+     */
+    public int uncommonTrapCount() {
+        return uncommonTrapCount;
+    }
+
     /**
      * Returns deoptimization counter for a given deoptimization reason identifier.
      */
@@ -24,16 +24,22 @@ import com.sun.max.annotate.C_FUNCTION;
 import com.sun.max.annotate.NEVER_INLINE;
 import com.sun.max.annotate.NO_SAFEPOINT_POLLS;
 import com.sun.max.program.ProgramError;
+import com.sun.max.unsafe.Pointer;
 import com.sun.max.util.NUMALib;
 import com.sun.max.vm.Log;
 import com.sun.max.vm.MaxineVM;
 import com.sun.max.vm.VMOptions;
+import com.sun.max.vm.actor.holder.ClassIDManager;
+import com.sun.max.vm.actor.holder.Hub;
 import com.sun.max.vm.heap.*;
 import com.sun.max.vm.runtime.FatalError;
 import com.sun.max.vm.runtime.SafepointPoll;
 import com.sun.max.vm.thread.VmThread;
+import com.sun.max.vm.thread.VmThreadMap;
 
 import static com.sun.max.vm.MaxineVM.isHosted;
+import static com.sun.max.vm.thread.VmThreadLocal.ALLOCATION_PROFILER_BUFFER;
+import static com.sun.max.vm.thread.VmThreadLocal.ETLA;
 
 public class AllocationProfiler {
 
@@ -44,9 +50,9 @@ public class AllocationProfiler {
     static native void allocationProfiler_unlock();
 
     public static int profilingCycle;
-    public static int uniqueId = 0;
     /**
-     * The AllocationProfiler Buffer for newly allocated objects.
+     * The AllocationProfiler Buffer for newly allocated objects. The records of each thread's
+     * {@link ThreadRecordBuffer} are moved here in bulk.
      */
     public static RecordBuffer newObjects;
 
@@ -61,6 +67,8 @@ public class AllocationProfiler {
     public static boolean AllocationProfilerVerbose;
     public static int AllocationProfilerBufferSize;
     public static boolean AllocationProfilerDebug;
+    public static int AllocationProfilerThreadBufferSize = 4096;
+    public static String AllocationProfilerDumpFile;
 
     public static int totalNewSize = 0;
     public static int totalSurvSize = 0;
@@ -119,6 +127,16 @@ public class AllocationProfiler {
      */
     public int survBufferSize = MINIMUMBUFFERSIZE;
 
+    /**
+     * The number of records each thread can hold before they are moved to the {@link #newObjects} buffer.
+     */
+    private final int threadBufferSize;
+
+    /**
+     * The binary dump the buffers are streamed to, or {@code null} if they are printed to Maxine's Log output.
+     */
+    private AllocationProfilerDump dump;
+
     /**
      * The options a user can pass to the Allocation Profiler.
      */
@@ -131,6 +149,8 @@ public class AllocationProfiler {
         VMOptions.addFieldOption("-XX:", "AllocationProfilerFlareAllocationThreshold", AllocationProfiler.class, "The number of the Flare objects to be allocated before the Allocation Profiler starts recording. (default: 0)");
         VMOptions.addFieldOption("-XX:", "AllocationProfilerFlareProfileWindow", AllocationProfiler.class, "The number of the Flare objects to be allocated before the Allocation Profiler stops recording. (default: 1)");
         VMOptions.addFieldOption("-XX:", "AllocationProfilerDebug", AllocationProfiler.class, "Print information to help in Allocation Profiler's Validation. (default: false)", MaxineVM.Phase.PRISTINE);
+        VMOptions.addFieldOption("-XX:", "AllocationProfilerThreadBufferSize", AllocationProfiler.class, "The number of records each thread buffers before moving them to the Allocation Profiler's Buffer. (default: 4096)");
+        VMOptions.addFieldOption("-XX:", "AllocationProfilerDumpFile", AllocationProfiler.class, "Stream the profiling records to this file in binary format instead of printing them to the Log output.");
     }
 
     public AllocationProfiler() {
@@ -163,6 +183,12 @@ public class AllocationProfiler {
 
         charArrayBuffer = new char[RecordBuffer.MAX_CHARS];
 
+        threadBufferSize = AllocationProfilerThreadBufferSize > 0 ? AllocationProfilerThreadBufferSize : 1;
+
+        if (AllocationProfilerDumpFile != null) {
+            dump = AllocationProfilerDump.open(AllocationProfilerDumpFile);
+        }
+
         profilingCycle = 1;
         if (AllocationProfilerVerbose) {
             Log.println("(Allocation Profiler): Initialization Complete.");
@@ -212,41 +238,88 @@ public class AllocationProfiler {
         Log.println("");
     }
 
-    public static boolean ongoingAllocation = false;
-
     /**
-     * This method is called when a profiled object is allocated.
+     * This method is called when a profiled object is allocated. The object is recorded in the allocating
+     * thread's {@link ThreadRecordBuffer} without taking the global lock. Only when that buffer is full
+     * are its records moved to the {@link #newObjects} buffer under the lock.
      */
     @NO_SAFEPOINT_POLLS("allocation profiler call chain must be atomic")
     @NEVER_INLINE
-    public void profile(int size, String type, long address) {
-        /* PROFILER_TLA is currently a thread local that has it's value maintained
-         * only in the {@linkplain VmThreadLocal#ETLA safepoints-enabled} TLA. That
-         * said if we lock and disable safepoints it is no longer accessible, thus
-         * we read it before locking. */
+    public void profile(int size, Hub hub, long address) {
+        final Pointer etla = ETLA.load(VmThread.currentTLA());
+        Pointer buffer = ALLOCATION_PROFILER_BUFFER.load(etla);
+        if (buffer.isZero()) {
+            buffer = ThreadRecordBuffer.allocate(threadBufferSize);
+            if (buffer.isZero()) {
+                Log.println("Thread Record Buffer Allocation Failed.");
+                MaxineVM.exit(1);
+            }
+            ALLOCATION_PROFILER_BUFFER.store(etla, buffer);
+        } else if (ThreadRecordBuffer.count(buffer) == threadBufferSize) {
+            final boolean lockDisabledSafepoints = lock();
+            flushThreadBuffer(buffer);
+            unlock(lockDisabledSafepoints);
+        }
+        ThreadRecordBuffer.record(buffer, VmThread.current().id(), hub.classActor.id, size, address);
+    }
+
+    /**
+     * Moves the records of a thread's buffer to the {@link #newObjects} buffer. Must be called with the lock held.
+     */
+    @NO_SAFEPOINT_POLLS("allocation profiler call chain must be atomic")
+    private void flushThreadBuffer(Pointer buffer) {
+        final int count = ThreadRecordBuffer.count(buffer);
+        for (int i = 0; i < count; i++) {
+            //guard RecordBuffer from overflow
+            if (newObjects.currentIndex >= newObjects.bufferSize) {
+                Log.print("Allocations Buffer out of bounds. Increase the Buffer Size.");
+                MaxineVM.exit(1);
+            }
+            final int classId = ThreadRecordBuffer.classId(buffer, i);
+            final int size = ThreadRecordBuffer.size(buffer, i);
+            //transform the object type from String to char[] and pass the charArrayBuffer[] to record
+            charArrayBuffer = asCharArray(ClassIDManager.toClassActor(classId).name());
+            newObjects.record(ThreadRecordBuffer.id(buffer, i), ThreadRecordBuffer.threadId(buffer, i), classId, charArrayBuffer, size,
+                    ThreadRecordBuffer.address(buffer, i), ThreadRecordBuffer.timestamp(buffer, i), ThreadRecordBuffer.coreId(buffer, i));
+            totalNewSize = totalNewSize + size;
+        }
+        ThreadRecordBuffer.reset(buffer);
+    }
+
+    private final Pointer.Procedure flushThreadBuffer = new Pointer.Procedure() {
+        public void run(Pointer tla) {
+            final Pointer buffer = ALLOCATION_PROFILER_BUFFER.load(ETLA.load(tla));
+            if (!buffer.isZero()) {
+                flushThreadBuffer(buffer);
+            }
+        }
+    };
+
+    /**
+     * Moves the records of all threads' buffers to the {@link #newObjects} buffer. This is only exact when the
+     * other threads are not allocating, which is the case when it is called before a GC.
+     */
+    public void flushThreadBuffers() {
         final boolean lockDisabledSafepoints = lock();
-        //transform the object type from String to char[] and pass the charArrayBuffer[] to record
-        charArrayBuffer = asCharArray(type);
-        final int threadId = VmThread.current().id();
-        //detect recursive allocations if another allocation is ongoing
-        if (ongoingAllocation) {
-            Log.println("Recursive Allocation. ");
-            Log.println(type);
-            throw FatalError.unexpected("Recursive Allocation.");
-        }
-        ongoingAllocation = true;
-        //guard RecordBuffer from overflow
-        if (newObjects.currentIndex >= newObjects.bufferSize) {
-            Log.print("Allocations Buffer out of bounds. Increase the Buffer Size.");
-            MaxineVM.exit(1);
-        }
-        newObjects.record(uniqueId, threadId, charArrayBuffer, size, address);
-        uniqueId++;
-        totalNewSize = totalNewSize + size;
-        ongoingAllocation = false;
+        VmThreadMap.ACTIVE.forAllThreadLocals(null, flushThreadBuffer);
         unlock(lockDisabledSafepoints);
     }
 
+    /**
+     * Called when the current thread is about to terminate, so that its records are not lost.
+     */
+    public void notifyCurrentThreadDetach() {
+        final Pointer etla = ETLA.load(VmThread.currentTLA());
+        final Pointer buffer = ALLOCATION_PROFILER_BUFFER.load(etla);
+        if (!buffer.isZero()) {
+            final boolean lockDisabledSafepoints = lock();
+            flushThreadBuffer(buffer);
+            ALLOCATION_PROFILER_BUFFER.store(etla, Pointer.zero());
+            unlock(lockDisabledSafepoints);
+            ThreadRecordBuffer.deallocate(buffer, threadBufferSize);
+        }
+    }
+
     /**
      * Dump AllocationProfiler Buffer to Maxine's Log output.
      */
@@ -257,7 +330,11 @@ public class AllocationProfiler {
             Log.print(profilingCycle);
             Log.println(" ====");
         }
-        newObjects.print(profilingCycle, 1);
+        if (dump != null) {
+            dump.write(newObjects, profilingCycle, 1);
+        } else {
+            newObjects.print(profilingCycle, 1);
+        }
         unlock(lockDisabledSafepoints);
     }
 
@@ -268,10 +345,11 @@ public class AllocationProfiler {
             Log.print(profilingCycle);
             Log.println(" ====");
         }
-        if ((profilingCycle % 2) == 0) {
-            survivors2.print(profilingCycle, 0);
+        final RecordBuffer survivors = (profilingCycle % 2) == 0 ? survivors2 : survivors1;
+        if (dump != null) {
+            dump.write(survivors, profilingCycle, 0);
         } else {
-            survivors1.print(profilingCycle, 0);
+            survivors.print(profilingCycle, 0);
         }
         unlock(lockDisabledSafepoints);
     }
@@ -313,7 +391,7 @@ public class AllocationProfiler {
                     MaxineVM.exit(1);
                 }
                 // write it to Buffer
-                to.record(from.readId(i), from.readThreadId(i), from.readStringBuffer, from.readSize(i), newAddr, node);
+                to.record(from.readId(i), from.readThreadId(i), from.readClassId(i), from.readStringBuffer, from.readSize(i), newAddr, node);
                 totalSurvSize = totalSurvSize + from.readSize(i);
             }
         }
@@ -353,6 +431,7 @@ public class AllocationProfiler {
             Log.println(" Profiling Is Now Complete. [pre-GC phase]");
         }
 
+        flushThreadBuffers();
         findNumaNodes();
 
         if (!AllocationProfilerDebug) {
@@ -467,6 +546,7 @@ public class AllocationProfiler {
      */
     public void terminate() {
 
+        flushThreadBuffers();
         findNumaNodes();
 
         if (!AllocationProfilerDebug) {
@@ -487,6 +567,11 @@ public class AllocationProfiler {
             newObjects.printUsage();
         }
 
+        if (dump != null) {
+            dump.close();
+            dump = null;
+        }
+
         if (AllocationProfilerVerbose) {
             Log.print("(Allocation Profiler): Release Reserved Memory.");
         }
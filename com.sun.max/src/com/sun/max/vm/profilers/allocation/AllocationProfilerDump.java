@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.profilers.allocation;
+
+import com.sun.max.annotate.C_FUNCTION;
+import com.sun.max.memory.Memory;
+import com.sun.max.memory.VirtualMemory;
+import com.sun.max.unsafe.CString;
+import com.sun.max.unsafe.Pointer;
+import com.sun.max.unsafe.Size;
+import com.sun.max.vm.Log;
+import com.sun.max.vm.actor.holder.ClassActor;
+import com.sun.max.vm.actor.holder.ClassIDManager;
+
+/**
+ * Streams the Allocation Profiler's records to a file in a compact binary format instead of printing them as text
+ * to Maxine's Log output. The records are staged in an off-heap buffer, so dumping allocates nothing on the heap
+ * and can be done while allocation is disabled during GC.
+ *
+ * All values are written in the platform's native byte order. The file starts with the {@link #MAGIC} number and
+ * the {@link #VERSION} as two ints, followed by tagged entries:
+ * <pre>
+ *   TAG_CLASS:     int classId; int length; char[length] name     (emitted once, before the first object of the class)
+ *   TAG_OBJECT:    int cycle; int isAllocation; int id; int threadId; int classId; int size; int node; int coreId;
+ *                  long timestamp; long address
+ *   TAG_CYCLE_END: int cycle; int isAllocation                    (ends the records of one buffer dump)
+ * </pre>
+ * Each tag is a single byte.
+ */
+final class AllocationProfilerDump {
+
+    @C_FUNCTION
+    private static native boolean allocationProfiler_openDump(Pointer path);
+
+    @C_FUNCTION
+    private static native void allocationProfiler_writeDump(Pointer buffer, int length);
+
+    @C_FUNCTION
+    private static native void allocationProfiler_closeDump();
+
+    static final int MAGIC = 0x4d584150;
+    static final int VERSION = 1;
+
+    static final byte TAG_CLASS = 1;
+    static final byte TAG_OBJECT = 2;
+    static final byte TAG_CYCLE_END = 3;
+
+    private static final int STAGING_SIZE = 64 * 1024;
+    private static final int OBJECT_ENTRY_SIZE = 1 + 8 * Integer.BYTES + 2 * Long.BYTES;
+
+    /**
+     * Off-heap staging buffer and the number of bytes it currently holds.
+     */
+    private final Pointer staging;
+    private int position;
+
+    /**
+     * Off-heap bitmap of the class ids whose {@link #TAG_CLASS} entry has already been written.
+     */
+    private Pointer dumpedClasses;
+    private int dumpedClassesCapacity;
+
+    private AllocationProfilerDump(Pointer staging) {
+        this.staging = staging;
+        growDumpedClasses(4096);
+    }
+
+    /**
+     * Opens the dump file and writes its header.
+     *
+     * @return the opened dump or {@code null} if the file could not be created
+     */
+    static AllocationProfilerDump open(String path) {
+        final Pointer cPath = CString.utf8FromJava(path);
+        final boolean opened = allocationProfiler_openDump(cPath);
+        Memory.deallocate(cPath);
+        if (!opened) {
+            Log.print("(Allocation Profiler): Could not open dump file ");
+            Log.println(path);
+            return null;
+        }
+        final Pointer staging = VirtualMemory.allocate(Size.fromInt(STAGING_SIZE), VirtualMemory.Type.DATA);
+        if (staging.isZero()) {
+            allocationProfiler_closeDump();
+            Log.println("(Allocation Profiler): Dump Staging Buffer Allocation Failed.");
+            return null;
+        }
+        AllocationProfilerDump dump = new AllocationProfilerDump(staging);
+        dump.putInt(MAGIC);
+        dump.putInt(VERSION);
+        return dump;
+    }
+
+    /**
+     * Writes all the records of a buffer followed by a {@link #TAG_CYCLE_END} entry.
+     */
+    void write(RecordBuffer buffer, int cycle, int allocation) {
+        for (int i = 0; i < buffer.currentIndex; i++) {
+            final int classId = buffer.readClassId(i);
+            if (!isDumped(classId)) {
+                writeClass(classId);
+            }
+            ensureSpace(OBJECT_ENTRY_SIZE);
+            putByte(TAG_OBJECT);
+            putInt(cycle);
+            putInt(allocation);
+            putInt(buffer.readId(i));
+            putInt(buffer.readThreadId(i));
+            putInt(classId);
+            putInt(buffer.readSize(i));
+            putInt(buffer.readNode(i));
+            putInt(buffer.readCoreId(i));
+            putLong(buffer.readTimestamp(i));
+            putLong(buffer.readAddr(i));
+        }
+        ensureSpace(1 + 2 * Integer.BYTES);
+        putByte(TAG_CYCLE_END);
+        putInt(cycle);
+        putInt(allocation);
+        flush();
+    }
+
+    void close() {
+        flush();
+        allocationProfiler_closeDump();
+        VirtualMemory.deallocate(staging.asAddress(), Size.fromInt(STAGING_SIZE), VirtualMemory.Type.DATA);
+        VirtualMemory.deallocate(dumpedClasses.asAddress(), Size.fromInt(dumpedClassesCapacity / Byte.SIZE), VirtualMemory.Type.DATA);
+    }
+
+    private void writeClass(int classId) {
+        final ClassActor classActor = ClassIDManager.toClassActor(classId);
+        final String name = classActor == null ? "null" : classActor.name();
+        final int length = name.length();
+        ensureSpace(1 + 2 * Integer.BYTES);
+        putByte(TAG_CLASS);
+        putInt(classId);
+        putInt(length);
+        for (int i = 0; i < length; i++) {
+            ensureSpace(Character.BYTES);
+            staging.writeChar(position, name.charAt(i));
+            position += Character.BYTES;
+        }
+        markDumped(classId);
+    }
+
+    private boolean isDumped(int classId) {
+        if (classId >= dumpedClassesCapacity) {
+            return false;
+        }
+        return (dumpedClasses.readByte(classId >> 3) & (1 << (classId & 7))) != 0;
+    }
+
+    private void markDumped(int classId) {
+        if (classId >= dumpedClassesCapacity) {
+            int capacity = dumpedClassesCapacity;
+            while (classId >= capacity) {
+                capacity *= 2;
+            }
+            growDumpedClasses(capacity);
+        }
+        final int offset = classId >> 3;
+        dumpedClasses.writeByte(offset, (byte) (dumpedClasses.readByte(offset) | (1 << (classId & 7))));
+    }
+
+    /**
+     * Replaces the bitmap of dumped classes with one of the given capacity, keeping its contents.
+     */
+    private void growDumpedClasses(int capacity) {
+        final Pointer bitmap = VirtualMemory.allocate(Size.fromInt(capacity / Byte.SIZE), VirtualMemory.Type.DATA);
+        if (!dumpedClasses.isZero()) {
+            final int oldSize = dumpedClassesCapacity / Byte.SIZE;
+            for (int i = 0; i < oldSize; i++) {
+                bitmap.writeByte(i, dumpedClasses.readByte(i));
+            }
+            VirtualMemory.deallocate(dumpedClasses.asAddress(), Size.fromInt(oldSize), VirtualMemory.Type.DATA);
+        }
+        dumpedClasses = bitmap;
+        dumpedClassesCapacity = capacity;
+    }
+
+    private void ensureSpace(int bytes) {
+        if (position + bytes > STAGING_SIZE) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (position > 0) {
+            allocationProfiler_writeDump(staging, position);
+            position = 0;
+        }
+    }
+
+    private void putByte(byte value) {
+        staging.writeByte(position, value);
+        position += 1;
+    }
+
+    private void putInt(int value) {
+        ensureSpace(Integer.BYTES);
+        staging.writeInt(position, value);
+        position += Integer.BYTES;
+    }
+
+    private void putLong(long value) {
+        ensureSpace(Long.BYTES);
+        staging.writeLong(position, value);
+        position += Long.BYTES;
+    }
+}
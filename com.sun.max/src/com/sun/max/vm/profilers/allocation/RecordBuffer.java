@@ -37,6 +37,7 @@ import com.sun.max.vm.runtime.FatalError;
  * -Index: unique for each object to make it distinguishable. [1-inf] index = 0 for empty cells. The Unique id
  * serves the purpose of following and tracing an object over the profiling cycles.
  * -Type: the object's type/class.
+ * -Class Id: the {@link com.sun.max.vm.actor.holder.ClassIDManager class id} of the object's type.
  * -Size: the object's size. Same type-different size Objects might exist (eg. same type arrays with different length).
  * -Address: the object's address in the Heap.
  * -Node: the physical NUMA node where the object is placed.
@@ -45,6 +46,7 @@ class RecordBuffer {
 
     private Pointer ids;
     private Pointer types;
+    private Pointer classIds;
     private Pointer sizes;
     private Pointer addresses;
     private Pointer nodes;
@@ -81,6 +83,7 @@ class RecordBuffer {
 
         ids = allocateIntArrayOffHeap(bufSize);
         types = allocateStringArrayOffHeap(bufSize);
+        classIds = allocateIntArrayOffHeap(bufSize);
         sizes = allocateIntArrayOffHeap(bufSize);
         addresses = allocateLongArrayOffHeap(bufSize);
         nodes = allocateIntArrayOffHeap(bufSize);
@@ -129,6 +132,7 @@ class RecordBuffer {
         final Size longSize = Size.fromInt(bufferSize).times(Long.BYTES);
         VirtualMemory.deallocate(ids.asAddress(), intSize, VirtualMemory.Type.DATA);
         VirtualMemory.deallocate(types.asAddress(), Size.fromLong(bufferSize).times(MAX_CHARS).times(Character.BYTES), VirtualMemory.Type.DATA);
+        VirtualMemory.deallocate(classIds.asAddress(), intSize, VirtualMemory.Type.DATA);
         VirtualMemory.deallocate(sizes.asAddress(), intSize, VirtualMemory.Type.DATA);
         VirtualMemory.deallocate(addresses.asAddress(), longSize, VirtualMemory.Type.DATA);
         VirtualMemory.deallocate(nodes.asAddress(), intSize, VirtualMemory.Type.DATA);
@@ -177,10 +181,26 @@ class RecordBuffer {
         return readInt(ids, index);
     }
 
+    int readClassId(int index) {
+        return readInt(classIds, index);
+    }
+
     int readSize(int index) {
         return readInt(sizes, index);
     }
 
+    int readNode(int index) {
+        return readInt(nodes, index);
+    }
+
+    int readCoreId(int index) {
+        return readInt(coreIDs, index);
+    }
+
+    long readTimestamp(int index) {
+        return readLong(timestamps, index);
+    }
+
     long readAddr(int index) {
         return readLong(addresses, index);
     }
@@ -211,16 +231,25 @@ class RecordBuffer {
 
     @NO_SAFEPOINT_POLLS("allocation profiler call chain must be atomic")
     @NEVER_INLINE
-    public void record(int id, int threadId, char[] type, int size, long address) {
+    public void record(int id, int threadId, int classId, char[] type, int size, long address) {
         if (Platform.platform().isa != ISA.AMD64) {
             throw FatalError.unimplemented("RecordBuffer.record");
         }
-        final long timestamp = Intrinsics.getTicks();
-        final int  coreID    = Intrinsics.getCpuID();
+        record(id, threadId, classId, type, size, address, Intrinsics.getTicks(), Intrinsics.getCpuID());
+    }
+
+    /**
+     * Records an object whose timestamp and core id were taken when it was allocated.
+     * Used when moving the records of a thread's {@link ThreadRecordBuffer} into this buffer.
+     */
+    @NO_SAFEPOINT_POLLS("allocation profiler call chain must be atomic")
+    @NEVER_INLINE
+    public void record(int id, int threadId, int classId, char[] type, int size, long address, long timestamp, int coreID) {
         writeLong(timestamps, currentIndex, timestamp);
         writeInt(coreIDs, currentIndex, coreID);
         writeInt(ids, currentIndex, id);
         writeInt(threadIds, currentIndex, threadId);
+        writeInt(classIds, currentIndex, classId);
         writeType(currentIndex, type);
         writeInt(sizes, currentIndex, size);
         writeLong(addresses, currentIndex, address);
@@ -235,9 +264,9 @@ class RecordBuffer {
 
     @NO_SAFEPOINT_POLLS("allocation profiler call chain must be atomic")
     @NEVER_INLINE
-    public void record(int id, int threadId, char[] type, int size, long address, int node) {
+    public void record(int id, int threadId, int classId, char[] type, int size, long address, int node) {
         writeNode(currentIndex, node);
-        record(id, threadId, type, size, address);
+        record(id, threadId, classId, type, size, address);
     }
 
     /**
@@ -294,6 +323,7 @@ class RecordBuffer {
 
     public void cleanBufferCell(int i) {
         writeInt(ids, i, 0);
+        writeInt(classIds, i, 0);
         writeType(i, nullValue);
         writeInt(sizes, i, 0);
         writeLong(addresses, i, 0L);
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.profilers.allocation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.max.annotate.INLINE;
+import com.sun.max.annotate.NO_SAFEPOINT_POLLS;
+import com.sun.max.memory.VirtualMemory;
+import com.sun.max.unsafe.Pointer;
+import com.sun.max.unsafe.Size;
+import com.sun.max.vm.Intrinsics;
+
+/**
+ * Static helpers for the off-heap record buffer each thread fills while allocating profiled objects.
+ * A thread's buffer is referenced from its {@link com.sun.max.vm.thread.VmThreadLocal#ALLOCATION_PROFILER_BUFFER}
+ * thread local and is only written by that thread, so recording an allocation takes no lock and allocates nothing
+ * on the heap. The records are moved in bulk into the {@link AllocationProfiler#newObjects} buffer when the
+ * thread's buffer is full, before each GC, when the thread terminates and when the VM terminates.
+ *
+ * Buffer layout: a header holding the record count and the range of unique ids reserved by the thread,
+ * followed by fixed size records.
+ */
+final class ThreadRecordBuffer {
+
+    private static final int COUNT = 0;
+    private static final int NEXT_ID = 4;
+    private static final int ID_LIMIT = 8;
+    private static final int HEADER_SIZE = 16;
+
+    private static final int ID = 0;
+    private static final int CLASS_ID = 4;
+    private static final int SIZE = 8;
+    private static final int CORE_ID = 12;
+    private static final int THREAD_ID = 16;
+    private static final int TIMESTAMP = 24;
+    private static final int ADDRESS = 32;
+    private static final int RECORD_SIZE = 40;
+
+    /**
+     * Number of unique object ids a thread reserves at a time.
+     */
+    private static final int ID_BLOCK_SIZE = 1024;
+
+    /**
+     * The next unreserved unique object id. Id 0 denotes an empty record.
+     */
+    private static final AtomicInteger nextIdBlock = new AtomicInteger(1);
+
+    private ThreadRecordBuffer() {
+    }
+
+    static Size sizeFor(int capacity) {
+        return Size.fromInt(capacity).times(RECORD_SIZE).plus(HEADER_SIZE);
+    }
+
+    static Pointer allocate(int capacity) {
+        Pointer buffer = VirtualMemory.allocate(sizeFor(capacity), VirtualMemory.Type.DATA);
+        if (!buffer.isZero()) {
+            buffer.writeInt(COUNT, 0);
+            buffer.writeInt(NEXT_ID, 0);
+            buffer.writeInt(ID_LIMIT, 0);
+        }
+        return buffer;
+    }
+
+    static void deallocate(Pointer buffer, int capacity) {
+        VirtualMemory.deallocate(buffer.asAddress(), sizeFor(capacity), VirtualMemory.Type.DATA);
+    }
+
+    @INLINE
+    static int count(Pointer buffer) {
+        return buffer.readInt(COUNT);
+    }
+
+    static void reset(Pointer buffer) {
+        buffer.writeInt(COUNT, 0);
+    }
+
+    @NO_SAFEPOINT_POLLS("allocation profiler call chain must be atomic")
+    @INLINE
+    static void record(Pointer buffer, int threadId, int classId, int size, long address) {
+        int nextId = buffer.readInt(NEXT_ID);
+        if (nextId == buffer.readInt(ID_LIMIT)) {
+            nextId = nextIdBlock.getAndAdd(ID_BLOCK_SIZE);
+            buffer.writeInt(ID_LIMIT, nextId + ID_BLOCK_SIZE);
+        }
+        buffer.writeInt(NEXT_ID, nextId + 1);
+
+        final int count = buffer.readInt(COUNT);
+        final Pointer record = buffer.plus(HEADER_SIZE + count * RECORD_SIZE);
+        record.writeInt(ID, nextId);
+        record.writeInt(CLASS_ID, classId);
+        record.writeInt(SIZE, size);
+        record.writeInt(CORE_ID, Intrinsics.getCpuID());
+        record.writeInt(THREAD_ID, threadId);
+        record.writeLong(TIMESTAMP, Intrinsics.getTicks());
+        record.writeLong(ADDRESS, address);
+        // Publish the record only once it is complete
+        buffer.writeInt(COUNT, count + 1);
+    }
+
+    private static Pointer recordAt(Pointer buffer, int index) {
+        return buffer.plus(HEADER_SIZE + index * RECORD_SIZE);
+    }
+
+    static int id(Pointer buffer, int index) {
+        return recordAt(buffer, index).readInt(ID);
+    }
+
+    static int classId(Pointer buffer, int index) {
+        return recordAt(buffer, index).readInt(CLASS_ID);
+    }
+
+    static int size(Pointer buffer, int index) {
+        return recordAt(buffer, index).readInt(SIZE);
+    }
+
+    static int coreId(Pointer buffer, int index) {
+        return recordAt(buffer, index).readInt(CORE_ID);
+    }
+
+    static int threadId(Pointer buffer, int index) {
+        return recordAt(buffer, index).readInt(THREAD_ID);
+    }
+
+    static long timestamp(Pointer buffer, int index) {
+        return recordAt(buffer, index).readLong(TIMESTAMP);
+    }
+
+    static long address(Pointer buffer, int index) {
+        return recordAt(buffer, index).readLong(ADDRESS);
+    }
+}
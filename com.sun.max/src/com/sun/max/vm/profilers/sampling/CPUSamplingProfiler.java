@@ -33,10 +33,13 @@ import com.sun.max.vm.actor.member.*;
 import com.sun.max.vm.runtime.*;
 import com.sun.max.vm.stack.*;
 import com.sun.max.vm.thread.VmThread;
+import com.sun.max.vm.thread.VmThreadMap;
 import com.sun.max.unsafe.*;
 
 /**
- * CPU sampling profiler. Runs a thread that periodically wakes up, stops all the threads, and records their stack.
+ * CPU sampling profiler. Runs a thread that periodically wakes up and records the stack of each thread.
+ * Each thread is stopped individually with a {@link Handshake} while its stack is gathered, so that taking
+ * a sample never stops all threads at once.
  * Note that the stack is gathered regardless of the state of the thread, e.g., it may be blocked.
  * Period of sampling is measured in milliseconds.
  */
@@ -77,6 +80,7 @@ public final class CPUSamplingProfiler extends SamplingProfiler {
         this.minimumDepth = MINIMUM_DEPTH;
         this.sampleCountIncrement = 1;
         this.stackTraceGatherer = new StackTraceGatherer(CPU_SAMPLING_PROFILER_NAME);
+        this.sampleHandshake = new SampleHandshake();
         this.optionPrefix = optionPrefix;
         create(optionValue);
     }
@@ -100,7 +104,7 @@ public final class CPUSamplingProfiler extends SamplingProfiler {
                     }
                     // section should be synchronized with sorting and dumping
                     synchronized (this) {
-                        stackTraceGatherer.submit();
+                        sampleThreads();
                         sampleCount++;
                     }
                     if (dumpInterval > 0 && now > lastDump + dumpInterval * 1000000L) {
@@ -113,6 +117,70 @@ public final class CPUSamplingProfiler extends SamplingProfiler {
         }
     }
 
+    /**
+     * Handshake that gathers the stack of a thread while it is stopped.
+     */
+    final class SampleHandshake extends Handshake {
+
+        SampleHandshake() {
+            super(CPU_SAMPLING_PROFILER_NAME);
+        }
+
+        @Override
+        protected void doThread(VmThread vmThread, Pointer ip, Pointer sp, Pointer fp) {
+            stackTraceGatherer.gatherStack(vmThread, ip, sp, fp);
+        }
+    }
+
+    private final SampleHandshake sampleHandshake;
+
+    /**
+     * The threads to be sampled in the current period. The array grows as needed and is reused across periods.
+     */
+    private VmThread[] sampledThreads = new VmThread[16];
+
+    private int sampledThreadCount;
+
+    private final Pointer.Procedure collectSampledThread = new Pointer.Procedure() {
+        public void run(Pointer tla) {
+            if (sampledThreadCount < sampledThreads.length) {
+                sampledThreads[sampledThreadCount] = VmThread.fromTLA(tla);
+            }
+            sampledThreadCount++;
+        }
+    };
+
+    private final Pointer.Predicate isSampledThread = new Pointer.Predicate() {
+        public boolean evaluate(Pointer tla) {
+            final VmThread vmThread = VmThread.fromTLA(tla);
+            return vmThread != null && !vmThread.isVmOperationThread() && stackTraceGatherer.operateOnThread(vmThread);
+        }
+    };
+
+    /**
+     * Takes one sample of every thread of interest, stopping one thread at a time.
+     */
+    private void sampleThreads() {
+        while (true) {
+            sampledThreadCount = 0;
+            synchronized (VmThreadMap.THREAD_LOCK) {
+                VmThreadMap.ACTIVE.forAllThreadLocals(isSampledThread, collectSampledThread);
+            }
+            if (sampledThreadCount <= sampledThreads.length) {
+                break;
+            }
+            sampledThreads = new VmThread[sampledThreadCount * 2];
+        }
+        for (int i = 0; i < sampledThreadCount; i++) {
+            final VmThread vmThread = sampledThreads[i];
+            sampledThreads[i] = null;
+            // A thread that terminated since it was collected is simply not sampled
+            if (sampleHandshake.execute(vmThread)) {
+                stackTraceGatherer.recordStack(vmThread);
+            }
+        }
+    }
+
     class StackTraceGatherer extends SamplingProfiler.StackTraceGatherer {
 
         StackTraceGatherer(String name) {
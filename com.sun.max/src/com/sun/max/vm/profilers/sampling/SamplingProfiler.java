@@ -47,7 +47,7 @@ import com.sun.max.unsafe.*;
  * Field {@link #workingStackInfo}, of {@link StackInfo} is used to gather the stack for a thread,
  * and an exact-length copy is entered into the map when a new stack is discovered.
  *
- * Note that due to the way the {@link VmOperation} works, all threads will be stopped in a
+ * Note that due to the way a {@link VmOperation} or {@link Handshake} stops a thread, each thread will be stopped in a
  * native method at the time the stack is gathered. Some threads may indeed be blocked
  * on a native method called by the thread. Others will be in the monitor code after
  * taking the trap that starts the thread stopping machinery. These stack frames should not
@@ -351,6 +351,11 @@ public abstract class SamplingProfiler extends Thread {
          */
         private ThreadSample vmOperationThreadSample;
 
+        /**
+         * Reused for every stack walk so that gathering a stack does not allocate.
+         */
+        private final SamplingStackTraceVisitor stackTraceVisitor = new SamplingStackTraceVisitor(null);
+
         /**
          * Gets parameter for {@link SamplingStackTraceVisitor} constructor marking the method in the stack
          * below which the methods should be gathered.
@@ -382,19 +387,33 @@ public abstract class SamplingProfiler extends Thread {
 
         @Override
         public void doThread(VmThread vmThread, Pointer ip, Pointer sp, Pointer fp) {
-            ClassMethodActor classActor = getStackTraceGatheringStartMarker(vmThread);
-            SamplingStackTraceVisitor sstv = new SamplingStackTraceVisitor(classActor);
+            gatherStack(vmThread, ip, sp, fp);
+            recordStack(vmThread);
+        }
+
+        /**
+         * Walks the stack of a stopped thread into {@link SamplingProfiler#workingStackInfo}. This does not allocate
+         * and so can be used while the thread is stopped by a {@link Handshake}.
+         */
+        public void gatherStack(VmThread vmThread, Pointer ip, Pointer sp, Pointer fp) {
+            stackTraceVisitor.reset(getStackTraceGatheringStartMarker(vmThread));
             final VmStackFrameWalker stackFrameWalker = vmThread.samplingProfilerStackFrameWalker();
             workingStackInfo.reset(0);
             workingStackDepth = 0;
             workingStackClearSeen = false;
-            sstv.walk(stackFrameWalker, ip, sp, fp);
+            stackTraceVisitor.walk(stackFrameWalker, ip, sp, fp);
             if (!workingStackClearSeen) {
                 // we may have gathered > maxStackDepth frames; fix that here before we do the lookup
                 if (workingStackDepth > maxStackDepth) {
                     workingStackInfo.reset(maxStackDepth);
                 }
             }
+        }
+
+        /**
+         * Records a sample for a thread whose stack was last {@linkplain #gatherStack gathered}.
+         */
+        public void recordStack(VmThread vmThread) {
             // Have we seen this stack before?
             List<ThreadSample> threadSampleList = stackInfoMap.get(workingStackInfo);
             if (threadSampleList == null) {
@@ -433,6 +452,10 @@ public abstract class SamplingProfiler extends Thread {
             this.stackTraceGatheringStartMarker = stackTraceGatheringStartMarker;
         }
 
+        void reset(ClassMethodActor stackTraceGatheringStartMarker) {
+            this.stackTraceGatheringStartMarker = stackTraceGatheringStartMarker;
+        }
+
         @Override
         public boolean add(ClassMethodActor classMethodActor, int sourceLineNumber) {
             assert classMethodActor != null;
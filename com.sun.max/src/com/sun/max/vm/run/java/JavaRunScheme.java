@@ -47,6 +47,7 @@ import com.sun.max.vm.runtime.FatalError;
 import com.sun.max.vm.runtime.PrintThreads;
 import com.sun.max.vm.thread.VmThread;
 import com.sun.max.vm.ti.VMTI;
+import com.sun.max.vm.type.ClassPreloader;
 import com.sun.max.vm.type.SignatureDescriptor;
 import com.sun.max.vm.type.VMClassLoader;
 import sun.misc.Launcher;
@@ -430,6 +431,7 @@ public class JavaRunScheme extends AbstractVMScheme implements RunScheme {
 
     private Class<?> loadMainClass() throws IOException, ClassNotFoundException {
         final ClassLoader appClassLoader = Launcher.getLauncher().getClassLoader();
+        ClassPreloader.start(appClassLoader);
         return appClassLoader.loadClass(mainClassName);
     }
 
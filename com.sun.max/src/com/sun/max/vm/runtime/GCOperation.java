@@ -50,6 +50,15 @@ public abstract class GCOperation extends VmOperation {
         return true;
     }
 
+    /**
+     * GC worker threads are left running so that they can help the VM operation thread with the parallel phases of
+     * the collection.
+     */
+    @Override
+    protected boolean operateOnThread(VmThread thread) {
+        return !thread.isGCWorkerThread();
+    }
+
     /**
      * Stops the current mutator thread for a garbage collection. Just before stopping, the
      * thread prepares its own stack reference map up to the trap frame. The remainder of the
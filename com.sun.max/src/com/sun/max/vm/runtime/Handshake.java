@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.runtime;
+
+import com.oracle.max.cri.intrinsics.*;
+import com.sun.max.vm.*;
+import com.sun.max.vm.thread.*;
+
+/**
+ * A per-thread handshake: an operation performed on a single mutator thread that is stopped for the duration of the
+ * operation, without involving the {@linkplain VmOperationThread VM operation thread} and without stopping any other
+ * thread.
+ * <p>
+ * The requesting thread {@linkplain #execute(VmThread) executes} the handshake directly. It uses the same per-thread
+ * protocol as a {@link VmOperation} to stop the target: the target's {@linkplain VmThreadLocal#SAFEPOINT_LATCH
+ * safepoint latch} is triggered, and the target is frozen either when it traps at its next
+ * {@linkplain SafepointPoll safepoint poll} or immediately if it is in native code. Once the target is frozen,
+ * {@link #doThread} is applied to it on behalf of the target, with the frame of its last Java method. The target is
+ * then thawed.
+ * <p>
+ * The {@linkplain VmThreadMap#THREAD_LOCK thread lock} is held while a handshake is in progress. This serializes
+ * handshakes with VM operations and with thread termination. As a result, {@link #doThread} must not submit VM
+ * operations, and it should avoid heap allocation, since a garbage collection cannot start while the lock is held.
+ * <p>
+ * Handshake objects are reusable but not thread safe: a given object must only be executed by one thread at a time.
+ */
+public abstract class Handshake extends VmOperation {
+
+    /**
+     * Creates a handshake.
+     *
+     * @param name descriptive name of the handshake, used only for tracing
+     */
+    protected Handshake(String name) {
+        super(name, null, Mode.Safepoint);
+    }
+
+    /**
+     * Performs this handshake with a given thread, blocking until it has completed.
+     *
+     * @param thread the thread to stop, which must not be the current thread or the VM operation thread
+     * @return {@code false} if {@code thread} is not running (i.e. it has not started or has terminated) and so the
+     *         handshake was not performed
+     */
+    public final boolean execute(VmThread thread) {
+        final VmThread current = VmThread.current();
+        FatalError.check(thread != current, "Cannot handshake with the current thread");
+        FatalError.check(!current.isVmOperationThread() && !thread.isVmOperationThread(), "Handshakes cannot involve the VM operation thread");
+
+        synchronized (VmThreadMap.THREAD_LOCK) {
+            if (thread.tla().isZero()) {
+                return false;
+            }
+            freezeThread(thread);
+
+            // Ensures updates to the safepoint related thread locals of the target are visible
+            // before its mutator state is read
+            MemoryBarriers.barrier(MemoryBarriers.STORE_LOAD);
+
+            waitForThreadFreeze(thread);
+            try {
+                callDoThread(thread.tla());
+            } finally {
+                thawThread(thread);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Handshakes are {@linkplain #execute(VmThread) executed} directly by the requesting thread.
+     */
+    @Override
+    public final void submit() {
+        throw FatalError.unexpected("Handshake " + name + " cannot be submitted to the VM operation thread");
+    }
+}
@@ -294,6 +294,13 @@ public class VmThread {
      */
     private boolean jvmtiAgent;
 
+    /**
+     * Marks this as a GC worker thread. These threads are not frozen by {@link GCOperation}s, and
+     * their stack is not scanned for roots, so they must only ever hold references to non-moving, permanently
+     * live objects (i.e., objects in the boot or the immortal heap).
+     */
+    private boolean gcWorker;
+
     /**
      * Holds the exception object for the exception currently being raised. This value will only be
      * non-null during the unwinding process between calls to {@link #storeExceptionForHandler(Throwable, TargetMethod, int)}
@@ -807,6 +814,9 @@ public class VmThread {
 
         // GC may now reclaim or prepare any of its resources before the thread vanishes forever.
         vmConfig().heapScheme().notifyCurrentThreadDetach();
+        if (MaxineVM.allocationProfiler != null) {
+            MaxineVM.allocationProfiler.notifyCurrentThreadDetach();
+        }
 
         synchronized (VmThreadMap.THREAD_LOCK) {
             // It is the monitor scheme's responsibility to ensure that this thread isn't
@@ -1130,6 +1140,22 @@ public class VmThread {
         jvmtiAgent = true;
     }
 
+    /**
+     * Determines if this is a GC worker thread.
+     */
+    public final boolean isGCWorkerThread() {
+        return gcWorker;
+    }
+
+    /**
+     * Marks this thread as a GC worker thread.
+     * The caller must hold the {@linkplain VmThreadMap#THREAD_LOCK thread lock} so that the change cannot
+     * occur while a VM operation is freezing or thawing threads.
+     */
+    public final void setAsGCWorkerThread() {
+        gcWorker = true;
+    }
+
     /**
      * Bind the given {@code Thread} to this VmThread.
      * @param javaThread thread to be bound
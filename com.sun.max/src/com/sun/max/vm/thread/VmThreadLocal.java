@@ -311,6 +311,13 @@ public class VmThreadLocal implements FormatWithToString {
     public static final VmThreadLocal PROFILER_TLA
         = new VmThreadLocal("PROFILER_TLA", false, "points to TLA used for profiler on/off", Nature.Single);
 
+    /**
+     * Off-heap buffer in which the {@link com.sun.max.vm.profilers.allocation.AllocationProfiler} records the
+     * objects allocated by this thread, or zero if the thread has not allocated a profiled object yet.
+     */
+    public static final VmThreadLocal ALLOCATION_PROFILER_BUFFER
+        = new VmThreadLocal("ALLOCATION_PROFILER_BUFFER", false, "per-thread allocation profiler record buffer", Nature.Single);
+
     private static VmThreadLocal[] valuesNeedingInitialization;
 
     /**
@@ -526,6 +533,7 @@ public class VmThreadLocal implements FormatWithToString {
     public static void scanReferences(Pointer tla, PointerIndexVisitor wordPointerIndexVisitor) {
         final VmThread thread = VmThread.fromTLA(tla);
         boolean isVmOperationThread = thread.isVmOperationThread();
+        boolean isGCWorkerThread = thread.isGCWorkerThread();
 
         // Note: as a side effect, this lock serializes stack reference map scanning
         boolean tracing = logStackRootScanning();
@@ -542,7 +550,12 @@ public class VmThreadLocal implements FormatWithToString {
         VMLog.scanLogs(tla, wordPointerIndexVisitor);
 
         Pointer anchor = JavaFrameAnchor.from(tla);
-        if (!anchor.isZero()) {
+        if (isGCWorkerThread) {
+            // GC worker threads aren't stopped during GC and only refer to objects that are never moved or collected.
+            if (tracing) {
+                StackReferenceMapPreparer.stackRootScanLogger.logThreadSlotRange(Pointer.zero(), Pointer.zero(), Pointer.zero());
+            }
+        } else if (!anchor.isZero()) {
             final Pointer lastJavaCallerStackPointer = JavaFrameAnchor.SP.get(anchor);
             final Pointer lowestActiveSlot = LOWEST_ACTIVE_STACK_SLOT_ADDRESS.load(tla);
             final Pointer highestSlot = HIGHEST_STACK_SLOT_ADDRESS.load(tla);
@@ -29,6 +29,7 @@ import static com.sun.max.vm.intrinsics.MaxineIntrinsicIDs.*;
 import java.io.*;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import com.sun.max.annotate.*;
 import com.sun.max.platform.*;
@@ -56,7 +57,13 @@ public final class BootClassLoader extends ClassLoader {
      */
     public static final BootClassLoader BOOT_CLASS_LOADER = new BootClassLoader();
 
-    private Classpath classpath;
+    private volatile Classpath classpath;
+
+    /**
+     * Per class name locks serializing the loading of each class, in the manner of a parallel-capable class loader.
+     * An entry only exists while its class is being loaded.
+     */
+    private final ConcurrentHashMap<String, Object> classLoadingLocks = new ConcurrentHashMap<String, Object>();
 
     /**
      * Map from a package name (in "/" separated format) to the file system path from it was loaded.
@@ -65,11 +72,15 @@ public final class BootClassLoader extends ClassLoader {
 
     public Classpath classpath() {
         if (classpath == null) {
-            String extraPath = null;
-            if (!MaxineVM.isHosted()) {
-                extraPath = VMTI.handler().bootclassPathExtension();
+            synchronized (this) {
+                if (classpath == null) {
+                    String extraPath = null;
+                    if (!MaxineVM.isHosted()) {
+                        extraPath = VMTI.handler().bootclassPathExtension();
+                    }
+                    classpath = Classpath.bootClassPath(extraPath);
+                }
             }
-            classpath = Classpath.bootClassPath(extraPath);
         }
         return classpath;
     }
@@ -116,12 +127,38 @@ public final class BootClassLoader extends ClassLoader {
         return classActor.toJava();
     }
 
-    public synchronized Class<?> findBootstrapClass(String name) {
-        final Class c = findLoadedClass(name);
-        if (c != null) {
-            return c;
+    private Object classLoadingLock(String name) {
+        Object lock = classLoadingLocks.get(name);
+        if (lock == null) {
+            Object newLock = new Object();
+            lock = classLoadingLocks.putIfAbsent(name, newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+        }
+        return lock;
+    }
+
+    public Class<?> findBootstrapClass(String name) {
+        while (true) {
+            final Object lock = classLoadingLock(name);
+            synchronized (lock) {
+                if (classLoadingLocks.get(name) != lock) {
+                    // The lock was released and removed while we were waiting for it: start again with the current lock
+                    continue;
+                }
+                try {
+                    final Class c = findLoadedClass(name);
+                    if (c != null) {
+                        return c;
+                    }
+                    return resolveClassOrNull(classpath(), name);
+                } finally {
+                    // The class is now defined or failed to load
+                    classLoadingLocks.remove(name, lock);
+                }
+            }
         }
-        return resolveClassOrNull(classpath(), name);
     }
 
     private static class VMResolveState extends ThreadLocal<Boolean> {
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package com.sun.max.vm.type;
+
+import static com.sun.max.vm.VMOptions.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.jar.*;
+
+import com.sun.max.vm.*;
+import com.sun.max.vm.actor.holder.*;
+
+/**
+ * Loads and verifies the classes in a set of jar files on worker threads, ahead of demand by the application.
+ * Classes are loaded through the normal path of a given class loader, so they are parsed by the
+ * {@link com.sun.max.vm.classfile.ClassfileReader} and published in the {@link ClassRegistry} exactly as
+ * if they had been loaded on demand. The registry already resolves races between threads defining the same class,
+ * and the {@link BootClassLoader} uses per class name locks, so workers and application threads only wait for
+ * one another when they load the same class.
+ * <p>
+ * A class that fails to load or verify on a worker is skipped. The same error is then raised as usual
+ * if and when the application itself loads or initializes that class.
+ */
+public final class ClassPreloader {
+
+    /**
+     * Number of worker threads preloading classes at startup. Zero disables preloading.
+     */
+    public static int ParallelClassLoadingThreads;
+
+    /**
+     * Jar files to preload, separated by {@link File#pathSeparator}. Defaults to the jar files on the application class path.
+     */
+    public static String ParallelClassLoadingPath;
+
+    /**
+     * Specifies if preloaded classes are also verified.
+     */
+    public static boolean ParallelClassVerification = true;
+
+    static {
+        VMOptions.addFieldOption("-XX:", "ParallelClassLoadingThreads", ClassPreloader.class,
+            "Number of threads loading application classes ahead of demand at startup (0 disables).", MaxineVM.Phase.STARTING);
+        VMOptions.addFieldOption("-XX:", "ParallelClassLoadingPath", ClassPreloader.class,
+            "Jar files loaded ahead of demand by -XX:ParallelClassLoadingThreads (default: the jar files on the class path).", MaxineVM.Phase.STARTING);
+        VMOptions.addFieldOption("-XX:", "ParallelClassVerification", ClassPreloader.class,
+            "Verify classes loaded ahead of demand by -XX:ParallelClassLoadingThreads.", MaxineVM.Phase.STARTING);
+    }
+
+    private final ClassLoader classLoader;
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<String>();
+    private final AtomicInteger loaded = new AtomicInteger();
+    private final AtomicInteger verified = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private ClassPreloader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Starts preloading the classes in the configured jar files through a given class loader, if enabled.
+     * This returns immediately; the work is done by daemon threads.
+     *
+     * @param classLoader the class loader through which the classes are loaded, typically the application class loader
+     */
+    public static void start(ClassLoader classLoader) {
+        if (ParallelClassLoadingThreads <= 0) {
+            return;
+        }
+        String path = ParallelClassLoadingPath;
+        if (path == null) {
+            path = System.getProperty("java.class.path", "");
+        }
+        ClassPreloader preloader = new ClassPreloader(classLoader);
+        for (String entry : path.split(File.pathSeparator)) {
+            if (entry.endsWith(".jar") || entry.endsWith(".zip")) {
+                preloader.addClassNames(new File(entry));
+            }
+        }
+        if (!preloader.pending.isEmpty()) {
+            preloader.startWorkers(ParallelClassLoadingThreads);
+        }
+    }
+
+    private void addClassNames(File file) {
+        try {
+            JarFile jarFile = new JarFile(file);
+            try {
+                Enumeration<JarEntry> entries = jarFile.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (name.endsWith(".class") && !name.startsWith("META-INF/")) {
+                        pending.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+                    }
+                }
+            } finally {
+                jarFile.close();
+            }
+        } catch (IOException e) {
+            // The class loader will report the problem if the application needs this jar
+        }
+    }
+
+    private void startWorkers(int count) {
+        final CountDownLatch done = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            Thread worker = new Thread("ClassPreloader-" + i) {
+                @Override
+                public void run() {
+                    try {
+                        preload();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            };
+            worker.setDaemon(true);
+            worker.start();
+        }
+        if (verboseOption.verboseClass) {
+            final long start = System.nanoTime();
+            Thread reporter = new Thread("ClassPreloaderReporter") {
+                @Override
+                public void run() {
+                    try {
+                        done.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long ms = (System.nanoTime() - start) / 1000000;
+                    Log.println("[Preloaded " + loaded.get() + " classes (" + verified.get() + " verified, " + failed.get() + " failed) in " + ms + " ms]");
+                }
+            };
+            reporter.setDaemon(true);
+            reporter.start();
+        }
+    }
+
+    private void preload() {
+        String name;
+        while ((name = pending.poll()) != null) {
+            Class<?> javaClass;
+            try {
+                javaClass = Class.forName(name, false, classLoader);
+            } catch (Throwable t) {
+                failed.incrementAndGet();
+                continue;
+            }
+            loaded.incrementAndGet();
+            if (ParallelClassVerification && ClassActor.fromJava(javaClass).preVerify()) {
+                verified.incrementAndGet();
+            }
+        }
+    }
+}
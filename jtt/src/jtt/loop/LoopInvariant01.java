@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package jtt.loop;
+
+/*
+ * @Harness: java
+ * @Runs: 0 = 0; 1 = 3; 10 = 201;
+ */
+public class LoopInvariant01 {
+    private int scale = 3;
+    private int bias;
+    public static int test(int arg) {
+        return new LoopInvariant01().sum(arg);
+    }
+    private int sum(int n) {
+        int r = 0;
+        for (int i = 0; i < n; i++) {
+            r += scale * (i + 1) + bias;
+            bias = i;
+        }
+        return r;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package jtt.loop;
+
+/**
+ * Nested and sibling loops with invariant loads and array accesses indexed by induction variables, so that the
+ * enclosing loop of each loop must be computed correctly for the loop optimizations.
+ * @Harness: java
+ * @Runs: 0 = 0; 1 = 2; 3 = 78; 10 = 4670
+ */
+public class LoopNested01 {
+    private int scale = 2;
+    private final int[] data = new int[10];
+
+    public static int test(int n) {
+        return new LoopNested01().run(n);
+    }
+
+    private int run(int n) {
+        int r = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                data[j] = scale * (i + j);
+            }
+            for (int k = 0; k <= i; k++) {
+                r += data[k] + scale;
+            }
+            for (int j = 0; j < n; j++) {
+                for (int k = j; k < n; k++) {
+                    r += data[k] - data[j];
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            r += data[i];
+        }
+        return r;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package jtt.loop;
+
+/**
+ * Runs a loop long enough for its baseline frame to be replaced by OSR code, with a live local of every kind.
+ * Each run returns the difference from the values computed without the loop.
+ * @Harness: java
+ * @Runs: 0 = 0; 1 = 0; 50000 = 0;
+ */
+public class LoopOSR01 {
+    public static int test(int n) {
+        int i0 = 0;
+        long l0 = 0L;
+        float f0 = 0f;
+        double d0 = 0d;
+        byte b0 = 0;
+        char c0 = 'a';
+        boolean z0 = false;
+        String s0 = "osr";
+        int[] a0 = new int[4];
+        Object o0 = null;
+        for (int i = 0; i < n; i++) {
+            i0 += 3;
+            l0 += 0x100000000L;
+            f0 += 0.5f;
+            d0 += 0.25d;
+            b0++;
+            c0 = (char) ('a' + i % 26);
+            z0 = !z0;
+            a0[i & 3]++;
+            if ((i & 1) == 0) {
+                o0 = s0;
+            } else {
+                o0 = a0;
+            }
+        }
+        int diff = 0;
+        diff += i0 - 3 * n;
+        diff += (int) (l0 - 0x100000000L * n);
+        diff += (int) (f0 - 0.5f * n);
+        diff += (int) (d0 - 0.25d * n);
+        diff += b0 - (byte) n;
+        diff += n == 0 ? c0 - 'a' : c0 - ('a' + (n - 1) % 26);
+        diff += z0 == ((n & 1) == 1) ? 0 : 1;
+        diff += a0[0] + a0[1] + a0[2] + a0[3] - n;
+        diff += s0 == "osr" ? 0 : 1;
+        diff += n == 0 ? (o0 == null ? 0 : 1) : (o0 == ((n & 1) == 1 ? (Object) s0 : a0) ? 0 : 1);
+        return diff;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package jtt.optimize;
+
+/**
+ * Tests escape analysis of a locked, non-escaping object whose fields are live in an exception handler.
+ * @Harness: java
+ * @Runs: 0 = 0; 5 = 10; -1 = -100
+ */
+public class EA_Exception01 {
+
+    static final class Box {
+        int value;
+    }
+
+    public static int test(int a) {
+        Box box = new Box();
+        box.value = a;
+        try {
+            synchronized (box) {
+                box.value = a * 2;
+                check(a);
+            }
+        } catch (IllegalArgumentException e) {
+            return box.value * 50;
+        }
+        return box.value;
+    }
+
+    private static void check(int a) {
+        if (a < 0) {
+            throw new IllegalArgumentException();
+        }
+    }
+}
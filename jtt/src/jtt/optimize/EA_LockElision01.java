@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package jtt.optimize;
+
+/**
+ * Tests elision of the locks of non-escaping objects by escape analysis, with nested and repeated locking.
+ * @Harness: java
+ * @Runs: 0 = 2; 1 = 4; 10 = 22; -3 = -4
+ */
+public class EA_LockElision01 {
+
+    static final class Counter {
+        int value;
+    }
+
+    public static int test(int a) {
+        Counter c = new Counter();
+        synchronized (c) {
+            c.value = a + 1;
+            synchronized (c) {
+                c.value += 0;
+            }
+        }
+        synchronized (c) {
+            c.value *= 2;
+        }
+        return c.value;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package jtt.optimize;
+
+/**
+ * Tests scalar replacement of non-escaping allocations by escape analysis, including an object whose field values
+ * differ between paths and an object stored in a field of another non-escaping object.
+ * @Harness: java
+ * @Runs: 0 = 0; 1 = 3; 6 = 30; -4 = -12
+ */
+public class EA_ScalarReplace01 {
+
+    static final class Point {
+        int x;
+        int y;
+    }
+
+    static final class Pair {
+        Point first;
+        long scale;
+    }
+
+    public static int test(int a) {
+        Point p = new Point();
+        p.x = a;
+        p.y = a * 2;
+        Pair pair = new Pair();
+        pair.first = p;
+        pair.scale = 1L;
+        if (a > 5) {
+            p.x += p.y;
+        }
+        return (int) ((pair.first.x + p.y) * pair.scale);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package jtt.optimize;
+
+/**
+ * Trains a virtual call site with two receiver types sharing one implementation so that its method can be recompiled
+ * with a bimorphic type guard, then makes the guard fail repeatedly with a third receiver type.
+ * @Harness: java
+ * @Runs: 0 = 20000; 1 = 23000; 2 = 26000
+ */
+public class TypeGuard_Bimorphic01 {
+
+    static class A {
+        int value() {
+            return 1;
+        }
+    }
+
+    static class B extends A {
+    }
+
+    static class C extends A {
+        @Override
+        int value() {
+            return 3;
+        }
+    }
+
+    static final A a = new A();
+    static final A b = new B();
+    static final A c = new C();
+
+    static int call(A receiver) {
+        return receiver.value();
+    }
+
+    public static int test(int n) {
+        int sum = 0;
+        for (int i = 0; i < 20000; i++) {
+            sum += call((i & 1) == 0 ? a : b);
+        }
+        for (int i = 0; i < n * 1000; i++) {
+            sum += call(c);
+        }
+        return sum;
+    }
+}
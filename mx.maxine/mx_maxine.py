@@ -325,6 +325,19 @@ def suite_classpath():
     result = os.pathsep.join(sanitized_list)
     return result
 
+def heapsnapshot(args):
+    """export or query an offline heap snapshot
+
+    Without a -query option, attach to a VM like the Inspector does (e.g. to a
+    core dump with "-mode=attach -target=file -location=<dump>") and write a
+    snapshot of its heap to the file given by -snapshot. With a -query option,
+    run the query over an existing snapshot without any VM.
+
+    Use "mx heapsnapshot -help" to see what the options and queries are."""
+
+    mx.run_java(['-cp', mx.classpath(), 'com.sun.max.tele.heap.snapshot.HeapSnapshotTool', '-vmdir=' + _vmdir] + args)
+
+
 def inspect(args):
     """launch a given program under the Inspector
 
@@ -1019,6 +1032,7 @@ def mx_init(suite):
         'helloworld': [helloworld, '[VM options]'],
         'inspecthelloworld': [inspecthelloworld, '[VM options]'],
         'image': [image, '[options] classes|packages...'],
+        'heapsnapshot': [heapsnapshot, '[options]'],
         'inspect': [inspect, '[options] [class | -jar jarfile]  [args...]'],
         'inspectoragent': [inspectoragent, '[-impl target] [-port port]'],
         'jnigen': [jnigen, ''],
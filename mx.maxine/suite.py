@@ -292,7 +292,7 @@ suite = {
         },
 
         "com.oracle.max.vma.tools": {
-            "sourceDirs": ["src"],
+            "sourceDirs": ["src", "test"],
             "dependencies": ["com.oracle.max.vm.ext.vma"],
             "checkstyle": "com.sun.max",
             "javaCompliance": "1.7+",
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+/*
+ * @Harness: java
+ * @Runs: 0 = true;
+ */
+package test.bench.threads;
+
+import java.io.*;
+import java.net.*;
+import java.util.jar.*;
+
+import test.bench.util.*;
+
+/**
+ * Startup benchmark for class loading over a large synthetic class path. A jar of {@value #DEFAULT_CLASS_COUNT}
+ * generated classes (set with the {@value #CLASS_COUNT_PROPERTY} property) is written to a temporary file. Each run
+ * then loads and initializes (and hence verifies) all of them through a fresh {@link URLClassLoader}, as an
+ * application does at startup.
+ * <p>
+ * The classes are split between the benchmark threads, so running it with {@value RunBench#THREAD_COUNT_PROPERTY} set
+ * to 1, 2, 4, ... shows how well class loading scales when done in parallel, as with {@code -XX:ParallelClassLoadingThreads}.
+ * The encapsulating benchmark only creates the class loader.
+ */
+public class Class_load01 extends RunBench {
+
+    public static final String CLASS_COUNT_PROPERTY = "test.bench.classcount";
+    public static final int DEFAULT_CLASS_COUNT = 5000;
+
+    private static final int classCount = Integer.getInteger(CLASS_COUNT_PROPERTY, DEFAULT_CLASS_COUNT);
+    private static URL[] classPath;
+
+    protected Class_load01() {
+        super(new Bench(), new EncapBench());
+    }
+
+    public static boolean test(int i) throws IOException {
+        if (classPath == null) {
+            classPath = new URL[] {createJar(classCount).toURI().toURL()};
+        }
+        return new Class_load01().runBench();
+    }
+
+    static class EncapBench extends MicroBenchmark {
+        protected ThreadLocal<URLClassLoader> loader = new ThreadLocal<URLClassLoader>();
+
+        @Override
+        public void prerun() {
+            loader.set(new URLClassLoader(classPath, null));
+        }
+
+        @Override
+        public long run() throws Exception {
+            return defaultResult;
+        }
+    }
+
+    static class Bench extends EncapBench {
+        private final ThreadLocal<Integer> threadIndex = new ThreadLocal<Integer>() {
+            private int next;
+
+            @Override
+            protected synchronized Integer initialValue() {
+                return next++;
+            }
+        };
+
+        @Override
+        public long run() throws Exception {
+            int threads = (int) RunBench.threadCount();
+            URLClassLoader classLoader = loader.get();
+            long result = 0;
+            for (int i = threadIndex.get(); i < classCount; i += threads) {
+                Class<?> c = Class.forName(className(i), true, classLoader);
+                result += c.getName().length();
+            }
+            return result;
+        }
+    }
+
+    static String className(int i) {
+        return "synth.C" + i;
+    }
+
+    /**
+     * Writes a jar containing {@code count} classes. Class {@code synth.Cn} has a default constructor
+     * and a {@code static int f(int)} method so that there is some bytecode to verify.
+     */
+    static File createJar(int count) throws IOException {
+        File file = File.createTempFile("Class_load01", ".jar");
+        file.deleteOnExit();
+        JarOutputStream jar = new JarOutputStream(new FileOutputStream(file));
+        try {
+            for (int i = 0; i < count; i++) {
+                jar.putNextEntry(new JarEntry(className(i).replace('.', '/') + ".class"));
+                jar.write(createClassfile(className(i).replace('.', '/'), i));
+                jar.closeEntry();
+            }
+        } finally {
+            jar.close();
+        }
+        return file;
+    }
+
+    private static byte[] createClassfile(String name, int n) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(49);
+
+        // constant pool
+        out.writeShort(12);
+        utf8(out, name);                // #1
+        out.writeByte(7);               // #2 Class #1
+        out.writeShort(1);
+        utf8(out, "java/lang/Object");  // #3
+        out.writeByte(7);               // #4 Class #3
+        out.writeShort(3);
+        utf8(out, "<init>");            // #5
+        utf8(out, "()V");               // #6
+        out.writeByte(12);              // #7 NameAndType #5 #6
+        out.writeShort(5);
+        out.writeShort(6);
+        out.writeByte(10);              // #8 Methodref #4 #7
+        out.writeShort(4);
+        out.writeShort(7);
+        utf8(out, "Code");              // #9
+        utf8(out, "f");                 // #10
+        utf8(out, "(I)I");              // #11
+
+        out.writeShort(0x0021);         // ACC_PUBLIC | ACC_SUPER
+        out.writeShort(2);
+        out.writeShort(4);
+        out.writeShort(0);              // interfaces
+        out.writeShort(0);              // fields
+        out.writeShort(2);              // methods
+
+        // public <init>()V { aload_0; invokespecial Object.<init>; return }
+        out.writeShort(0x0001);
+        out.writeShort(5);
+        out.writeShort(6);
+        out.writeShort(1);
+        out.writeShort(9);
+        out.writeInt(17);
+        out.writeShort(1);
+        out.writeShort(1);
+        out.writeInt(5);
+        out.write(new byte[] {0x2a, (byte) 0xb7, 0x00, 0x08, (byte) 0xb1});
+        out.writeShort(0);
+        out.writeShort(0);
+
+        // public static f(I)I { iload_0; sipush n; iadd; ireturn }
+        out.writeShort(0x0009);
+        out.writeShort(10);
+        out.writeShort(11);
+        out.writeShort(1);
+        out.writeShort(9);
+        out.writeInt(18);
+        out.writeShort(2);
+        out.writeShort(1);
+        out.writeInt(6);
+        out.write(new byte[] {0x1a, 0x11, (byte) ((n >> 8) & 0x7f), (byte) n, 0x60, (byte) 0xac});
+        out.writeShort(0);
+        out.writeShort(0);
+
+        out.writeShort(0);              // class attributes
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    private static void utf8(DataOutputStream out, String s) throws IOException {
+        out.writeByte(1);
+        out.writeUTF(s);
+    }
+
+    // for running stand-alone
+    public static void main(String[] args) throws IOException {
+        test(0);
+    }
+}
@@ -35,6 +35,10 @@ public class Monitor_enter01 extends RunBench {
         super(new Bench(), new EncapBench());
     }
 
+    protected Monitor_enter01(MicroBenchmark bench, MicroBenchmark encap) {
+        super(bench, encap);
+    }
+
     public static boolean test(int i) {
         return new Monitor_enter01().runBench();
     }
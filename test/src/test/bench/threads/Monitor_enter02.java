@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+/*
+ * @Harness: java
+ * @Runs: 0 = true
+ */
+package test.bench.threads;
+
+import test.bench.util.*;
+
+/**
+ * A variant of {@link Monitor_enter01} that measures contended monitor entry. Each run enters a shared monitor
+ * repeatedly and holds it for a short critical section. When run with several threads (see
+ * {@link RunBench#THREAD_COUNT_PROPERTY}) the threads regularly find the monitor held, and must either spin until
+ * the owner releases it or park on it. Run with {@code -XX:+PrintMonitorStatistics} to see how the contended
+ * acquisitions were satisfied, and with {@code -XX:-AdaptiveMonitorSpin} for the parking-only baseline.
+ */
+public class Monitor_enter02 extends Monitor_enter01 {
+
+    /**
+     * The number of monitor entries per run.
+     */
+    static final int ENTRIES = 100;
+
+    /**
+     * The number of array elements updated in each critical section.
+     */
+    static final int CRITICAL_SECTION_LENGTH = 16;
+
+    protected Monitor_enter02() {
+        super(new Bench(), new EncapBench());
+    }
+
+    public static boolean test(int i) {
+        return new Monitor_enter02().runBench();
+    }
+
+    static class Bench extends MicroBenchmark {
+        private final int[] data = new int[CRITICAL_SECTION_LENGTH];
+
+        @Override
+        public long run() {
+            for (int i = 0; i < ENTRIES; i++) {
+                synchronized (this) {
+                    for (int j = 0; j < data.length; j++) {
+                        data[j]++;
+                    }
+                }
+            }
+            return defaultResult + data[0];
+        }
+    }
+
+    static class EncapBench extends MicroBenchmark {
+        private final int[] data = new int[CRITICAL_SECTION_LENGTH];
+
+        @Override
+        public long run() {
+            for (int i = 0; i < ENTRIES; i++) {
+                for (int j = 0; j < data.length; j++) {
+                    data[j]++;
+                }
+            }
+            return defaultResult + data[0];
+        }
+    }
+
+    // for running stand-alone
+    public static void main(String[] args) {
+        RunBench.runTest(Monitor_enter02.class, args);
+    }
+}
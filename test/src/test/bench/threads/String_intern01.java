@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+/*
+ * @Harness: java
+ * @Runs: 0 = true;
+ */
+package test.bench.threads;
+
+import test.bench.util.*;
+
+/**
+ * This benchmark is intended to be run in multi-threaded mode to measure contention on the
+ * VM's string intern table, which also holds the symbols created by class loading.
+ * Run it with {@value RunBench#THREAD_COUNT_PROPERTY} set to 1, 2, 4, 8, 16 and 32 to compare scaling.
+ *
+ * All threads intern the same set of distinct strings, so every call after the first run finds an existing entry,
+ * which is the common case for intern-heavy application code. The encapsulating benchmark measures the cost of
+ * selecting the next string without interning it.
+ */
+public class String_intern01 extends RunBench {
+
+    private static final int KEY_COUNT = 4096;
+
+    protected String_intern01() {
+        super(new Bench(), new EncapBench());
+    }
+
+    public static boolean test(int i) {
+        return new String_intern01().runBench();
+    }
+
+    static String[] createKeys() {
+        String[] keys = new String[KEY_COUNT];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new String("String_intern01.key" + i);
+        }
+        return keys;
+    }
+
+    static class Bench extends MicroBenchmark {
+        protected final String[] keys = createKeys();
+        protected final ThreadLocal<int[]> cursor = new ThreadLocal<int[]>() {
+            @Override
+            public int[] initialValue() {
+                return new int[1];
+            }
+        };
+
+        protected String nextKey() {
+            int[] c = cursor.get();
+            String key = keys[c[0]];
+            c[0] = (c[0] + 1) & (KEY_COUNT - 1);
+            return key;
+        }
+
+        @Override
+        public long run() {
+            return nextKey().intern().length();
+        }
+    }
+
+    static class EncapBench extends Bench {
+        @Override
+        public long run() {
+            return nextKey().length();
+        }
+    }
+
+    // for running stand-alone
+    public static void main(String[] args) {
+        RunBench.runTest(String_intern01.class, args);
+    }
+}
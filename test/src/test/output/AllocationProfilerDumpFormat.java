@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package test.output;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+/**
+ * Checks the binary format of the Allocation Profiler's dump file. Run it with the {@code allocprofiler-dump}
+ * maxvm configuration, which streams the profiler's records to the file named by the
+ * {@code test.output.AllocationProfilerDumpFile} system property. The explicit GC dumps the objects allocated
+ * before it followed by the survivors of the GC, which the test then parses back. Without that property (e.g. on
+ * the reference VM) there is no dump to check and the test prints the expected results.
+ */
+public class AllocationProfilerDumpFormat {
+
+    static final int MAGIC = 0x4d584150;
+    static final int VERSION = 1;
+
+    static final byte TAG_CLASS = 1;
+    static final byte TAG_OBJECT = 2;
+    static final byte TAG_CYCLE_END = 3;
+
+    static final int OBJECTS = 1000;
+
+    static class Marker {
+        int value;
+    }
+
+    static Marker[] markers;
+
+    public static void main(String[] args) throws IOException {
+        markers = new Marker[OBJECTS];
+        for (int i = 0; i < OBJECTS; i++) {
+            markers[i] = new Marker();
+            markers[i].value = i;
+        }
+        System.gc();
+
+        final String path = System.getProperty("test.output.AllocationProfilerDumpFile");
+        if (path == null) {
+            check("header", true);
+            check("entries", true);
+            check("allocated markers", true);
+            check("surviving markers", true);
+            return;
+        }
+
+        final ByteBuffer dump = ByteBuffer.wrap(read(new File(path))).order(ByteOrder.nativeOrder());
+        check("header", dump.remaining() >= 8 && dump.getInt() == MAGIC && dump.getInt() == VERSION);
+
+        final Map<Integer, String> classes = new HashMap<Integer, String>();
+        // The objects recorded since the last cycle end must all belong to the cycle and kind it ends
+        final List<int[]> pending = new ArrayList<int[]>();
+        int allocatedMarkers = 0;
+        int survivingMarkers = 0;
+        boolean entries = true;
+        while (entries && dump.hasRemaining()) {
+            final byte tag = dump.get();
+            if (tag == TAG_CLASS) {
+                if (dump.remaining() < 8) {
+                    break;
+                }
+                final int classId = dump.getInt();
+                final int length = dump.getInt();
+                if (length < 0 || dump.remaining() < length * 2) {
+                    entries = length >= 0;
+                    break;
+                }
+                final char[] name = new char[length];
+                for (int i = 0; i < length; i++) {
+                    name[i] = dump.getChar();
+                }
+                entries = classes.put(classId, new String(name)) == null;
+            } else if (tag == TAG_OBJECT) {
+                if (dump.remaining() < 8 * 4 + 2 * 8) {
+                    break;
+                }
+                final int cycle = dump.getInt();
+                final int isAllocation = dump.getInt();
+                dump.getInt(); // id
+                dump.getInt(); // threadId
+                final int classId = dump.getInt();
+                final int size = dump.getInt();
+                dump.getInt(); // node
+                dump.getInt(); // coreId
+                dump.getLong(); // timestamp
+                final long address = dump.getLong();
+                final String name = classes.get(classId);
+                entries = name != null && size > 0 && address != 0 && (isAllocation == 0 || isAllocation == 1);
+                if (entries && name.endsWith("Marker")) {
+                    if (isAllocation == 1) {
+                        allocatedMarkers++;
+                    } else {
+                        survivingMarkers++;
+                    }
+                }
+                pending.add(new int[] {cycle, isAllocation});
+            } else if (tag == TAG_CYCLE_END) {
+                if (dump.remaining() < 8) {
+                    break;
+                }
+                final int cycle = dump.getInt();
+                final int isAllocation = dump.getInt();
+                for (int[] object : pending) {
+                    entries &= object[0] == cycle && object[1] == isAllocation;
+                }
+                pending.clear();
+            } else {
+                entries = false;
+            }
+        }
+        // A GC after the one above may have left a partially written dump at the end of the file
+        check("entries", entries);
+        check("allocated markers", allocatedMarkers >= OBJECTS);
+        check("surviving markers", survivingMarkers >= OBJECTS);
+    }
+
+    static byte[] read(File file) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final InputStream in = new FileInputStream(file);
+        try {
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, n);
+            }
+        } finally {
+            in.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    static void check(String what, boolean ok) {
+        System.out.println(what + (ok ? ": ok" : ": FAILED"));
+    }
+}
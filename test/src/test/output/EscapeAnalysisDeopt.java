@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package test.output;
+
+/**
+ * Deoptimizes a method while a scalar replaced object is live and its elided lock is held, so that the object must
+ * be materialized and relocked. Run it with the {@code escape-analysis} maxvm configuration. {@link #compute} inlines
+ * {@link Base#value()} as long as {@link Sub} is not loaded, and loading {@link Sub} from within {@link #compute}
+ * invalidates the active frame.
+ */
+public class EscapeAnalysisDeopt {
+
+    static class Base {
+        int value() {
+            return 1;
+        }
+    }
+
+    static class Sub extends Base {
+        @Override
+        int value() {
+            return 100;
+        }
+    }
+
+    static final class Box {
+        int x;
+        long y;
+        Object tag;
+    }
+
+    static boolean loadSub;
+
+    public static void main(String[] args) {
+        final Base base = new Base();
+        int sum = 0;
+        for (int i = 0; i < 10000; i++) {
+            sum += compute(base, i);
+        }
+        System.out.println("before invalidation: " + sum);
+        loadSub = true;
+        System.out.println("during invalidation: " + compute(base, 7));
+        System.out.println("after invalidation: " + compute(newSub(), 7));
+    }
+
+    static int compute(Base base, int n) {
+        final Box box = new Box();
+        box.x = n;
+        box.y = n * 3L;
+        box.tag = base;
+        int r;
+        synchronized (box) {
+            box.x += 2;
+            if (loadSub) {
+                loadSubclass();
+            }
+            r = base.value() + box.x + (int) box.y + (box.tag == base ? 1000 : 0);
+        }
+        return r;
+    }
+
+    /**
+     * Loads {@link Sub} by name. No method refers to it directly, so that verification never loads it early.
+     */
+    static Class<?> loadSubclass() {
+        try {
+            return Class.forName(EscapeAnalysisDeopt.class.getName() + "$Sub");
+        } catch (ClassNotFoundException e) {
+            throw new InternalError(e.toString());
+        }
+    }
+
+    static Base newSub() {
+        try {
+            return (Base) loadSubclass().newInstance();
+        } catch (Exception e) {
+            throw new InternalError(e.toString());
+        }
+    }
+}
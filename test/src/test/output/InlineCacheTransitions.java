@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package test.output;
+
+/**
+ * Drives a single interface call site through the monomorphic, polymorphic and megamorphic inline cache states,
+ * with garbage collections in between. Run it with the {@code inline-caches} maxvm configuration so that the call
+ * site is compiled by the optimizing compiler on the target VM.
+ */
+public class InlineCacheTransitions {
+
+    interface I {
+        int value();
+    }
+
+    static class K1 implements I {
+        public int value() {
+            return 1;
+        }
+    }
+
+    static class K2 implements I {
+        public int value() {
+            return 2;
+        }
+    }
+
+    static class K3 implements I {
+        public int value() {
+            return 3;
+        }
+    }
+
+    static class K4 implements I {
+        public int value() {
+            return 4;
+        }
+    }
+
+    static class K5 implements I {
+        public int value() {
+            return 5;
+        }
+    }
+
+    static class K6 implements I {
+        public int value() {
+            return 6;
+        }
+    }
+
+    static final I[] receivers = {new K1(), new K2(), new K3(), new K4(), new K5(), new K6()};
+
+    public static void main(String[] args) {
+        run("monomorphic", 1);
+        run("polymorphic", 3);
+        run("megamorphic", receivers.length);
+        run("megamorphic again", 1);
+    }
+
+    private static void run(String phase, int n) {
+        int sum = 0;
+        for (int round = 0; round < 10000; round++) {
+            for (int i = 0; i < n; i++) {
+                sum += call(receivers[i]);
+            }
+        }
+        System.gc();
+        System.out.println(phase + ": " + sum);
+    }
+
+    private static int call(I receiver) {
+        return receiver.value();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package test.output;
+
+/**
+ * Contends on a set of monitors, hashes them, and leaves them idle between rounds so that they are inflated and then
+ * deflated concurrently while other threads are entering them. Run it with the {@code deflate} maxvm configuration,
+ * which deflates idle monitors every millisecond, on images built with each monitor scheme.
+ */
+public class MonitorDeflation {
+
+    static final int THREADS = 4;
+    static final int ROUNDS = 20;
+    static final int ITERATIONS = 2000;
+
+    static final Object[] locks = new Object[16];
+    static final int[] hashes = new int[locks.length];
+    static final int[] counts = new int[locks.length];
+
+    public static void main(String[] args) throws Exception {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        boolean stableHashes = true;
+        for (int round = 0; round < ROUNDS; round++) {
+            final Thread[] threads = new Thread[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                final int offset = t;
+                threads[t] = new Thread() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < ITERATIONS; i++) {
+                            final int index = (i + offset) % locks.length;
+                            synchronized (locks[index]) {
+                                counts[index]++;
+                            }
+                        }
+                    }
+                };
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            // Hash the monitors while they are contended
+            for (int i = 0; i < locks.length; i++) {
+                final int hash = System.identityHashCode(locks[i]);
+                if (round == 0) {
+                    hashes[i] = hash;
+                } else if (hashes[i] != hash) {
+                    stableHashes = false;
+                }
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            // Let the idle monitors be deflated
+            Thread.sleep(10);
+        }
+        int total = 0;
+        for (int i = 0; i < locks.length; i++) {
+            synchronized (locks[i]) {
+                total += counts[i];
+            }
+        }
+        System.out.println("total: " + total);
+        System.out.println("stable hashes: " + stableHashes);
+    }
+}
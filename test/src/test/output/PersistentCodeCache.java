@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2019, APT Group, School of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package test.output;
+
+import java.io.*;
+
+/**
+ * Exercises code that embeds values specific to one VM run: class ids used by type checks and interface
+ * dispatch, static final fields initialized at run time, and object constants. Run it with the
+ * {@code pcc-save} and then the {@code pcc-reuse} maxvm configurations, so that the second VM is offered the
+ * optimized code saved by the first. Each run loads the classes below in the opposite order from the
+ * previous one, so their ids differ between the two VMs.
+ */
+public class PersistentCodeCache {
+
+    interface Shape {
+        int sides();
+    }
+
+    static class Triangle implements Shape {
+        public int sides() {
+            return 3;
+        }
+    }
+
+    static class Square implements Shape {
+        public int sides() {
+            return 4;
+        }
+    }
+
+    static final class Values {
+        static final String NAME = new String("persistent");
+        static final long STAMP = System.nanoTime();
+    }
+
+    public static void main(String[] args) throws Exception {
+        File marker = new File(System.getProperty("java.io.tmpdir"), "maxine-persistent-code-cache-order");
+        Shape[] shapes = new Shape[2];
+        if (marker.delete()) {
+            shapes[1] = new Square();
+            shapes[0] = new Triangle();
+        } else {
+            marker.createNewFile();
+            shapes[0] = new Triangle();
+            shapes[1] = new Square();
+        }
+        for (int i = 0; i < 10000; i++) {
+            check(shapes, i == 0);
+        }
+        System.out.println("literal identity: " + literalIdentity("persistent".intern()));
+        System.out.println("runtime final name identity: " + (Values.NAME == Values.class.getDeclaredField("NAME").get(null)));
+        System.out.println("runtime final stamp: " + (Values.STAMP == Values.class.getDeclaredField("STAMP").getLong(null)));
+    }
+
+    private static void check(Shape[] shapes, boolean print) {
+        for (Object shape : shapes) {
+            boolean isTriangle = shape instanceof Triangle;
+            boolean isSquare = shape instanceof Square;
+            int sides = ((Shape) shape).sides();
+            if (print) {
+                System.out.println(shape.getClass().getSimpleName() + ": triangle=" + isTriangle + " square=" + isSquare + " sides=" + sides);
+            }
+        }
+    }
+
+    private static boolean literalIdentity(String s) {
+        return s == "persistent";
+    }
+}